@@ -0,0 +1,195 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.jmh;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.CFACreator;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.Specification;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.CPAFactory;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
+import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
+import org.sosy_lab.cpachecker.core.reachedset.AggregatedReachedSets;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
+import org.sosy_lab.cpachecker.exceptions.CPATransferException;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+/**
+ * Base class for benchmarks of {@link TransferRelation#getAbstractSuccessorsForEdge}.
+ *
+ * <p>During setup, the program is parsed once into a {@link CFA}, and the CFA is explored with the
+ * transfer relation of the analysis (visiting each CFA node once) to collect a list of transitions
+ * consisting of abstract state, precision, and CFA edge. The benchmark then measures the throughput
+ * of computing the successors for all of these transitions. Run with the GC profiler (as done by
+ * the Ant target {@code run-jmh}) to see the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xss1024k", "-Xmx2g", "-ea"})
+public abstract class TransferRelationBenchmark {
+
+  private static final String PROGRAM_DIRECTORY = "test/programs/simple/";
+
+  /** Upper bound for the number of transitions that are collected during setup. */
+  private static final int MAX_TRANSITIONS = 2000;
+
+  @Param({"loop1.c", "locking_correct.c", "interval.c", "sll.c"})
+  public String program;
+
+  private TransferRelation transferRelation;
+  private List<Transition> transitions;
+
+  private static class Transition {
+    private final AbstractState state;
+    private final Precision precision;
+    private final CFAEdge edge;
+
+    private Transition(AbstractState pState, Precision pPrecision, CFAEdge pEdge) {
+      state = pState;
+      precision = pPrecision;
+      edge = pEdge;
+    }
+  }
+
+  /** Return the factory for the analysis whose transfer relation should be measured. */
+  protected abstract CPAFactory getFactory();
+
+  /** Return configuration options that are necessary for the analysis. */
+  protected Map<String, String> getOptions() {
+    return ImmutableMap.of();
+  }
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .setOption("cfa.findLiveVariables", "true")
+            .setOptions(getOptions())
+            .build();
+    LogManager logger = LogManager.createNullLogManager();
+    ShutdownNotifier shutdownNotifier = ShutdownNotifier.createDummy();
+
+    CFA cfa =
+        new CFACreator(config, logger, shutdownNotifier)
+            .parseFileAndCreateCFA(ImmutableList.of(PROGRAM_DIRECTORY + program));
+
+    ConfigurableProgramAnalysis cpa =
+        getFactory()
+            .setLogger(logger)
+            .setConfiguration(config)
+            .setShutdownNotifier(shutdownNotifier)
+            .set(new ReachedSetFactory(config, logger), ReachedSetFactory.class)
+            .set(cfa, CFA.class)
+            .set(Specification.alwaysSatisfied(), Specification.class)
+            .set(new AggregatedReachedSets(), AggregatedReachedSets.class)
+            .createInstance();
+
+    transferRelation = cpa.getTransferRelation();
+    transitions = collectTransitions(cfa, cpa);
+  }
+
+  /** Explore the CFA once with the analysis and collect all visited transitions. */
+  private List<Transition> collectTransitions(CFA cfa, ConfigurableProgramAnalysis cpa)
+      throws InterruptedException {
+    CFANode mainEntry = cfa.getMainFunction();
+    StateSpacePartition partition = StateSpacePartition.getDefaultPartition();
+    Precision precision = cpa.getInitialPrecision(mainEntry, partition);
+
+    List<Transition> result = new ArrayList<>();
+    Set<CFANode> visited = new HashSet<>();
+    Deque<CFANode> waitlistNodes = new ArrayDeque<>();
+    Deque<AbstractState> waitlistStates = new ArrayDeque<>();
+    visited.add(mainEntry);
+    waitlistNodes.add(mainEntry);
+    waitlistStates.add(cpa.getInitialState(mainEntry, partition));
+
+    while (!waitlistNodes.isEmpty() && result.size() < MAX_TRANSITIONS) {
+      CFANode node = waitlistNodes.poll();
+      AbstractState state = waitlistStates.poll();
+      for (CFAEdge edge : CFAUtils.leavingEdges(node)) {
+        Collection<? extends AbstractState> successors;
+        try {
+          successors = transferRelation.getAbstractSuccessorsForEdge(state, precision, edge);
+        } catch (CPATransferException e) {
+          // some edges (e.g., unsupported features of an analysis) are simply not measured
+          continue;
+        }
+        result.add(new Transition(state, precision, edge));
+        CFANode successorNode = edge.getSuccessor();
+        for (AbstractState successor : successors) {
+          if (visited.add(successorNode)) {
+            waitlistNodes.add(successorNode);
+            waitlistStates.add(successor);
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  @Benchmark
+  public void getAbstractSuccessorsForEdge(Blackhole blackhole)
+      throws CPATransferException, InterruptedException {
+    for (Transition transition : transitions) {
+      blackhole.consume(
+          transferRelation.getAbstractSuccessorsForEdge(
+              transition.state, transition.precision, transition.edge));
+    }
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.jmh;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.waitlist.AbstractSortedWaitlist;
+import org.sosy_lab.cpachecker.core.waitlist.HeapWaitlist;
+import org.sosy_lab.cpachecker.core.waitlist.StateScore;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
+
+/**
+ * Benchmark for {@link HeapWaitlist} compared to nested {@link AbstractSortedWaitlist}s
+ * that implement the same order.
+ *
+ * <p>The states have two synthetic sort keys (similar to callstack depth and reverse-postorder
+ * ID). Each benchmark invocation adds all states to a fresh waitlist, removes every third state
+ * (as done by {@code ReachedSet.remove} during refinements), and pops the remaining states. Run
+ * with the GC profiler (as done by the Ant target {@code run-jmh}) to see the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xss1024k", "-Xmx2g"})
+public class WaitlistBenchmark {
+
+  private static class BenchmarkState implements AbstractState {
+    private final int primaryKey;
+    private final int secondaryKey;
+
+    private BenchmarkState(int pPrimaryKey, int pSecondaryKey) {
+      primaryKey = pPrimaryKey;
+      secondaryKey = pSecondaryKey;
+    }
+  }
+
+  private static final StateScore PRIMARY = s -> ((BenchmarkState) s).primaryKey;
+  private static final StateScore SECONDARY = s -> ((BenchmarkState) s).secondaryKey;
+
+  private static class SortedWaitlist extends AbstractSortedWaitlist<Integer> {
+    private final StateScore score;
+
+    private SortedWaitlist(WaitlistFactory pSecondaryStrategy, StateScore pScore) {
+      super(pSecondaryStrategy);
+      score = pScore;
+    }
+
+    @Override
+    protected Integer getSortKey(AbstractState pState) {
+      return score.getScore(pState);
+    }
+  }
+
+  @Param({"1000", "100000"})
+  public int size;
+
+  /** Number of different values of the primary and secondary keys. */
+  @Param({"10", "1000"})
+  public int keys;
+
+  private List<AbstractState> states;
+
+  private WaitlistFactory sortedFactory;
+  private WaitlistFactory heapFactory;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    Random random = new Random(0);
+    states = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      states.add(new BenchmarkState(random.nextInt(keys), random.nextInt(keys)));
+    }
+
+    WaitlistFactory secondary = () -> new SortedWaitlist(TraversalMethod.DFS, SECONDARY);
+    sortedFactory = () -> new SortedWaitlist(secondary, PRIMARY);
+    heapFactory = HeapWaitlist.factory(ImmutableList.of(PRIMARY, SECONDARY), TraversalMethod.DFS);
+  }
+
+  private void run(Waitlist waitlist, Blackhole blackhole) {
+    for (AbstractState state : states) {
+      waitlist.add(state);
+    }
+    for (int i = 0; i < size; i += 3) {
+      blackhole.consume(waitlist.remove(states.get(i)));
+    }
+    while (!waitlist.isEmpty()) {
+      blackhole.consume(waitlist.pop());
+    }
+  }
+
+  @Benchmark
+  public void nestedSortedWaitlists(Blackhole blackhole) {
+    run(sortedFactory.createWaitlistInstance(), blackhole);
+  }
+
+  @Benchmark
+  public void heapWaitlist(Blackhole blackhole) {
+    run(heapFactory.createWaitlistInstance(), blackhole);
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.jmh;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.CFACreator;
+import org.sosy_lab.cpachecker.cfa.CProgramScope;
+import org.sosy_lab.cpachecker.cpa.automaton.Automaton;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonGraphmlParser;
+import org.sosy_lab.cpachecker.util.SpecificationProperty.PropertyType;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+/**
+ * Benchmark for {@link AutomatonGraphmlParser} on a large synthetic violation witness.
+ *
+ * <p>During setup, a witness with the given number of states is written that unrolls the loop of
+ * the program {@value #PROGRAM} and contains line numbers, branching information, and assumptions,
+ * as produced by typical verifiers and test generators. The benchmark measures the time for
+ * parsing the witness into an automaton. Run with the GC profiler (as done by the Ant target
+ * {@code run-jmh}) to see the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xss1024k", "-Xmx4g", "-ea"})
+public class WitnessParserBenchmark {
+
+  private static final String PROGRAM = "test/programs/simple/loop1.c";
+
+  /** Source lines of the loop body of {@value #PROGRAM} that are repeated by the witness. */
+  private static final int[] LOOP_LINES = {8, 9, 12, 14, 15};
+
+  @Param({"10000", "100000"})
+  public int states;
+
+  private AutomatonGraphmlParser parser;
+  private Path witness;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .setOption("witness.checkProgramHash", "false")
+            .setOption("witness.strictChecking", "false")
+            .build();
+    LogManager logger = LogManager.createNullLogManager();
+
+    CFA cfa =
+        new CFACreator(config, logger, ShutdownNotifier.createDummy())
+            .parseFileAndCreateCFA(ImmutableList.of(PROGRAM));
+    parser = new AutomatonGraphmlParser(config, logger, cfa, new CProgramScope(cfa, logger));
+
+    witness = Files.createTempFile("witness", ".graphml");
+    writeWitness(witness, states);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(witness);
+  }
+
+  private static void writeWitness(Path pFile, int pStates) throws IOException {
+    try (Writer w = Files.newBufferedWriter(pFile, StandardCharsets.UTF_8)) {
+      w.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n");
+      w.write("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n");
+      w.write(" <graph edgedefault=\"directed\">\n");
+      w.write("  <data key=\"witness-type\">violation_witness</data>\n");
+      w.write("  <data key=\"sourcecodelang\">C</data>\n");
+      w.write("  <data key=\"producer\">WitnessParserBenchmark</data>\n");
+      w.write("  <data key=\"programfile\">" + PROGRAM + "</data>\n");
+      w.write("  <node id=\"N0\">\n   <data key=\"entry\">true</data>\n  </node>\n");
+      for (int i = 1; i < pStates; i++) {
+        if (i == pStates - 1) {
+          w.write("  <node id=\"N" + i + "\">\n");
+          w.write("   <data key=\"violation\">true</data>\n  </node>\n");
+        } else {
+          w.write("  <node id=\"N" + i + "\"/>\n");
+        }
+        int line = LOOP_LINES[i % LOOP_LINES.length];
+        w.write("  <edge id=\"E" + i + "\" source=\"N" + (i - 1) + "\" target=\"N" + i + "\">\n");
+        w.write("   <data key=\"startline\">" + line + "</data>\n");
+        if (line == 9) {
+          w.write("   <data key=\"control\">condition-false</data>\n");
+        } else if (line == 12) {
+          w.write("   <data key=\"assumption\">i == " + (i / LOOP_LINES.length) + ";</data>\n");
+        }
+        w.write("  </edge>\n");
+      }
+      w.write(" </graph>\n");
+      w.write("</graphml>\n");
+    }
+  }
+
+  @Benchmark
+  public ImmutableList<Automaton> parseWitness() throws InvalidConfigurationException {
+    return ImmutableList.copyOf(
+        parser.parseAutomatonFile(witness, ImmutableSet.of(PropertyType.REACHABILITY_LABEL)));
+  }
+}
@@ -25,15 +25,11 @@ package org.sosy_lab.cpachecker.cfa;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterables;
-import com.google.common.io.MoreFiles;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
-import java.io.OutputStream;
 import java.io.PrintStream;
 import java.io.Writer;
 import java.nio.charset.Charset;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -44,7 +40,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.logging.Level;
-import java.util.zip.GZIPOutputStream;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.Concurrency;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
@@ -205,6 +201,18 @@ public class CFACreator {
   @FileOption(FileOption.Type.OUTPUT_FILE)
   private Path serializeCfaFile = Paths.get("cfa.ser.gz");
 
+  @Option(
+    secure = true,
+    name = "cfa.deserializeFile",
+    description =
+        "load the CFA from a file that was written with cfa.serialize instead of parsing"
+            + " the program files (the same CFA-related options need to be used for both runs)."
+            + " The file contains the gzip-compressed Java serialization of the whole CFA,"
+            + " which is always loaded completely."
+  )
+  @FileOption(FileOption.Type.OPTIONAL_INPUT_FILE)
+  private @Nullable Path deserializeCfaFile = null;
+
   @Option(
     secure = true,
     name = "cfa.pixelGraphicFile",
@@ -289,6 +297,7 @@ private boolean classifyNodes = false;
     private final Timer checkTime = new Timer();
     private final Timer processingTime = new Timer();
     private final Timer exportTime = new Timer();
+    private final Timer deserializationTime = new Timer();
     private final List<Statistics> statisticsCollection;
     private final LogManager logger;
 
@@ -306,6 +315,9 @@ private boolean classifyNodes = false;
     public void printStatistics(PrintStream out, Result pResult, UnmodifiableReachedSet pReached) {
       out.println("  Time for loading parser:    " + parserInstantiationTime);
       out.println("  Time for CFA construction:  " + totalTime);
+      if (deserializationTime.getNumberOfIntervals() > 0) {
+        out.println("    Time for CFA loading:     " + deserializationTime);
+      }
       out.println("    Time for parsing file(s): " + parsingTime);
       out.println("    Time for AST to CFA:      " + conversionTime);
       out.println("    Time for CFA sanity check:" + checkTime);
@@ -419,6 +431,10 @@ private boolean classifyNodes = false;
 
     stats.totalTime.start();
     try {
+      if (deserializeCfaFile != null) {
+        return loadSerializedCFA(deserializeCfaFile, sourceFiles);
+      }
+
       // FIRST, parse file(s) and create CFAs for each function
       logger.log(Level.FINE, "Starting parsing of file(s)");
 
@@ -446,6 +462,62 @@ private boolean classifyNodes = false;
     }
   }
 
+  /**
+   * Load a CFA that was serialized by a previous run instead of parsing the program. All
+   * post-processing steps are skipped, because they are already contained in the serialized CFA.
+   *
+   * @throws InvalidConfigurationException If the serialized CFA was not created for the given
+   *     source files and the current configuration.
+   */
+  private CFA loadSerializedCFA(Path pFile, List<String> pSourceFiles)
+      throws InvalidConfigurationException, IOException {
+    logger.log(Level.FINE, "Loading serialized CFA from", pFile);
+    stats.deserializationTime.start();
+    final CFA cfa;
+    try {
+      cfa = CFASerialization.read(pFile);
+    } finally {
+      stats.deserializationTime.stop();
+    }
+
+    if (cfa.getMachineModel() != machineModel || cfa.getLanguage() != language) {
+      throw new InvalidConfigurationException(
+          String.format(
+              "Serialized CFA in %s was created for %s with machine model %s,"
+                  + " but the current configuration specifies %s with machine model %s.",
+              pFile, cfa.getLanguage(), cfa.getMachineModel(), language, machineModel));
+    }
+    if (language == Language.C) {
+      // The Java parser stores the parsed class files instead of the given names.
+      Set<Path> expectedFiles = new HashSet<>();
+      for (String sourceFile : pSourceFiles) {
+        expectedFiles.add(Paths.get(sourceFile).toAbsolutePath().normalize());
+      }
+      Set<Path> serializedFiles = new HashSet<>();
+      for (Path serializedFile : cfa.getFileNames()) {
+        serializedFiles.add(serializedFile.toAbsolutePath().normalize());
+      }
+      if (!expectedFiles.equals(serializedFiles)) {
+        throw new InvalidConfigurationException(
+            String.format(
+                "Serialized CFA in %s was created for the program files %s,"
+                    + " but the program files %s were given.",
+                pFile, cfa.getFileNames(), pSourceFiles));
+      }
+
+      if (!cfa.getMainFunction().getFunctionName().equals(mainFunctionName)) {
+        throw new InvalidConfigurationException(
+            String.format(
+                "Serialized CFA in %s has entry function %s instead of configured entry function"
+                    + " %s.",
+                pFile, cfa.getMainFunction().getFunctionName(), mainFunctionName));
+      }
+    }
+
+    logger.log(Level.FINE, "DONE, CFA for", cfa.getNumberOfFunctions(), "functions loaded.");
+    return cfa;
+  }
+
   private CFA createCFA(ParseResult pParseResult, FunctionEntryNode pMainFunction) throws InvalidConfigurationException, InterruptedException, ParserException {
 
     FunctionEntryNode mainFunction = pMainFunction;
@@ -1012,12 +1084,7 @@ v.addInitializer(initializer);
 
     if (serializeCfa && serializeCfaFile != null) {
       try {
-        MoreFiles.createParentDirectories(serializeCfaFile);
-        try (OutputStream outputStream = Files.newOutputStream(serializeCfaFile);
-            OutputStream gzipOutputStream = new GZIPOutputStream(outputStream);
-            ObjectOutputStream oos = new ObjectOutputStream(gzipOutputStream)) {
-          oos.writeObject(cfa);
-        }
+        CFASerialization.write(cfa, serializeCfaFile);
       } catch (IOException e) {
         logger.logException(Level.WARNING, e, "Could not serialize CFA to file.");
       }
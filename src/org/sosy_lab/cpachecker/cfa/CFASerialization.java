@@ -0,0 +1,72 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cfa;
+
+import com.google.common.io.MoreFiles;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Utilities for writing a {@link CFA} to a file and reading it back, such that parsing and
+ * post-processing of the program can be skipped for subsequent analyses of the same program.
+ *
+ * <p>The file contains the gzip-compressed Java serialization of the whole CFA. Loading always
+ * deserializes the complete CFA.
+ */
+final class CFASerialization {
+
+  private CFASerialization() {}
+
+  static void write(CFA pCfa, Path pFile) throws IOException {
+    MoreFiles.createParentDirectories(pFile);
+    try (OutputStream outputStream = Files.newOutputStream(pFile);
+        OutputStream gzipOutputStream = new GZIPOutputStream(outputStream);
+        ObjectOutputStream oos = new ObjectOutputStream(gzipOutputStream)) {
+      oos.writeObject(pCfa);
+    }
+  }
+
+  static CFA read(Path pFile) throws IOException {
+    try (InputStream fileStream = Files.newInputStream(pFile);
+        InputStream gzipInputStream = new BufferedInputStream(new GZIPInputStream(fileStream));
+        ObjectInputStream ois = new ObjectInputStream(gzipInputStream)) {
+      Object result = ois.readObject();
+      if (!(result instanceof CFA)) {
+        throw new IOException("File " + pFile + " does not contain a serialized CFA");
+      }
+      return (CFA) result;
+    } catch (ClassNotFoundException | ClassCastException e) {
+      throw new IOException(
+          "File " + pFile + " contains a CFA of an incompatible version of CPAchecker", e);
+    }
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cfa;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.nio.file.Path;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class CFASerializationTest {
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static CFA createCFA() throws Exception {
+    return TestDataTools.makeCFA(
+        "int f(int x) {",
+        "  return x + 1;",
+        "}",
+        "int main() {",
+        "  int a = 0;",
+        "  while (a < 10) {",
+        "    a = f(a);",
+        "  }",
+        "  return a;",
+        "}");
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    CFA cfa = createCFA();
+    Path file = tempFolder.getRoot().toPath().resolve("cfa.ser.gz");
+
+    CFASerialization.write(cfa, file);
+    CFA loaded = CFASerialization.read(file);
+
+    assertThat(loaded.getAllFunctionNames()).containsExactlyElementsIn(cfa.getAllFunctionNames());
+    assertThat(loaded.getMainFunction().getFunctionName())
+        .isEqualTo(cfa.getMainFunction().getFunctionName());
+    assertThat(loaded.getAllNodes()).hasSize(cfa.getAllNodes().size());
+    assertThat(loaded.getMachineModel()).isEqualTo(cfa.getMachineModel());
+    assertThat(loaded.getLoopStructure().isPresent())
+        .isEqualTo(cfa.getLoopStructure().isPresent());
+
+    int edges = 0;
+    int loadedEdges = 0;
+    for (CFANode node : cfa.getAllNodes()) {
+      edges += CFAUtils.leavingEdges(node).size();
+    }
+    for (CFANode node : loaded.getAllNodes()) {
+      for (CFAEdge edge : CFAUtils.leavingEdges(node)) {
+        loadedEdges++;
+        // edges have to be linked in both directions after loading
+        assertThat(CFAUtils.enteringEdges(edge.getSuccessor())).contains(edge);
+      }
+    }
+    assertThat(loadedEdges).isEqualTo(edges);
+  }
+}
@@ -27,12 +27,14 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static org.sosy_lab.cpachecker.util.CFAUtils.successorsOf;
 
+import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.MultimapBuilder;
 import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
+import com.google.common.collect.Table;
 import com.google.common.html.HtmlEscapers;
 import java.io.IOException;
 import java.io.Writer;
@@ -108,6 +110,17 @@ public final class DOTBuilder2 {
     JSON.writeJSONString(jsoner.getEdges(), out);
   }
 
+  /**
+   * Like {@link #writeCfaInfo(Writer)}, but only for the nodes of the given function
+   * and the edges leaving them.
+   */
+  public void writeCfaInfo(Writer out, String pFunctionName) throws IOException {
+    out.write("\"nodes\":");
+    JSON.writeJSONString(jsoner.getNodes(pFunctionName), out);
+    out.write(",\n\"edges\":");
+    JSON.writeJSONString(jsoner.getEdges(pFunctionName), out);
+  }
+
   public void writeFunctionCallEdges(Writer out) throws IOException {
     JSON.writeJSONString(dotter.virtFuncCallEdges, out);
   }
@@ -357,8 +370,9 @@ public final class DOTBuilder2 {
    * output information about CFA nodes and edges as JSON
    */
   private static class CFAJSONBuilder extends DefaultCFAVisitor {
-    private final Map<Integer, Object> nodes = new HashMap<>();
-    private final Map<String, Object> edges = new HashMap<>();
+    // indexed by function name, such that the data can also be written per function
+    private final Table<String, Integer, Object> nodes = HashBasedTable.create();
+    private final Table<String, String, Object> edges = HashBasedTable.create();
 
     @Override
     public TraversalProcess visitNode(CFANode node) {
@@ -369,7 +383,7 @@ public final class DOTBuilder2 {
       jnode.put("type", determineNodeType(node));
       jnode.put("loop", node.isLoopStart());
 
-      nodes.put(node.getNodeNumber(), jnode);
+      nodes.put(node.getFunctionName(), node.getNodeNumber(), jnode);
 
       return TraversalProcess.CONTINUE;
     }
@@ -386,7 +400,7 @@ public final class DOTBuilder2 {
       jedge.put("stmt", getEdgeText(edge));
       jedge.put("type", edge.getEdgeType().toString());
 
-      edges.put("" + src + "->" + target, jedge);
+      edges.put(edge.getPredecessor().getFunctionName(), "" + src + "->" + target, jedge);
 
       return TraversalProcess.CONTINUE;
     }
@@ -404,9 +418,17 @@ public final class DOTBuilder2 {
       return nodes.values();
     }
 
+    Collection<Object> getNodes(String pFunctionName) {
+      return nodes.row(pFunctionName).values();
+    }
+
     Collection<Object> getEdges() {
       return edges.values();
     }
 
+    Collection<Object> getEdges(String pFunctionName) {
+      return edges.row(pFunctionName).values();
+    }
+
   }
 }
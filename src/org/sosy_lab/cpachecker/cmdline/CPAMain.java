@@ -134,6 +134,7 @@ public class CPAMain {
     ProofGenerator proofGenerator = null;
     ResourceLimitChecker limits = null;
     ReportGenerator reportGenerator = null;
+    WorkerCoordinator coordinator = null;
     MainOptions options = new MainOptions();
     try {
       cpaConfig.inject(options);
@@ -146,11 +147,22 @@ public class CPAMain {
       limits.start();
 
       cpachecker = new CPAchecker(cpaConfig, logManager, shutdownManager);
-      if (options.doPCC) {
-        proofGenerator = new ProofGenerator(cpaConfig, logManager, shutdownNotifier);
+      coordinator =
+          new WorkerCoordinator(
+              args,
+              properties,
+              cpachecker.getSpecificationFiles(),
+              outputDirectory,
+              cpaConfig,
+              logManager,
+              shutdownNotifier);
+      if (!coordinator.isEnabled()) {
+        if (options.doPCC) {
+          proofGenerator = new ProofGenerator(cpaConfig, logManager, shutdownNotifier);
+        }
+        reportGenerator =
+            new ReportGenerator(cpaConfig, logManager, logOptions.getOutputFile(), options.programs);
       }
-      reportGenerator =
-          new ReportGenerator(cpaConfig, logManager, logOptions.getOutputFile(), options.programs);
     } catch (InvalidConfigurationException e) {
       logManager.logUserException(Level.SEVERE, e, "Invalid configuration");
       System.exit(ERROR_EXIT_CODE);
@@ -167,6 +179,25 @@ public class CPAMain {
         ForceTerminationOnShutdown.createShutdownListener(logManager, shutdownHook);
     shutdownNotifier.register(forcedExitOnShutdown);
 
+    if (coordinator.isEnabled()) {
+      // verify sub-problems in worker processes instead of running the analysis here
+      Result coordinatorResult = Result.UNKNOWN;
+      try {
+        coordinatorResult = coordinator.run(System.out);
+      } catch (InterruptedException e) {
+        logManager.logUserException(Level.WARNING, e, "Coordinator was interrupted");
+      }
+      shutdownHook.disable();
+      shutdownNotifier.unregister(forcedExitOnShutdown);
+      ForceTerminationOnShutdown.cancelPendingTermination();
+      limits.cancel();
+      System.out.flush();
+      System.err.flush();
+      logManager.flush();
+      System.exit(WorkerCoordinator.getExitCode(coordinatorResult));
+      return;
+    }
+
     // run analysis
     CPAcheckerResult result = cpachecker.run(options.programs, properties);
 
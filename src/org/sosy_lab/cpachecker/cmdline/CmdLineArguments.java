@@ -130,6 +130,8 @@ class CmdLineArguments {
               .withDescription("set the configuration for the analysis"),
           new CmdLineArgument1("-timelimit", "limits.time.cpu")
               .withDescription("set a timelimit for the analysis"),
+          new CmdLineArgument1("-coordinator", WorkerCoordinator.WORKERS_OPTION)
+              .withDescription("verify sub-problems of the task in the given number of processes"),
           new CmdLineArgument1("-sourcepath", "java.sourcepath")
               .withDescription("set the sourcepath for the analysis of Java programs"),
           new CmdLineArgument1("-cp", "-classpath", "java.classpath")
@@ -0,0 +1,499 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cmdline;
+
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Strings.nullToEmpty;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.ShutdownNotifier.ShutdownRequestListener;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.TimeSpan;
+import org.sosy_lab.common.time.Timer;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.util.SpecificationProperty;
+
+/**
+ * Coordinator that splits a verification task into independent sub-problems and verifies each of
+ * them with CPAMain in a separate JVM. This allows to use more memory than a single JVM can handle
+ * efficiently. Sub-problems are created for each specification file (if the specification is not
+ * given as a property file) and for each condition file (as exported by {@link
+ * org.sosy_lab.cpachecker.core.algorithm.ProgramSplitAlgorithm}).
+ *
+ * <p>The workers are started with the same command-line arguments as the coordinator, except for
+ * the arguments that are replaced for the respective sub-problem. Their results are read from
+ * their output. As soon as one worker finds a property violation, all other workers are stopped.
+ * The exit status of the coordinator reflects the combined result (cf. {@link #getExitCode}).
+ */
+@Options(prefix = "coordinator")
+final class WorkerCoordinator {
+
+  static final String WORKERS_OPTION = "coordinator.workers";
+
+  private static final String RESULT_PREFIX = "Verification result: ";
+
+  private static final String ASSUMPTION_GUIDING_AUTOMATON = "AssumptionGuidingAutomaton";
+
+  /** Exit status of the coordinator if a property violation was found. */
+  static final int VIOLATION_EXIT_CODE = 10;
+
+  @Option(
+    secure = true,
+    name = "workers",
+    description =
+        "Number of worker processes to use for verifying sub-problems of the task in parallel."
+            + " If this is 0, the task is verified in the current process."
+            + " The exit status of the coordinator is 0 if the task is safe,"
+            + " 10 if a property violation was found, and 1 otherwise."
+  )
+  private int numberOfWorkers = 0;
+
+  @Option(
+    secure = true,
+    description = "Create a separate sub-problem for each given specification file."
+  )
+  private boolean splitSpecification = true;
+
+  @Option(
+    secure = true,
+    description =
+        "Condition files (assumption automata) that partition the state space of the program,"
+            + " e.g., as exported by program.splitter.conditionFile."
+            + " A separate sub-problem is created for each condition."
+  )
+  @FileOption(FileOption.Type.OPTIONAL_INPUT_FILE)
+  private List<Path> conditionFiles = ImmutableList.of();
+
+  @Option(
+    secure = true,
+    description =
+        "Additional arguments for the JVMs of the workers, e.g., the heap size."
+            + " By default, the arguments of the current JVM are used."
+  )
+  private List<String> workerVmArguments = ImmutableList.of();
+
+  /** A sub-problem that is verified by one worker. */
+  static final class SubProblem {
+    final String name;
+    final List<String> arguments;
+
+    Result result = Result.NOT_YET_STARTED;
+    String resultLine = "";
+    TimeSpan time = TimeSpan.empty();
+
+    private SubProblem(String pName, List<String> pArguments) {
+      name = pName;
+      arguments = pArguments;
+    }
+  }
+
+  private final ImmutableList<String> commandLine;
+  private final Set<SpecificationProperty> properties;
+  private final List<Path> specificationFiles;
+  private final @Nullable String outputDirectory;
+  private final LogManager logger;
+  private final ShutdownNotifier shutdownNotifier;
+
+  private final List<Process> runningWorkers = new CopyOnWriteArrayList<>();
+  private volatile boolean violationFound = false;
+
+  WorkerCoordinator(
+      String[] pCommandLine,
+      Set<SpecificationProperty> pProperties,
+      List<Path> pSpecificationFiles,
+      @Nullable String pOutputDirectory,
+      Configuration pConfig,
+      LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    if (numberOfWorkers < 0) {
+      throw new InvalidConfigurationException(
+          "Invalid number of worker processes " + numberOfWorkers);
+    }
+    if (!conditionFiles.isEmpty() && !pProperties.isEmpty()) {
+      throw new InvalidConfigurationException(
+          "Condition files for worker processes cannot be combined with a property file,"
+              + " please specify the specification automata directly.");
+    }
+    commandLine = ImmutableList.copyOf(pCommandLine);
+    properties = pProperties;
+    specificationFiles = ImmutableList.copyOf(pSpecificationFiles);
+    outputDirectory = pOutputDirectory;
+    logger = pLogger;
+    shutdownNotifier = pShutdownNotifier;
+  }
+
+  boolean isEnabled() {
+    return numberOfWorkers > 0;
+  }
+
+  /** Verify all sub-problems in worker processes and print and return the overall result. */
+  Result run(PrintStream out) throws InterruptedException {
+    checkState(isEnabled());
+    List<SubProblem> subProblems = createSubProblems();
+    logger.log(
+        Level.INFO,
+        "Verifying",
+        subProblems.size(),
+        "sub-problems with up to",
+        numberOfWorkers,
+        "worker processes.");
+
+    ShutdownRequestListener stopWorkers = reason -> stopAllWorkers();
+    shutdownNotifier.register(stopWorkers);
+    ExecutorService executor =
+        Executors.newFixedThreadPool(Math.min(numberOfWorkers, subProblems.size()));
+    try {
+      List<Future<?>> futures = new ArrayList<>(subProblems.size());
+      for (SubProblem subProblem : subProblems) {
+        futures.add(executor.submit(() -> runWorker(subProblem)));
+      }
+      for (Future<?> future : futures) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          logger.logUserException(Level.WARNING, e.getCause(), "Worker could not be run");
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+      stopAllWorkers();
+      shutdownNotifier.unregister(stopWorkers);
+    }
+
+    printResult(subProblems, out);
+    return getOverallResult(subProblems);
+  }
+
+  List<SubProblem> createSubProblems() {
+    List<String> baseArguments = new ArrayList<>(commandLine);
+    removeArgument(baseArguments, "-coordinator", true);
+    removeArgument(baseArguments, "-outputpath", true);
+    removeSetprop(baseArguments, "coordinator.");
+    removeSetprop(baseArguments, "output.path");
+    // workers must not start workers themselves, even if a configuration file enables this
+    baseArguments.add("-setprop");
+    baseArguments.add(WORKERS_OPTION + "=0");
+
+    List<List<Path>> specificationParts = ImmutableList.of();
+    if (properties.isEmpty()) {
+      // Specification files are given explicitly for each sub-problem.
+      // With a property file, CPAMain needs to handle the specification itself.
+      removeArgument(baseArguments, "-spec", true);
+      removeSetprop(baseArguments, "specification");
+      if (splitSpecification && specificationFiles.size() > 1) {
+        specificationParts =
+            Lists.<Path, List<Path>>transform(specificationFiles, ImmutableList::of);
+      } else {
+        specificationParts = ImmutableList.of(specificationFiles);
+      }
+    }
+
+    List<SubProblem> subProblems = new ArrayList<>();
+    if (specificationParts.size() > 1) {
+      for (List<Path> specifications : specificationParts) {
+        subProblems.add(
+            new SubProblem(
+                specifications.get(0).getFileName().toString(),
+                withSpecifications(baseArguments, specifications)));
+      }
+    } else if (specificationParts.size() == 1) {
+      subProblems.add(
+          new SubProblem("task", withSpecifications(baseArguments, specificationParts.get(0))));
+    } else {
+      subProblems.add(new SubProblem("task", baseArguments));
+    }
+
+    if (!conditionFiles.isEmpty()) {
+      List<SubProblem> conditionSubProblems = new ArrayList<>();
+      for (SubProblem subProblem : subProblems) {
+        for (Path condition : conditionFiles) {
+          List<String> arguments = new ArrayList<>(subProblem.arguments);
+          arguments.add("-spec");
+          arguments.add(ASSUMPTION_GUIDING_AUTOMATON);
+          arguments.add("-spec");
+          arguments.add(condition.toString());
+          conditionSubProblems.add(
+              new SubProblem(subProblem.name + "/" + condition.getFileName(), arguments));
+        }
+      }
+      subProblems = conditionSubProblems;
+    }
+
+    if (subProblems.size() == 1) {
+      logger.log(
+          Level.WARNING,
+          "Task could not be split into sub-problems, verifying it in a single worker process.");
+    }
+
+    for (int i = 0; i < subProblems.size(); i++) {
+      SubProblem subProblem = subProblems.get(i);
+      subProblem.arguments.add("-outputpath");
+      subProblem.arguments.add(
+          Paths.get(nullToEmpty(outputDirectory), "worker." + i).toString());
+    }
+    return subProblems;
+  }
+
+  private void runWorker(SubProblem pSubProblem) {
+    if (violationFound || shutdownNotifier.shouldShutdown()) {
+      return;
+    }
+    Timer timer = new Timer();
+    timer.start();
+    try {
+      List<String> command = new ArrayList<>();
+      command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+      command.addAll(getVmArguments());
+      command.add("-cp");
+      command.add(System.getProperty("java.class.path"));
+      command.add(CPAMain.class.getName());
+      command.addAll(pSubProblem.arguments);
+      logger.log(Level.FINE, "Starting worker for", pSubProblem.name, "with command", command);
+
+      Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+      runningWorkers.add(process);
+      if (violationFound || shutdownNotifier.shouldShutdown()) {
+        // we might have missed the request for stopping all workers
+        process.destroy();
+      }
+      try (BufferedReader output =
+          new BufferedReader(
+              new InputStreamReader(process.getInputStream(), Charset.defaultCharset()))) {
+        readWorkerOutput(pSubProblem, output);
+      }
+      int exitCode = process.waitFor();
+      runningWorkers.remove(process);
+
+      if (pSubProblem.result == Result.NOT_YET_STARTED) {
+        logger.log(
+            Level.WARNING,
+            "Worker for",
+            pSubProblem.name,
+            "terminated with exit code",
+            exitCode,
+            "without result.");
+        pSubProblem.result = Result.UNKNOWN;
+      } else if (pSubProblem.result == Result.FALSE && !violationFound) {
+        logger.log(Level.INFO, "Worker for", pSubProblem.name, "found a property violation.");
+        violationFound = true;
+        stopAllWorkers();
+      }
+    } catch (IOException e) {
+      logger.logUserException(
+          Level.WARNING, e, "Could not run worker for sub-problem " + pSubProblem.name);
+      pSubProblem.result = Result.UNKNOWN;
+    } catch (InterruptedException e) {
+      pSubProblem.result = Result.UNKNOWN;
+      Thread.currentThread().interrupt();
+    } finally {
+      timer.stop();
+      pSubProblem.time = timer.getLengthOfLastInterval();
+    }
+  }
+
+  /** Read the output of a worker until it terminates and store its result in the sub-problem. */
+  void readWorkerOutput(SubProblem pSubProblem, BufferedReader pOutput) throws IOException {
+    String line;
+    while ((line = pOutput.readLine()) != null) {
+      logger.log(Level.FINE, pSubProblem.name + ":", line);
+      if (line.startsWith(RESULT_PREFIX)) {
+        pSubProblem.resultLine = line;
+        pSubProblem.result = parseResult(line.substring(RESULT_PREFIX.length()));
+      }
+    }
+  }
+
+  private List<String> getVmArguments() {
+    if (!workerVmArguments.isEmpty()) {
+      return workerVmArguments;
+    }
+    List<String> result = new ArrayList<>();
+    for (String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+      // debugging agents would try to use the same port
+      if (!argument.startsWith("-agentlib")
+          && !argument.startsWith("-Xrunjdwp")
+          && !argument.equals("-Xdebug")) {
+        result.add(argument);
+      }
+    }
+    return result;
+  }
+
+  private void stopAllWorkers() {
+    for (Process worker : runningWorkers) {
+      worker.destroy();
+    }
+    for (Process worker : runningWorkers) {
+      try {
+        if (!worker.waitFor(10, TimeUnit.SECONDS)) {
+          worker.destroyForcibly();
+        }
+      } catch (InterruptedException e) {
+        worker.destroyForcibly();
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  static Result parseResult(String pResult) {
+    if (pResult.startsWith("TRUE")) {
+      return Result.TRUE;
+    } else if (pResult.startsWith("FALSE")) {
+      return Result.FALSE;
+    }
+    return Result.UNKNOWN;
+  }
+
+  /**
+   * Combine the results of the sub-problems: a violation in one sub-problem is a violation of the
+   * task, and the task is safe only if all sub-problems are safe.
+   */
+  static Result getOverallResult(List<SubProblem> pSubProblems) {
+    if (pSubProblems.stream().anyMatch(s -> s.result == Result.FALSE)) {
+      return Result.FALSE;
+    } else if (pSubProblems.stream().allMatch(s -> s.result == Result.TRUE)) {
+      return Result.TRUE;
+    }
+    return Result.UNKNOWN;
+  }
+
+  /**
+   * Return the exit status of the coordinator for the given overall result: 0 if the task is safe,
+   * {@link #VIOLATION_EXIT_CODE} for a property violation, and {@link CPAMain#ERROR_EXIT_CODE} if
+   * the task could not be verified.
+   */
+  static int getExitCode(Result pResult) {
+    switch (pResult) {
+      case TRUE:
+        return 0;
+      case FALSE:
+        return VIOLATION_EXIT_CODE;
+      default:
+        return CPAMain.ERROR_EXIT_CODE;
+    }
+  }
+
+  /** Print the statistics of the sub-problems and the overall result. */
+  private void printResult(List<SubProblem> pSubProblems, PrintStream out) {
+    out.println("Coordinator statistics");
+    out.println("----------------------");
+    out.println("Number of sub-problems:           " + pSubProblems.size());
+    out.println("Number of worker processes:       " + numberOfWorkers);
+    for (SubProblem subProblem : pSubProblems) {
+      out.println(
+          "Result for "
+              + subProblem.name
+              + ": "
+              + subProblem.result
+              + " ("
+              + subProblem.time.formatAs(TimeUnit.SECONDS)
+              + ")");
+    }
+    out.println();
+
+    String resultLine;
+    switch (getOverallResult(pSubProblems)) {
+      case FALSE:
+        resultLine =
+            pSubProblems.stream().filter(s -> s.result == Result.FALSE).findFirst().get().resultLine;
+        break;
+      case TRUE:
+        resultLine = RESULT_PREFIX + "TRUE. No property violation found by chosen configuration.";
+        break;
+      default:
+        resultLine = RESULT_PREFIX + "UNKNOWN, incomplete analysis.";
+    }
+    out.println(resultLine);
+    if (outputDirectory != null) {
+      out.println(
+          "More details about the verification run can be found in the directories \""
+              + Paths.get(outputDirectory, "worker.*")
+              + "\".");
+    }
+  }
+
+  private static List<String> withSpecifications(
+      List<String> pArguments, List<Path> pSpecifications) {
+    List<String> result = new ArrayList<>(pArguments);
+    for (Path specification : pSpecifications) {
+      result.add("-spec");
+      result.add(specification.toString());
+    }
+    return result;
+  }
+
+  /** Remove all occurrences of an argument (and its value) from a command line. */
+  private static void removeArgument(List<String> pArguments, String pName, boolean pHasValue) {
+    Iterator<String> it = pArguments.iterator();
+    while (it.hasNext()) {
+      if (it.next().equals(pName)) {
+        it.remove();
+        if (pHasValue && it.hasNext()) {
+          it.next();
+          it.remove();
+        }
+      }
+    }
+  }
+
+  /** Remove all "-setprop" arguments for options with the given prefix from a command line. */
+  private static void removeSetprop(List<String> pArguments, String pOptionPrefix) {
+    for (int i = 0; i < pArguments.size() - 1; i++) {
+      if (pArguments.get(i).equals("-setprop")
+          && pArguments.get(i + 1).startsWith(pOptionPrefix)) {
+        pArguments.subList(i, i + 2).clear();
+        i--;
+      }
+    }
+  }
+}
@@ -0,0 +1,244 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cmdline;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cmdline.WorkerCoordinator.SubProblem;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.util.SpecificationProperty;
+import org.sosy_lab.cpachecker.util.SpecificationProperty.PropertyType;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class WorkerCoordinatorTest {
+
+  private static final ImmutableList<Path> SPECIFICATIONS =
+      ImmutableList.of(Paths.get("a.spc"), Paths.get("b.spc"));
+
+  private static final SpecificationProperty PROPERTY =
+      new SpecificationProperty("main", PropertyType.REACHABILITY, Optional.empty());
+
+  private static final String[] COMMAND_LINE = {
+    "-predicateAnalysis",
+    "-coordinator",
+    "2",
+    "-spec",
+    "a.spc,b.spc",
+    "-setprop",
+    "coordinator.splitSpecification=true",
+    "-setprop",
+    "cpa.predicate.solver=SMTINTERPOL",
+    "-outputpath",
+    "out",
+    "program.c"
+  };
+
+  private static WorkerCoordinator createCoordinator(
+      ImmutableSet<SpecificationProperty> pProperties, String... pOptions)
+      throws InvalidConfigurationException {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .setOption("coordinator.workers", "2")
+            .setOptions(toMap(pOptions))
+            .build();
+    return new WorkerCoordinator(
+        COMMAND_LINE,
+        pProperties,
+        SPECIFICATIONS,
+        "out",
+        config,
+        LogManager.createTestLogManager(),
+        ShutdownNotifier.createDummy());
+  }
+
+  private static Map<String, String> toMap(String... pOptions) {
+    Map<String, String> result = new HashMap<>();
+    for (int i = 0; i < pOptions.length; i += 2) {
+      result.put(pOptions[i], pOptions[i + 1]);
+    }
+    return result;
+  }
+
+  private static SubProblem subProblem(Result pResult) {
+    SubProblem subProblem = new SubProblem("test", ImmutableList.of());
+    subProblem.result = pResult;
+    return subProblem;
+  }
+
+  @Test
+  public void testSplitSpecification() throws InvalidConfigurationException {
+    List<SubProblem> subProblems = createCoordinator(ImmutableSet.of()).createSubProblems();
+
+    assertThat(subProblems).hasSize(2);
+    for (int i = 0; i < subProblems.size(); i++) {
+      assertThat(subProblems.get(i).name).isEqualTo(SPECIFICATIONS.get(i).toString());
+      assertThat(subProblems.get(i).arguments)
+          .containsExactly(
+              "-predicateAnalysis",
+              "-setprop",
+              "cpa.predicate.solver=SMTINTERPOL",
+              "program.c",
+              "-setprop",
+              WorkerCoordinator.WORKERS_OPTION + "=0",
+              "-spec",
+              SPECIFICATIONS.get(i).toString(),
+              "-outputpath",
+              Paths.get("out", "worker." + i).toString())
+          .inOrder();
+    }
+  }
+
+  @Test
+  public void testNoSplitSpecification() throws InvalidConfigurationException {
+    List<SubProblem> subProblems =
+        createCoordinator(ImmutableSet.of(), "coordinator.splitSpecification", "false")
+            .createSubProblems();
+
+    assertThat(subProblems).hasSize(1);
+    assertThat(subProblems.get(0).arguments)
+        .containsAllOf("-spec", "a.spc", "-spec", "b.spc")
+        .inOrder();
+    assertThat(subProblems.get(0).arguments).doesNotContain("-coordinator");
+    assertThat(subProblems.get(0).arguments).doesNotContain("a.spc,b.spc");
+  }
+
+  @Test
+  public void testConditionFiles() throws InvalidConfigurationException {
+    List<SubProblem> subProblems =
+        createCoordinator(ImmutableSet.of(), "coordinator.conditionFiles", "c1.spc, c2.spc")
+            .createSubProblems();
+
+    // one sub-problem for each combination of specification and condition
+    assertThat(subProblems).hasSize(4);
+    assertThat(subProblems.get(1).name).isEqualTo("a.spc/c2.spc");
+    List<String> arguments = subProblems.get(1).arguments;
+    assertThat(arguments).containsAllOf("-spec", "a.spc", "-spec", "AssumptionGuidingAutomaton");
+    int index = arguments.indexOf("AssumptionGuidingAutomaton");
+    assertThat(arguments.get(index + 1)).isEqualTo("-spec");
+    assertThat(Paths.get(arguments.get(index + 2)).getFileName().toString()).isEqualTo("c2.spc");
+    assertThat(subProblems.get(3).arguments)
+        .containsAllOf("-outputpath", Paths.get("out", "worker.3").toString())
+        .inOrder();
+  }
+
+  @Test
+  public void testPropertyFileKeepsSpecification() throws InvalidConfigurationException {
+    List<SubProblem> subProblems =
+        createCoordinator(ImmutableSet.of(PROPERTY))
+            .createSubProblems();
+
+    assertThat(subProblems).hasSize(1);
+    assertThat(subProblems.get(0).arguments).containsAllOf("-spec", "a.spc,b.spc").inOrder();
+  }
+
+  @Test(expected = InvalidConfigurationException.class)
+  public void testConditionFilesWithPropertyFile() throws InvalidConfigurationException {
+    createCoordinator(
+        ImmutableSet.of(PROPERTY),
+        "coordinator.conditionFiles",
+        "c1.spc");
+  }
+
+  @Test
+  public void testReadWorkerOutput() throws InvalidConfigurationException, IOException {
+    SubProblem subProblem = subProblem(Result.NOT_YET_STARTED);
+    String resultLine = "Verification result: FALSE. Property violation (unreach-call) found.";
+    String output =
+        String.join(
+            "\n",
+            "Running CPAchecker with default heap size.",
+            "",
+            resultLine,
+            "More details about the verification run can be found in the directory \"out\".");
+
+    createCoordinator(ImmutableSet.of())
+        .readWorkerOutput(subProblem, new BufferedReader(new StringReader(output)));
+
+    assertThat(subProblem.result).isEqualTo(Result.FALSE);
+    assertThat(subProblem.resultLine).isEqualTo(resultLine);
+  }
+
+  @Test
+  public void testReadWorkerOutputWithoutResult()
+      throws InvalidConfigurationException, IOException {
+    SubProblem subProblem = subProblem(Result.NOT_YET_STARTED);
+
+    createCoordinator(ImmutableSet.of())
+        .readWorkerOutput(
+            subProblem, new BufferedReader(new StringReader("Exception in thread \"main\"")));
+
+    assertThat(subProblem.result).isEqualTo(Result.NOT_YET_STARTED);
+  }
+
+  @Test
+  public void testParseResult() {
+    assertThat(WorkerCoordinator.parseResult("TRUE. No property violation found."))
+        .isEqualTo(Result.TRUE);
+    assertThat(WorkerCoordinator.parseResult("FALSE. Property violation found."))
+        .isEqualTo(Result.FALSE);
+    assertThat(WorkerCoordinator.parseResult("UNKNOWN, incomplete analysis."))
+        .isEqualTo(Result.UNKNOWN);
+  }
+
+  @Test
+  public void testOverallResult() {
+    assertThat(
+            WorkerCoordinator.getOverallResult(
+                ImmutableList.of(subProblem(Result.TRUE), subProblem(Result.TRUE))))
+        .isEqualTo(Result.TRUE);
+    assertThat(
+            WorkerCoordinator.getOverallResult(
+                ImmutableList.of(subProblem(Result.TRUE), subProblem(Result.UNKNOWN))))
+        .isEqualTo(Result.UNKNOWN);
+    assertThat(
+            WorkerCoordinator.getOverallResult(
+                ImmutableList.of(subProblem(Result.UNKNOWN), subProblem(Result.FALSE))))
+        .isEqualTo(Result.FALSE);
+  }
+
+  @Test
+  public void testExitCode() {
+    assertThat(WorkerCoordinator.getExitCode(Result.TRUE)).isEqualTo(0);
+    assertThat(WorkerCoordinator.getExitCode(Result.FALSE))
+        .isEqualTo(WorkerCoordinator.VIOLATION_EXIT_CODE);
+    assertThat(WorkerCoordinator.getExitCode(Result.UNKNOWN))
+        .isEqualTo(CPAMain.ERROR_EXIT_CODE);
+  }
+}
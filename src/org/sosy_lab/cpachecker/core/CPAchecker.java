@@ -291,6 +291,11 @@ public class CPAchecker {
             pConfiguration, pLogManager, shutdownNotifier, new AggregatedReachedSets());
   }
 
+  /** Return the specification files given by the option "specification". */
+  public List<Path> getSpecificationFiles() {
+    return specificationFiles;
+  }
+
   public CPAcheckerResult run(
       List<String> programDenotation, Set<SpecificationProperty> properties) {
     checkArgument(!programDenotation.isEmpty());
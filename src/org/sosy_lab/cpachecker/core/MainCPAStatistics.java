@@ -497,6 +497,11 @@ class MainCPAStatistics implements Statistics {
       } else {
         out.println();
       }
+      StatInt avoidedCoverageChecks = p.getAvoidedCoverageChecks();
+      if (avoidedCoverageChecks != null) {
+        out.println("  Coverage checks avoided:       " + avoidedCoverageChecks.getValueSum()
+            + " (in " + avoidedCoverageChecks.getValueCount() + " queries to subsumption index)");
+      }
     }
     out.println("  Number of target states:       " + from(reached).filter(IS_TARGET_STATE).size());
   }
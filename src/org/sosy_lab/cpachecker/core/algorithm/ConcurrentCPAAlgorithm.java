@@ -0,0 +1,505 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import com.google.common.base.Functions;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.logging.Level;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.defaults.MergeSepOperator;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.MergeOperator;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustment;
+import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustmentResult;
+import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustmentResult.Action;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
+import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+import org.sosy_lab.cpachecker.core.interfaces.ThreadSafeCPA;
+import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
+import org.sosy_lab.cpachecker.core.reachedset.LockStripedReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.CPAs;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.statistics.StatTimer;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsUtils;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
+
+/**
+ * Variant of the {@link CPAAlgorithm} that explores the state space with several worker threads.
+ *
+ * <p>Each worker pops a state from the shared waitlist and computes its successors with its own
+ * instances of the CPA operators. Merge and stop for a successor are computed while the worker
+ * holds the lock of the successor's location in the {@link LockStripedReachedSet}, so workers only
+ * contend if they handle successors at the same location.
+ *
+ * <p>This algorithm can only be used with CPAs that implement {@link ThreadSafeCPA}, and it does
+ * not support forced coverings. The order in which states are explored is not deterministic.
+ */
+@Options(prefix = "cpa.concurrent")
+public class ConcurrentCPAAlgorithm implements Algorithm, StatisticsProvider {
+
+  private static class ConcurrentCPAStatistics implements Statistics {
+
+    private final StatTimer totalTimer = new StatTimer("Total time for concurrent CPA algorithm");
+    private final ThreadSafeTimerContainer waitTimer =
+        new ThreadSafeTimerContainer("Time for waiting on waitlist");
+    private final ThreadSafeTimerContainer precisionTimer =
+        new ThreadSafeTimerContainer("Time for precision adjustment");
+    private final ThreadSafeTimerContainer transferTimer =
+        new ThreadSafeTimerContainer("Time for transfer relation");
+    private final ThreadSafeTimerContainer lockTimer =
+        new ThreadSafeTimerContainer("Time for acquiring partition locks");
+    private final ThreadSafeTimerContainer mergeTimer =
+        new ThreadSafeTimerContainer("Time for merge operator");
+    private final ThreadSafeTimerContainer stopTimer =
+        new ThreadSafeTimerContainer("Time for stop operator");
+
+    private final LongAdder countIterations = new LongAdder();
+    private final LongAccumulator maxWaitlistSize = new LongAccumulator(Math::max, 0);
+    private final LongAdder countSuccessors = new LongAdder();
+    private final LongAccumulator maxSuccessors = new LongAccumulator(Math::max, 0);
+    private final LongAdder countMerge = new LongAdder();
+    private final LongAdder countStop = new LongAdder();
+    private final LongAdder countBreak = new LongAdder();
+
+    private int numberOfThreads = 0;
+
+    @Override
+    public String getName() {
+      return "Concurrent CPA algorithm";
+    }
+
+    @Override
+    public void printStatistics(PrintStream out, Result pResult, UnmodifiableReachedSet pReached) {
+      StatisticsUtils.write(out, 0, 50, "Number of worker threads", numberOfThreads);
+      StatisticsUtils.write(out, 0, 50, "Number of iterations", countIterations);
+      StatisticsUtils.write(out, 0, 50, "Max size of waitlist", maxWaitlistSize);
+      StatisticsUtils.write(out, 0, 50, "Number of computed successors", countSuccessors);
+      StatisticsUtils.write(out, 0, 50, "Max successors for one state", maxSuccessors);
+      StatisticsUtils.write(out, 0, 50, "Number of times merged", countMerge);
+      StatisticsUtils.write(out, 0, 50, "Number of times stopped", countStop);
+      StatisticsUtils.write(out, 0, 50, "Number of times breaked", countBreak);
+      out.println();
+      StatisticsUtils.write(out, 0, 50, totalTimer);
+      StatisticsUtils.write(out, 1, 50, waitTimer);
+      StatisticsUtils.write(out, 1, 50, precisionTimer);
+      StatisticsUtils.write(out, 1, 50, transferTimer);
+      StatisticsUtils.write(out, 1, 50, lockTimer);
+      if (mergeTimer.getNumberOfIntervals() > 0) {
+        StatisticsUtils.write(out, 1, 50, mergeTimer);
+      }
+      StatisticsUtils.write(out, 1, 50, stopTimer);
+    }
+  }
+
+  @Option(
+    secure = true,
+    description =
+        "number of worker threads, positive values match exactly, "
+            + "with -1 we use the number of available cores of the machine."
+  )
+  private int numberOfThreads = -1;
+
+  private final ConcurrentCPAStatistics stats = new ConcurrentCPAStatistics();
+
+  private final ConfigurableProgramAnalysis cpa;
+  private final LogManager logger;
+  private final ShutdownNotifier shutdownNotifier;
+
+  public ConcurrentCPAAlgorithm(
+      ConfigurableProgramAnalysis pCpa,
+      Configuration pConfig,
+      LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    if (numberOfThreads <= 0 && numberOfThreads != -1) {
+      throw new InvalidConfigurationException(
+          "Number of threads for concurrent CPA algorithm has to be a positive number or -1.");
+    }
+    for (ConfigurableProgramAnalysis component : CPAs.asIterable(pCpa)) {
+      if (!(component instanceof ThreadSafeCPA)) {
+        throw new InvalidConfigurationException(
+            "Concurrent CPA algorithm cannot be used with "
+                + component.getClass().getSimpleName()
+                + ", because its operators are not thread-safe.");
+      }
+    }
+    cpa = pCpa;
+    logger = pLogger;
+    shutdownNotifier = pShutdownNotifier;
+  }
+
+  @Override
+  public AlgorithmStatus run(final ReachedSet pReachedSet)
+      throws CPAException, InterruptedException {
+    if (!(pReachedSet instanceof LockStripedReachedSet)) {
+      throw new CPAException(
+          "Concurrent CPA algorithm needs a reached set with one lock per location, "
+              + "please set analysis.reachedSet=LOCKSTRIPED.");
+    }
+    stats.totalTimer.start();
+    try {
+      return new Exploration((LockStripedReachedSet) pReachedSet).run();
+    } finally {
+      stats.totalTimer.stop();
+    }
+  }
+
+  private int getNumberOfThreads() {
+    if (numberOfThreads > 0) {
+      return numberOfThreads;
+    }
+    return Runtime.getRuntime().availableProcessors();
+  }
+
+  /**
+   * The shared state of all workers during one call to {@link #run(ReachedSet)}. The waitlist is
+   * empty and the exploration is finished if no worker is currently handling a state, because
+   * only a busy worker can add new states to the waitlist.
+   */
+  private class Exploration {
+
+    private final LockStripedReachedSet reachedSet;
+
+    // guarded by "this"
+    private int busyWorkers = 0;
+    private boolean finished = false;
+
+    private Exploration(LockStripedReachedSet pReachedSet) {
+      reachedSet = pReachedSet;
+    }
+
+    private AlgorithmStatus run() throws CPAException, InterruptedException {
+      final int threads = getNumberOfThreads();
+      stats.numberOfThreads = threads;
+      logger.log(Level.FINE, "Starting concurrent exploration with", threads, "threads");
+
+      final ExecutorService pool =
+          Executors.newFixedThreadPool(
+              threads,
+              new ThreadFactoryBuilder().setNameFormat("cpa-worker-%d").setDaemon(true).build());
+      final List<Future<Void>> workers = new ArrayList<>(threads);
+      try {
+        for (int i = 0; i < threads; i++) {
+          workers.add(pool.submit(new Worker(this)));
+        }
+        for (Future<Void> worker : workers) {
+          worker.get();
+        }
+
+      } catch (ExecutionException e) {
+        Throwable t = e.getCause();
+        Throwables.propagateIfPossible(t, CPAException.class, InterruptedException.class);
+        throw new UnexpectedCheckedException("concurrent state-space exploration", t);
+
+      } finally {
+        finish();
+        pool.shutdown();
+        // workers handle their current state until the end, we must not return earlier,
+        // because otherwise they would still modify the reached set.
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+      }
+
+      return AlgorithmStatus.SOUND_AND_PRECISE;
+    }
+
+    /**
+     * Take the next state and its precision from the waitlist, blocking while other workers are
+     * busy.
+     */
+    private synchronized @Nullable Pair<AbstractState, Precision> takeState()
+        throws InterruptedException {
+      while (!finished && !reachedSet.hasWaitingState()) {
+        if (busyWorkers == 0) {
+          // waitlist is empty and nobody can add new states
+          finished = true;
+          notifyAll();
+          break;
+        }
+        wait();
+      }
+      if (finished) {
+        return null;
+      }
+      stats.maxWaitlistSize.accumulate(reachedSet.getWaitlistSize());
+      busyWorkers++;
+      return reachedSet.popFromWaitlistWithPrecision();
+    }
+
+    private synchronized void releaseState() {
+      busyWorkers--;
+      notifyAll();
+    }
+
+    private synchronized void finish() {
+      finished = true;
+      notifyAll();
+    }
+  }
+
+  private class Worker implements Callable<Void> {
+
+    private final Exploration exploration;
+    private final LockStripedReachedSet reachedSet;
+
+    private final TransferRelation transferRelation;
+    private final MergeOperator mergeOperator;
+    private final StopOperator stopOperator;
+    private final PrecisionAdjustment precisionAdjustment;
+
+    private final TimerWrapper waitTimer = stats.waitTimer.getNewTimer();
+    private final TimerWrapper precisionTimer = stats.precisionTimer.getNewTimer();
+    private final TimerWrapper transferTimer = stats.transferTimer.getNewTimer();
+    private final TimerWrapper lockTimer = stats.lockTimer.getNewTimer();
+    private final TimerWrapper mergeTimer = stats.mergeTimer.getNewTimer();
+    private final TimerWrapper stopTimer = stats.stopTimer.getNewTimer();
+
+    private Worker(Exploration pExploration) {
+      exploration = pExploration;
+      reachedSet = pExploration.reachedSet;
+      // each worker uses its own operators, cf. ThreadSafeCPA
+      transferRelation = cpa.getTransferRelation();
+      mergeOperator = cpa.getMergeOperator();
+      stopOperator = cpa.getStopOperator();
+      precisionAdjustment = cpa.getPrecisionAdjustment();
+    }
+
+    @Override
+    public Void call() throws CPAException, InterruptedException {
+      while (true) {
+        waitTimer.start();
+        final Pair<AbstractState, Precision> next;
+        try {
+          next = exploration.takeState();
+        } finally {
+          waitTimer.stop();
+        }
+        if (next == null) {
+          return null;
+        }
+        final AbstractState state = next.getFirst();
+
+        try {
+          stats.countIterations.increment();
+          if (handleState(state, next.getSecond())) {
+            // Prec operator requested break
+            exploration.finish();
+          }
+        } catch (CPAException | InterruptedException | RuntimeException | Error e) {
+          // re-add the old state to the waitlist, there might be unhandled successors left
+          // that otherwise would be forgotten (which would be unsound),
+          // unless another worker has merged it into another state in the meantime
+          reachedSet.reAddToWaitlistIfContained(state);
+          exploration.finish();
+          throw e;
+        } finally {
+          exploration.releaseState();
+        }
+      }
+    }
+
+    /**
+     * Handle one state from the waitlist, i.e., produce successors etc.
+     *
+     * @return true if analysis should terminate, false if analysis should continue with next state
+     */
+    private boolean handleState(final AbstractState state, final Precision precision)
+        throws CPAException, InterruptedException {
+      logger.log(Level.ALL, "Current state is", state, "with precision", precision);
+
+      transferTimer.start();
+      Collection<? extends AbstractState> successors;
+      try {
+        successors = transferRelation.getAbstractSuccessors(state, precision);
+      } finally {
+        transferTimer.stop();
+      }
+
+      int numSuccessors = successors.size();
+      logger.log(Level.FINER, "Current state has", numSuccessors, "successors");
+      stats.countSuccessors.add(numSuccessors);
+      stats.maxSuccessors.accumulate(numSuccessors);
+
+      for (Iterator<? extends AbstractState> it = successors.iterator(); it.hasNext(); ) {
+        AbstractState successor = it.next();
+        shutdownNotifier.shutdownIfNecessary();
+        logger.log(Level.ALL, "Successor of", state, "\nis", successor);
+
+        precisionTimer.start();
+        PrecisionAdjustmentResult precAdjustmentResult;
+        try {
+          Optional<PrecisionAdjustmentResult> precAdjustmentOptional =
+              precisionAdjustment.prec(
+                  successor, precision, reachedSet, Functions.identity(), successor);
+          if (!precAdjustmentOptional.isPresent()) {
+            continue;
+          }
+          precAdjustmentResult = precAdjustmentOptional.get();
+        } finally {
+          precisionTimer.stop();
+        }
+
+        successor = precAdjustmentResult.abstractState();
+        Precision successorPrecision = precAdjustmentResult.precision();
+        Action action = precAdjustmentResult.action();
+
+        lockTimer.start();
+        Lock partitionLock = reachedSet.getPartitionLock(successor);
+        partitionLock.lock();
+        lockTimer.stop();
+        try {
+          if (action == Action.BREAK) {
+            boolean stop;
+            stopTimer.start();
+            try {
+              stop =
+                  stopOperator.stop(
+                      successor, reachedSet.getReached(successor), successorPrecision);
+            } finally {
+              stopTimer.stop();
+            }
+
+            if (AbstractStates.isTargetState(successor) && stop) {
+              // don't signal BREAK for covered states
+              stats.countStop.increment();
+              logger.log(
+                  Level.FINER, "Break was signalled but ignored because the state is covered.");
+              continue;
+
+            } else {
+              stats.countBreak.increment();
+              logger.log(Level.FINER, "Break signalled, concurrent CPA algorithm will stop.");
+              reachedSet.add(successor, successorPrecision);
+              if (it.hasNext()) {
+                // re-add the old state to the waitlist, there are unhandled
+                // successors left that otherwise would be forgotten
+                reachedSet.reAddToWaitlistIfContained(state);
+              }
+              return true;
+            }
+          }
+          assert action == Action.CONTINUE : "Enum Action has unhandled values!";
+
+          handleSuccessor(successor, successorPrecision);
+
+        } finally {
+          partitionLock.unlock();
+        }
+      }
+
+      return false;
+    }
+
+    /** Merge and stop for one successor, the caller has to hold the partition lock. */
+    private void handleSuccessor(AbstractState successor, Precision successorPrecision)
+        throws CPAException, InterruptedException {
+      Collection<AbstractState> reached = reachedSet.getReached(successor);
+
+      // An optimization, we don't bother merging if we know that the
+      // merge operator won't do anything (i.e., it is merge-sep).
+      if (mergeOperator != MergeSepOperator.getInstance() && !reached.isEmpty()) {
+        List<AbstractState> toRemove = new ArrayList<>();
+        List<Pair<AbstractState, Precision>> toAdd = new ArrayList<>();
+        mergeTimer.start();
+        try {
+          try {
+            for (AbstractState reachedState : reached) {
+              shutdownNotifier.shutdownIfNecessary();
+              AbstractState mergedState =
+                  mergeOperator.merge(successor, reachedState, successorPrecision);
+
+              if (!mergedState.equals(reachedState)) {
+                logger.log(
+                    Level.ALL, "Merged", successor, "\nand", reachedState, "\n-->", mergedState);
+                stats.countMerge.increment();
+
+                toRemove.add(reachedState);
+                toAdd.add(Pair.of(mergedState, successorPrecision));
+              }
+            }
+          } finally {
+            reachedSet.removeAll(toRemove);
+            reachedSet.addAll(toAdd);
+          }
+        } finally {
+          mergeTimer.stop();
+        }
+
+      }
+
+      stopTimer.start();
+      boolean stop;
+      try {
+        stop = stopOperator.stop(successor, reached, successorPrecision);
+      } finally {
+        stopTimer.stop();
+      }
+
+      if (stop) {
+        logger.log(Level.FINER, "Successor is covered or unreachable, not adding to waitlist");
+        stats.countStop.increment();
+      } else {
+        logger.log(Level.FINER, "No need to stop, adding successor to waitlist");
+        reachedSet.add(successor, successorPrecision);
+      }
+    }
+  }
+
+  @Override
+  public void collectStatistics(Collection<Statistics> pStatsCollection) {
+    pStatsCollection.add(stats);
+  }
+}
@@ -31,8 +31,11 @@ import static java.util.concurrent.Executors.newFixedThreadPool;
 import static org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition.getDefaultPartition;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.Futures;
@@ -40,10 +43,14 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
@@ -51,8 +58,10 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
+import java.util.regex.Pattern;
 import javax.annotation.Nullable;
 import org.sosy_lab.common.ShutdownManager;
 import org.sosy_lab.common.ShutdownNotifier;
@@ -65,6 +74,7 @@ import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.CFACreator;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.CoreComponentsFactory;
@@ -82,6 +92,7 @@ import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.exceptions.CompoundException;
+import org.sosy_lab.cpachecker.exceptions.ParserException;
 import org.sosy_lab.cpachecker.util.AbstractStates;
 import org.sosy_lab.cpachecker.util.CPAs;
 import org.sosy_lab.cpachecker.util.globalinfo.GlobalInfo;
@@ -109,6 +120,29 @@ public class ParallelAlgorithm implements Algorithm, StatisticsProvider {
   @FileOption(FileOption.Type.OPTIONAL_INPUT_FILE)
   private List<AnnotatedValue<Path>> configFiles;
 
+  @Option(
+    secure = true,
+    description =
+        "All analyses share the CFA that was created with the global configuration."
+            + " If this option is enabled, analyses whose configuration specifies different"
+            + " CFA-related options (e.g., cfa.*, liveVar.*, or analysis.machineModel) get their"
+            + " own CFA instead, which is shared among all analyses with the same CFA-related"
+            + " options."
+            + " Otherwise, such options are ignored with a warning."
+  )
+  private boolean createCFAForIncompatibleConfigs = false;
+
+  /** Prefixes of options that influence the CFA and thus need to match for sharing it. */
+  private static final ImmutableList<String> CFA_OPTION_PREFIXES =
+      ImmutableList.of("cfa.", "parser.", "language", "analysis.", "liveVar.");
+
+  /** Options with the above prefixes that do not influence the CFA. */
+  private static final Pattern NON_CFA_OPTIONS =
+      Pattern.compile(
+          "cfa\\.(export.*|file|callgraph\\..*|serialize.*|pixelGraphicFile)"
+              + "|analysis\\.(?!(machineModel|entryFunction|interprocedural|functionPointerCalls"
+              + "|threadOperationsTransform|useGlobalVars|useLoopStructure|summaryEdges)$).*");
+
   private static final String SUCCESS_MESSAGE =
       "One of the parallel analyses has finished successfully, cancelling all other runs.";
 
@@ -126,6 +160,12 @@ public class ParallelAlgorithm implements Algorithm, StatisticsProvider {
   private final List<ConditionAdjustmentEventSubscriber> conditionAdjustmentEventSubscribers =
       new CopyOnWriteArrayList<>();
 
+  /** The CFA-related options of the global configuration, which was used for creating the CFA. */
+  private final ImmutableMap<String, String> globalCFAOptions;
+
+  /** CFAs for analyses with configurations that are incompatible with the global CFA. */
+  private final Map<ImmutableMap<String, String>, CFA> additionalCFAs = new HashMap<>();
+
   public ParallelAlgorithm(
       Configuration config,
       LogManager pLogger,
@@ -142,6 +182,7 @@ public class ParallelAlgorithm implements Algorithm, StatisticsProvider {
     shutdownManager = ShutdownManager.createWithParent(checkNotNull(pShutdownNotifier));
     specification = checkNotNull(pSpecification);
     cfa = checkNotNull(pCfa);
+    globalCFAOptions = getCFAOptions(config);
 
     aggregatedReachedSetManager = new AggregatedReachedSetManager();
     aggregatedReachedSetManager.addAggregated(pAggregatedReachedSets);
@@ -311,7 +352,7 @@ public class ParallelAlgorithm implements Algorithm, StatisticsProvider {
     final ReachedSet reached = coreComponents.createReachedSet();
 
     AtomicBoolean terminated = new AtomicBoolean(false);
-    Collection<Statistics> subStats =
+    StatisticsEntry statisticsEntry =
         stats.getNewSubStatistics(
             reached,
             singleConfigFileName.toString(),
@@ -319,53 +360,171 @@ public class ParallelAlgorithm implements Algorithm, StatisticsProvider {
                 FluentIterable.from(singleAnalysisOverallLimit.getResourceLimits())
                     .filter(ThreadCpuTimeLimit.class),
                 null), terminated);
+    Collection<Statistics> subStats = statisticsEntry.subStatistics;
     return () -> {
-      final Algorithm algorithm;
-      final ConfigurableProgramAnalysis cpa;
+      final long allocatedBytesAtStart = getAllocatedBytesOfCurrentThread();
+      try {
+        return runSingleAnalysis(
+            singleConfigFileName.toString(),
+            singleConfig,
+            singleLogger,
+            singleShutdownManager.getNotifier(),
+            singleAnalysisOverallLimit,
+            coreComponents,
+            reached,
+            subStats,
+            statisticsEntry,
+            supplyReached,
+            supplyRefinableReached);
+      } finally {
+        terminated.set(true);
+        if (allocatedBytesAtStart >= 0) {
+          statisticsEntry.allocatedBytes.set(
+              getAllocatedBytesOfCurrentThread() - allocatedBytesAtStart);
+        }
+      }
+    };
+  }
 
-      cpa = coreComponents.createCPA(cfa, specification);
+  private ParallelAnalysisResult runSingleAnalysis(
+      final String analysisName,
+      final Configuration singleConfig,
+      final LogManager singleLogger,
+      final ShutdownNotifier singleShutdownNotifier,
+      final ResourceLimitChecker singleAnalysisOverallLimit,
+      final CoreComponentsFactory coreComponents,
+      final ReachedSet reached,
+      final Collection<Statistics> subStats,
+      final StatisticsEntry statisticsEntry,
+      final boolean supplyReached,
+      final boolean supplyRefinableReached)
+      throws InvalidConfigurationException, CPAException, InterruptedException {
+    final Algorithm algorithm;
+    final ConfigurableProgramAnalysis cpa;
 
-      // TODO global info will not work correctly with parallel analyses
-      // as it is a mutable singleton object
-      GlobalInfo.getInstance().setUpInfoFromCPA(cpa);
+    final CFA singleCfa;
+    try {
+      singleCfa = getCFAForAnalysis(singleConfig, singleLogger, singleShutdownNotifier);
+    } catch (IOException | ParserException | InvalidConfigurationException e) {
+      singleLogger.logUserException(
+          Level.WARNING, e, "Skipping analysis because its CFA could not be created");
+      return ParallelAnalysisResult.absent(analysisName);
+    } catch (InterruptedException e) {
+      singleLogger.logUserException(
+          Level.INFO, e, "Creating CFA took too long, analysis cannot be started");
+      return ParallelAnalysisResult.absent(analysisName);
+    }
+    statisticsEntry.usesSharedCFA = singleCfa == cfa;
+    final CFANode singleMainEntryNode =
+        singleCfa == cfa ? mainEntryNode : singleCfa.getMainFunction();
 
-      algorithm = coreComponents.createAlgorithm(cpa, cfa, specification);
-      if (algorithm instanceof ConditionAdjustmentEventSubscriber) {
-        conditionAdjustmentEventSubscribers.add((ConditionAdjustmentEventSubscriber) algorithm);
-      }
+    cpa = coreComponents.createCPA(singleCfa, specification);
 
-      singleAnalysisOverallLimit.start();
+    // TODO global info will not work correctly with parallel analyses
+    // as it is a mutable singleton object
+    GlobalInfo.getInstance().setUpInfoFromCPA(cpa);
 
-      if (cpa instanceof StatisticsProvider) {
-        ((StatisticsProvider) cpa).collectStatistics(subStats);
-      }
+    algorithm = coreComponents.createAlgorithm(cpa, singleCfa, specification);
+    if (algorithm instanceof ConditionAdjustmentEventSubscriber) {
+      conditionAdjustmentEventSubscribers.add((ConditionAdjustmentEventSubscriber) algorithm);
+    }
+
+    singleAnalysisOverallLimit.start();
+
+    if (cpa instanceof StatisticsProvider) {
+      ((StatisticsProvider) cpa).collectStatistics(subStats);
+    }
+
+    if (algorithm instanceof StatisticsProvider) {
+      ((StatisticsProvider) algorithm).collectStatistics(subStats);
+    }
+
+    try {
+      initializeReachedSet(cpa, singleMainEntryNode, reached);
+    } catch (InterruptedException e) {
+      singleLogger.logUserException(
+          Level.INFO, e, "Initializing reached set took too long, analysis cannot be started");
+      return ParallelAnalysisResult.absent(analysisName);
+    }
 
-      if (algorithm instanceof StatisticsProvider) {
-        ((StatisticsProvider) algorithm).collectStatistics(subStats);
+    return runParallelAnalysis(
+        analysisName,
+        algorithm,
+        reached,
+        singleLogger,
+        cpa,
+        singleMainEntryNode,
+        supplyReached,
+        supplyRefinableReached,
+        coreComponents);
+  }
+
+  /**
+   * Return the CFA for an analysis with the given configuration. This is the CFA that was created
+   * for the global configuration, unless the configuration specifies different CFA-related options
+   * and {@link #createCFAForIncompatibleConfigs} is enabled. CFAs are immutable, so they (and
+   * their loop structure, variable classification, and live variables) can be shared by all
+   * analyses.
+   */
+  private CFA getCFAForAnalysis(
+      Configuration pSingleConfig, LogManager pSingleLogger, ShutdownNotifier pShutdownNotifier)
+      throws InvalidConfigurationException, IOException, ParserException, InterruptedException {
+    ImmutableMap<String, String> cfaOptions = getCFAOptions(pSingleConfig);
+    if (cfaOptions.equals(globalCFAOptions)) {
+      return cfa;
+    }
+    if (!createCFAForIncompatibleConfigs) {
+      pSingleLogger.log(
+          Level.WARNING,
+          "Configuration specifies different CFA-related options than the global configuration,",
+          "these options are ignored and the CFA of the global configuration is used.");
+      return cfa;
+    }
+
+    // Only one CFA is created at a time, such that all analyses with the same options share it.
+    synchronized (additionalCFAs) {
+      CFA result = additionalCFAs.get(cfaOptions);
+      if (result == null) {
+        pSingleLogger.log(
+            Level.INFO,
+            "Configuration specifies different CFA-related options, creating a separate CFA.");
+        result =
+            new CFACreator(pSingleConfig, pSingleLogger, pShutdownNotifier)
+                .parseFileAndCreateCFA(Lists.transform(cfa.getFileNames(), Path::toString));
+        additionalCFAs.put(cfaOptions, result);
       }
+      return result;
+    }
+  }
 
-      try {
-        initializeReachedSet(cpa, mainEntryNode, reached);
-      } catch (InterruptedException e) {
-        singleLogger.logUserException(
-            Level.INFO, e, "Initializing reached set took too long, analysis cannot be started");
-        terminated.set(true);
-        return ParallelAnalysisResult.absent(singleConfigFileName.toString());
+  /** Extract all options of a configuration that influence the creation of the CFA. */
+  private static ImmutableMap<String, String> getCFAOptions(Configuration pConfig) {
+    ImmutableMap.Builder<String, String> result = ImmutableMap.builder();
+    for (String line : Splitter.on('\n').omitEmptyStrings().split(pConfig.asPropertiesString())) {
+      List<String> option = Splitter.on('=').limit(2).trimResults().splitToList(line);
+      if (option.size() == 2
+          && CFA_OPTION_PREFIXES.stream().anyMatch(option.get(0)::startsWith)
+          && !NON_CFA_OPTIONS.matcher(option.get(0)).matches()) {
+        result.put(option.get(0), option.get(1));
       }
+    }
+    return result.build();
+  }
 
-      ParallelAnalysisResult r =
-          runParallelAnalysis(
-              singleConfigFileName.toString(),
-              algorithm,
-              reached,
-              singleLogger,
-              cpa,
-              supplyReached,
-              supplyRefinableReached,
-              coreComponents);
-      terminated.set(true);
-      return r;
-    };
+  /**
+   * Return the number of bytes allocated on the heap by the current thread so far,
+   * or -1 if the JVM does not support this measurement.
+   */
+  private static long getAllocatedBytesOfCurrentThread() {
+    ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    if (threadBean instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean sunThreadBean = (com.sun.management.ThreadMXBean) threadBean;
+      if (sunThreadBean.isThreadAllocatedMemorySupported()
+          && sunThreadBean.isThreadAllocatedMemoryEnabled()) {
+        return sunThreadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+    }
+    return -1;
   }
 
   private ParallelAnalysisResult runParallelAnalysis(
@@ -374,6 +533,7 @@ public class ParallelAlgorithm implements Algorithm, StatisticsProvider {
       final ReachedSet reached,
       final LogManager singleLogger,
       final ConfigurableProgramAnalysis cpa,
+      final CFANode singleMainEntryNode,
       final boolean supplyReached,
       final boolean supplyRefinableReached,
       final CoreComponentsFactory coreComponents)
@@ -468,7 +628,7 @@ public class ParallelAlgorithm implements Algorithm, StatisticsProvider {
 
           if (!stopAnalysis) {
             currentReached = coreComponents.createReachedSet();
-            initializeReachedSet(cpa, mainEntryNode, currentReached);
+            initializeReachedSet(cpa, singleMainEntryNode, currentReached);
           }
         } while (!stopAnalysis);
       }
@@ -580,12 +740,12 @@ public class ParallelAlgorithm implements Algorithm, StatisticsProvider {
       logger = checkNotNull(pLogger);
     }
 
-    public synchronized Collection<Statistics> getNewSubStatistics(
+    public synchronized StatisticsEntry getNewSubStatistics(
         ReachedSet pReached, String pName, @Nullable ThreadCpuTimeLimit pRLimit, AtomicBoolean pTerminated) {
       Collection<Statistics> subStats = Lists.newCopyOnWriteArrayList();
       StatisticsEntry entry = new StatisticsEntry(subStats, pReached, pName, pRLimit, pTerminated);
       allAnalysesStats.add(entry);
-      return subStats;
+      return entry;
     }
 
     @Override
@@ -596,6 +756,9 @@ public class ParallelAlgorithm implements Algorithm, StatisticsProvider {
     @Override
     public void printStatistics(PrintStream out, Result result, UnmodifiableReachedSet reached) {
       out.println("Number of algorithms used:        " + noOfAlgorithmsUsed);
+      out.println(
+          "Number of algorithms with own CFA: "
+              + allAnalysesStats.stream().filter(s -> !s.usesSharedCFA).count());
       if (successfulAnalysisName != null) {
         out.println("Successful analysis: " + successfulAnalysisName);
       }
@@ -616,6 +779,18 @@ public class ParallelAlgorithm implements Algorithm, StatisticsProvider {
                   + ": "
                   + subStats.rLimit.getOverallUsedTime().formatAs(TimeUnit.SECONDS));
         }
+        long allocatedBytes = subStats.allocatedBytes.get();
+        if (allocatedBytes >= 0) {
+          pOut.println(
+              "Heap memory allocated by analysis thread (cumulative, not retained) "
+                  + subStats.name
+                  + ": "
+                  + (allocatedBytes >> 20)
+                  + " MiB");
+        }
+        if (!subStats.usesSharedCFA) {
+          pOut.println("Analysis used its own CFA instead of the shared CFA.");
+        }
         boolean terminated = subStats.terminated.get();
         if (terminated) {
           Result result = determineAnalysisResult(pResult, subStats.name);
@@ -688,6 +863,14 @@ public class ParallelAlgorithm implements Algorithm, StatisticsProvider {
 
     private final AtomicBoolean terminated;
 
+    /**
+     * Heap memory allocated by the thread of this analysis in total (including memory that was
+     * garbage collected again, so this is not the retained heap of the analysis), or -1 if unknown.
+     */
+    private final AtomicLong allocatedBytes = new AtomicLong(-1);
+
+    private volatile boolean usesSharedCFA = true;
+
     public StatisticsEntry(Collection<Statistics> pSubStatistics, ReachedSet pReachedSet, String pName, @Nullable ThreadCpuTimeLimit pRLimit, AtomicBoolean pTerminated) {
       subStatistics = Objects.requireNonNull(pSubStatistics);
       reachedSet = Objects.requireNonNull(pReachedSet);
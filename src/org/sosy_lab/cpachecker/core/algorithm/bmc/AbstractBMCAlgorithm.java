@@ -163,6 +163,18 @@ abstract class AbstractBMCAlgorithm
   )
   private boolean usePropertyDirection = false;
 
+  @Option(
+    secure = true,
+    description =
+        "Keep the program formulas of all bounds on the same solver stack"
+            + " and add only the newly unrolled parts of the program for each bound"
+            + " instead of pushing and popping the complete formula for each check."
+            + " This allows the solver to reuse what it learned about the common prefix"
+            + " of the unrolled program. For k-induction, the formula of the step case"
+            + " is kept on the solver stack while all candidates are checked for the same k."
+  )
+  private boolean incrementalSolving = false;
+
   protected final BMCStatistics stats;
   private final Algorithm algorithm;
   private final ConfigurableProgramAnalysis cpa;
@@ -197,6 +209,9 @@ abstract class AbstractBMCAlgorithm
   private final List<ConditionAdjustmentEventSubscriber> conditionAdjustmentEventSubscribers =
       new CopyOnWriteArrayList<>();
 
+  /** The encoding of the program formulas on the prover of the current run, if incremental. */
+  private @Nullable IncrementalProgramEncoding incrementalEncoding = null;
+
   protected AbstractBMCAlgorithm(
       Algorithm pAlgorithm,
       ConfigurableProgramAnalysis pCPA,
@@ -345,6 +360,9 @@ abstract class AbstractBMCAlgorithm
         @SuppressWarnings("resource")
             KInductionProver kInductionProver = createInductionProver()) {
       invariantGeneratorHeadStart.waitForInvariantGenerator();
+      if (incrementalSolving) {
+        incrementalEncoding = new IncrementalProgramEncoding(bfmgr, prover);
+      }
 
       do {
         shutdownNotifier.shutdownIfNecessary();
@@ -597,7 +615,19 @@ abstract class AbstractBMCAlgorithm
     BooleanFormula program = bfmgr.not(pCandidateInvariant.getAssertion(pReachedSet, fmgr, pmgr));
     logger.log(Level.INFO, "Starting satisfiability check...");
     stats.satCheck.start();
-    pProver.push(program);
+    if (incrementalEncoding != null
+        && incrementalEncoding.usesProver(pProver)
+        && pCandidateInvariant == TargetLocationCandidateInvariant.INSTANCE) {
+      // Target states that were checked for previous bounds are already removed,
+      // so this is the formula for the new target states,
+      // and only its newly unrolled subformulas are added to the prover.
+      BooleanFormula targets =
+          BMCHelper.createFormulaFor(
+              pCandidateInvariant.filterApplicable(pReachedSet), bfmgr);
+      pProver.push(incrementalEncoding.encode(targets));
+    } else {
+      pProver.push(program);
+    }
     boolean safe = pProver.isUnsat();
     stats.satCheck.stop();
     // Leave program formula on solver stack until error path is created
@@ -791,7 +821,8 @@ abstract class AbstractBMCAlgorithm
             reachedSetFactory,
             shutdownNotifier,
             getLoopHeads(),
-            usePropertyDirection)
+            usePropertyDirection,
+            incrementalSolving)
         : null;
   }
 
@@ -0,0 +1,127 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.bmc;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.sosy_lab.cpachecker.util.predicates.smt.BooleanFormulaManagerView;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+/**
+ * Encoding of program formulas for incremental BMC, where the prover keeps the program formulas
+ * of all previous bounds.
+ *
+ * <p>Each conjunction and disjunction in an encoded formula gets a fresh literal that implies it
+ * (with the literals of its operands in place of the operands). Because the path formulas of
+ * consecutive bounds share their prefixes, only the definitions of subformulas that were newly
+ * unrolled since the last call need to be added to the prover, and the check itself only needs
+ * the literal of the whole formula. Since all subformulas occur positively, a formula is
+ * satisfiable iff its literal is satisfiable together with the definitions.
+ *
+ * <p>The definitions are pushed to the prover as a new level that is never popped, so this
+ * class needs to be used with the same prover for all bounds, and all other formulas need to be
+ * popped from the prover before the next formula is encoded.
+ */
+final class IncrementalProgramEncoding {
+
+  private static final String LITERAL_PREFIX = "__bmc_subformula_";
+
+  private final BooleanFormulaManagerView bfmgr;
+
+  private final ProverEnvironmentWithFallback prover;
+
+  /** The literals for all subformulas whose definitions were already pushed. */
+  private final Map<BooleanFormula, BooleanFormula> literals = new HashMap<>();
+
+  IncrementalProgramEncoding(
+      BooleanFormulaManagerView pBfmgr, ProverEnvironmentWithFallback pProver) {
+    bfmgr = pBfmgr;
+    prover = pProver;
+  }
+
+  boolean usesProver(ProverEnvironmentWithFallback pProver) {
+    return prover == pProver;
+  }
+
+  /**
+   * Push the definitions of all subformulas of the given formula that were not encoded before
+   * as a new level onto the prover, and return the literal for the formula.
+   */
+  BooleanFormula encode(BooleanFormula pFormula) throws InterruptedException {
+    List<BooleanFormula> newDefinitions = new ArrayList<>();
+
+    // Post-order traversal with an explicit stack, path formulas are deeply nested.
+    Deque<BooleanFormula> waitlist = new ArrayDeque<>();
+    waitlist.push(pFormula);
+    while (!waitlist.isEmpty()) {
+      BooleanFormula formula = waitlist.peek();
+      if (literals.containsKey(formula)) {
+        waitlist.pop();
+        continue;
+      }
+
+      boolean isConjunction = true;
+      Set<BooleanFormula> operands = bfmgr.toConjunctionArgs(formula, false);
+      if (operands.size() <= 1) {
+        isConjunction = false;
+        operands = bfmgr.toDisjunctionArgs(formula, false);
+      }
+
+      BooleanFormula definition;
+      if (operands.size() <= 1) {
+        definition = formula;
+      } else {
+        List<BooleanFormula> operandLiterals = new ArrayList<>(operands.size());
+        boolean operandsEncoded = true;
+        for (BooleanFormula operand : operands) {
+          BooleanFormula operandLiteral = literals.get(operand);
+          if (operandLiteral == null) {
+            waitlist.push(operand);
+            operandsEncoded = false;
+          }
+          operandLiterals.add(operandLiteral);
+        }
+        if (!operandsEncoded) {
+          continue;
+        }
+        definition = isConjunction ? bfmgr.and(operandLiterals) : bfmgr.or(operandLiterals);
+      }
+
+      waitlist.pop();
+      BooleanFormula literal = bfmgr.makeVariable(LITERAL_PREFIX + literals.size());
+      literals.put(formula, literal);
+      newDefinitions.add(bfmgr.implication(literal, definition));
+    }
+
+    if (!newDefinitions.isEmpty()) {
+      prover.push(bfmgr.and(newDefinitions));
+    }
+    return literals.get(pFormula);
+  }
+}
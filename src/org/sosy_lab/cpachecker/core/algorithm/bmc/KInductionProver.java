@@ -58,6 +58,7 @@ import java.util.Set;
 import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.stream.Stream;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.CFA;
@@ -151,6 +152,17 @@ class KInductionProver implements AutoCloseable {
 
   private boolean invariantGenerationRunning = true;
 
+  /**
+   * Whether the assertion that some successor is reached is kept on the prover stack
+   * between checks, as long as it does not change (i.e., k stays the same).
+   */
+  private final boolean keepStepCaseOnStack;
+
+  /** The assertion that is currently kept at the bottom of the prover stack, if any. */
+  private @Nullable BooleanFormula successorExistsAssertionOnStack = null;
+
+  private @Nullable Object successorExistsAssertionIdOnStack = null;
+
   /** Creates an instance of the KInductionProver. */
   public KInductionProver(
       CFA pCFA,
@@ -162,7 +174,8 @@ class KInductionProver implements AutoCloseable {
       ReachedSetFactory pReachedSetFactory,
       ShutdownNotifier pShutdownNotifier,
       Set<CFANode> pLoopHeads,
-      boolean pUnsatCoreGeneration) {
+      boolean pUnsatCoreGeneration,
+      boolean pKeepStepCaseOnStack) {
     cfa = checkNotNull(pCFA);
     logger = checkNotNull(pLogger);
     algorithm = checkNotNull(pAlgorithm);
@@ -196,6 +209,7 @@ class KInductionProver implements AutoCloseable {
     expressionTreeSupplier = ExpressionTreeSupplier.TrivialInvariantSupplier.INSTANCE;
 
     loopHeads = ImmutableSet.copyOf(pLoopHeads);
+    keepStepCaseOnStack = pKeepStepCaseOnStack;
   }
 
   private InvariantSupplier getCurrentInvariantSupplier() throws InterruptedException {
@@ -445,7 +459,7 @@ class KInductionProver implements AutoCloseable {
     stats.inductionCheck.start();
 
     // Try to prove the invariance of the assertion
-    Object successorExistsAssertionId = prover.push(successorExistsAssertion);
+    Object successorExistsAssertionId = pushSuccessorExistsAssertion(successorExistsAssertion);
     Object predecessorAssertionId =
         prover.push(
             predecessorAssertion); // Assert the formula we want to prove at the predecessors
@@ -576,7 +590,9 @@ class KInductionProver implements AutoCloseable {
     prover.pop();
 
     prover.pop(); // Pop invariant predecessor assertion
-    prover.pop(); // Pop end states
+    if (!keepStepCaseOnStack) {
+      prover.pop(); // Pop end states
+    }
 
     stats.inductionCheck.stop();
 
@@ -585,6 +601,26 @@ class KInductionProver implements AutoCloseable {
     return result;
   }
 
+  /**
+   * Push the assertion that some successor is reached. If {@link #keepStepCaseOnStack} is set and
+   * the assertion is the same as in the previous check, it is already on the stack and the solver
+   * can reuse what it learned about the unrolled step case.
+   */
+  private Object pushSuccessorExistsAssertion(BooleanFormula pSuccessorExistsAssertion)
+      throws InterruptedException {
+    if (!keepStepCaseOnStack) {
+      return prover.push(pSuccessorExistsAssertion);
+    }
+    if (!pSuccessorExistsAssertion.equals(successorExistsAssertionOnStack)) {
+      if (successorExistsAssertionOnStack != null) {
+        prover.pop(); // Pop end states of previous k
+      }
+      successorExistsAssertionIdOnStack = prover.push(pSuccessorExistsAssertion);
+      successorExistsAssertionOnStack = pSuccessorExistsAssertion;
+    }
+    return successorExistsAssertionIdOnStack;
+  }
+
   private BooleanFormula assertCandidate(
       Iterable<AbstractState> pReached, CandidateInvariant pCandidateInvariant, int pK)
       throws CPATransferException, InterruptedException {
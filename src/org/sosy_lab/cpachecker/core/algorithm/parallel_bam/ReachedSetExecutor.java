@@ -66,7 +66,6 @@ import org.sosy_lab.cpachecker.cpa.arg.ARGState;
 import org.sosy_lab.cpachecker.cpa.bam.BAMCPAWithBreakOnMissingBlock;
 import org.sosy_lab.cpachecker.cpa.bam.MissingBlockAbstractionState;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache.BAMCacheEntry;
-import org.sosy_lab.cpachecker.cpa.bam.cache.BAMDataManager;
 import org.sosy_lab.cpachecker.exceptions.UnsupportedCodeException;
 import org.sosy_lab.cpachecker.util.AbstractStates;
 import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
@@ -491,27 +490,18 @@ class ReachedSetExecutor {
    */
   private ReachedSetExecutor createAndRegisterNewReachedSet(MissingBlockAbstractionState pBsme) {
     ReachedSet newRs = pBsme.getReachedSet();
-    BAMDataManager data = bamcpa.getData();
-
-    synchronized (data) {
-      if (newRs == null) {
-        // We are only synchronized in the current method. Thus, we need to check
-        // the cache again, maybe another thread already created the needed reached-set.
-        final BAMCacheEntry entry =
-            data.getCache()
-                .get(pBsme.getReducedState(), pBsme.getReducedPrecision(), pBsme.getBlock());
-        newRs = entry == null ? null : entry.getReachedSet();
-      }
 
-      // now we can be sure, whether the sub-reached-set exists or not.
-      if (newRs == null) {
-        // we have not even cached a partly computed reached-set,
-        // so we must compute the subgraph specification from scratch
-        BAMCacheEntry entry =
-            data.createAndRegisterNewReachedSet(
-                pBsme.getReducedState(), pBsme.getReducedPrecision(), pBsme.getBlock());
-        newRs = entry.getReachedSet();
-      }
+    if (newRs == null) {
+      // The reached-set was missing when the exception was thrown. We need to check the cache
+      // again, maybe another thread already created the needed reached-set in the meantime.
+      // If not, we have not even cached a partly computed reached-set, so we must compute
+      // the subgraph specification from scratch. The data manager does this atomically.
+      BAMCacheEntry entry =
+          bamcpa
+              .getData()
+              .getOrCreateReachedSet(
+                  pBsme.getReducedState(), pBsme.getReducedPrecision(), pBsme.getBlock());
+      newRs = entry.getReachedSet();
     }
 
     ReachedSetExecutor newSubRse =
@@ -23,6 +23,7 @@
  */
 package org.sosy_lab.cpachecker.core.counterexample;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.FluentIterable.from;
 import static com.google.common.html.HtmlEscapers.htmlEscaper;
@@ -30,12 +31,16 @@ import static java.nio.file.Files.isReadable;
 import static java.util.logging.Level.WARNING;
 import static org.sosy_lab.cpachecker.util.AbstractStates.IS_TARGET_STATE;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Charsets;
 import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
+import com.google.common.io.MoreFiles;
 import com.google.common.io.Resources;
 import java.io.BufferedReader;
 import java.io.FileInputStream;
@@ -48,8 +53,13 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -58,6 +68,7 @@ import org.sosy_lab.common.JSON;
 import org.sosy_lab.common.Optionals;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -72,6 +83,7 @@ import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
 import org.sosy_lab.cpachecker.cfa.model.FunctionExitNode;
 import org.sosy_lab.cpachecker.core.CPAchecker;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.arg.ARGState;
 import org.sosy_lab.cpachecker.util.AbstractStates;
@@ -109,6 +121,26 @@ public class ReportGenerator {
   @FileOption(FileOption.Type.OUTPUT_FILE)
   private PathTemplate counterExampleFiles = PathTemplate.ofFormatString("Counterexample.%d.html");
 
+  @Option(
+    secure = true,
+    name = "report.shardData",
+    description =
+        "Write the CFA and ARG of the report as separate data files next to the report"
+            + " (split per function and per ARG subtree) instead of embedding them,"
+            + " such that reports for very large programs and ARGs can still be generated"
+            + " and opened. The report loads the CFA of a function when it is displayed"
+            + " and the ARG one data file at a time while drawing it."
+  )
+  private boolean shardData = false;
+
+  @Option(
+    secure = true,
+    name = "report.shardSize",
+    description = "Maximum number of ARG nodes per data file if report.shardData is enabled."
+  )
+  @IntegerOption(min = 1)
+  private int shardSize = 10000;
+
   private final @Nullable Path logFile;
   private final ImmutableList<String> sourceFiles;
   private final Map<Integer, Object> argNodes;
@@ -149,12 +181,14 @@ public class ReportGenerator {
       return;
     }
 
-    buildArgGraphData(pReached);
+    if (!shardData) {
+      buildArgGraphData(pReached);
+    }
     DOTBuilder2 dotBuilder = new DOTBuilder2(pCfa);
     PrintStream console = System.out;
     if (counterExamples.isEmpty()) {
       if (reportFile != null) {
-        fillOutTemplate(null, reportFile, pCfa, dotBuilder, pStatistics);
+        fillOutTemplate(null, reportFile, pCfa, pReached, dotBuilder, pStatistics);
         console.println("Graphical representation included in the file \"" + reportFile + "\".");
       }
 
@@ -164,6 +198,7 @@ public class ReportGenerator {
             counterExample,
             counterExampleFiles.getPath(counterExample.getUniqueId()),
             pCfa,
+            pReached,
             dotBuilder,
             pStatistics);
       }
@@ -187,9 +222,21 @@ public class ReportGenerator {
       @Nullable CounterexampleInfo counterExample,
       Path reportPath,
       CFA cfa,
+      UnmodifiableReachedSet reached,
       DOTBuilder2 dotBuilder,
       String statistics) {
 
+    @Nullable DataShards shards = null;
+    if (shardData) {
+      try {
+        shards = writeDataShards(reportPath, cfa, reached, dotBuilder);
+      } catch (IOException e) {
+        logger.logUserException(
+            WARNING, e, "Could not create report: Writing data files failed.");
+        return;
+      }
+    }
+
     try (BufferedReader reader =
             Resources.asCharSource(Resources.getResource(getClass(), HTML_TEMPLATE), Charsets.UTF_8)
                 .openBufferedStream();
@@ -202,7 +249,7 @@ public class ReportGenerator {
         } else if (line.contains("REPORT_CSS")) {
           insertCss(writer);
         } else if (line.contains("REPORT_JS")) {
-          insertJs(writer, cfa, dotBuilder, counterExample);
+          insertJs(writer, cfa, dotBuilder, counterExample, shards);
         } else if (line.contains("STATISTICS")) {
           insertStatistics(writer, statistics);
         } else if (line.contains("SOURCE_CONTENT")) {
@@ -226,7 +273,11 @@ public class ReportGenerator {
   }
 
   private void insertJs(
-      Writer writer, CFA cfa, DOTBuilder2 dotBuilder, @Nullable CounterexampleInfo counterExample)
+      Writer writer,
+      CFA cfa,
+      DOTBuilder2 dotBuilder,
+      @Nullable CounterexampleInfo counterExample,
+      @Nullable DataShards shards)
       throws IOException {
     try (BufferedReader reader =
         Resources.asCharSource(Resources.getResource(getClass(), JS_TEMPLATE), Charsets.UTF_8)
@@ -234,9 +285,11 @@ public class ReportGenerator {
       String line;
       while (null != (line = reader.readLine())) {
         if (line.contains("CFA_JSON_INPUT")) {
-          insertCfaJson(writer, cfa, dotBuilder, counterExample);
+          insertCfaJson(writer, cfa, dotBuilder, counterExample, shards != null);
         } else if (line.contains("ARG_JSON_INPUT")) {
-          insertArgJson(writer);
+          insertArgJson(writer, shards);
+        } else if (line.contains("REPORT_SHARDS")) {
+          insertDataShards(writer, shards);
         } else if (line.contains("SOURCE_FILES")) {
           insertSourceFileNames(writer);
         } else {
@@ -247,7 +300,11 @@ public class ReportGenerator {
   }
 
   private void insertCfaJson(
-      Writer writer, CFA cfa, DOTBuilder2 dotBuilder, @Nullable CounterexampleInfo counterExample) {
+      Writer writer,
+      CFA cfa,
+      DOTBuilder2 dotBuilder,
+      @Nullable CounterexampleInfo counterExample,
+      boolean cfaInDataShards) {
     try {
       writer.write("var cfaJson = {\n");
       insertFunctionNames(writer, cfa);
@@ -263,17 +320,25 @@ public class ReportGenerator {
       if (counterExample != null) {
         insertErrorPathData(counterExample, writer);
       }
-      dotBuilder.writeCfaInfo(writer);
+      if (cfaInDataShards) {
+        writer.write("\"nodes\":[],\n\"edges\":[]");
+      } else {
+        dotBuilder.writeCfaInfo(writer);
+      }
       writer.write("\n}\n");
     } catch (IOException e) {
       logger.logUserException(WARNING, e, "Could not create report: Inserting CFA Json failed.");
     }
   }
 
-  private void insertArgJson(Writer writer) {
+  private void insertArgJson(Writer writer, @Nullable DataShards shards) {
     try {
       writer.write("var argJson = {");
-      if (!argNodes.isEmpty() && !argEdges.isEmpty()) {
+      if (shards != null) {
+        if (shards.hasArg) {
+          writer.write("\n\"nodes\":[],\n\"edges\":[]\n");
+        }
+      } else if (!argNodes.isEmpty() && !argEdges.isEmpty()) {
         writer.write("\n\"nodes\":");
         JSON.writeJSONString(argNodes.values(), writer);
         writer.write(",\n\"edges\":");
@@ -286,6 +351,96 @@ public class ReportGenerator {
     }
   }
 
+  private void insertDataShards(Writer writer, @Nullable DataShards shards) {
+    try {
+      Map<String, Object> files = new HashMap<>();
+      files.put("cfa", shards == null ? ImmutableMap.of() : shards.cfaFiles);
+      files.put("arg", shards == null ? ImmutableList.of() : shards.argFiles);
+      writer.write("var reportShards = ");
+      JSON.writeJSONString(files, writer);
+      writer.write(";\n");
+    } catch (IOException e) {
+      logger.logUserException(
+          WARNING, e, "Could not create report: Insertion of data file names failed.");
+    }
+  }
+
+  /**
+   * Writes the CFA (one file per function) and the ARG (one file per group of subtrees with at
+   * most {@link #shardSize} nodes) into a directory next to the report. Each file is a script
+   * that passes its data to the report, because browsers do not allow to load plain JSON files
+   * from local pages. The ARG is traversed depth-first and written shard by shard, without
+   * building the JSON data for the whole ARG, such that each shard mostly contains connected
+   * subtrees that the report can draw on its own.
+   */
+  private DataShards writeDataShards(
+      Path reportPath, CFA cfa, UnmodifiableReachedSet reached, DOTBuilder2 dotBuilder)
+      throws IOException {
+    String dataDirName = MoreFiles.getNameWithoutExtension(reportPath) + ".data";
+    Path dataDir = reportPath.resolveSibling(dataDirName);
+    DataShards shards = new DataShards();
+
+    for (String function : getFunctionNamesEntryFirst(cfa)) {
+      String fileName = "cfa-" + shards.cfaFiles.size() + ".js";
+      try (Writer writer = IO.openOutputFile(dataDir.resolve(fileName), Charsets.UTF_8)) {
+        writer.write("reportShardLoaded({");
+        dotBuilder.writeCfaInfo(writer, function);
+        writer.write("});\n");
+      }
+      shards.cfaFiles.put(function, dataDirName + "/" + fileName);
+    }
+
+    if (reached.getFirstState() instanceof ARGState) {
+      ArgShardWriter argWriter = new ArgShardWriter(dataDir, dataDirName, shards, shardSize);
+      Set<ARGState> visited = new HashSet<>();
+      Deque<ARGState> waitlist = new ArrayDeque<>();
+      waitlist.push((ARGState) reached.getFirstState());
+      while (!waitlist.isEmpty()) {
+        ARGState state = waitlist.pop();
+        if (visited.add(state)) {
+          writeArgState(state, argWriter);
+          for (ARGState child : state.getChildren()) {
+            if (reached.contains(child) && !visited.contains(child)) {
+              waitlist.push(child);
+            }
+          }
+        }
+      }
+      // states that are not reachable from the first state, if any
+      for (AbstractState state : reached) {
+        if (visited.add((ARGState) state)) {
+          writeArgState((ARGState) state, argWriter);
+        }
+      }
+      argWriter.flush();
+      shards.hasArg = argWriter.nodeCount > 0 && argWriter.edgeCount > 0;
+    }
+    return shards;
+  }
+
+  private void writeArgState(ARGState state, ArgShardWriter argWriter) throws IOException {
+    CFANode node = Iterables.getFirst(AbstractStates.extractLocations(state), null);
+    if (node == null) {
+      return;
+    }
+    int parentStateId = state.getStateId();
+    argWriter.addNode(createArgNode(parentStateId, node, state));
+    for (ARGState child : state.getChildren()) {
+      int childStateId = child.getStateId();
+      // Covered state is not contained in the reached set
+      if (child.isCovered()) {
+        Map<String, Object> coveredNode = createCoveredArgNode(childStateId, child);
+        if (coveredNode != null) {
+          argWriter.addNode(coveredNode);
+        }
+        argWriter.addEdge(
+            createCoveredArgEdge(childStateId, child.getCoveringState().getStateId()));
+      }
+      argWriter.addEdge(createArgEdge(parentStateId, childStateId, state.getEdgesToChild(child)));
+    }
+    argWriter.flushIfFull();
+  }
+
   private void insertCss(Writer writer) throws IOException {
     writer.write("<style>" + "\n");
     Resources.asCharSource(Resources.getResource(getClass(), CSS_TEMPLATE), Charsets.UTF_8)
@@ -469,16 +624,20 @@ public class ReportGenerator {
   private void insertFunctionNames(Writer writer, CFA cfa) {
     try {
       writer.write("\"functionNames\":");
-      Set<String> allFunctionsEntryFirst = Sets.newLinkedHashSet();
-      allFunctionsEntryFirst.add(cfa.getMainFunction().getFunctionName());
-      allFunctionsEntryFirst.addAll(cfa.getAllFunctionNames());
-      JSON.writeJSONString(allFunctionsEntryFirst, writer);
+      JSON.writeJSONString(getFunctionNamesEntryFirst(cfa), writer);
     } catch (IOException e) {
       logger.logUserException(
           WARNING, e, "Could not create report: Insertion of function names failed.");
     }
   }
 
+  private static Set<String> getFunctionNamesEntryFirst(CFA cfa) {
+    Set<String> allFunctionsEntryFirst = Sets.newLinkedHashSet();
+    allFunctionsEntryFirst.add(cfa.getMainFunction().getFunctionName());
+    allFunctionsEntryFirst.addAll(cfa.getAllFunctionNames());
+    return allFunctionsEntryFirst;
+  }
+
   private void insertSourceFileNames(Writer writer) {
     try {
       writer.write("var sourceFiles = ");
@@ -500,22 +659,32 @@ public class ReportGenerator {
                 int parentStateId = ((ARGState) entry).getStateId();
                 for (CFANode node : AbstractStates.extractLocations(entry)) {
                   if (!argNodes.containsKey(parentStateId)) {
-                    createArgNode(parentStateId, node, (ARGState) entry);
+                    argNodes.put(
+                        parentStateId, createArgNode(parentStateId, node, (ARGState) entry));
                   }
                   if (!((ARGState) entry).getChildren().isEmpty()) {
                     for (ARGState child : ((ARGState) entry).getChildren()) {
                       int childStateId = child.getStateId();
                       // Covered state is not contained in the reached set
                       if (child.isCovered()) {
-                        String label =
-                            child.toDOTLabel().length() > 2
-                                ? child.toDOTLabel().substring(0, child.toDOTLabel().length() - 2)
-                                : "";
-                        createCoveredArgNode(childStateId, child, label);
-                        createCoveredArgEdge(childStateId, child.getCoveringState().getStateId());
+                        if (!argNodes.containsKey(childStateId)) {
+                          Map<String, Object> coveredNode =
+                              createCoveredArgNode(childStateId, child);
+                          if (coveredNode != null) {
+                            argNodes.put(childStateId, coveredNode);
+                          }
+                        }
+                        int coveringStateId = child.getCoveringState().getStateId();
+                        argEdges.put(
+                            "" + coveringStateId + "->" + childStateId,
+                            createCoveredArgEdge(childStateId, coveringStateId));
                       }
-                      createArgEdge(
-                          parentStateId, childStateId, ((ARGState) entry).getEdgesToChild(child));
+                      argEdges.put(
+                          "" + parentStateId + "->" + childStateId,
+                          createArgEdge(
+                              parentStateId,
+                              childStateId,
+                              ((ARGState) entry).getEdgesToChild(child)));
                     }
                   }
                 }
@@ -523,7 +692,7 @@ public class ReportGenerator {
     }
   }
 
-  private void createArgNode(int parentStateId, CFANode node, ARGState argState) {
+  private Map<String, Object> createArgNode(int parentStateId, CFANode node, ARGState argState) {
     String dotLabel = argState.toDOTLabel().length() > 2 ? argState.toDOTLabel().substring(0, argState.toDOTLabel().length() - 2) : "";
     Map<String, Object> argNode = new HashMap<>();
     argNode.put("index", parentStateId);
@@ -539,7 +708,7 @@ public class ReportGenerator {
             + "\n"
             + dotLabel);
     argNode.put("type", determineNodeType(argState));
-    argNodes.put(parentStateId, argNode);
+    return argNode;
   }
 
   private String determineNodeType(ARGState argState) {
@@ -555,37 +724,42 @@ public class ReportGenerator {
     return "";
   }
 
-  private void createCoveredArgNode(int childStateId, ARGState child, String dotLabel) {
-    Map<String, Object> nodeData = new HashMap<>();
-    for (CFANode coveredNode : AbstractStates.extractLocations(child)) {
-      if (!argNodes.containsKey(childStateId)) {
-        nodeData.put("index", childStateId);
-        nodeData.put("func", coveredNode.getFunctionName());
-        nodeData.put(
-            "label",
-            childStateId
-                + " @ "
-                + coveredNode.toString()
-                + "\n"
-                + coveredNode.getFunctionName()
-                + nodeTypeInNodeLabel(coveredNode)
-                + dotLabel);
-        nodeData.put("type", "covered");
-        argNodes.put(childStateId, nodeData);
-      }
+  private @Nullable Map<String, Object> createCoveredArgNode(int childStateId, ARGState child) {
+    CFANode coveredNode = Iterables.getFirst(AbstractStates.extractLocations(child), null);
+    if (coveredNode == null) {
+      return null;
     }
+    String dotLabel =
+        child.toDOTLabel().length() > 2
+            ? child.toDOTLabel().substring(0, child.toDOTLabel().length() - 2)
+            : "";
+    Map<String, Object> nodeData = new HashMap<>();
+    nodeData.put("index", childStateId);
+    nodeData.put("func", coveredNode.getFunctionName());
+    nodeData.put(
+        "label",
+        childStateId
+            + " @ "
+            + coveredNode.toString()
+            + "\n"
+            + coveredNode.getFunctionName()
+            + nodeTypeInNodeLabel(coveredNode)
+            + dotLabel);
+    nodeData.put("type", "covered");
+    return nodeData;
   }
 
-  private void createCoveredArgEdge(int parentStateId, int coveringStateId) {
+  private Map<String, Object> createCoveredArgEdge(int parentStateId, int coveringStateId) {
     Map<String, Object> coveredEdge = new HashMap<>();
     coveredEdge.put("source", parentStateId);
     coveredEdge.put("target", coveringStateId);
     coveredEdge.put("label", "covered by");
     coveredEdge.put("type", "covered");
-    argEdges.put("" + coveringStateId + "->" + parentStateId, coveredEdge);
+    return coveredEdge;
   }
 
-  private void createArgEdge(int parentStateId, int childStateId, List<CFAEdge> edges) {
+  private Map<String, Object> createArgEdge(
+      int parentStateId, int childStateId, List<CFAEdge> edges) {
     Map<String, Object> argEdge = new HashMap<>();
     argEdge.put("source", parentStateId);
     argEdge.put("target", childStateId);
@@ -625,7 +799,7 @@ public class ReportGenerator {
       argEdge.put("file", edges.get(0).getFileLocation().getFileName());
     }
     argEdge.put("label", edgeLabel.toString());
-    argEdges.put("" + parentStateId + "->" + childStateId, argEdge);
+    return argEdge;
   }
 
   // Add the node type (if it is entry or exit) to the node label
@@ -646,4 +820,71 @@ public class ReportGenerator {
         .replaceAll("\\s+", " ")
         .replaceAll(" ;", ";");
   }
+
+  /**
+   * The names of the data files of a report, relative to the report: one CFA file per function
+   * and a list of ARG files together with the number of nodes in each of them.
+   */
+  static class DataShards {
+    final Map<String, String> cfaFiles = new LinkedHashMap<>();
+    final List<Map<String, Object>> argFiles = new ArrayList<>();
+    boolean hasArg = false;
+  }
+
+  /** Collects the nodes and edges of the ARG for one data file at a time. */
+  @VisibleForTesting
+  static class ArgShardWriter {
+
+    private final Path dataDir;
+    private final String dataDirName;
+    private final DataShards shards;
+    private final int shardSize;
+
+    private final List<Object> nodes = new ArrayList<>();
+    private final List<Object> edges = new ArrayList<>();
+    private int nodeCount = 0;
+    private int edgeCount = 0;
+
+    ArgShardWriter(Path pDataDir, String pDataDirName, DataShards pShards, int pShardSize) {
+      checkArgument(pShardSize > 0);
+      dataDir = pDataDir;
+      dataDirName = pDataDirName;
+      shards = pShards;
+      shardSize = pShardSize;
+    }
+
+    void addNode(Map<String, Object> pNode) {
+      nodes.add(pNode);
+      nodeCount++;
+    }
+
+    void addEdge(Map<String, Object> pEdge) {
+      edges.add(pEdge);
+      edgeCount++;
+    }
+
+    void flushIfFull() throws IOException {
+      if (nodes.size() >= shardSize) {
+        flush();
+      }
+    }
+
+    void flush() throws IOException {
+      if (nodes.isEmpty() && edges.isEmpty()) {
+        return;
+      }
+      String fileName = "arg-" + shards.argFiles.size() + ".js";
+      try (Writer writer = IO.openOutputFile(dataDir.resolve(fileName), Charsets.UTF_8)) {
+        writer.write("reportShardLoaded({\"nodes\":");
+        JSON.writeJSONString(nodes, writer);
+        writer.write(",\n\"edges\":");
+        JSON.writeJSONString(edges, writer);
+        writer.write("});\n");
+      }
+      shards.argFiles.add(
+          ImmutableMap.of("file", dataDirName + "/" + fileName, "nodes", nodes.size()));
+      nodes.clear();
+      edges.clear();
+    }
+  }
 }
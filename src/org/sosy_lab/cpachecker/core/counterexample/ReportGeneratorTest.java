@@ -0,0 +1,161 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.counterexample;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.MoreFiles;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult;
+import org.sosy_lab.cpachecker.core.counterexample.ReportGenerator.ArgShardWriter;
+import org.sosy_lab.cpachecker.core.counterexample.ReportGenerator.DataShards;
+import org.sosy_lab.cpachecker.util.test.CPATestRunner;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+import org.sosy_lab.cpachecker.util.test.TestResults;
+
+public class ReportGeneratorTest {
+
+  private static final String PROGRAM = "test/programs/simple/uninitVars.c";
+
+  private static final Pattern ARG_NODE = Pattern.compile("\"index\"\\s*:");
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private final LogManager logger = LogManager.createTestLogManager();
+
+  @Test
+  public void testArgShardWriterSplitsAfterShardSize() throws IOException {
+    Path dataDir = tempFolder.getRoot().toPath().resolve("Report.data");
+    DataShards shards = new DataShards();
+    ArgShardWriter argWriter = new ArgShardWriter(dataDir, "Report.data", shards, 2);
+    for (int i = 0; i < 5; i++) {
+      argWriter.addNode(ImmutableMap.of("index", i));
+      argWriter.flushIfFull();
+    }
+    argWriter.flush();
+    // nothing left to write
+    argWriter.flush();
+
+    assertThat(shards.argFiles)
+        .containsExactly(
+            ImmutableMap.of("file", "Report.data/arg-0.js", "nodes", 2),
+            ImmutableMap.of("file", "Report.data/arg-1.js", "nodes", 2),
+            ImmutableMap.of("file", "Report.data/arg-2.js", "nodes", 1))
+        .inOrder();
+    for (int i = 0; i < 3; i++) {
+      assertThat(read(dataDir.resolve("arg-" + i + ".js"))).startsWith("reportShardLoaded({");
+    }
+  }
+
+  @Test
+  public void testShardedReport() throws Exception {
+    TestResults results =
+        CPATestRunner.run(
+            ImmutableMap.of(
+                "cpa", "cpa.arg.ARGCPA",
+                "ARGCPA.cpa", "cpa.composite.CompositeCPA",
+                "CompositeCPA.cpas", "cpa.location.LocationCPA, cpa.callstack.CallstackCPA",
+                "specification", "config/specification/default.spc"),
+            PROGRAM);
+    results.assertIsSafe();
+    CPAcheckerResult result = results.getCheckerResult();
+
+    Path reportFile = tempFolder.getRoot().toPath().resolve("Report.html");
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .setOption("report.file", reportFile.toString())
+            .setOption("report.shardData", "true")
+            .setOption("report.shardSize", "2")
+            .build();
+    new ReportGenerator(config, logger, null, ImmutableList.of(PROGRAM))
+        .generate(result.getCfa(), result.getReached(), "");
+
+    String report = read(reportFile);
+    assertThat(report).contains("var reportShards = ");
+
+    Path dataDir = reportFile.resolveSibling("Report.data");
+    List<Path> cfaFiles = listFiles(dataDir, "cfa-");
+    assertThat(cfaFiles).hasSize(result.getCfa().getAllFunctionNames().size());
+    for (Path cfaFile : cfaFiles) {
+      assertThat(report).contains("Report.data/" + cfaFile.getFileName());
+    }
+
+    int argNodes = 0;
+    for (Path argFile : listFiles(dataDir, "arg-")) {
+      assertThat(report).contains("Report.data/" + argFile.getFileName());
+      int nodesInFile = countArgNodes(read(argFile));
+      assertThat(nodesInFile).isAtMost(2);
+      argNodes += nodesInFile;
+    }
+    assertThat(argNodes).isAtLeast(result.getReached().size());
+  }
+
+  @Test(expected = InvalidConfigurationException.class)
+  public void testShardSizeMustBePositive() throws InvalidConfigurationException {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .setOption("report.shardData", "true")
+            .setOption("report.shardSize", "0")
+            .build();
+    new ReportGenerator(config, logger, null, ImmutableList.of(PROGRAM));
+  }
+
+  private static String read(Path pFile) throws IOException {
+    return MoreFiles.asCharSource(pFile, Charsets.UTF_8).read();
+  }
+
+  private static List<Path> listFiles(Path pDir, String pPrefix) throws IOException {
+    try (Stream<Path> files = Files.list(pDir)) {
+      return files
+          .filter(file -> file.getFileName().toString().startsWith(pPrefix))
+          .collect(Collectors.toList());
+    }
+  }
+
+  private static int countArgNodes(String pShard) {
+    Matcher matcher = ARG_NODE.matcher(pShard);
+    int count = 0;
+    while (matcher.find()) {
+      count++;
+    }
+    return count;
+  }
+}
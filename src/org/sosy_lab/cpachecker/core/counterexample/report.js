@@ -276,6 +276,12 @@ with considerably less effort */
 		}
 
 		function markCfaEdge(errPathEntry) {
+			if (reportShards.cfa.hasOwnProperty(errPathEntry.func) && !cfaDrawnFunctions.hasOwnProperty(errPathEntry.func)) {
+				renderCfaFunctions([errPathEntry.func], function () {
+					markCfaEdge(errPathEntry);
+				});
+				return;
+			}
 			var actualSourceAndTarget = getActualSourceAndTarget(errPathEntry);
 			if ($.isEmptyObject(actualSourceAndTarget)) return;
 			if (actualSourceAndTarget.target === undefined) {
@@ -481,7 +487,8 @@ with considerably less effort */
 			} else {
 				$scope.functions = functions;
 			}
-			$scope.selectedCFAFunction = $scope.functions[0];
+			// for sharded reports only the main function is drawn on startup
+			$scope.selectedCFAFunction = cfaSharded ? functions[0] : $scope.functions[0];
 			$scope.zoomEnabled = false;
 
 			$scope.setCFAFunction = function () {
@@ -491,6 +498,11 @@ with considerably less effort */
 				// FIXME: two-way binding does not update the selected option
 				d3.selectAll("#cfa-toolbar option").attr("selected", null).attr("disabled", null);
 				d3.select("#cfa-toolbar [label=" + $scope.selectedCFAFunction + "]").attr("selected", "selected").attr("disabled", true);
+				var funcsToShow = $scope.selectedCFAFunction === "all" ? functions : [$scope.selectedCFAFunction];
+				renderCfaFunctions(funcsToShow, showSelectedCFAFunction);
+			};
+
+			function showSelectedCFAFunction() {
 				if ($scope.selectedCFAFunction === "all") {
 					functions.forEach(function (func) {
 						d3.selectAll(".cfa-svg-" + func).attr("display", "inline-block");
@@ -510,7 +522,7 @@ with considerably less effort */
 				} else {
 					$("#cfa-container").scrollTop(firstElRect.top + $("#cfa-container").scrollTop() - 200).scrollLeft(firstElRect.left - $("#cfa-container").scrollLeft());
 				}
-			};
+			}
 
 			$scope.cfaFunctionIsSet = function (value) {
 				return value === $scope.selectedCFAFunction;
@@ -549,8 +561,19 @@ with considerably less effort */
 				if ($scope.zoomEnabled) {
 					$scope.zoomControl();
 				}
-				$scope.selectedCFAFunction = $scope.functions[0];
 				cfaSplit = true;
+				if (cfaSharded) {
+					// draw the functions again that were drawn before, with the current selection
+					cfaSplitThreshold = input;
+					var drawnFunctions = Object.keys(cfaDrawnFunctions);
+					cfaDrawnFunctions = {};
+					cfaWorker.postMessage({
+						"split": input
+					});
+					renderCfaFunctions(drawnFunctions, showSelectedCFAFunction);
+					return;
+				}
+				$scope.selectedCFAFunction = $scope.functions[0];
 				var graphCount = 0;
 				cfaJson.functionNames.forEach(function (f) {
 					var fNodes = cfaJson.nodes.filter(function (n) {
@@ -647,7 +670,7 @@ with considerably less effort */
 				if ($scope.zoomEnabled) {
 					$scope.argZoomControl();
 				}
-				var graphCount = Math.ceil(argJson.nodes.length / input);
+				var graphCount = argGraphCount(input);
 				$("#arg-modal").text("0/" + graphCount);
 				graphCount = null;
 				$("#renderStateModal").modal("show");
@@ -659,9 +682,14 @@ with considerably less effort */
 				argWorker.postMessage({
 					"split": input
 				});
-				argWorker.postMessage({
-					"renderer": "ready"
-				});
+				if (argSharded) {
+					argShardIndex = 0;
+					renderNextArgShard();
+				} else {
+					argWorker.postMessage({
+						"renderer": "ready"
+					});
+				}
 			};
 
 			$scope.validateInput = function (input) {
@@ -693,6 +721,7 @@ var argJson = {}; //ARG_JSON_INPUT
 
 var sourceFiles = []; //SOURCE_FILES
 var cfaJson = {}; //CFA_JSON_INPUT
+var reportShards = {"cfa": {}, "arg": []}; //REPORT_SHARDS
 
 // CFA graph variable declarations
 var functions = cfaJson.functionNames;
@@ -709,19 +738,180 @@ const margin = 20;
 var cfaWorker, argWorker;
 var cfaSplit = false,
 	argTabDisabled = false;
+var argRenderingStarted = false;
+
+// Sharded data (option report.shardData): function name -> CFA data file, list of ARG data files
+var cfaSharded = Object.keys(reportShards.cfa).length > 0;
+var argSharded = reportShards.arg.length > 0;
+var cfaShardData = {},
+	cfaDrawnFunctions = {},
+	cfaFunctionQueue = [],
+	cfaFunctionCallbacks = [],
+	cfaRenderingBusy = false,
+	cfaSplitThreshold = graphSplitThreshold;
+var argShardData = [],
+	argShardIndex = 0;
+var lastLoadedShard;
+
+/**
+ * Reports with sharded data contain only the names of the data files.
+ * These are scripts next to the report that pass their part of the CFA or ARG to this function.
+ */
+function reportShardLoaded(data) {
+	lastLoadedShard = data;
+}
+
+// Load a single data file and pass its content to the callback
+function loadShard(file, callback) {
+	var script = document.createElement("script");
+	script.src = file;
+	// the load event is fired directly after the script was executed
+	script.onload = function () {
+		var data = lastLoadedShard;
+		lastLoadedShard = undefined;
+		document.head.removeChild(script);
+		callback(data);
+	};
+	script.onerror = function () {
+		alert("Could not load report data from " + file);
+	};
+	document.head.appendChild(script);
+}
+
+/**
+ * Make sure the CFA of the given functions is drawn before calling the callback.
+ * For sharded reports, the data file of each function is loaded and passed to the CFA worker
+ * when the function is needed first, otherwise the whole CFA is drawn on startup.
+ */
+function renderCfaFunctions(funcs, callback) {
+	funcs.forEach(function (func) {
+		if (reportShards.cfa.hasOwnProperty(func) && !cfaDrawnFunctions.hasOwnProperty(func) && !cfaFunctionQueue.includes(func)) {
+			cfaFunctionQueue.push(func);
+		}
+	});
+	if (!cfaRenderingBusy && cfaFunctionQueue.length === 0) {
+		callback();
+		return;
+	}
+	cfaFunctionCallbacks.push(callback);
+	if (!cfaRenderingBusy) {
+		$("#cfa-modal").text("0/0");
+		$("#renderStateModal").modal("show");
+		renderNextCfaFunction();
+	}
+}
+
+// Pass the next queued function to the CFA worker, or call the callbacks if none is left
+function renderNextCfaFunction() {
+	if (cfaFunctionQueue.length === 0) {
+		cfaRenderingBusy = false;
+		var callbacks = cfaFunctionCallbacks;
+		cfaFunctionCallbacks = [];
+		callbacks.forEach(function (c) {
+			c();
+		});
+		return;
+	}
+	cfaRenderingBusy = true;
+	var func = cfaFunctionQueue.shift();
+	cfaDrawnFunctions[func] = true;
+	var postShard = function (data) {
+		cfaShardData[func] = data;
+		addGraphsToRender("#cfa-modal", Math.ceil(data.nodes.length / cfaSplitThreshold));
+		cfaWorker.postMessage({
+			"shard": JSON.stringify(data),
+			"func": func
+		});
+		cfaWorker.postMessage({
+			"renderer": "ready"
+		});
+	};
+	if (cfaShardData.hasOwnProperty(func)) {
+		postShard(cfaShardData[func]);
+	} else {
+		loadShard(reportShards.cfa[func], postShard);
+	}
+}
+
+// Load the next ARG data file (or reuse it after a redraw) and pass it to the ARG worker
+function renderNextArgShard() {
+	var index = argShardIndex++;
+	var postShard = function (data) {
+		argShardData[index] = data;
+		argWorker.postMessage({
+			"shard": JSON.stringify(data),
+			"last": index === reportShards.arg.length - 1
+		});
+		argWorker.postMessage({
+			"renderer": "ready"
+		});
+	};
+	if (argShardData[index] !== undefined) {
+		postShard(argShardData[index]);
+	} else {
+		loadShard(reportShards.arg[index].file, postShard);
+	}
+}
+
+// Start drawing the ARG once the CFA is drawn
+function startArgRendering() {
+	argRenderingStarted = true;
+	if (argSharded) {
+		renderNextArgShard();
+	} else {
+		argWorker.postMessage({
+			"renderer": "ready"
+		});
+	}
+}
+
+// Number of ARG graphs the worker creates for the given split threshold
+function argGraphCount(threshold) {
+	if (!argSharded) {
+		return Math.ceil(argJson.nodes.length / threshold);
+	}
+	return reportShards.arg.reduce(function (count, shard) {
+		return count + Math.ceil(shard.nodes / threshold);
+	}, 0);
+}
+
+function addGraphsToRender(modal, count) {
+	var progress = $(modal).text().split("/");
+	$(modal).text(progress[0] + "/" + (parseInt(progress[1]) + count));
+}
+
+// The parts of the CFA and ARG data that are loaded, for looking up nodes and edges
+function cfaDataParts() {
+	return cfaSharded ? Object.values(cfaShardData) : [cfaJson];
+}
+
+function argDataParts() {
+	return argSharded ? argShardData : [argJson];
+}
+
+function findInDataParts(parts, key, predicate) {
+	for (var i = 0; i < parts.length; i++) {
+		var result = parts[i][key].find(predicate);
+		if (result !== undefined) {
+			return result;
+		}
+	}
+	return undefined;
+}
 
 function init() {
 
 	// Calculate total count of graphs to display in modal
 	var argTotalGraphCount;
 	if (argJson.nodes) {
-		argTotalGraphCount = Math.ceil(argJson.nodes.length / graphSplitThreshold);
+		argTotalGraphCount = argGraphCount(graphSplitThreshold);
 		$("#arg-modal").text("0/" + argTotalGraphCount);
 	} else { // No ARG data -> happens if the AbstractStates are not ARGStates
 		$("#arg-modal").text("0/0");
 		$("#set-tab-2").parent().addClass("disabled");
 		argTabDisabled = true;
 	}
+	// for sharded reports the count is increased when the data of a function is loaded
 	var cfaTotalGraphCount = 0;
 	cfaJson.functionNames.forEach(function (f) {
 		var fNodes = cfaJson.nodes.filter(function (n) {
@@ -750,17 +940,27 @@ function init() {
 	 */
 	function cfaWorker_function() {
 		self.importScripts("https://www.sosy-lab.org/lib/d3js/5.4.0/d3.min.js", "https://www.sosy-lab.org/lib/dagre-d3/0.5.0/dagre-d3.min.js");
-		var json, nodes, mainNodes, edges, functions, combinedNodes, combinedNodesLabels, mergedNodes, functionCallEdges, errorPath;
+		var json, nodes, edges, functions, combinedNodes, combinedNodesLabels, mergedNodes, functionCallEdges, errorPath;
+		var sharded = false;
 		var graphSplitThreshold = 700; // default value
 		var graphMap = [];
 		var graphCounter = 0;
 
-		// The first posted message will include the cfaJson
+		// The first posted message will include the cfaJson, for sharded reports without nodes and edges
 		self.addEventListener('message', function (m) {
 			if (m.data.json !== undefined) {
 				json = JSON.parse(m.data.json);
+				sharded = m.data.sharded;
 				extractVariables();
-				buildGraphsAndPostResults();
+				if (!sharded) {
+					buildGraphsAndPostResults();
+				}
+			} else if (m.data.shard !== undefined) {
+				// nodes and edges of a single function
+				var shard = JSON.parse(m.data.shard);
+				nodes = shard.nodes;
+				edges = shard.edges;
+				buildFunctionGraphs(m.data.func);
 			} else if (m.data.renderer !== undefined) {
 				if (graphMap[graphCounter] !== undefined) {
 					var node = nodes.find(function (n) {
@@ -781,7 +981,10 @@ function init() {
 				}
 			} else if (m.data.split !== undefined) {
 				graphSplitThreshold = m.data.split;
-				buildGraphsAndPostResults();
+				// for sharded reports, the functions to draw are sent again
+				if (!sharded) {
+					buildGraphsAndPostResults();
+				}
 			}
 		}, false);
 
@@ -789,9 +992,6 @@ function init() {
 		function extractVariables() {
 			nodes = json.nodes;
 			functions = json.functionNames;
-			mainNodes = nodes.filter(function (n) {
-				return n.func === functions[0];
-			});
 			edges = json.edges;
 			combinedNodes = json.combinedNodes;
 			combinedNodesLabels = json.combinedNodesLabels;
@@ -823,26 +1023,22 @@ function init() {
 			})
 		}
 
+		// The graphs of the main function are built first, its first graph is posted right away
+		// unless the functions are sent one by one
 		function buildGraphsAndPostResults() {
-			if (mainNodes.length > graphSplitThreshold) {
-				buildMultipleGraphs(mainNodes, functions[0]);
+			functions.forEach(function (func) {
+				buildFunctionGraphs(func);
+			});
+		}
+
+		function buildFunctionGraphs(func) {
+			var funcNodes = nodes.filter(function (n) {
+				return n.func === func;
+			});
+			if (funcNodes.length > graphSplitThreshold) {
+				buildMultipleGraphs(funcNodes, func);
 			} else {
-				buildSingleGraph(mainNodes, functions[0]);
-			}
-			if (functions.length > 1) {
-				var functionsToProcess = functions.filter(function (f) {
-					return f !== functions[0];
-				});
-				functionsToProcess.forEach(function (func) {
-					var funcNodes = nodes.filter(function (n) {
-						return n.func === func;
-					});
-					if (funcNodes.length > graphSplitThreshold) {
-						buildMultipleGraphs(funcNodes, func);
-					} else {
-						buildSingleGraph(funcNodes, func);
-					}
-				});
+				buildSingleGraph(funcNodes, func);
 			}
 		}
 
@@ -858,7 +1054,7 @@ function init() {
 				return nodesIndices.includes(e.source) && nodesIndices.includes(e.target);
 			});
 			setGraphEdges(g, edgesToSet, false);
-			if (funcName === functions[0]) {
+			if (funcName === functions[0] && !sharded) {
 				self.postMessage({
 					"graph": JSON.stringify(g),
 					"id": funcName + graphCounter,
@@ -899,7 +1095,7 @@ function init() {
 				}
 			}
 			buildCrossgraphEdges(nodesToSet);
-			if (funcName === functions[0]) {
+			if (funcName === functions[0] && !sharded) {
 				self.postMessage({
 					"graph": JSON.stringify(graphMap[graphCounter]),
 					"id": funcName + graphCounter,
@@ -1215,12 +1411,21 @@ function init() {
 			var graphSplitThreshold = 700;
 			var graphMap = [],
 				graphCounter = 0;
+			// for sharded reports, the data files are sent one at a time
+			var sharded = false,
+				lastShard = false,
+				errorNodesOfShards = [],
+				errorEdgesOfShards = [];
 			self.addEventListener("message", function (m) {
 				if (m.data.json !== undefined) {
 					json = JSON.parse(m.data.json);
 					nodes = json.nodes;
 					edges = json.edges;
 					buildGraphsAndPrepareResults()
+				} else if (m.data.shard !== undefined) {
+					sharded = true;
+					lastShard = m.data.last;
+					buildShardGraphs(JSON.parse(m.data.shard));
 				} else if (m.data.errorPath !== undefined) {
 					errorPath = [];
 					JSON.parse(m.data.errorPath).forEach(function (d) {
@@ -1236,7 +1441,17 @@ function init() {
 						});
 						graphMap.shift();
 						graphCounter++;
+					} else if (sharded && !lastShard) {
+						self.postMessage({
+							"needShard": true
+						});
 					} else {
+						if (sharded && errorPath !== undefined) {
+							nodes = errorNodesOfShards;
+							edges = errorEdgesOfShards.filter(function (e) {
+								return errorPath.includes(e.target);
+							});
+						}
 						self.postMessage({
 							"status": "done"
 						});
@@ -1261,10 +1476,65 @@ function init() {
 					if (errorGraphMap !== undefined && errorGraphMap.length > 0) {
 						errorGraphMap = [];
 					}
-					buildGraphsAndPrepareResults();
+					if (sharded) {
+						lastShard = false;
+						errorNodesOfShards = [];
+						errorEdgesOfShards = [];
+					} else {
+						buildGraphsAndPrepareResults();
+					}
 				}
 			}, false);
 
+			// Build the graphs for the nodes of one data file, edges to nodes in other files end in a placeholder
+			function buildShardGraphs(shard) {
+				var shardNodes = {};
+				shard.nodes.forEach(function (n) {
+					shardNodes[n.index] = true;
+				});
+				nodes = shard.nodes;
+				edges = shard.edges.filter(function (e) {
+					return shardNodes[e.source] && shardNodes[e.target];
+				});
+				buildGraphsAndPrepareResults();
+				buildEdgesToOtherShards(shard.edges.filter(function (e) {
+					return !(shardNodes[e.source] && shardNodes[e.target]);
+				}));
+				// keep what is needed for the error graph, the target of an edge may be in a later data file
+				if (errorPath !== undefined) {
+					nodes.forEach(function (n) {
+						if (errorPath.includes(n.index)) {
+							errorNodesOfShards.push(n);
+						}
+					});
+					shard.edges.forEach(function (e) {
+						if (errorPath.includes(e.source)) {
+							errorEdgesOfShards.push(e);
+						}
+					});
+				}
+			}
+
+			function buildEdgesToOtherShards(edgesToOtherShards) {
+				edgesToOtherShards.forEach(function (edge) {
+					var sourceGraph = getGraphForNode(edge.source);
+					if (sourceGraph === -1) {
+						return;
+					}
+					graphMap[sourceGraph].setNode("" + edge.source + edge.target + sourceGraph, {
+						label: "",
+						class: "arg-dummy",
+						id: "dummy-" + edge.target
+					});
+					graphMap[sourceGraph].setEdge(edge.source, "" + edge.source + edge.target + sourceGraph, {
+						label: edge.label,
+						id: "arg-edge" + edge.source + edge.target,
+						style: "stroke-dasharray: 5, 5;",
+						class: edgeClassDecider(edge)
+					});
+				});
+			}
+
 			function buildGraphsAndPrepareResults() {
 				if (nodes.length > graphSplitThreshold) {
 					buildMultipleGraphs();
@@ -1604,6 +1874,10 @@ function init() {
 				"renderer": "ready"
 			});
 		} else if (m.data.status !== undefined) {
+			if (cfaFunctionQueue.length > 0) {
+				renderNextCfaFunction();
+				return;
+			}
 			addEventsToCfa();
 			d3.select("#cfa-toolbar").style("visibility", "visible");
 			d3.select("#cfa-container").classed("cfa-content", true);
@@ -1611,19 +1885,20 @@ function init() {
 				d3.select(this).attr("width", Math.max(d3.select(this).attr("width"), d3.select(this.parentNode).style("width").split("px")[0]));
 			});
 			d3.selectAll(".cfa-graph").style("visibility", "visible");
-			if (cfaSplit) {
+			if (cfaSplit || argRenderingStarted) {
 				$("#renderStateModal").hide();
 				$('.modal-backdrop').hide();
 			} else {
 				if (!argTabDisabled) {
-					argWorker.postMessage({
-						"renderer": "ready"
-					});
+					startArgRendering();
 				} else {
 					$("#renderStateModal").hide();
 					$('.modal-backdrop').hide();
 				}
 			}
+			if (cfaSharded) {
+				renderNextCfaFunction();
+			}
 		}
 	}, false);
 
@@ -1631,10 +1906,15 @@ function init() {
 		alert("CFA Worker failed in line " + e.lineno + " with message " + e.message)
 	}, false);
 
-	// Initial postMessage to the CFA worker to trigger CFA graph(s) creation
+	// Initial postMessage to the CFA worker to trigger CFA graph(s) creation,
+	// for sharded reports only the main function is drawn on startup
 	cfaWorker.postMessage({
-		"json": JSON.stringify(cfaJson)
+		"json": JSON.stringify(cfaJson),
+		"sharded": cfaSharded
 	});
+	if (cfaSharded) {
+		renderCfaFunctions([functions[0]], function () {});
+	}
 
 	// ONLY if ARG data is available
 	if (argJson.nodes) {
@@ -1693,6 +1973,8 @@ function init() {
 				}
 				$("#renderStateModal").hide();
 				$('.modal-backdrop').hide();
+			} else if (m.data.needShard !== undefined) {
+				renderNextArgShard();
 			}
 		}, false);
 
@@ -1700,15 +1982,18 @@ function init() {
 			alert("ARG Worker failed in line " + e.lineno + " with message " + e.message)
 		}, false);
 
-		// Initial postMessage to the ARG worker to trigger ARG graph(s) creation
+		// Initial postMessage to the ARG worker to trigger ARG graph(s) creation,
+		// for sharded reports the data files are sent once the CFA is rendered
 		if (errorPath !== undefined) {
 			argWorker.postMessage({
 				"errorPath": JSON.stringify(errorPath)
 			});
 		}
-		argWorker.postMessage({
-			"json": JSON.stringify(argJson)
-		});
+		if (!argSharded) {
+			argWorker.postMessage({
+				"json": JSON.stringify(argJson)
+			});
+		}
 	}
 
 	// Function to get transfromation thorugh translate as in new version of D3.js d3.transfrom is removed 
@@ -1782,7 +2067,7 @@ function init() {
 			if (parseInt(d) > 100000) {
 				message = "type: function call node <br>" + "dblclick: Select function";
 			} else {
-				var node = cfaJson.nodes.find(function (n) {
+				var node = findInDataParts(cfaDataParts(), "nodes", function (n) {
 					return n.index === parseInt(d);
 				});
 				message = "function: " + node.func;
@@ -1876,7 +2161,7 @@ function init() {
 		if (source in cfaJson.combinedNodes) {
 			source = cfaJson.combinedNodes[source][cfaJson.combinedNodes[source].length - 1];
 		}
-		return cfaJson.edges.find(function (e) {
+		return findInDataParts(cfaDataParts(), "edges", function (e) {
 			return e.source === parseInt(source) && e.target === target;
 		})
 	}
@@ -1886,7 +2171,7 @@ function init() {
 		addPanEvent(".arg-svg");
 		d3.selectAll(".arg-node")
 			.on("mouseover", function (d) {
-				var node = argJson.nodes.find(function (it) {
+				var node = findInDataParts(argDataParts(), "nodes", function (it) {
 					return it.index === parseInt(d);
 				})
 				var message = "function: " + node.func + "<br>";
@@ -1897,7 +2182,7 @@ function init() {
 				showToolTipBox(d3.event, message);
 			}).on("mouseout", function () {
 				hideToolTipBox();
-			}).on("dblclick", function () {
+			}).on("dblclick", function (d) {
 				$("#set-tab-1").click();
 				if (!d3.select(".marked-cfa-node").empty()) {
 					d3.select(".marked-cfa-node").classed("marked-cfa-node", false);
@@ -1906,10 +2191,15 @@ function init() {
 				if (cfaJson.mergedNodes.includes(parseInt(nodeId))) {
 					nodeId = getMergingNode(parseInt(nodeId));
 				}
-				var selection = d3.select("#cfa-node" + nodeId);
-				selection.classed("marked-cfa-node", true);
-				var boundingRect = selection.node().getBoundingClientRect();
-				$("#cfa-container").scrollTop(boundingRect.top + $("#cfa-container").scrollTop() - 200).scrollLeft(boundingRect.left + $("#cfa-container").scrollLeft() - $("#errorpath_section").width() - 2 * boundingRect.width);
+				var node = findInDataParts(argDataParts(), "nodes", function (it) {
+					return it.index === parseInt(d);
+				});
+				renderCfaFunctions([node.func], function () {
+					var selection = d3.select("#cfa-node" + nodeId);
+					selection.classed("marked-cfa-node", true);
+					var boundingRect = selection.node().getBoundingClientRect();
+					$("#cfa-container").scrollTop(boundingRect.top + $("#cfa-container").scrollTop() - 200).scrollLeft(boundingRect.left + $("#cfa-container").scrollLeft() - $("#errorpath_section").width() - 2 * boundingRect.width);
+				});
 			});
 		d3.selectAll(".arg-dummy")
 			.on("mouseover", function (d) {
@@ -1928,7 +2218,7 @@ function init() {
 		d3.selectAll(".arg-edge")
 			.on("mouseover", function (d) {
 				d3.select(this).select("path").style("stroke-width", "3px");
-				var edge = argJson.edges.find(function (it) {
+				var edge = findInDataParts(argDataParts(), "edges", function (it) {
 					return it.source === parseInt(d.v) && it.target === parseInt(d.w);
 				})
 				if (edge) {
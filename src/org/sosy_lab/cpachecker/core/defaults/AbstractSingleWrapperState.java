@@ -33,6 +33,7 @@ import org.sosy_lab.cpachecker.core.interfaces.AbstractWrapperState;
 import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
 import org.sosy_lab.cpachecker.core.interfaces.Property;
 import org.sosy_lab.cpachecker.core.interfaces.PseudoPartitionable;
+import org.sosy_lab.cpachecker.core.interfaces.SubsumptionIndexable;
 import org.sosy_lab.cpachecker.core.interfaces.Targetable;
 
 import java.io.Serializable;
@@ -45,7 +46,8 @@ import javax.annotation.Nullable;
  * one CPA.
  */
 public abstract class AbstractSingleWrapperState
-    implements AbstractWrapperState, Targetable, Partitionable, PseudoPartitionable, Serializable {
+    implements AbstractWrapperState, Targetable, Partitionable, PseudoPartitionable,
+        SubsumptionIndexable, Serializable {
 
   private static final long serialVersionUID = -332757795984736107L;
 
@@ -53,7 +55,7 @@ public abstract class AbstractSingleWrapperState
     return pArg0 -> ((AbstractSingleWrapperState)pArg0).getWrappedState();
   }
 
-  private final @Nullable AbstractState wrappedState;
+  private @Nullable AbstractState wrappedState;
 
   public AbstractSingleWrapperState(@Nullable AbstractState pWrappedState) {
     // TODO this collides with some CPAs' way of handling dummy states, but it should really be not null here
@@ -65,6 +67,15 @@ public abstract class AbstractSingleWrapperState
     return wrappedState;
   }
 
+  /**
+   * Drop the reference to the wrapped state such that it can be garbage collected.
+   * Afterwards, {@link #getWrappedState()} returns null,
+   * so this may only be called for states that are not used anymore.
+   */
+  protected void releaseWrappedState() {
+    wrappedState = null;
+  }
+
   @Override
   public boolean isTarget() {
     if (wrappedState instanceof Targetable) {
@@ -107,6 +118,15 @@ public abstract class AbstractSingleWrapperState
     }
   }
 
+  @Override
+  public long getSubsumptionSignature() {
+    if (wrappedState instanceof SubsumptionIndexable) {
+      return ((SubsumptionIndexable) wrappedState).getSubsumptionSignature();
+    } else {
+      return 0;
+    }
+  }
+
   @Override
   public String toString() {
     return wrappedState.toString();
@@ -29,6 +29,7 @@ import org.sosy_lab.cpachecker.core.interfaces.AbstractDomain;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+import org.sosy_lab.cpachecker.core.reachedset.SubsumptionIndex;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 
 /**
@@ -50,7 +51,7 @@ public class StopSepOperator implements StopOperator {
   public boolean stop(AbstractState el, Collection<AbstractState> reached, Precision precision)
     throws CPAException, InterruptedException {
 
-    for (AbstractState reachedState : reached) {
+    for (AbstractState reachedState : SubsumptionIndex.getCandidateCoverers(el, reached)) {
       if (domain.isLessOrEqual(el, reachedState)) {
         return true;
       }
@@ -0,0 +1,55 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.interfaces;
+
+/**
+ * Interface for abstract states that can provide a cheap necessary condition
+ * for being covered by another state.
+ * If the reached set is configured to maintain a subsumption index,
+ * it uses this information to group the states of each partition,
+ * and stop operators that check coverage against each reached state separately
+ * only need to look at those states that might cover a given state.
+ */
+public interface SubsumptionIndexable {
+
+  /**
+   * Return a bit vector that summarizes the information contained in this state.
+   *
+   * The result has to be consistent with the abstract domain
+   * (and the stop operator) of the CPA: For two states e1 and e2
+   * where e1 is 'lessOrEqual' to e2, every bit that is set in the signature of e2
+   * has to be set in the signature of e1, too, i.e.,
+   * <code>(e2.getSubsumptionSignature() &amp; ~e1.getSubsumptionSignature()) == 0</code>
+   * has to hold.
+   * Typically, a state sets one (hashed) bit for each piece of information it contains,
+   * such that less information leads to fewer bits.
+   *
+   * Returning the same value for all states is always legal, but useless.
+   * The signature must stay constant throughout the lifetime of the state
+   * as long as it is contained in a reached set.
+   *
+   * @return a bit vector of which each bit represents a property of this state
+   */
+  long getSubsumptionSignature();
+}
@@ -0,0 +1,43 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.interfaces;
+
+/**
+ * This is a marker interface for CPAs that can be used by several threads of one analysis at the
+ * same time, e.g., by the {@link org.sosy_lab.cpachecker.core.algorithm.ConcurrentCPAAlgorithm}.
+ *
+ * <p>Each thread retrieves its own operators through the getters of {@link
+ * ConfigurableProgramAnalysis} once and uses them exclusively. Thus a CPA that returns a new
+ * instance of an operator on each call may keep per-call state in this operator (like a {@link
+ * org.sosy_lab.cpachecker.core.defaults.ForwardingTransferRelation}), but all operators that are
+ * returned more than once (e.g., singletons or instances cached in the CPA) need to be stateless.
+ * Abstract states of such a CPA need to be immutable after they were returned by the transfer
+ * relation.
+ *
+ * <p>A CPA wrapping other CPAs (cf. {@link WrapperCPA}) is only usable concurrently if all wrapped
+ * CPAs are.
+ */
+public interface ThreadSafeCPA extends ConfigurableProgramAnalysis {
+
+}
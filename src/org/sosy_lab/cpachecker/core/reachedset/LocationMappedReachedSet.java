@@ -45,6 +45,10 @@ public class LocationMappedReachedSet extends PartitionedReachedSet {
     super(waitlistFactory);
   }
 
+  public LocationMappedReachedSet(WaitlistFactory waitlistFactory, boolean useSubsumptionIndex) {
+    super(waitlistFactory, useSubsumptionIndex);
+  }
+
   @Override
   public Collection<AbstractState> getReached(CFANode location) {
     checkNotNull(location);
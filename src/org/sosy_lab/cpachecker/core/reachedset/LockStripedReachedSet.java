@@ -0,0 +1,215 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
+import org.sosy_lab.cpachecker.util.Pair;
+
+/**
+ * Location-mapped reached set that can be used by several threads at the same time.
+ *
+ * <p>All operations on the reached set and its waitlist are atomic, they are guarded by the
+ * monitor of this object and do not call into any CPA operator, such that the global lock is only
+ * held for a short time. In addition, there is one lock per location (cf. {@link
+ * #getPartitionLock(AbstractState)}), which a client has to hold while it computes merge and stop
+ * for a state at this location and updates the partition accordingly. Thus merge and stop for
+ * states at different locations never contend.
+ *
+ * <p>The methods {@link #getReached(AbstractState)} and {@link #getReached(CFANode)} do not take
+ * the global lock. Each partition is additionally stored in a copy-on-write list that is updated
+ * whenever a state is added to or removed from the partition, and these methods return a read-only
+ * view of this list. Iterating over the view is always safe, and its content does not change as
+ * long as the lock for this partition is held. The views returned by {@link #asCollection()},
+ * {@link #iterator()} and {@link #getWaitlist()} are not thread-safe and may only be used when no
+ * other thread modifies this reached set.
+ */
+public class LockStripedReachedSet extends LocationMappedReachedSet {
+
+  private static final long serialVersionUID = 1L;
+
+  private final ConcurrentMap<CFANode, ReentrantLock> partitionLocks = new ConcurrentHashMap<>();
+
+  /** copy-on-write lists of the states of each partition, in insertion order */
+  private final ConcurrentMap<Object, CopyOnWriteArrayList<AbstractState>> partitions =
+      new ConcurrentHashMap<>();
+
+  public LockStripedReachedSet(WaitlistFactory waitlistFactory) {
+    super(waitlistFactory);
+  }
+
+  /**
+   * Get the lock for the partition (i.e., location) of the given state. The lock is reentrant and
+   * the same lock is returned for all states with the same location.
+   */
+  public Lock getPartitionLock(AbstractState pState) {
+    CFANode location = (CFANode) getPartitionKey(pState);
+    return partitionLocks.computeIfAbsent(location, k -> new ReentrantLock());
+  }
+
+  @Override
+  public synchronized void add(AbstractState pState, Precision pPrecision) {
+    boolean isNew = !super.contains(pState);
+    super.add(pState, pPrecision);
+    if (isNew) {
+      partitions
+          .computeIfAbsent(getPartitionKey(pState), k -> new CopyOnWriteArrayList<>())
+          .add(pState);
+    }
+  }
+
+  @Override
+  public synchronized void addAll(Iterable<Pair<AbstractState, Precision>> pToAdd) {
+    super.addAll(pToAdd);
+  }
+
+  @Override
+  public synchronized void reAddToWaitlist(AbstractState pState) {
+    super.reAddToWaitlist(pState);
+  }
+
+  @Override
+  public synchronized void updatePrecision(AbstractState pState, Precision pNewPrecision) {
+    super.updatePrecision(pState, pNewPrecision);
+  }
+
+  @Override
+  public synchronized void remove(AbstractState pState) {
+    super.remove(pState);
+    List<AbstractState> partition = partitions.get(getPartitionKey(pState));
+    if (partition != null) {
+      partition.remove(pState);
+    }
+  }
+
+  @Override
+  public synchronized void removeAll(Iterable<? extends AbstractState> pToRemove) {
+    super.removeAll(pToRemove);
+  }
+
+  @Override
+  public synchronized void removeOnlyFromWaitlist(AbstractState pState) {
+    super.removeOnlyFromWaitlist(pState);
+  }
+
+  @Override
+  public synchronized void clear() {
+    super.clear();
+    partitions.clear();
+  }
+
+  @Override
+  public synchronized AbstractState popFromWaitlist() {
+    return super.popFromWaitlist();
+  }
+
+  /**
+   * Remove the next state from the waitlist and return it together with its precision. In
+   * contrast to calling {@link #popFromWaitlist()} and {@link #getPrecision(AbstractState)}
+   * separately, no other thread can remove the state from the reached set in between.
+   */
+  public synchronized Pair<AbstractState, Precision> popFromWaitlistWithPrecision() {
+    AbstractState state = super.popFromWaitlist();
+    return Pair.of(state, super.getPrecision(state));
+  }
+
+  /**
+   * Add the given state to the waitlist again if it is still contained in the reached set, i.e.,
+   * if it was not removed by another thread in the meantime.
+   *
+   * @return whether the state was added to the waitlist
+   */
+  public synchronized boolean reAddToWaitlistIfContained(AbstractState pState) {
+    if (!super.contains(checkNotNull(pState))) {
+      return false;
+    }
+    super.reAddToWaitlist(pState);
+    return true;
+  }
+
+  @Override
+  public synchronized boolean hasWaitingState() {
+    return super.hasWaitingState();
+  }
+
+  @Override
+  public synchronized Precision getPrecision(AbstractState pState) {
+    return super.getPrecision(pState);
+  }
+
+  @Override
+  public synchronized boolean contains(AbstractState pState) {
+    return super.contains(pState);
+  }
+
+  @Override
+  public synchronized int size() {
+    return super.size();
+  }
+
+  @Override
+  public synchronized AbstractState getFirstState() {
+    return super.getFirstState();
+  }
+
+  @Override
+  public synchronized AbstractState getLastState() {
+    return super.getLastState();
+  }
+
+  @Override
+  public Collection<AbstractState> getReached(AbstractState pState) {
+    return getPartition(getPartitionKey(pState));
+  }
+
+  @Override
+  public Collection<AbstractState> getReached(CFANode pLocation) {
+    return getPartition(checkNotNull(pLocation));
+  }
+
+  private Collection<AbstractState> getPartition(Object pKey) {
+    List<AbstractState> partition = partitions.get(pKey);
+    return partition == null
+        ? ImmutableList.of()
+        : Collections.unmodifiableCollection(partition);
+  }
+
+  /** Returns the current size of the waitlist. */
+  public synchronized int getWaitlistSize() {
+    return super.getWaitlist().size();
+  }
+}
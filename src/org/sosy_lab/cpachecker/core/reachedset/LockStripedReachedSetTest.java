@@ -0,0 +1,127 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Collection;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractStateWithLocation;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+import org.sosy_lab.cpachecker.util.Pair;
+
+public class LockStripedReachedSetTest {
+
+  private static class TestState implements AbstractStateWithLocation {
+
+    private final CFANode location;
+
+    private TestState(CFANode pLocation) {
+      location = pLocation;
+    }
+
+    @Override
+    public CFANode getLocationNode() {
+      return location;
+    }
+
+    @Override
+    public Iterable<CFANode> getLocationNodes() {
+      return ImmutableList.of(location);
+    }
+
+    @Override
+    public Iterable<CFAEdge> getOutgoingEdges() {
+      return ImmutableList.of();
+    }
+
+    @Override
+    public Iterable<CFAEdge> getIngoingEdges() {
+      return ImmutableList.of();
+    }
+  }
+
+  private final CFANode location1 = new CFANode("main");
+  private final CFANode location2 = new CFANode("main");
+
+  private LockStripedReachedSet reached;
+
+  @Before
+  public void setUp() {
+    reached = new LockStripedReachedSet(TraversalMethod.DFS);
+  }
+
+  private AbstractState add(CFANode pLocation) {
+    AbstractState state = new TestState(pLocation);
+    reached.add(state, SingletonPrecision.getInstance());
+    return state;
+  }
+
+  @Test
+  public void testPartitions() {
+    AbstractState s1 = add(location1);
+    AbstractState s2 = add(location1);
+    AbstractState s3 = add(location2);
+
+    Collection<AbstractState> partition = reached.getReached(location1);
+    assertThat(partition).containsExactly(s1, s2).inOrder();
+    assertThat(reached.getReached(s3)).containsExactly(s3);
+    assertThat(reached.getReached(new CFANode("main"))).isEmpty();
+
+    // adding a state twice does not change the partition
+    reached.add(s1, SingletonPrecision.getInstance());
+    assertThat(partition).containsExactly(s1, s2).inOrder();
+
+    reached.removeAll(ImmutableList.of(s1, s3));
+    assertThat(partition).containsExactly(s2);
+    assertThat(reached.getReached(location2)).isEmpty();
+
+    reached.clear();
+    assertThat(reached.getReached(location1)).isEmpty();
+  }
+
+  @Test
+  public void testWaitlist() {
+    AbstractState s1 = add(location1);
+
+    Pair<AbstractState, Precision> next = reached.popFromWaitlistWithPrecision();
+    assertThat(next.getFirst()).isSameAs(s1);
+    assertThat(next.getSecond()).isSameAs(SingletonPrecision.getInstance());
+    assertThat(reached.hasWaitingState()).isFalse();
+
+    assertThat(reached.reAddToWaitlistIfContained(s1)).isTrue();
+    assertThat(reached.hasWaitingState()).isTrue();
+
+    reached.remove(s1);
+    assertThat(reached.reAddToWaitlistIfContained(s1)).isFalse();
+    assertThat(reached.hasWaitingState()).isFalse();
+  }
+}
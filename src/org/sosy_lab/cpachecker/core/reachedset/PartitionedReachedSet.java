@@ -30,6 +30,7 @@ import com.google.common.collect.Multimap;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
@@ -37,6 +38,8 @@ import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
+import org.sosy_lab.cpachecker.util.statistics.StatKind;
 
 /**
  * Special implementation of the reached set that partitions the set by keys that
@@ -52,6 +55,10 @@ import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
  * for merging and coverage checks), it will return a subset of the set of all
  * reached states. This subset contains exactly those states, whose partition
  * key is equal to the key of the state given as a parameter.
+ *
+ * Optionally, each partition is additionally indexed by the states'
+ * subsumption signatures (cf. {@link SubsumptionIndex}),
+ * such that stop operators can skip states that cannot cover a given state.
  */
 public class PartitionedReachedSet extends DefaultReachedSet {
 
@@ -60,22 +67,42 @@ public class PartitionedReachedSet extends DefaultReachedSet {
   @SuppressFBWarnings("SE_BAD_FIELD")
   private final Multimap<Object, AbstractState> partitionedReached = LinkedHashMultimap.create(100, 1);
 
+  /** the subsumption index for each partition, null if disabled */
+  @SuppressFBWarnings("SE_BAD_FIELD")
+  private final @Nullable Map<Object, SubsumptionIndex> subsumptionIndices;
+
+  @SuppressFBWarnings("SE_BAD_FIELD")
+  private final StatInt avoidedCoverageChecks =
+      new StatInt(StatKind.SUM, "Coverage checks avoided by subsumption index");
+
   public PartitionedReachedSet(WaitlistFactory waitlistFactory) {
+    this(waitlistFactory, false);
+  }
+
+  public PartitionedReachedSet(WaitlistFactory waitlistFactory, boolean useSubsumptionIndex) {
     super(waitlistFactory);
+    subsumptionIndices = useSubsumptionIndex ? new HashMap<>() : null;
   }
 
   @Override
   public void add(AbstractState pState, Precision pPrecision) {
     super.add(pState, pPrecision);
 
-    partitionedReached.put(getPartitionKey(pState), pState);
+    Object key = getPartitionKey(pState);
+    partitionedReached.put(key, pState);
+    if (subsumptionIndices != null) {
+      getSubsumptionIndex(key).addState(pState);
+    }
   }
 
   @Override
   public void remove(AbstractState pState) {
     super.remove(pState);
 
-    partitionedReached.remove(getPartitionKey(pState), pState);
+    Object key = getPartitionKey(pState);
+    if (partitionedReached.remove(key, pState) && subsumptionIndices != null) {
+      getSubsumptionIndex(key).removeState(pState);
+    }
   }
 
   @Override
@@ -83,6 +110,9 @@ public class PartitionedReachedSet extends DefaultReachedSet {
     super.clear();
 
     partitionedReached.clear();
+    if (subsumptionIndices != null) {
+      subsumptionIndices.clear();
+    }
   }
 
   @Override
@@ -115,9 +145,26 @@ public class PartitionedReachedSet extends DefaultReachedSet {
   }
 
   protected Collection<AbstractState> getReachedForKey(@Nullable Object key) {
+    if (subsumptionIndices != null) {
+      return getSubsumptionIndex(key);
+    }
     return Collections.unmodifiableCollection(partitionedReached.get(key));
   }
 
+  private SubsumptionIndex getSubsumptionIndex(@Nullable Object key) {
+    return subsumptionIndices.computeIfAbsent(
+        key, k -> new SubsumptionIndex(partitionedReached.get(k), avoidedCoverageChecks));
+  }
+
+  /**
+   * Get the statistics about coverage checks that were avoided
+   * by the subsumption index of this reached set,
+   * or null if the subsumption index is disabled.
+   */
+  public @Nullable StatInt getAvoidedCoverageChecks() {
+    return subsumptionIndices != null ? avoidedCoverageChecks : null;
+  }
+
   protected Set<?> getKeySet() {
     return Collections.unmodifiableSet(partitionedReached.keySet());
   }
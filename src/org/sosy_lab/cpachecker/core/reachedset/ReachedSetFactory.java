@@ -25,6 +25,8 @@ package org.sosy_lab.cpachecker.core.reachedset;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.ArrayList;
+import java.util.List;
 import javax.annotation.Nullable;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -39,10 +41,12 @@ import org.sosy_lab.cpachecker.core.waitlist.BranchBasedWeightedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.CallstackSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.DepthBasedWeightedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.ExplicitSortedWaitlist;
+import org.sosy_lab.cpachecker.core.waitlist.HeapWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.LoopIterationSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.LoopstackSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.PostorderSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.ReversePostorderSortedWaitlist;
+import org.sosy_lab.cpachecker.core.waitlist.StateScore;
 import org.sosy_lab.cpachecker.core.waitlist.ThreadingSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.Waitlist;
 import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
@@ -53,7 +57,7 @@ import org.sosy_lab.cpachecker.cpa.usage.UsageReachedSet;
 public class ReachedSetFactory {
 
   private enum ReachedSetType {
-    NORMAL, LOCATIONMAPPED, PARTITIONED, PSEUDOPARTITIONED, USAGE
+    NORMAL, LOCATIONMAPPED, LOCKSTRIPED, PARTITIONED, PSEUDOPARTITIONED, USAGE
   }
 
   @Option(
@@ -172,6 +176,22 @@ public class ReachedSetFactory {
   )
   private boolean useBlocks = false;
 
+  @Option(
+    secure = true,
+    name = "traversal.useHeap",
+    description =
+        "Combine the sort orders selected by the options traversal.useCallstack, "
+            + "traversal.useLoopstack, traversal.useLoopIterationCount, "
+            + "traversal.usePostorder, traversal.useReversePostorder "
+            + "(and their reversed variants) in a single heap-based waitlist "
+            + "instead of nesting one sorted waitlist per order. "
+            + "The secondary strategy is selected with 'analysis.traversal.order' "
+            + "and needs to be DFS or BFS. "
+            + "Not supported together with weighted or automaton-based orders "
+            + "that are applied below these sort orders."
+  )
+  private boolean useHeapWaitlist = false;
+
   @Option(
     secure = true,
     name = "reachedSet",
@@ -180,12 +200,25 @@ public class ReachedSetFactory {
             + "\nNORMAL: just a simple set"
             + "\nLOCATIONMAPPED: a different set per location "
             + "(faster, states with different locations cannot be merged)"
+            + "\nLOCKSTRIPED: like LOCATIONMAPPED, but with one lock per location "
+            + "(necessary for the concurrent CPA algorithm)"
             + "\nPARTITIONED: partitioning depending on CPAs (e.g Location, Callstack etc.)"
             + "\nPSEUDOPARTITIONED: based on PARTITIONED, uses additional info about the states' lattice "
             + "(maybe faster for some special analyses which use merge_sep and stop_sep"
   )
   private ReachedSetType reachedSet = ReachedSetType.PARTITIONED;
 
+  @Option(
+    secure = true,
+    name = "reachedSet.useSubsumptionIndex",
+    description =
+        "index each partition of the reached set by the subsumption signatures of the states, "
+            + "such that the stop operator checks only states that might cover a new state "
+            + "(only for PARTITIONED and LOCATIONMAPPED, "
+            + "needs abstract states that implement SubsumptionIndexable to have any effect)"
+  )
+  private boolean useSubsumptionIndex = false;
+
   private final Configuration config;
   private @Nullable BlockConfiguration blockConfig;
   private final LogManager logger;
@@ -201,11 +234,69 @@ public class ReachedSetFactory {
     } else {
       blockConfig = null;
     }
+
+    if (useHeapWaitlist) {
+      if (traversalMethod != Waitlist.TraversalMethod.DFS
+          && traversalMethod != Waitlist.TraversalMethod.BFS) {
+        throw new InvalidConfigurationException(
+            "Heap-based waitlist supports only DFS and BFS as traversal order, not "
+                + traversalMethod);
+      }
+      if (useWeightedDepthOrder || useWeightedBranchOrder || useAutomatonInformation) {
+        throw new InvalidConfigurationException(
+            "Heap-based waitlist cannot be combined with weighted or automaton-based "
+                + "traversal orders.");
+      }
+    }
   }
 
   public ReachedSet create() {
     WaitlistFactory waitlistFactory = traversalMethod;
 
+    if (useHeapWaitlist) {
+      waitlistFactory = HeapWaitlist.factory(getHeapScoring(), traversalMethod);
+    } else {
+      waitlistFactory = createSortedWaitlistFactory(waitlistFactory);
+    }
+
+    if (useExplicitInformation) {
+      waitlistFactory = ExplicitSortedWaitlist.factory(waitlistFactory);
+    }
+    if (byAutomatonVariable != null) {
+      waitlistFactory = AutomatonVariableWaitlist.factory(waitlistFactory, byAutomatonVariable);
+    }
+    if (useNumberOfThreads) {
+      waitlistFactory = ThreadingSortedWaitlist.factory(waitlistFactory);
+    }
+    if (useBlocks) {
+      waitlistFactory = BlockWaitlist.factory(waitlistFactory, blockConfig, logger);
+    }
+
+    switch (reachedSet) {
+    case PARTITIONED:
+      return new PartitionedReachedSet(waitlistFactory, useSubsumptionIndex);
+
+    case PSEUDOPARTITIONED:
+      return new PseudoPartitionedReachedSet(waitlistFactory);
+
+    case LOCATIONMAPPED:
+      return new LocationMappedReachedSet(waitlistFactory, useSubsumptionIndex);
+
+    case LOCKSTRIPED:
+      return new LockStripedReachedSet(waitlistFactory);
+
+    case USAGE:
+      return new UsageReachedSet(waitlistFactory, config, logger);
+
+    case NORMAL:
+    default:
+      return new DefaultReachedSet(waitlistFactory);
+    }
+  }
+
+  private WaitlistFactory createSortedWaitlistFactory(WaitlistFactory pWaitlistFactory) {
+    WaitlistFactory waitlistFactory = pWaitlistFactory;
+
     if (useWeightedDepthOrder) {
       waitlistFactory = DepthBasedWeightedWaitlist.factory(waitlistFactory, config);
     }
@@ -239,35 +330,37 @@ public class ReachedSetFactory {
     if (useCallstack) {
       waitlistFactory = CallstackSortedWaitlist.factory(waitlistFactory);
     }
-    if (useExplicitInformation) {
-      waitlistFactory = ExplicitSortedWaitlist.factory(waitlistFactory);
+    return waitlistFactory;
+  }
+
+  /**
+   * Return the scores for the heap-based waitlist, most important score first.
+   * The order is the same as the nesting of the sorted waitlists
+   * in {@link #createSortedWaitlistFactory(WaitlistFactory)}.
+   */
+  private List<StateScore> getHeapScoring() {
+    List<StateScore> scoring = new ArrayList<>();
+    if (useCallstack) {
+      scoring.add(StateScore.CALLSTACK_DEPTH);
     }
-    if (byAutomatonVariable != null) {
-      waitlistFactory = AutomatonVariableWaitlist.factory(waitlistFactory, byAutomatonVariable);
+    if (useReverseLoopstack) {
+      scoring.add(StateScore.LOOPSTACK_DEPTH.reversed());
     }
-    if (useNumberOfThreads) {
-      waitlistFactory = ThreadingSortedWaitlist.factory(waitlistFactory);
+    if (useLoopstack) {
+      scoring.add(StateScore.LOOPSTACK_DEPTH);
     }
-    if (useBlocks) {
-      waitlistFactory = BlockWaitlist.factory(waitlistFactory, blockConfig, logger);
+    if (useReverseLoopIterationCount) {
+      scoring.add(StateScore.LOOP_ITERATIONS.reversed());
     }
-
-    switch (reachedSet) {
-    case PARTITIONED:
-      return new PartitionedReachedSet(waitlistFactory);
-
-    case PSEUDOPARTITIONED:
-      return new PseudoPartitionedReachedSet(waitlistFactory);
-
-    case LOCATIONMAPPED:
-      return new LocationMappedReachedSet(waitlistFactory);
-
-    case USAGE:
-      return new UsageReachedSet(waitlistFactory, config, logger);
-
-    case NORMAL:
-    default:
-      return new DefaultReachedSet(waitlistFactory);
+    if (useLoopIterationCount) {
+      scoring.add(StateScore.LOOP_ITERATIONS);
+    }
+    if (usePostorder) {
+      scoring.add(StateScore.REVERSE_POSTORDER.reversed());
+    }
+    if (useReversePostorder) {
+      scoring.add(StateScore.REVERSE_POSTORDER);
     }
+    return scoring;
   }
 }
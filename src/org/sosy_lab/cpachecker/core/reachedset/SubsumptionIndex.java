@@ -0,0 +1,121 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ForwardingCollection;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.SetMultimap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.SubsumptionIndexable;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
+
+/**
+ * View of a single partition of a reached set that additionally groups the states
+ * by their {@link SubsumptionIndexable#getSubsumptionSignature() subsumption signature}.
+ *
+ * Stop operators that check coverage against each reached state separately
+ * can use {@link #getCandidateCoverers(AbstractState, Collection)} to iterate
+ * only over those states of the partition that might cover a given state.
+ * The index is maintained by {@link PartitionedReachedSet} if configured so.
+ */
+public final class SubsumptionIndex extends ForwardingCollection<AbstractState> {
+
+  private final Collection<AbstractState> partition;
+
+  private final SetMultimap<Long, AbstractState> statesBySignature =
+      LinkedHashMultimap.create(1, 16);
+
+  /** number of reached states that did not need to be checked, one value per query */
+  private final StatInt avoidedChecks;
+
+  SubsumptionIndex(Collection<AbstractState> pPartition, StatInt pAvoidedChecks) {
+    partition = Collections.unmodifiableCollection(pPartition);
+    avoidedChecks = checkNotNull(pAvoidedChecks);
+  }
+
+  @Override
+  protected Collection<AbstractState> delegate() {
+    return partition;
+  }
+
+  void addState(AbstractState pState) {
+    statesBySignature.put(getSignature(pState), pState);
+  }
+
+  void removeState(AbstractState pState) {
+    statesBySignature.remove(getSignature(pState), pState);
+  }
+
+  /**
+   * Return all states of this partition that might cover the given state,
+   * i.e., all states whose signature has no bits that are not set
+   * in the signature of the given state.
+   */
+  public Iterable<AbstractState> getCandidateCoverers(AbstractState pState) {
+    long signature = getSignature(pState);
+
+    List<Collection<AbstractState>> candidates = new ArrayList<>();
+    int avoided = 0;
+    for (Map.Entry<Long, Collection<AbstractState>> group :
+        statesBySignature.asMap().entrySet()) {
+      if ((group.getKey() & ~signature) == 0) {
+        candidates.add(group.getValue());
+      } else {
+        avoided += group.getValue().size();
+      }
+    }
+    avoidedChecks.setNextValue(avoided);
+    return Iterables.unmodifiableIterable(Iterables.concat(candidates));
+  }
+
+  /**
+   * Return those states of the given collection that might cover the given state.
+   * If the collection is a partition of a reached set with a subsumption index,
+   * the index is used, otherwise the collection is returned unchanged.
+   */
+  public static Iterable<AbstractState> getCandidateCoverers(
+      AbstractState pState, Collection<AbstractState> pReached) {
+    checkNotNull(pState);
+    if (pReached instanceof SubsumptionIndex) {
+      return ((SubsumptionIndex) pReached).getCandidateCoverers(pState);
+    }
+    return pReached;
+  }
+
+  static long getSignature(AbstractState pState) {
+    checkNotNull(pState);
+    if (pState instanceof SubsumptionIndexable) {
+      return ((SubsumptionIndexable) pState).getSubsumptionSignature();
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
+import org.sosy_lab.cpachecker.core.interfaces.SubsumptionIndexable;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+
+public class SubsumptionIndexTest {
+
+  private static class TestState
+      implements AbstractState, Partitionable, SubsumptionIndexable {
+
+    private final String partition;
+    private final long signature;
+
+    private TestState(String pPartition, long pSignature) {
+      partition = pPartition;
+      signature = pSignature;
+    }
+
+    @Override
+    public Object getPartitionKey() {
+      return partition;
+    }
+
+    @Override
+    public long getSubsumptionSignature() {
+      return signature;
+    }
+  }
+
+  private PartitionedReachedSet reached;
+
+  @Before
+  public void setUp() {
+    reached = new PartitionedReachedSet(TraversalMethod.DFS, true);
+  }
+
+  private AbstractState add(String partition, long signature) {
+    AbstractState state = new TestState(partition, signature);
+    reached.add(state, SingletonPrecision.getInstance());
+    return state;
+  }
+
+  @Test
+  public void testCandidateCoverers() {
+    AbstractState s1 = add("a", 0b0001);
+    AbstractState s2 = add("a", 0b0011);
+    AbstractState s3 = add("a", 0b0100);
+    AbstractState other = add("b", 0b0001);
+
+    AbstractState newState = new TestState("a", 0b0011);
+    assertThat(reached.getReached(newState)).containsExactly(s1, s2, s3);
+    assertThat(SubsumptionIndex.getCandidateCoverers(newState, reached.getReached(newState)))
+        .containsExactly(s1, s2);
+    assertThat(reached.getAvoidedCoverageChecks().getValueSum()).isEqualTo(1);
+
+    reached.remove(s1);
+    assertThat(SubsumptionIndex.getCandidateCoverers(newState, reached.getReached(newState)))
+        .containsExactly(s2);
+    assertThat(reached.getReached(other)).containsExactly(other);
+  }
+
+  @Test
+  public void testWithoutIndex() {
+    reached = new PartitionedReachedSet(TraversalMethod.DFS);
+    AbstractState s1 = add("a", 0b0001);
+    AbstractState s2 = add("a", 0b0100);
+
+    AbstractState newState = new TestState("a", 0b0001);
+    assertThat(SubsumptionIndex.getCandidateCoverers(newState, reached.getReached(newState)))
+        .containsExactly(s1, s2);
+    assertThat(reached.getAvoidedCoverageChecks()).isNull();
+  }
+}
@@ -0,0 +1,269 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.waitlist;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+
+/**
+ * Waitlist implementation that sorts the abstract states lexicographically
+ * by a list of {@link StateScore}s, i.e., by the first score,
+ * then by the second score for states with the same first score, and so on.
+ * States with larger scores are considered first.
+ * States with equal scores are considered in the order defined by the given
+ * {@link TraversalMethod} (only DFS and BFS are supported).
+ *
+ * <p>This class replaces a stack of {@link AbstractSortedWaitlist}s with a single
+ * indexed binary heap. The scores of a state are computed once when it is added,
+ * {@link #pop()} and {@link #remove(AbstractState)} take logarithmic time,
+ * and {@link #contains(AbstractState)} takes constant time.
+ * If the scores of a state that is already in the waitlist change,
+ * {@link #updateScores(AbstractState)} or {@link #add(AbstractState)}
+ * can be used to move it to its new position.
+ *
+ * <p>The iterators created by this class are unmodifiable
+ * and do not return the states in any particular order.
+ */
+public class HeapWaitlist implements Waitlist {
+
+  private static final class Entry {
+    private final AbstractState state;
+    private final long sequenceNumber;
+    private int[] scores;
+    private int index;
+
+    private Entry(AbstractState pState, int[] pScores, long pSequenceNumber) {
+      state = pState;
+      scores = pScores;
+      sequenceNumber = pSequenceNumber;
+    }
+  }
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final StateScore[] scoring;
+  private final boolean preferNewerStates;
+
+  // binary max-heap with the entries at the indices 0 to size-1,
+  // the index of each entry is stored in the entry
+  private Entry[] heap = new Entry[INITIAL_CAPACITY];
+  private int size = 0;
+
+  private final Map<AbstractState, Entry> entries = new HashMap<>();
+
+  private long nextSequenceNumber = 0;
+
+  protected HeapWaitlist(List<StateScore> pScoring, TraversalMethod pTraversal) {
+    checkArgument(
+        pTraversal == TraversalMethod.DFS || pTraversal == TraversalMethod.BFS,
+        "Unsupported traversal method for heap-based waitlist: %s",
+        pTraversal);
+    scoring = pScoring.toArray(new StateScore[0]);
+    preferNewerStates = pTraversal == TraversalMethod.DFS;
+  }
+
+  public static WaitlistFactory factory(List<StateScore> pScoring, TraversalMethod pTraversal) {
+    List<StateScore> scoring = ImmutableList.copyOf(pScoring);
+    return () -> new HeapWaitlist(scoring, pTraversal);
+  }
+
+  private int[] computeScores(AbstractState pState) {
+    int[] result = new int[scoring.length];
+    for (int i = 0; i < scoring.length; i++) {
+      result[i] = scoring[i].getScore(pState);
+    }
+    return result;
+  }
+
+  /** Return whether entry e1 should be considered before entry e2. */
+  private boolean isBefore(Entry e1, Entry e2) {
+    int[] scores1 = e1.scores;
+    int[] scores2 = e2.scores;
+    for (int i = 0; i < scores1.length; i++) {
+      if (scores1[i] != scores2[i]) {
+        return scores1[i] > scores2[i];
+      }
+    }
+    if (preferNewerStates) {
+      return e1.sequenceNumber > e2.sequenceNumber;
+    } else {
+      return e1.sequenceNumber < e2.sequenceNumber;
+    }
+  }
+
+  @Override
+  public void add(AbstractState pState) {
+    Entry entry = entries.get(pState);
+    if (entry != null) {
+      // already present, just update its position
+      updatePosition(entry, computeScores(pState));
+      return;
+    }
+
+    entry = new Entry(pState, computeScores(pState), nextSequenceNumber++);
+    entries.put(pState, entry);
+    if (size == heap.length) {
+      heap = Arrays.copyOf(heap, 2 * size);
+    }
+    entry.index = size;
+    heap[size] = entry;
+    size++;
+    siftUp(entry);
+  }
+
+  /**
+   * Recompute the scores of a state in the waitlist and update its position accordingly.
+   * This needs to be called if the scores of a state may have changed since it was added.
+   *
+   * @return whether the state is contained in the waitlist
+   */
+  public boolean updateScores(AbstractState pState) {
+    Entry entry = entries.get(pState);
+    if (entry == null) {
+      return false;
+    }
+    updatePosition(entry, computeScores(pState));
+    return true;
+  }
+
+  private void updatePosition(Entry pEntry, int[] pNewScores) {
+    pEntry.scores = pNewScores;
+    siftUp(pEntry);
+    siftDown(pEntry);
+  }
+
+  @Override
+  public boolean contains(AbstractState pState) {
+    return entries.containsKey(pState);
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(heap, 0, size, null);
+    size = 0;
+    entries.clear();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public Iterator<AbstractState> iterator() {
+    return Iterators.unmodifiableIterator(
+        Iterators.transform(
+            Iterators.limit(Iterators.forArray(heap), size), entry -> entry.state));
+  }
+
+  @Override
+  public AbstractState pop() {
+    if (size == 0) {
+      throw new NoSuchElementException();
+    }
+    Entry result = heap[0];
+    entries.remove(result.state);
+    removeAt(0);
+    return result.state;
+  }
+
+  @Override
+  public boolean remove(AbstractState pState) {
+    Entry entry = entries.remove(pState);
+    if (entry == null) {
+      return false;
+    }
+    removeAt(entry.index);
+    return true;
+  }
+
+  private void removeAt(int pIndex) {
+    size--;
+    Entry last = heap[size];
+    heap[size] = null;
+    if (pIndex < size) {
+      last.index = pIndex;
+      heap[pIndex] = last;
+      siftUp(last);
+      siftDown(last);
+    }
+  }
+
+  private void siftUp(Entry pEntry) {
+    int index = pEntry.index;
+    while (index > 0) {
+      int parentIndex = (index - 1) >>> 1;
+      Entry parent = heap[parentIndex];
+      if (!isBefore(pEntry, parent)) {
+        break;
+      }
+      parent.index = index;
+      heap[index] = parent;
+      index = parentIndex;
+    }
+    pEntry.index = index;
+    heap[index] = pEntry;
+  }
+
+  private void siftDown(Entry pEntry) {
+    int index = pEntry.index;
+    int half = size >>> 1;
+    while (index < half) {
+      int childIndex = 2 * index + 1;
+      Entry child = heap[childIndex];
+      int rightIndex = childIndex + 1;
+      if (rightIndex < size && isBefore(heap[rightIndex], child)) {
+        childIndex = rightIndex;
+        child = heap[childIndex];
+      }
+      if (!isBefore(child, pEntry)) {
+        break;
+      }
+      child.index = index;
+      heap[index] = child;
+      index = childIndex;
+    }
+    pEntry.index = index;
+    heap[index] = pEntry;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public String toString() {
+    return Iterators.toString(iterator());
+  }
+}
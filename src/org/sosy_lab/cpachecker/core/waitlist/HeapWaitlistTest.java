@@ -0,0 +1,137 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.waitlist;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+
+public class HeapWaitlistTest {
+
+  private static class TestState implements AbstractState {
+
+    private int primary;
+    private final int secondary;
+
+    private TestState(int pPrimary, int pSecondary) {
+      primary = pPrimary;
+      secondary = pSecondary;
+    }
+
+    @Override
+    public String toString() {
+      return primary + "/" + secondary;
+    }
+  }
+
+  private static final StateScore PRIMARY = s -> ((TestState) s).primary;
+  private static final StateScore SECONDARY = s -> ((TestState) s).secondary;
+
+  private static List<AbstractState> popAll(Waitlist pWaitlist) {
+    List<AbstractState> result = new ArrayList<>();
+    while (!pWaitlist.isEmpty()) {
+      result.add(pWaitlist.pop());
+    }
+    return result;
+  }
+
+  @Test
+  public void testLexicographicOrder() {
+    Waitlist waitlist =
+        HeapWaitlist.factory(ImmutableList.of(PRIMARY, SECONDARY.reversed()), TraversalMethod.DFS)
+            .createWaitlistInstance();
+    TestState s11 = new TestState(1, 1);
+    TestState s12 = new TestState(1, 2);
+    TestState s21 = new TestState(2, 1);
+    TestState s22 = new TestState(2, 2);
+    waitlist.add(s12);
+    waitlist.add(s21);
+    waitlist.add(s11);
+    waitlist.add(s22);
+
+    assertThat(waitlist.size()).isEqualTo(4);
+    assertThat(waitlist).containsExactly(s11, s12, s21, s22);
+    assertThat(popAll(waitlist)).containsExactly(s21, s22, s11, s12).inOrder();
+  }
+
+  @Test
+  public void testTieBreaking() {
+    TestState s1 = new TestState(0, 0);
+    TestState s2 = new TestState(0, 0);
+    TestState s3 = new TestState(0, 0);
+
+    Waitlist dfs =
+        HeapWaitlist.factory(ImmutableList.of(PRIMARY), TraversalMethod.DFS)
+            .createWaitlistInstance();
+    Waitlist bfs =
+        HeapWaitlist.factory(ImmutableList.of(PRIMARY), TraversalMethod.BFS)
+            .createWaitlistInstance();
+    for (TestState s : ImmutableList.of(s1, s2, s3)) {
+      dfs.add(s);
+      bfs.add(s);
+    }
+
+    assertThat(popAll(dfs)).containsExactly(s3, s2, s1).inOrder();
+    assertThat(popAll(bfs)).containsExactly(s1, s2, s3).inOrder();
+  }
+
+  @Test
+  public void testRemoveAndUpdate() {
+    HeapWaitlist waitlist = new HeapWaitlist(ImmutableList.of(PRIMARY), TraversalMethod.BFS);
+    List<TestState> states = new ArrayList<>();
+    Random random = new Random(0);
+    for (int i = 0; i < 100; i++) {
+      TestState state = new TestState(random.nextInt(20), i);
+      states.add(state);
+      waitlist.add(state);
+    }
+
+    for (int i = 0; i < 100; i += 3) {
+      assertThat(waitlist.remove(states.get(i))).isTrue();
+      assertThat(waitlist.contains(states.get(i))).isFalse();
+    }
+    assertThat(waitlist.remove(states.get(0))).isFalse();
+
+    TestState updated = states.get(1);
+    updated.primary = 100;
+    assertThat(waitlist.updateScores(updated)).isTrue();
+    assertThat(waitlist.pop()).isSameAs(updated);
+
+    int last = Integer.MAX_VALUE;
+    int count = 0;
+    while (!waitlist.isEmpty()) {
+      TestState state = (TestState) waitlist.pop();
+      assertThat(state.primary).isAtMost(last);
+      last = state.primary;
+      count++;
+    }
+    assertThat(count).isEqualTo(100 - 34 - 1);
+  }
+}
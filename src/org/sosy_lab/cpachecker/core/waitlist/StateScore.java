@@ -0,0 +1,77 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.waitlist;
+
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.cpa.callstack.CallstackState;
+import org.sosy_lab.cpachecker.cpa.loopbound.LoopBoundState;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+
+/**
+ * Scoring function for abstract states that is used by {@link HeapWaitlist}.
+ * States with a larger score are considered first.
+ *
+ * <p>The scores of the predefined instances match the sort keys
+ * of the respective subclasses of {@link AbstractSortedWaitlist}.
+ */
+@FunctionalInterface
+public interface StateScore {
+
+  int getScore(AbstractState pState);
+
+  /** Return a score that considers states with a smaller score of this instance first. */
+  default StateScore reversed() {
+    return pState -> -getScore(pState);
+  }
+
+  /** Depth of the callstack, cf. {@link CallstackSortedWaitlist}. */
+  StateScore CALLSTACK_DEPTH =
+      pState -> {
+        CallstackState callstackState =
+            AbstractStates.extractStateByType(pState, CallstackState.class);
+        return (callstackState != null) ? callstackState.getDepth() : 0;
+      };
+
+  /** Depth of the loopstack, cf. {@link LoopstackSortedWaitlist}. */
+  StateScore LOOPSTACK_DEPTH =
+      pState -> {
+        LoopBoundState loopstackState =
+            AbstractStates.extractStateByType(pState, LoopBoundState.class);
+        return (loopstackState != null) ? loopstackState.getDepth() : 0;
+      };
+
+  /** Number of loop iterations, cf. {@link LoopIterationSortedWaitlist}. */
+  StateScore LOOP_ITERATIONS =
+      pState -> {
+        LoopBoundState loopBoundState =
+            AbstractStates.extractStateByType(pState, LoopBoundState.class);
+        return (loopBoundState != null)
+            ? loopBoundState.getMaxNumberOfIterationsInLoopstackFrame()
+            : 0;
+      };
+
+  /** Reverse postorder ID of the location, cf. {@link ReversePostorderSortedWaitlist}. */
+  StateScore REVERSE_POSTORDER =
+      pState -> AbstractStates.extractLocation(pState).getReversePostorderId();
+}
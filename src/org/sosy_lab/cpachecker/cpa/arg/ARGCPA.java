@@ -88,12 +88,25 @@ public class ARGCPA extends AbstractSingleWrapperCPA implements
   )
   private boolean keepCoveredStatesInReached = false;
 
+  @Option(
+    secure = true,
+    name = "cpa.arg.releaseRemovedStates",
+    description =
+        "whether to release the wrapped states of ARG states as soon as they are removed "
+            + "from the ARG, e.g., during refinement. This reduces memory usage, "
+            + "but the wrapped states of removed ARG states are not available anymore "
+            + "to code that still references such states (e.g., old counterexample paths)."
+  )
+  private boolean releaseRemovedStates = false;
+
   private final MergeOperator merge;
 
   private final LogManager logger;
 
   private final ARGStatistics stats;
 
+  private final ARGMemoryStatistics memoryStats = new ARGMemoryStatistics();
+
   private ARGCPA(
       ConfigurableProgramAnalysis cpa,
       Configuration config,
@@ -179,6 +192,7 @@ public class ARGCPA extends AbstractSingleWrapperCPA implements
       // and afterwards call super.collectStatistics().
       pStatsCollection.add(stats);
     }
+    pStatsCollection.add(memoryStats);
     super.collectStatistics(pStatsCollection);
   }
 
@@ -186,6 +200,17 @@ public class ARGCPA extends AbstractSingleWrapperCPA implements
     return stats;
   }
 
+  /**
+   * Notify the CPA that the given state was removed from the ARG,
+   * such that its wrapped state can be released if configured.
+   */
+  void stateRemovedFromARG(ARGState pState) {
+    if (releaseRemovedStates) {
+      pState.releaseWrappedState();
+      memoryStats.releasedStates.inc();
+    }
+  }
+
   @Override
   public boolean areAbstractSuccessors(AbstractState pElement, CFAEdge pCfaEdge,
       Collection<? extends AbstractState> pSuccessors) throws CPATransferException, InterruptedException {
@@ -0,0 +1,82 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.arg;
+
+import com.google.common.graph.Traverser;
+import java.io.PrintStream;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+
+/** Statistics about the size of the ARG and the memory used for its structure. */
+class ARGMemoryStatistics implements Statistics {
+
+  final StatCounter releasedStates =
+      new StatCounter("Wrapped states released from removed ARG states");
+
+  @Override
+  public String getName() {
+    return "ARG memory";
+  }
+
+  @Override
+  public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+    ARGState root =
+        pReached.isEmpty()
+            ? null
+            : AbstractStates.extractStateByType(pReached.getFirstState(), ARGState.class);
+    if (root == null) {
+      return;
+    }
+
+    int states = 0;
+    int edges = 0;
+    int coveredStates = 0;
+    int statesWithArrays = 0;
+    long arraySlots = 0;
+    for (ARGState state : Traverser.forGraph(ARGState::getChildren).breadthFirst(root)) {
+      states++;
+      edges += state.getChildren().size();
+      if (state.isCovered()) {
+        coveredStates++;
+      }
+      int slots = state.getAdjacencyArraySlots();
+      if (slots > 0) {
+        statesWithArrays++;
+        arraySlots += slots;
+      }
+    }
+
+    StatisticsWriter.writingStatisticsTo(pOut)
+        .put("Number of states in ARG", states)
+        .put("Number of edges in ARG", edges)
+        .put("Number of covered states in ARG", coveredStates)
+        .put("States with more than one parent or child", statesWithArrays)
+        .put("Array slots for parents and children", arraySlots)
+        .putIfUpdatedAtLeastOnce(releasedStates);
+  }
+}
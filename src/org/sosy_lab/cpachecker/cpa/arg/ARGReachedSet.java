@@ -164,6 +164,9 @@ public class ARGReachedSet {
     for (ARGState state : toRemove) {
       if (!state.isDestroyed()) {
         state.removeFromARG();
+        if (cpa != null) {
+          cpa.stateRemovedFromARG(state);
+        }
       }
     }
   }
@@ -405,6 +408,9 @@ public class ARGReachedSet {
       }
 
       ae.removeFromARG();
+      if (cpa != null) {
+        cpa.stateRemovedFromARG(ae);
+      }
     }
     return toWaitlist;
   }
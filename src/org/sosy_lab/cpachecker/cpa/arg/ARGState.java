@@ -31,9 +31,12 @@ import static org.sosy_lab.cpachecker.util.AbstractStates.extractStateByType;
 
 import com.google.common.collect.Sets;
 import com.google.common.graph.Traverser;
+import java.util.AbstractCollection;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
@@ -56,12 +59,16 @@ public class ARGState extends AbstractSingleWrapperState
 
   private static final long serialVersionUID = 2608287648397165040L;
 
-  // We use a List here although we would like to have a Set
-  // because ArrayList is much more memory efficient than e.g. LinkedHashSet.
-  // Also these collections are small and so a slow contains() method won't hurt.
+  // Most states have exactly one parent and few children,
+  // so in order to save memory we do not use collection objects here.
+  // Each of these fields is either null (no element), a single ARGState,
+  // or an ARGState[] with at least two elements.
+  // The arrays are never modified, they are replaced on each change,
+  // such that iterating over a snapshot is safe while the ARG is changed.
+  // These arrays are small and so a slow contains() method won't hurt.
   // To enforce set semantics, do not add elements except through addparent()!
-  private final Collection<ARGState> children = new ArrayList<>(1);
-  private final Collection<ARGState> parents = new ArrayList<>(1);
+  private @Nullable Object children = null;
+  private @Nullable Object parents = null;
 
   private ARGState mCoveredBy = null;
   private Set<ARGState> mCoveredByThis = null; // lazy initialization because rarely needed
@@ -96,7 +103,7 @@ public class ARGState extends AbstractSingleWrapperState
    * @return A unmodifiable collection of ARGStates without duplicates.
    */
   public Collection<ARGState> getParents() {
-    return Collections.unmodifiableCollection(parents);
+    return new AdjacencyView(this, false);
   }
 
   public void addParent(ARGState pOtherParent) {
@@ -104,12 +111,12 @@ public class ARGState extends AbstractSingleWrapperState
     assert !destroyed : "Don't use destroyed ARGState " + this;
 
     // Manually enforce set semantics.
-    if (!parents.contains(pOtherParent)) {
-      assert !pOtherParent.children.contains(this);
-      parents.add(pOtherParent);
-      pOtherParent.children.add(this);
+    if (!contains(parents, pOtherParent)) {
+      assert !contains(pOtherParent.children, this);
+      parents = add(parents, pOtherParent);
+      pOtherParent.children = add(pOtherParent.children, this);
     } else {
-      assert pOtherParent.children.contains(this);
+      assert contains(pOtherParent.children, this);
     }
   }
 
@@ -119,7 +126,7 @@ public class ARGState extends AbstractSingleWrapperState
    */
   public Collection<ARGState> getChildren() {
     assert !destroyed : "Don't use destroyed ARGState " + this;
-    return Collections.unmodifiableCollection(children);
+    return new AdjacencyView(this, true);
   }
 
   /**
@@ -298,10 +305,10 @@ public class ARGState extends AbstractSingleWrapperState
   }
 
   void deleteChild(ARGState child) {
-    assert (children.contains(child));
-    assert (child.parents.contains(this));
-    children.remove(child);
-    child.parents.remove(this);
+    assert (contains(children, child));
+    assert (contains(child.parents, this));
+    children = remove(children, child);
+    child.parents = remove(child.parents, this);
   }
 
   // counterexample
@@ -389,9 +396,9 @@ public class ARGState extends AbstractSingleWrapperState
     sb.append(stateId);
     if (!destroyed) {
       sb.append(", Parents: ");
-      sb.append(stateIdsOf(parents));
+      sb.append(stateIdsOf(asList(parents)));
       sb.append(", Children: ");
-      sb.append(stateIdsOf(children));
+      sb.append(stateIdsOf(asList(children)));
 
       if (mCoveredBy != null) {
         sb.append(", Covered by: ");
@@ -476,18 +483,18 @@ public class ARGState extends AbstractSingleWrapperState
     assert !destroyed : "Don't use destroyed ARGState " + this;
 
     // clear children
-    for (ARGState child : children) {
-      assert (child.parents.contains(this));
-      child.parents.remove(this);
+    for (ARGState child : asList(children)) {
+      assert (contains(child.parents, this));
+      child.parents = remove(child.parents, this);
     }
-    children.clear();
+    children = null;
 
     // clear parents
-    for (ARGState parent : parents) {
-      assert (parent.children.contains(this));
-      parent.children.remove(this);
+    for (ARGState parent : asList(parents)) {
+      assert (contains(parent.children, this));
+      parent.children = remove(parent.children, this);
     }
-    parents.clear();
+    parents = null;
   }
 
   /**
@@ -507,19 +514,19 @@ public class ARGState extends AbstractSingleWrapperState
     assert !(this==replacement) : "Don't replace ARGState " + this + " with itself";
 
     // copy children
-    for (ARGState child : children) {
-      assert (child.parents.contains(this)) : "Inconsistent ARG at " + this;
-      child.parents.remove(this);
+    for (ARGState child : asList(children)) {
+      assert (contains(child.parents, this)) : "Inconsistent ARG at " + this;
+      child.parents = remove(child.parents, this);
       child.addParent(replacement);
     }
-    children.clear();
+    children = null;
 
-    for (ARGState parent : parents) {
-      assert (parent.children.contains(this)) : "Inconsistent ARG at " + this;
-      parent.children.remove(this);
+    for (ARGState parent : asList(parents)) {
+      assert (contains(parent.children, this)) : "Inconsistent ARG at " + this;
+      parent.children = remove(parent.children, this);
       replacement.addParent(parent);
     }
-    parents.clear();
+    parents = null;
 
     if (mCoveredByThis != null) {
       if (replacement.mCoveredByThis == null) {
@@ -584,12 +591,140 @@ public class ARGState extends AbstractSingleWrapperState
     assert !destroyed : "Don't use destroyed ARGState " + this;
 
     // Manually enforce set semantics.
-    if (parents.contains(pOtherParent)) {
-      assert pOtherParent.children.contains(this);
-      parents.remove(pOtherParent);
-      pOtherParent.children.remove(this);
+    if (contains(parents, pOtherParent)) {
+      assert contains(pOtherParent.children, this);
+      parents = remove(parents, pOtherParent);
+      pOtherParent.children = remove(pOtherParent.children, this);
     } else {
-      assert !pOtherParent.children.contains(this) : "Problem detected!";
+      assert !contains(pOtherParent.children, this) : "Problem detected!";
+    }
+  }
+
+  // memory management
+
+  /**
+   * Release the wrapped state of this state such that it can be garbage collected
+   * although this state is still referenced, e.g., from a counterexample path.
+   * This may only be called for states that were removed from the ARG.
+   */
+  @Override
+  protected void releaseWrappedState() {
+    checkState(destroyed, "Cannot release wrapped state of ARGState in ARG: %s", this);
+    super.releaseWrappedState();
+  }
+
+  /**
+   * Return the number of array slots this state uses for storing its parents and children,
+   * this is zero if the state has at most one parent and at most one child.
+   */
+  int getAdjacencyArraySlots() {
+    int slots = 0;
+    if (parents instanceof ARGState[]) {
+      slots += ((ARGState[]) parents).length;
+    }
+    if (children instanceof ARGState[]) {
+      slots += ((ARGState[]) children).length;
+    }
+    return slots;
+  }
+
+  // helper methods for the inline representation of parents and children
+
+  private static List<ARGState> asList(@Nullable Object pElements) {
+    if (pElements == null) {
+      return Collections.emptyList();
+    } else if (pElements instanceof ARGState) {
+      return Collections.singletonList((ARGState) pElements);
+    } else {
+      return Collections.unmodifiableList(Arrays.asList((ARGState[]) pElements));
+    }
+  }
+
+  private static int size(@Nullable Object pElements) {
+    if (pElements == null) {
+      return 0;
+    } else if (pElements instanceof ARGState) {
+      return 1;
+    } else {
+      return ((ARGState[]) pElements).length;
+    }
+  }
+
+  private static boolean contains(@Nullable Object pElements, Object pState) {
+    if (pElements == null || pElements instanceof ARGState) {
+      return pElements == pState;
+    }
+    for (ARGState element : (ARGState[]) pElements) {
+      if (element == pState) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static Object add(@Nullable Object pElements, ARGState pState) {
+    if (pElements == null) {
+      return pState;
+    } else if (pElements instanceof ARGState) {
+      return new ARGState[] {(ARGState) pElements, pState};
+    } else {
+      ARGState[] elements = (ARGState[]) pElements;
+      ARGState[] result = Arrays.copyOf(elements, elements.length + 1);
+      result[elements.length] = pState;
+      return result;
+    }
+  }
+
+  private static @Nullable Object remove(@Nullable Object pElements, ARGState pState) {
+    if (pElements == null || pElements instanceof ARGState) {
+      return pElements == pState ? null : pElements;
+    }
+    ARGState[] elements = (ARGState[]) pElements;
+    int index = Arrays.asList(elements).indexOf(pState);
+    if (index < 0) {
+      return pElements;
+    } else if (elements.length == 2) {
+      return elements[1 - index];
+    }
+    ARGState[] result = new ARGState[elements.length - 1];
+    System.arraycopy(elements, 0, result, 0, index);
+    System.arraycopy(elements, index + 1, result, index, result.length - index);
+    return result;
+  }
+
+  /** Unmodifiable live view of the parents or children of a state. */
+  private static final class AdjacencyView extends AbstractCollection<ARGState> {
+
+    private final ARGState state;
+    private final boolean childrenView;
+
+    private AdjacencyView(ARGState pState, boolean pChildrenView) {
+      state = pState;
+      childrenView = pChildrenView;
+    }
+
+    private @Nullable Object elements() {
+      return childrenView ? state.children : state.parents;
+    }
+
+    @Override
+    public Iterator<ARGState> iterator() {
+      return asList(elements()).iterator();
+    }
+
+    @Override
+    public int size() {
+      return ARGState.size(elements());
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return elements() == null;
+    }
+
+    @Override
+    public boolean contains(Object pO) {
+      return ARGState.contains(elements(), pO);
     }
   }
 }
@@ -0,0 +1,73 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.arg;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+
+public class ARGStateTest {
+
+  @Test
+  public void testParentsAndChildren() {
+    ARGState root = new ARGState(null, null);
+    ARGState child1 = new ARGState(null, root);
+    ARGState child2 = new ARGState(null, root);
+    ARGState child3 = new ARGState(null, root);
+    ARGState merged = new ARGState(null, child1);
+    merged.addParent(child2);
+    merged.addParent(child2);
+    merged.addParent(child3);
+
+    assertThat(root.getParents()).isEmpty();
+    assertThat(root.getChildren()).containsExactly(child1, child2, child3).inOrder();
+    assertThat(merged.getParents()).containsExactly(child1, child2, child3).inOrder();
+    assertThat(child2.getChildren()).containsExactly(merged);
+
+    merged.removeParent(child2);
+    assertThat(merged.getParents()).containsExactly(child1, child3).inOrder();
+    assertThat(child2.getChildren()).isEmpty();
+
+    child1.removeFromARG();
+    assertThat(root.getChildren()).containsExactly(child2, child3).inOrder();
+    assertThat(merged.getParents()).containsExactly(child3);
+    assertThat(merged.getAdjacencyArraySlots()).isEqualTo(0);
+  }
+
+  @Test
+  public void testReplaceInARG() {
+    ARGState root = new ARGState(null, null);
+    ARGState state = new ARGState(null, root);
+    ARGState child = new ARGState(null, state);
+    ARGState replacement = new ARGState(null, null);
+
+    state.replaceInARGWith(replacement);
+
+    assertThat(root.getChildren()).containsExactly(replacement);
+    assertThat(replacement.getParents()).containsExactly(root);
+    assertThat(replacement.getChildren()).containsExactly(child);
+    assertThat(child.getParents()).containsExactly(replacement);
+    assertThat(state.isDestroyed()).isTrue();
+  }
+}
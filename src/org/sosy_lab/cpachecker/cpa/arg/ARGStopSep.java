@@ -32,6 +32,7 @@ import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.ForcedCoveringStopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+import org.sosy_lab.cpachecker.core.reachedset.SubsumptionIndex;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 
 public class ARGStopSep implements StopOperator, ForcedCoveringStopOperator {
@@ -108,7 +109,8 @@ public class ARGStopSep implements StopOperator, ForcedCoveringStopOperator {
       parent = Iterables.get(argElement.getParents(), 0);
     }
 
-    for (AbstractState reachedState : pReached) {
+    // Only states that might cover argElement need to be checked
+    for (AbstractState reachedState : SubsumptionIndex.getCandidateCoverers(argElement, pReached)) {
       ARGState argReachedState = (ARGState)reachedState;
       if (stop(argElement, argReachedState, pPrecision)) {
         if (parent != null && argReachedState.getParents().contains(parent)) {
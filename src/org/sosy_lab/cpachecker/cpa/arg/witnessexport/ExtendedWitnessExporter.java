@@ -57,6 +57,7 @@ public class ExtendedWitnessExporter extends WitnessExporter {
     WitnessWriter writer =
         new ExtendedWitnessWriter(
             options,
+            logger,
             cfa,
             verificationTaskMetaData,
             factory,
@@ -30,6 +30,7 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import javax.annotation.Nullable;
+import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
 import org.sosy_lab.cpachecker.core.counterexample.CFAEdgeWithAdditionalInfo;
@@ -44,6 +45,7 @@ import org.sosy_lab.cpachecker.util.expressions.Simplifier;
 public class ExtendedWitnessWriter extends WitnessWriter {
   ExtendedWitnessWriter(
       WitnessOptions pOptions,
+      LogManager pLogger,
       CFA pCfa,
       VerificationTaskMetaData pMetaData,
       ExpressionTreeFactory<Object> pFactory,
@@ -53,6 +55,7 @@ public class ExtendedWitnessWriter extends WitnessWriter {
       InvariantProvider pInvariantProvider) {
     super(
         pOptions,
+        pLogger,
         pCfa,
         pMetaData,
         pFactory,
@@ -86,6 +86,8 @@ public class WitnessExporter {
 
   protected final VerificationTaskMetaData verificationTaskMetaData;
 
+  protected final LogManager logger;
+
   public WitnessExporter(
       final Configuration pConfig,
       final LogManager pLogger,
@@ -96,6 +98,7 @@ public class WitnessExporter {
     options = new WitnessOptions();
     pConfig.inject(options);
     this.cfa = pCFA;
+    this.logger = pLogger;
     this.fmgr = Solver.create(pConfig, pLogger, ShutdownNotifier.createDummy()).getFormulaManager();
     this.assumptionToEdgeAllocator =
         AssumptionToEdgeAllocator.create(pConfig, pLogger, pCFA.getMachineModel());
@@ -114,6 +117,7 @@ public class WitnessExporter {
     WitnessWriter writer =
         new WitnessWriter(
             options,
+            logger,
             cfa,
             verificationTaskMetaData,
             factory,
@@ -144,6 +148,7 @@ public class WitnessExporter {
     WitnessWriter writer =
         new WitnessWriter(
             options,
+            logger,
             cfa,
             verificationTaskMetaData,
             factory,
@@ -291,6 +296,7 @@ public class WitnessExporter {
     WitnessWriter writer =
         new WitnessWriter(
             options,
+            logger,
             cfa,
             verificationTaskMetaData,
             factory,
@@ -26,25 +26,33 @@ package org.sosy_lab.cpachecker.cpa.arg.witnessexport;
 import com.google.common.base.Charsets;
 import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
+import com.google.common.collect.HashMultiset;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Multiset;
 import com.google.common.io.ByteStreams;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import java.io.BufferedReader;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.PrintStream;
 import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import javax.xml.parsers.DocumentBuilderFactory;
 import org.junit.Assert;
 import org.junit.Test;
 import org.sosy_lab.common.configuration.Configuration;
@@ -56,6 +64,9 @@ import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.WitnessType
 import org.sosy_lab.cpachecker.util.test.CPATestRunner;
 import org.sosy_lab.cpachecker.util.test.TestDataTools;
 import org.sosy_lab.cpachecker.util.test.TestResults;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
 
 public class WitnessExporterTest {
 
@@ -74,6 +85,8 @@ public class WitnessExporterTest {
     }
   }
 
+  private static final Pattern NODE_ID_PATTERN = Pattern.compile("([A-Za-z]+)(\\d+)");
+
   private static final String SPECIFICATION_OPTION = "specification";
 
   private static final String TEST_DIR_PATH = "test/programs/witnessValidation/";
@@ -99,6 +112,179 @@ public class WitnessExporterTest {
       .performTest();
   }
 
+  @Test(timeout = 90000)
+  public void streamingExport_minepump_spec1_product33_false() throws Exception {
+    testStreamingExportIsEquivalent(
+        "minepump_spec1_product33_false-unreach-call_false-termination.cil.c");
+  }
+
+  @Test(timeout = 90000)
+  public void streamingExport_minepump_spec1_product05_true() throws Exception {
+    testStreamingExportIsEquivalent(
+        "minepump_spec1_product05_true-unreach-call_false-termination.cil.c");
+  }
+
+  @Test(timeout = 90000)
+  public void streamingExportWithSmallLookahead_minepump_spec1_product33_false()
+      throws Exception {
+    testStreamingExportWithSmallLookahead(
+        "minepump_spec1_product33_false-unreach-call_false-termination.cil.c", 1);
+  }
+
+  @Test(timeout = 90000)
+  public void streamingExportWithSmallLookahead_minepump_spec1_product05_true()
+      throws Exception {
+    testStreamingExportWithSmallLookahead(
+        "minepump_spec1_product05_true-unreach-call_false-termination.cil.c", 4);
+  }
+
+  /**
+   * With a lookahead that covers the whole witness, the streaming export needs to produce the same
+   * nodes and edges as the in-memory export.
+   */
+  private static void testStreamingExportIsEquivalent(String pFilename) throws Exception {
+    String fullPath = Paths.get(TEST_DIR_PATH, pFilename).toString();
+    String specification = "config/specification/default.spc";
+
+    TempCompressedFilePath inMemoryWitness = new TempCompressedFilePath("witness", ".graphml");
+    generateWitness(
+        fullPath,
+        WitnessGenerationConfig.PREDICATE_ANALYSIS,
+        specification,
+        ImmutableMap.of(),
+        inMemoryWitness);
+
+    TempCompressedFilePath streamedWitness = new TempCompressedFilePath("witness", ".graphml");
+    generateWitness(
+        fullPath,
+        WitnessGenerationConfig.PREDICATE_ANALYSIS,
+        specification,
+        ImmutableMap.of(
+            "cpa.arg.witness.streamingExport", "true",
+            "cpa.arg.witness.streamingLookahead", "1000000"),
+        streamedWitness);
+
+    Assert.assertEquals(readWitnessGraph(inMemoryWitness), readWitnessGraph(streamedWitness));
+  }
+
+  /**
+   * With a small lookahead, fewer redundant edges are merged than by the in-memory export, so the
+   * witness graph may be larger. It still needs to be well-formed and to be confirmed by the
+   * validation, like the witness of the in-memory export.
+   */
+  private static void testStreamingExportWithSmallLookahead(String pFilename, int pLookahead)
+      throws Exception {
+    String fullPath = Paths.get(TEST_DIR_PATH, pFilename).toString();
+    String specification = "config/specification/default.spc";
+
+    TempCompressedFilePath streamedWitness = new TempCompressedFilePath("witness", ".graphml");
+    WitnessType witnessType =
+        generateWitness(
+            fullPath,
+            WitnessGenerationConfig.PREDICATE_ANALYSIS,
+            specification,
+            ImmutableMap.of(
+                "cpa.arg.witness.streamingExport", "true",
+                "cpa.arg.witness.streamingLookahead", Integer.toString(pLookahead)),
+            streamedWitness);
+
+    assertNodesPrecedeEdges(parseWitness(streamedWitness));
+    validateWitness(fullPath, specification, ImmutableMap.of(), streamedWitness, witnessType);
+  }
+
+  private static void assertNodesPrecedeEdges(Document pDocument) {
+    Set<String> nodes = new HashSet<>();
+    NodeList elements = pDocument.getElementsByTagName("*");
+    for (int i = 0; i < elements.getLength(); i++) {
+      Element element = (Element) elements.item(i);
+      if (element.getTagName().equals("node")) {
+        nodes.add(element.getAttribute("id"));
+      } else if (element.getTagName().equals("edge")) {
+        Assert.assertTrue(
+            "Edge before its source node " + element.getAttribute("source"),
+            nodes.contains(element.getAttribute("source")));
+        Assert.assertTrue(
+            "Edge before its target node " + element.getAttribute("target"),
+            nodes.contains(element.getAttribute("target")));
+      }
+    }
+  }
+
+  private static Document parseWitness(TempCompressedFilePath pWitnessPath) throws Exception {
+    if (Files.size(pWitnessPath.compressedFilePath) > 0) {
+      try (InputStream in =
+          new GZIPInputStream(Files.newInputStream(pWitnessPath.compressedFilePath))) {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(in);
+      }
+    }
+    return DocumentBuilderFactory.newInstance()
+        .newDocumentBuilder()
+        .parse(pWitnessPath.uncompressedFilePath.toFile());
+  }
+
+  /**
+   * Read the nodes and edges of a witness, with their data, in a form that does not depend on the
+   * order of the elements in the file. The IDs of ARG states and CFA nodes are global, so node IDs
+   * are made relative to the ID of the entry node.
+   */
+  private static Multiset<String> readWitnessGraph(TempCompressedFilePath pWitnessPath)
+      throws Exception {
+    Document document = parseWitness(pWitnessPath);
+
+    NodeList nodes = document.getElementsByTagName("node");
+    String entryId = "";
+    for (int i = 0; i < nodes.getLength(); i++) {
+      Element node = (Element) nodes.item(i);
+      if (readData(node).contains("entry=true")) {
+        entryId = node.getAttribute("id");
+      }
+    }
+    Matcher entryMatcher = NODE_ID_PATTERN.matcher(entryId);
+    Assert.assertTrue("No entry node in witness", entryMatcher.matches());
+
+    Multiset<String> graph = HashMultiset.create();
+    for (int i = 0; i < nodes.getLength(); i++) {
+      Element node = (Element) nodes.item(i);
+      graph.add("node " + relativeId(node.getAttribute("id"), entryMatcher) + " " + readData(node));
+    }
+    NodeList edges = document.getElementsByTagName("edge");
+    for (int i = 0; i < edges.getLength(); i++) {
+      Element edge = (Element) edges.item(i);
+      graph.add(
+          "edge "
+              + relativeId(edge.getAttribute("source"), entryMatcher)
+              + " -> "
+              + relativeId(edge.getAttribute("target"), entryMatcher)
+              + " "
+              + readData(edge));
+    }
+    return graph;
+  }
+
+  private static String relativeId(String pId, Matcher pEntryMatcher) {
+    // IDs of intermediate nodes contain the IDs of two nodes
+    Matcher matcher =
+        Pattern.compile("(?<![A-Za-z0-9])" + pEntryMatcher.group(1) + "(\\d+)").matcher(pId);
+    long entryNumber = Long.parseLong(pEntryMatcher.group(2));
+    StringBuffer result = new StringBuffer();
+    while (matcher.find()) {
+      long offset = Long.parseLong(matcher.group(1)) - entryNumber;
+      matcher.appendReplacement(result, pEntryMatcher.group(1) + offset);
+    }
+    matcher.appendTail(result);
+    return result.toString();
+  }
+
+  private static Set<String> readData(Element pElement) {
+    Set<String> data = new TreeSet<>();
+    NodeList children = pElement.getElementsByTagName("data");
+    for (int i = 0; i < children.getLength(); i++) {
+      Element child = (Element) children.item(i);
+      data.add(child.getAttribute("key") + "=" + child.getTextContent());
+    }
+    return data;
+  }
+
   private static void performTest(
       String pFilename,
       String pSpecification,
@@ -23,6 +23,7 @@
  */
 package org.sosy_lab.cpachecker.cpa.arg.witnessexport;
 
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 
@@ -90,6 +91,27 @@ class WitnessOptions {
   @Option(secure = true, description = "Always export source file name, even default")
   private boolean exportSourceFileName = false;
 
+  @Option(
+    secure = true,
+    description =
+        "Verification witness: Write nodes and edges while the ARG is traversed"
+            + " instead of building the whole witness graph in memory first."
+            + " The ARG is traversed twice, and redundant edges are only merged"
+            + " within the lookahead window."
+  )
+  private boolean streamingExport = false;
+
+  @Option(
+    secure = true,
+    description =
+        "Verification witness: Number of edges that are held back for merging"
+            + " during streaming export. If edges of correctness witnesses cannot be written"
+            + " within this window, because the invariants of their nodes are incomplete,"
+            + " all remaining edges are kept in memory."
+  )
+  @IntegerOption(min = 0)
+  private int streamingLookahead = 64;
+
   boolean exportFunctionCallsAndReturns() {
     return exportFunctionCallsAndReturns;
   }
@@ -137,4 +159,12 @@ class WitnessOptions {
   boolean exportSourceFileName() {
     return exportSourceFileName;
   }
+
+  boolean streamingExport() {
+    return streamingExport;
+  }
+
+  int streamingLookahead() {
+    return streamingLookahead;
+  }
 }
@@ -32,9 +32,11 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.HashMultiset;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableList.Builder;
 import com.google.common.collect.ImmutableMap;
@@ -47,9 +49,11 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
+import com.google.common.collect.Multiset;
 import com.google.common.collect.Queues;
 import com.google.common.collect.Sets;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -59,6 +63,7 @@ import java.util.Deque;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
@@ -68,11 +73,13 @@ import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import javax.xml.parsers.ParserConfigurationException;
+import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.ast.AExpression;
 import org.sosy_lab.cpachecker.cfa.ast.AExpressionStatement;
@@ -127,6 +134,7 @@ import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.AssumeCase;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.ElementType;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMlBuilder;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMlStreamWriter;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.KeyDef;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeFlag;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeType;
@@ -280,6 +288,7 @@ class WitnessWriter implements EdgeAppender {
       };
 
   private final WitnessOptions witnessOptions;
+  private final LogManager logger;
   private final CFA cfa;
   private final VerificationTaskMetaData verificationTaskMetaData;
 
@@ -311,10 +320,12 @@ class WitnessWriter implements EdgeAppender {
   private final NumericIdProvider numericThreadIdProvider = NumericIdProvider.create();
 
   private boolean isFunctionScope = false;
+  private @Nullable EdgeStream edgeStream = null;
   protected Set<AdditionalInfoConverter> additionalInfoConverters = ImmutableSet.of();
 
   WitnessWriter(
       WitnessOptions pOptions,
+      LogManager pLogger,
       CFA pCfa,
       VerificationTaskMetaData pMetaData,
       ExpressionTreeFactory<Object> pFactory,
@@ -323,6 +334,7 @@ class WitnessWriter implements EdgeAppender {
       WitnessType pGraphType,
       InvariantProvider pInvariantProvider) {
     witnessOptions = pOptions;
+    logger = pLogger;
     cfa = pCfa;
     verificationTaskMetaData = pMetaData;
     factory = pFactory;
@@ -385,10 +397,18 @@ class WitnessWriter implements EdgeAppender {
         }
       }
 
-      putEdge(edge);
+      if (edgeStream != null) {
+        edgeStream.add(edge);
+      } else {
+        putEdge(edge);
+      }
       from = to;
       ++i;
     }
+
+    if (edgeStream != null) {
+      edgeStream.appendFinished(pFrom, pTo);
+    }
   }
 
   @Override
@@ -1058,24 +1078,24 @@ class WitnessWriter implements EdgeAppender {
 
     final String entryStateNodeId = pGraphBuilder.getId(pRootState);
 
+    if (witnessOptions.streamingExport()) {
+      writePathIncrementally(
+          pTarget,
+          pRootState,
+          pIsRelevantState,
+          isRelevantEdge,
+          pIsCyclehead,
+          cycleHeadToQuasiInvariant,
+          valueMap,
+          additionalInfo,
+          pGraphBuilder);
+      return;
+    }
+
     // Collect node flags in advance
     for (ARGState s : collectPathNodes(pRootState, ARGState::getChildren, pIsRelevantState, isRelevantEdge)) {
-      String sourceStateNodeId = pGraphBuilder.getId(s);
-      EnumSet<NodeFlag> sourceNodeFlags = EnumSet.noneOf(NodeFlag.class);
-      if (sourceStateNodeId.equals(entryStateNodeId)) {
-        sourceNodeFlags.add(NodeFlag.ISENTRY);
-      }
-      if (pIsCyclehead.apply(s)) {
-        sourceNodeFlags.add(NodeFlag.ISCYCLEHEAD);
-        if (cycleHeadToQuasiInvariant.isPresent()) {
-          stateQuasiInvariants.put(sourceStateNodeId, cycleHeadToQuasiInvariant.get().apply(s));
-        }
-      }
-      sourceNodeFlags.addAll(extractNodeFlags(s));
-      nodeFlags.putAll(sourceStateNodeId, sourceNodeFlags);
-      if (graphType == WitnessType.VIOLATION_WITNESS) {
-        violatedProperties.putAll(sourceStateNodeId, extractViolatedProperties(s));
-      }
+      collectNodeData(
+          s, pGraphBuilder.getId(s), entryStateNodeId, pIsCyclehead, cycleHeadToQuasiInvariant);
     }
     // Write the sink node
     nodeFlags.put(SINK_NODE_ID, NodeFlag.ISSINKNODE);
@@ -1118,6 +1138,85 @@ class WitnessWriter implements EdgeAppender {
     doc.appendTo(pTarget);
   }
 
+  /**
+   * Writes the witness while the graph builder traverses the ARG, instead of building the whole
+   * graph first. The ARG is traversed twice: The first traversal only counts the edges of each
+   * node, and in the second traversal, edges are written as soon as they leave the lookahead
+   * window of the {@link EdgeStream}.
+   */
+  private void writePathIncrementally(
+      Appendable pTarget,
+      final ARGState pRootState,
+      final Predicate<? super ARGState> pIsRelevantState,
+      final Predicate<? super Pair<ARGState, ARGState>> pIsRelevantEdge,
+      final Predicate<? super ARGState> pIsCyclehead,
+      final Optional<Function<? super ARGState, ExpressionTree<Object>>> cycleHeadToQuasiInvariant,
+      Multimap<ARGState, CFAEdgeWithAssumptions> pValueMap,
+      Map<ARGState, CFAEdgeWithAdditionalInfo> pAdditionalInfo,
+      GraphBuilder pGraphBuilder)
+      throws IOException {
+
+    final String entryStateNodeId = pGraphBuilder.getId(pRootState);
+
+    // Collect node flags in advance
+    for (ARGState s :
+        collectPathNodes(pRootState, ARGState::getChildren, pIsRelevantState, pIsRelevantEdge)) {
+      collectNodeData(
+          s, pGraphBuilder.getId(s), entryStateNodeId, pIsCyclehead, cycleHeadToQuasiInvariant);
+    }
+    nodeFlags.put(SINK_NODE_ID, NodeFlag.ISSINKNODE);
+
+    try (GraphMlStreamWriter out =
+        new GraphMlStreamWriter(
+            pTarget, graphType, defaultSourcefileName, cfa, verificationTaskMetaData)) {
+      edgeStream = new EdgeStream(out, entryStateNodeId);
+      pGraphBuilder.buildGraph(
+          pRootState,
+          pIsRelevantState,
+          pIsRelevantEdge,
+          pValueMap,
+          pAdditionalInfo,
+          collectPathEdges(pRootState, ARGState::getChildren, pIsRelevantState, pIsRelevantEdge),
+          edgeStream.edgeCounter);
+      pGraphBuilder.buildGraph(
+          pRootState,
+          pIsRelevantState,
+          pIsRelevantEdge,
+          pValueMap,
+          pAdditionalInfo,
+          collectPathEdges(pRootState, ARGState::getChildren, pIsRelevantState, pIsRelevantEdge),
+          this);
+      edgeStream.finish();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    } finally {
+      edgeStream = null;
+    }
+  }
+
+  private void collectNodeData(
+      ARGState pState,
+      String pStateNodeId,
+      String pEntryStateNodeId,
+      Predicate<? super ARGState> pIsCyclehead,
+      Optional<Function<? super ARGState, ExpressionTree<Object>>> cycleHeadToQuasiInvariant) {
+    EnumSet<NodeFlag> sourceNodeFlags = EnumSet.noneOf(NodeFlag.class);
+    if (pStateNodeId.equals(pEntryStateNodeId)) {
+      sourceNodeFlags.add(NodeFlag.ISENTRY);
+    }
+    if (pIsCyclehead.apply(pState)) {
+      sourceNodeFlags.add(NodeFlag.ISCYCLEHEAD);
+      if (cycleHeadToQuasiInvariant.isPresent()) {
+        stateQuasiInvariants.put(pStateNodeId, cycleHeadToQuasiInvariant.get().apply(pState));
+      }
+    }
+    sourceNodeFlags.addAll(extractNodeFlags(pState));
+    nodeFlags.putAll(pStateNodeId, sourceNodeFlags);
+    if (graphType == WitnessType.VIOLATION_WITNESS) {
+      violatedProperties.putAll(pStateNodeId, extractViolatedProperties(pState));
+    }
+  }
+
   /**
    * Getter for additional information. Overwritten at {@link ExtendedWitnessWriter}
    *
@@ -1150,20 +1249,7 @@ class WitnessWriter implements EdgeAppender {
   private void removeUnnecessarySinkEdges() {
     final Collection<Edge> toRemove = Sets.newIdentityHashSet();
     for (Collection<Edge> leavingEdgesCollection : leavingEdges.asMap().values()) {
-      for (Edge edge : leavingEdgesCollection) {
-        if (edge.getTarget().equals(SINK_NODE_ID)) {
-          for (Edge otherEdge : leavingEdgesCollection) {
-            // ignore the edge itself, as well as already handled edges.
-            if (edge != otherEdge && !toRemove.contains(otherEdge)) {
-              // remove edges with either identical labels or redundant edge-transition
-              if (edge.getLabel().equals(otherEdge.getLabel()) || isEdgeRedundant.apply(edge)) {
-                toRemove.add(edge);
-                break;
-              }
-            }
-          }
-        }
-      }
+      collectUnnecessarySinkEdges(leavingEdgesCollection, toRemove);
     }
     for (Edge edge : toRemove) {
       boolean removed = removeEdge(edge);
@@ -1171,64 +1257,87 @@ class WitnessWriter implements EdgeAppender {
     }
   }
 
+  private void collectUnnecessarySinkEdges(
+      Collection<Edge> pLeavingEdges, Collection<Edge> pToRemove) {
+    for (Edge edge : pLeavingEdges) {
+      if (edge.getTarget().equals(SINK_NODE_ID)) {
+        for (Edge otherEdge : pLeavingEdges) {
+          // ignore the edge itself, as well as already handled edges.
+          if (edge != otherEdge && !pToRemove.contains(otherEdge)) {
+            // remove edges with either identical labels or redundant edge-transition
+            if (edge.getLabel().equals(otherEdge.getLabel()) || isEdgeRedundant.apply(edge)) {
+              pToRemove.add(edge);
+              break;
+            }
+          }
+        }
+      }
+    }
+  }
+
   /** Merge sibling edges (with the same source) that lead to the sink if possible. */
   private void mergeRedundantSinkEdges() {
     for (Collection<Edge> leavingEdgesCollection : leavingEdges.asMap().values()) {
-      // We only need to do something if we have siblings
-      if (leavingEdgesCollection.size() > 1) {
-
-        // Determine all siblings that go to the sink
-        List<Edge> toSink =
-            leavingEdgesCollection
-                .stream()
-                .filter(e -> e.getTarget().equals(SINK_NODE_ID))
-                .collect(Collectors.toCollection(ArrayList::new));
-
-        // If multiple siblings go to the sink, we want to try to merge them
-        if (toSink.size() > 1) {
-
-          ListIterator<Edge> edgeToSinkIterator = toSink.listIterator();
-          Set<Edge> removed = Sets.newIdentityHashSet();
-          while (edgeToSinkIterator.hasNext()) {
-            Edge edge = edgeToSinkIterator.next();
-
-            // If the edge has already been marked as removed, throw it out
-            if (removed.contains(edge)) {
-              edgeToSinkIterator.remove();
-              continue;
-            }
+      mergeRedundantSinkEdges(leavingEdgesCollection);
+    }
+  }
 
-            // Search a viable merge partner for the current edge
-            Optional<Edge> merged = Optional.empty();
-            Edge other = null;
-            for (Edge otherEdge : toSink) {
-              if (edge != otherEdge && !removed.contains(otherEdge)) {
-                merged = edge.tryMerge(otherEdge);
-                if (merged.isPresent()) {
-                  other = otherEdge;
-                  break;
-                }
+  /** Merge the given sibling edges that lead to the sink if possible. */
+  private void mergeRedundantSinkEdges(Collection<Edge> leavingEdgesCollection) {
+    // We only need to do something if we have siblings
+    if (leavingEdgesCollection.size() > 1) {
+
+      // Determine all siblings that go to the sink
+      List<Edge> toSink =
+          leavingEdgesCollection
+              .stream()
+              .filter(e -> e.getTarget().equals(SINK_NODE_ID))
+              .collect(Collectors.toCollection(ArrayList::new));
+
+      // If multiple siblings go to the sink, we want to try to merge them
+      if (toSink.size() > 1) {
+
+        ListIterator<Edge> edgeToSinkIterator = toSink.listIterator();
+        Set<Edge> removed = Sets.newIdentityHashSet();
+        while (edgeToSinkIterator.hasNext()) {
+          Edge edge = edgeToSinkIterator.next();
+
+          // If the edge has already been marked as removed, throw it out
+          if (removed.contains(edge)) {
+            edgeToSinkIterator.remove();
+            continue;
+          }
+
+          // Search a viable merge partner for the current edge
+          Optional<Edge> merged = Optional.empty();
+          Edge other = null;
+          for (Edge otherEdge : toSink) {
+            if (edge != otherEdge && !removed.contains(otherEdge)) {
+              merged = edge.tryMerge(otherEdge);
+              if (merged.isPresent()) {
+                other = otherEdge;
+                break;
               }
             }
+          }
 
-            // If we determined a merge partner, apply the merge result
-            if (merged.isPresent()) {
-              // Remove the two merge partners
-              removeEdge(edge);
-              removeEdge(other);
+          // If we determined a merge partner, apply the merge result
+          if (merged.isPresent()) {
+            // Remove the two merge partners
+            removeEdge(edge);
+            removeEdge(other);
 
-              // Directly remove the old version of the current edge
-              // and mark the other edge as removed
-              edgeToSinkIterator.remove();
-              removed.add(other);
+            // Directly remove the old version of the current edge
+            // and mark the other edge as removed
+            edgeToSinkIterator.remove();
+            removed.add(other);
 
-              // Add the merged edge to the graph
-              putEdge(merged.get());
+            // Add the merged edge to the graph
+            putEdge(merged.get());
 
-              // Add the merged edge to the set of siblings to consider it for further merges
-              edgeToSinkIterator.add(merged.get());
-              edgeToSinkIterator.previous();
-            }
+            // Add the merged edge to the set of siblings to consider it for further merges
+            edgeToSinkIterator.add(merged.get());
+            edgeToSinkIterator.previous();
           }
         }
       }
@@ -1265,24 +1374,12 @@ class WitnessWriter implements EdgeAppender {
     if (!ExpressionTrees.getTrue().equals(getStateInvariant(pTarget))) {
       return;
     }
-    ExpressionTree<Object> loopHeadInvariant = ExpressionTrees.getFalse();
-    String scope = null;
+    List<CFANode> loopHeads = new ArrayList<>();
     for (Edge enteringEdge : enteringEdges.get(pTarget)) {
       if (enteringEdge.getLabel().getMapping().containsKey(KeyDef.ENTERLOOPHEAD)) {
         CFANode loopHead = loopHeadEnteringEdges.get(enteringEdge);
         if (loopHead != null) {
-          String functionName = loopHead.getFunctionName();
-          if (scope == null) {
-            scope = functionName;
-          } else if (!scope.equals(functionName)) {
-            return;
-          }
-          for (CFAEdge enteringCFAEdge : CFAUtils.enteringEdges(loopHead)) {
-            loopHeadInvariant =
-                Or.of(
-                    loopHeadInvariant,
-                    invariantProvider.provideInvariantFor(enteringCFAEdge, Optional.empty()));
-          }
+          loopHeads.add(loopHead);
         } else {
           return;
         }
@@ -1290,6 +1387,30 @@ class WitnessWriter implements EdgeAppender {
         return;
       }
     }
+    setLoopHeadInvariant(pTarget, loopHeads);
+  }
+
+  /**
+   * Uses the invariants of the given loop heads as invariant for a node that is only entered by
+   * edges entering these loop heads.
+   */
+  private void setLoopHeadInvariant(String pTarget, Iterable<CFANode> pLoopHeads) {
+    ExpressionTree<Object> loopHeadInvariant = ExpressionTrees.getFalse();
+    String scope = null;
+    for (CFANode loopHead : pLoopHeads) {
+      String functionName = loopHead.getFunctionName();
+      if (scope == null) {
+        scope = functionName;
+      } else if (!scope.equals(functionName)) {
+        return;
+      }
+      for (CFAEdge enteringCFAEdge : CFAUtils.enteringEdges(loopHead)) {
+        loopHeadInvariant =
+            Or.of(
+                loopHeadInvariant,
+                invariantProvider.provideInvariantFor(enteringCFAEdge, Optional.empty()));
+      }
+    }
     stateInvariants.put(pTarget, loopHeadInvariant);
     if (scope != null) {
       stateScopes.put(pTarget, scope);
@@ -1301,15 +1422,27 @@ class WitnessWriter implements EdgeAppender {
     if (!invariantExportStates.contains(pStateId)) {
       return ExpressionTrees.getTrue();
     }
+    for (Map.Entry<KeyDef, String> data : getInvariantsData(pStateId)) {
+      pDoc.addDataElementChild(pNode, data.getKey(), data.getValue());
+    }
+    return getStateInvariant(pStateId);
+  }
+
+  private List<Map.Entry<KeyDef, String>> getInvariantsData(String pStateId) {
+    if (!invariantExportStates.contains(pStateId)) {
+      return ImmutableList.of();
+    }
     ExpressionTree<Object> tree = getStateInvariant(pStateId);
-    if (!tree.equals(ExpressionTrees.getTrue())) {
-      pDoc.addDataElementChild(pNode, KeyDef.INVARIANT, tree.toString());
-      String scope = stateScopes.get(pStateId);
-      if (scope != null && !scope.isEmpty() && !tree.equals(ExpressionTrees.getFalse())) {
-        pDoc.addDataElementChild(pNode, KeyDef.INVARIANTSCOPE, scope);
-      }
+    if (tree.equals(ExpressionTrees.getTrue())) {
+      return ImmutableList.of();
+    }
+    List<Map.Entry<KeyDef, String>> result = new ArrayList<>(2);
+    result.add(Maps.immutableEntry(KeyDef.INVARIANT, tree.toString()));
+    String scope = stateScopes.get(pStateId);
+    if (scope != null && !scope.isEmpty() && !tree.equals(ExpressionTrees.getFalse())) {
+      result.add(Maps.immutableEntry(KeyDef.INVARIANTSCOPE, scope));
     }
-    return tree;
+    return result;
   }
 
   private boolean hasFlagsOrProperties(String pNode) {
@@ -1599,22 +1732,30 @@ class WitnessWriter implements EdgeAppender {
 
   private Element createNewNode(GraphMlBuilder pDoc, String pEntryStateNodeId) {
     Element result = pDoc.createNodeElement(pEntryStateNodeId, NodeType.ONPATH);
+    for (Map.Entry<KeyDef, String> data : getNodeData(pEntryStateNodeId)) {
+      pDoc.addDataElementChild(result, data.getKey(), data.getValue());
+    }
+    return result;
+  }
+
+  private List<Map.Entry<KeyDef, String>> getNodeData(String pNodeId) {
+    List<Map.Entry<KeyDef, String>> result = new ArrayList<>();
 
     if (witnessOptions.exportNodeLabel()) {
       // add a printable label that for example is shown in yEd
-      pDoc.addDataElementChild(result, KeyDef.LABEL, pEntryStateNodeId);
+      result.add(Maps.immutableEntry(KeyDef.LABEL, pNodeId));
     }
 
-    for (NodeFlag f : nodeFlags.get(pEntryStateNodeId)) {
-      pDoc.addDataElementChild(result, f.key, "true");
+    for (NodeFlag f : nodeFlags.get(pNodeId)) {
+      result.add(Maps.immutableEntry(f.key, "true"));
     }
-    for (Property violation : violatedProperties.get(pEntryStateNodeId)) {
-      pDoc.addDataElementChild(result, KeyDef.VIOLATEDPROPERTY, violation.toString());
+    for (Property violation : violatedProperties.get(pNodeId)) {
+      result.add(Maps.immutableEntry(KeyDef.VIOLATEDPROPERTY, violation.toString()));
     }
 
-    if(stateQuasiInvariants.containsKey(pEntryStateNodeId)) {
-      ExpressionTree<Object> tree = getQuasiInvariant(pEntryStateNodeId);
-        pDoc.addDataElementChild(result, KeyDef.INVARIANT, tree.toString());
+    if (stateQuasiInvariants.containsKey(pNodeId)) {
+      ExpressionTree<Object> tree = getQuasiInvariant(pNodeId);
+      result.add(Maps.immutableEntry(KeyDef.INVARIANT, tree.toString()));
     }
 
     return result;
@@ -1895,4 +2036,286 @@ class WitnessWriter implements EdgeAppender {
       return Objects.hash(loopHead, gotoLoop);
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Writes the edges of a witness with a bounded lookahead (cf. {@link
+   * WitnessOptions#streamingExport()}). Only the edges within the window are kept in {@link
+   * #leavingEdges} and {@link #enteringEdges}. Because the edges of each node are counted in
+   * advance, the merges of the in-memory export can be applied to all nodes whose edges are
+   * complete and of which no edge has left the window yet. Like in the in-memory export, edges
+   * leaving nodes with the invariant false, as well as nodes that are only reachable by such edges,
+   * are omitted. Each node is written before its first edge.
+   *
+   * <p>The window holds at most {@link WitnessOptions#streamingLookahead()} edges. Edges of
+   * correctness witnesses can only be written once the invariants of their nodes are known. If the
+   * window cannot be reduced to this size for this reason, the export falls back to keeping all
+   * remaining edges in memory until the end, like the in-memory export.
+   */
+  private class EdgeStream {
+
+    private final GraphMlStreamWriter out;
+    private final String entryStateNodeId;
+    private final int lookahead = witnessOptions.streamingLookahead();
+
+    /** The number of leaving and entering edges of each node that were not appended yet. */
+    private final Multiset<String> pendingLeavingEdges = HashMultiset.create();
+
+    private final Multiset<String> pendingEnteringEdges = HashMultiset.create();
+
+    private boolean allEdgesAppended = false;
+
+    /** Counts the edges of each node, but does not construct them. */
+    private final EdgeAppender edgeCounter =
+        new EdgeAppender() {
+
+          @Override
+          public void appendNewEdge(
+              String pFrom,
+              String pTo,
+              CFAEdge pEdge,
+              Optional<Collection<ARGState>> pFromState,
+              Multimap<ARGState, CFAEdgeWithAssumptions> pValueMap,
+              CFAEdgeWithAdditionalInfo pAdditionalInfo) {
+            pendingLeavingEdges.add(pFrom);
+            pendingEnteringEdges.add(pTo);
+          }
+
+          @Override
+          public void appendNewEdgeToSink(
+              String pFrom,
+              CFAEdge pEdge,
+              Optional<Collection<ARGState>> pFromState,
+              Multimap<ARGState, CFAEdgeWithAssumptions> pValueMap,
+              CFAEdgeWithAdditionalInfo pAdditionalInfo) {
+            appendNewEdge(pFrom, SINK_NODE_ID, pEdge, pFromState, pValueMap, pAdditionalInfo);
+          }
+        };
+
+    private final Set<Edge> window = new LinkedHashSet<>();
+    private boolean keepRemainingEdges = false;
+
+    /** The nodes that cannot be merged anymore, because one of their edges left the window. */
+    private final Set<String> frozenNodes = new HashSet<>();
+
+    private final Set<String> writtenNodes = new HashSet<>();
+
+    /** Edges that left the window before their source was reached from the entry node. */
+    private final Multimap<String, Edge> unreachedEdges = ArrayListMultimap.create();
+
+    private EdgeStream(GraphMlStreamWriter pOut, String pEntryStateNodeId) {
+      out = pOut;
+      entryStateNodeId = pEntryStateNodeId;
+    }
+
+    private void add(Edge pEdge) {
+      putEdge(pEdge);
+      window.add(pEdge);
+    }
+
+    /** Called after the edges for one edge of the graph builder were added. */
+    private void appendFinished(String pFrom, String pTo) {
+      pendingLeavingEdges.remove(pFrom);
+      pendingEnteringEdges.remove(pTo);
+      if (window.size() > lookahead && !keepRemainingEdges) {
+        try {
+          flush(lookahead / 2);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        if (window.size() > lookahead) {
+          logger.logf(
+              Level.INFO,
+              "Lookahead of %d edges is too small for streaming the witness, because %d edges"
+                  + " are still waiting for the invariants of their nodes."
+                  + " Keeping all remaining edges in memory instead.",
+              lookahead,
+              window.size());
+          keepRemainingEdges = true;
+        }
+      }
+    }
+
+    private boolean isComplete(String pNode) {
+      return allEdgesAppended
+          || (!pendingLeavingEdges.contains(pNode) && !pendingEnteringEdges.contains(pNode));
+    }
+
+    private boolean isMergeable(String pNode) {
+      return isComplete(pNode) && !frozenNodes.contains(pNode);
+    }
+
+    /**
+     * The invariants of the nodes of a correctness witness are only known once all their entering
+     * edges were appended.
+     */
+    private boolean isWritable(Edge pEdge) {
+      return allEdgesAppended
+          || graphType == WitnessType.VIOLATION_WITNESS
+          || (!pendingEnteringEdges.contains(pEdge.getSource())
+              && !pendingEnteringEdges.contains(pEdge.getTarget()));
+    }
+
+    /** A node is expanded if it was written and its invariant is not false. */
+    private boolean isExpanded(String pNode) {
+      if (!writtenNodes.contains(pNode)) {
+        return false;
+      }
+      return pNode.equals(entryStateNodeId)
+          || !invariantExportStates.contains(pNode)
+          || !ExpressionTrees.getFalse().equals(getStateInvariant(pNode));
+    }
+
+    /**
+     * Simplify the window and write edges until at most the given number of edges is left, or
+     * none of the remaining edges is writable.
+     */
+    private void flush(int pWindowSize) throws IOException {
+      simplify();
+      boolean progress = true;
+      while (progress && window.size() > pWindowSize) {
+        progress = false;
+        // evicting edges to the sink may replace other edges in the window by merged edges
+        for (Edge edge : ImmutableList.copyOf(window)) {
+          if (window.size() <= pWindowSize) {
+            break;
+          }
+          if (window.contains(edge) && isWritable(edge)) {
+            evict(edge);
+            progress = true;
+          }
+        }
+      }
+    }
+
+    /**
+     * Apply the removal of unnecessary edges to the sink and the merging of nodes of the in-memory
+     * export to the nodes that can still be merged.
+     */
+    private void simplify() {
+      final Collection<Edge> toRemove = Sets.newIdentityHashSet();
+      for (String source : ImmutableList.copyOf(leavingEdges.keySet())) {
+        if (isMergeable(source)) {
+          collectUnnecessarySinkEdges(leavingEdges.get(source), toRemove);
+        }
+      }
+      for (Edge edge : toRemove) {
+        boolean removed = removeEdge(edge);
+        assert removed;
+      }
+
+      TreeSet<Edge> waitlist = Sets.newTreeSet(leavingEdges.values());
+      while (!waitlist.isEmpty()) {
+        Edge edge = waitlist.pollFirst();
+        if (leavingEdges.get(edge.getSource()).contains(edge)
+            && isMergeable(edge.getSource())
+            && isMergeable(edge.getTarget())
+            && isEdgeRedundant.apply(edge)) {
+          Iterables.addAll(waitlist, mergeNodes(edge));
+        }
+      }
+
+      // synchronize the window with the changes to the graph
+      Iterator<Edge> windowIterator = window.iterator();
+      while (windowIterator.hasNext()) {
+        Edge edge = windowIterator.next();
+        if (!leavingEdges.containsEntry(edge.getSource(), edge)) {
+          windowIterator.remove();
+          loopHeadEnteringEdges.remove(edge);
+        }
+      }
+      window.addAll(leavingEdges.values());
+    }
+
+    /** Prevent further merges of a node, after determining its final invariant. */
+    private void freeze(String pNode) {
+      if (frozenNodes.add(pNode)
+          && !pNode.equals(entryStateNodeId)
+          && !enteringEdges.get(pNode).isEmpty()
+          && isComplete(pNode)) {
+        setLoopHeadInvariantIfApplicable(pNode);
+      }
+    }
+
+    /** Remove an edge from the window and write it, if its source was reached already. */
+    private void evict(Edge pEdge) throws IOException {
+      final String source = pEdge.getSource();
+      if (pEdge.getTarget().equals(SINK_NODE_ID)) {
+        // merge the edge with its siblings to the sink before the first of them is written
+        Collection<Edge> siblings = ImmutableList.copyOf(leavingEdges.get(source));
+        mergeRedundantSinkEdges(leavingEdges.get(source));
+        for (Edge sibling : siblings) {
+          if (!leavingEdges.containsEntry(source, sibling)) {
+            window.remove(sibling);
+            loopHeadEnteringEdges.remove(sibling);
+          }
+        }
+        window.addAll(leavingEdges.get(source));
+        if (!window.contains(pEdge)) {
+          return;
+        }
+      }
+
+      freeze(source);
+      freeze(pEdge.getTarget());
+      window.remove(pEdge);
+      boolean removed = leavingEdges.remove(source, pEdge);
+      assert removed : "edge was not in the window: " + pEdge;
+      removed = enteringEdges.remove(pEdge.getTarget(), pEdge);
+      assert removed : "edge was not in the window: " + pEdge;
+      loopHeadEnteringEdges.remove(pEdge);
+
+      if (source.equals(entryStateNodeId) && writtenNodes.add(source)) {
+        writeNode(source, ImmutableList.of());
+      }
+      if (!isExpanded(source)) {
+        unreachedEdges.put(source, pEdge);
+        return;
+      }
+
+      Deque<Edge> toWrite = new ArrayDeque<>();
+      toWrite.push(pEdge);
+      while (!toWrite.isEmpty()) {
+        Edge edge = toWrite.pop();
+        String target = edge.getTarget();
+        List<Map.Entry<KeyDef, String>> edgeData = new ArrayList<>();
+        List<Map.Entry<KeyDef, String>> targetData = new ArrayList<>();
+        for (Map.Entry<KeyDef, String> entry : edge.getLabel().getMapping().entrySet()) {
+          if (entry.getKey().keyFor.equals(ElementType.EDGE)) {
+            edgeData.add(entry);
+          } else if (entry.getKey().keyFor.equals(ElementType.NODE)) {
+            targetData.add(entry);
+          }
+        }
+        // node data of later edges is lost if the node was written already,
+        // but transition conditions do not contain node data in practice
+        if (writtenNodes.add(target)) {
+          writeNode(target, targetData);
+          if (isExpanded(target)) {
+            toWrite.addAll(unreachedEdges.removeAll(target));
+          }
+        }
+        out.writeEdge(edge.getSource(), target, edgeData);
+      }
+    }
+
+    private void writeNode(String pNode, List<Map.Entry<KeyDef, String>> pDataFromEdge)
+        throws IOException {
+      List<Map.Entry<KeyDef, String>> data = new ArrayList<>(getNodeData(pNode));
+      data.addAll(getInvariantsData(pNode));
+      data.addAll(pDataFromEdge);
+      out.writeNode(pNode, data);
+    }
+
+    private void finish() throws IOException {
+      allEdgesAppended = true;
+      while (!window.isEmpty()) {
+        flush(0);
+      }
+      if (writtenNodes.add(entryStateNodeId)) {
+        writeNode(entryStateNodeId, ImmutableList.of());
+      }
+      // the remaining edges are not reachable from the entry node
+      unreachedEdges.clear();
+    }
+  }
+}
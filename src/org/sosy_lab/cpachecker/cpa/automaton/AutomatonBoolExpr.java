@@ -396,6 +396,10 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       this.functionName = pFunctionName;
     }
 
+    String getFunctionName() {
+      return functionName;
+    }
+
     @Override
     public ResultValue<Boolean> eval(AutomatonExpressionArguments pArgs) {
       CFAEdge edge = pArgs.getCfaEdge();
@@ -440,6 +444,10 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       matchFunctionCall = pMatchFunctionCall;
     }
 
+    MatchAssumeCase getMatchAssumeCase() {
+      return matchAssumeCase;
+    }
+
     @Override
     public ResultValue<Boolean> eval(AutomatonExpressionArguments pArgs) {
       ResultValue<Boolean> assumeMatches = matchAssumeCase.eval(pArgs);
@@ -776,6 +784,10 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       matchPositiveCase = pMatchPositiveCase;
     }
 
+    boolean matchesPositiveCase() {
+      return matchPositiveCase;
+    }
+
     @Override
     public ResultValue<Boolean> eval(AutomatonExpressionArguments pArgs) {
       if (pArgs.getCfaEdge() instanceof AssumeEdge) {
@@ -996,6 +1008,14 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       this.matchDescriptor = pDescriptor;
     }
 
+    FunctionEntryNode getMainEntry() {
+      return mainEntry;
+    }
+
+    java.util.function.Predicate<FileLocation> getMatchDescriptor() {
+      return matchDescriptor;
+    }
+
     @Override
     public ResultValue<Boolean> eval(AutomatonExpressionArguments pArgs) {
       return eval(pArgs.getCfaEdge()) ? CONST_TRUE : CONST_FALSE;
@@ -24,13 +24,11 @@
 package org.sosy_lab.cpachecker.cpa.automaton;
 
 import com.google.common.base.Joiner;
-import com.google.common.base.Preconditions;
 import com.google.common.base.Predicates;
 import com.google.common.base.Strings;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -51,7 +49,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.EnumSet;
-import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -66,8 +63,6 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.zip.GZIPInputStream;
 import javax.annotation.Nullable;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
@@ -85,6 +80,7 @@ import org.sosy_lab.cpachecker.cfa.ast.AExpression;
 import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
 import org.sosy_lab.cpachecker.cfa.parser.Scope;
 import org.sosy_lab.cpachecker.cpa.automaton.CParserUtils.ParserTools;
+import org.sosy_lab.cpachecker.cpa.automaton.GraphMLStreamReader.GraphMLElement;
 import org.sosy_lab.cpachecker.cpa.automaton.GraphMLTransition.GraphMLThread;
 import org.sosy_lab.cpachecker.cpa.automaton.SourceLocationMatcher.LineMatcher;
 import org.sosy_lab.cpachecker.cpa.automaton.SourceLocationMatcher.OffsetMatcher;
@@ -93,17 +89,11 @@ import org.sosy_lab.cpachecker.util.NumericIdProvider;
 import org.sosy_lab.cpachecker.util.SpecificationProperty.PropertyType;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.AssumeCase;
-import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMLTag;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.KeyDef;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeFlag;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.WitnessType;
 import org.sosy_lab.cpachecker.util.expressions.ExpressionTree;
 import org.sosy_lab.cpachecker.util.expressions.ExpressionTrees;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
@@ -118,7 +108,7 @@ public class AutomatonGraphmlParser {
   private static final GraphMLTransition.GraphMLThread DEFAULT_THREAD =
       GraphMLTransition.createThread(0, "__CPAchecker_default_thread");
 
-  private static final String TOO_MANY_GRAPHS_ERROR_MESSAGE =
+  static final String TOO_MANY_GRAPHS_ERROR_MESSAGE =
       "The witness file must describe exactly one witness automaton.";
 
   private static final String ACCESS_ERROR_MESSAGE = "Error while accessing witness file: %s!";
@@ -831,40 +821,19 @@ public class AutomatonGraphmlParser {
       InputStream pInputStream, Set<PropertyType> pPropertyTypes)
       throws IOException, WitnessParseException {
 
-    GraphMLDocumentData docDat = parseXML(pInputStream);
+    WitnessElementCollector collector = new WitnessElementCollector();
+    GraphMLStreamReader.read(pInputStream, collector);
+    GraphMLElement graph = collector.finish();
 
-    checkFields(docDat.getGraph());
+    checkFields(graph);
 
-    WitnessType graphType = getWitnessType(docDat.getGraph());
+    WitnessType graphType = getWitnessType(graph);
 
     // Extract the information on the automaton ----
-    Node nameAttribute = docDat.getGraph().getAttributes().getNamedItem("name");
+    String nameAttribute = graph.getAttribute("name");
     String automatonName = WITNESS_AUTOMATON_NAME;
     if (nameAttribute != null) {
-      automatonName += "_" + nameAttribute.getTextContent();
-    }
-
-    Map<String, GraphMLState> states = Maps.newHashMap();
-    Multimap<GraphMLState, GraphMLTransition> enteringTransitions = HashMultimap.create();
-    Multimap<GraphMLState, GraphMLTransition> leavingTransitions = HashMultimap.create();
-    NumericIdProvider numericIdProvider = NumericIdProvider.create();
-    Set<GraphMLState> entryStates = Sets.newHashSet();
-    for (Node transition : docDat.getTransitions()) {
-      collectEdgeData(
-          docDat,
-          states,
-          entryStates,
-          leavingTransitions,
-          enteringTransitions,
-          numericIdProvider,
-          transition);
-    }
-    if (states.size() < docDat.idToNodeMap.size()) {
-      for (String stateId : docDat.idToNodeMap.keySet()) {
-        if (!states.containsKey(stateId)) {
-          states.put(stateId, parseState(docDat, states, stateId, Optional.empty()));
-        }
-      }
+      automatonName += "_" + nameAttribute;
     }
 
     AutomatonGraphmlParserState state =
@@ -872,9 +841,9 @@ public class AutomatonGraphmlParser {
             automatonName,
             graphType,
             pPropertyTypes,
-            states.values(),
-            enteringTransitions,
-            leavingTransitions,
+            collector.states.values(),
+            collector.enteringTransitions,
+            collector.leavingTransitions,
             cfa.getAllFunctionNames());
 
     // Check if entry state is connected to a violation state
@@ -900,27 +869,83 @@ public class AutomatonGraphmlParser {
     return state;
   }
 
-  private GraphMLDocumentData parseXML(InputStream pInputStream)
-      throws WitnessParseException, IOException {
+  /**
+   * Converts the elements of a GraphML document into {@link GraphMLState}s and {@link
+   * GraphMLTransition}s while the document is being read, such that the raw data of each element
+   * can be discarded immediately.
+   *
+   * <p>Edges are converted as soon as both of their states are known. If a document declares a
+   * state only after an edge that references it, this edge and all following edges are buffered
+   * until the end of the document, such that the edges are always converted in document order.
+   */
+  private class WitnessElementCollector implements GraphMLStreamReader.Visitor {
+
+    private final Map<String, GraphMLState> states = Maps.newHashMap();
+    private final Multimap<GraphMLState, GraphMLTransition> enteringTransitions =
+        HashMultimap.create();
+    private final Multimap<GraphMLState, GraphMLTransition> leavingTransitions =
+        HashMultimap.create();
+    private final NumericIdProvider numericIdProvider = NumericIdProvider.create();
+    private final Set<GraphMLState> entryStates = Sets.newHashSet();
+    private final List<GraphMLElement> pendingEdges = new ArrayList<>();
+    private @Nullable GraphMLElement graph = null;
 
-    // Parse the XML document ----
-    DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
+    @Override
+    public void visitNode(GraphMLElement pNode) throws WitnessParseException {
+      String stateId = getAttributeValue(pNode, "id", "Every state needs an ID!");
+      checkParsable(
+          !states.containsKey(stateId),
+          String.format("The state with id <%s> is defined more than once.", stateId));
+      states.put(stateId, parseState(stateId, pNode));
+    }
 
-    Document doc;
-    try {
-      DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
-      doc = docBuilder.parse(pInputStream);
-    } catch (ParserConfigurationException | SAXException e) {
-      throw new WitnessParseException(e);
+    @Override
+    public void visitEdge(GraphMLElement pEdge) throws WitnessParseException {
+      if (pendingEdges.isEmpty()
+          && isKnownState(pEdge.getAttribute("source"))
+          && isKnownState(pEdge.getAttribute("target"))) {
+        collectEdgeData(
+            states,
+            entryStates,
+            leavingTransitions,
+            enteringTransitions,
+            numericIdProvider,
+            pEdge);
+      } else {
+        pendingEdges.add(pEdge);
+      }
+    }
+
+    private boolean isKnownState(@Nullable String pStateId) {
+      return pStateId != null && states.containsKey(pStateId);
+    }
+
+    @Override
+    public void visitGraph(GraphMLElement pGraph) {
+      graph = pGraph;
     }
 
-    return new GraphMLDocumentData(doc);
+    /** Converts the remaining edges and returns the graph element. */
+    private GraphMLElement finish() throws WitnessParseException {
+      for (GraphMLElement edge : pendingEdges) {
+        collectEdgeData(
+            states,
+            entryStates,
+            leavingTransitions,
+            enteringTransitions,
+            numericIdProvider,
+            edge);
+      }
+      pendingEdges.clear();
+      checkParsable(graph != null, TOO_MANY_GRAPHS_ERROR_MESSAGE);
+      return graph;
+    }
   }
 
-  private void checkFields(Node graphNode) throws IOException, WitnessParseException {
+  private void checkFields(GraphMLElement graphNode) throws IOException, WitnessParseException {
 
-    checkHashSum(GraphMLDocumentData.getDataOnNode(graphNode, KeyDef.PROGRAMHASH));
-    checkArchitecture(GraphMLDocumentData.getDataOnNode(graphNode, KeyDef.ARCHITECTURE));
+    checkHashSum(graphNode.getData(KeyDef.PROGRAMHASH));
+    checkArchitecture(graphNode.getData(KeyDef.ARCHITECTURE));
 
     if (strictChecking) {
       checkRequiredField(graphNode, KeyDef.WITNESS_TYPE);
@@ -953,9 +978,9 @@ public class AutomatonGraphmlParser {
     return functionExitMatcher;
   }
 
-  private static boolean entersLoopHead(Node pTransition) throws WitnessParseException {
+  private static boolean entersLoopHead(GraphMLElement pTransition) throws WitnessParseException {
     Set<String> loopHeadFlags =
-        GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ENTERLOOPHEAD);
+        pTransition.getData(KeyDef.ENTERLOOPHEAD);
     if (!loopHeadFlags.isEmpty()) {
       Set<Boolean> loopHeadFlagValues =
           loopHeadFlags.stream().map(Boolean::parseBoolean).collect(Collectors.toSet());
@@ -1000,18 +1025,18 @@ public class AutomatonGraphmlParser {
    * @param pTransition the transition specifying which line numbers to assume.
    * @return a predicate to match file locations based on the line numbers specified by the transition.
    */
-  private static Optional<Predicate<FileLocation>> getOriginLineMatcherPredicate(Node pTransition)
-      throws WitnessParseException {
-    Set<String> originFileTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ORIGINFILE);
+  private static Optional<Predicate<FileLocation>> getOriginLineMatcherPredicate(
+      GraphMLElement pTransition) throws WitnessParseException {
+    Set<String> originFileTags = pTransition.getData(KeyDef.ORIGINFILE);
     checkParsable(
         originFileTags.size() < 2,
         "At most one origin-file data tag must be provided for an edge.");
 
-    Set<String> startLineTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.STARTLINE);
+    Set<String> startLineTags = pTransition.getData(KeyDef.STARTLINE);
     checkParsable(
         startLineTags.size() < 2,
         "At most one startline data tag must be provided for each edge.");
-    Set<String> endLineTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ENDLINE);
+    Set<String> endLineTags = pTransition.getData(KeyDef.ENDLINE);
     checkParsable(
         endLineTags.size() < 2, "At most one endline data tag must be provided for each edge.");
 
@@ -1054,16 +1079,17 @@ public class AutomatonGraphmlParser {
    * @param pTransition the transition specifying which character offset to assume.
    * @return a predicate to match file locations based on the offsets specified by the transition.
    */
-  private static Optional<Predicate<FileLocation>> getOffsetMatcherPredicate(Node pTransition) throws WitnessParseException {
-    Set<String> originFileTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ORIGINFILE);
+  private static Optional<Predicate<FileLocation>> getOffsetMatcherPredicate(
+      GraphMLElement pTransition) throws WitnessParseException {
+    Set<String> originFileTags = pTransition.getData(KeyDef.ORIGINFILE);
     checkParsable(
         originFileTags.size() < 2,
         "At most one origin-file data tag must be provided for an edge.");
 
-    Set<String> offsetTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.OFFSET);
+    Set<String> offsetTags = pTransition.getData(KeyDef.OFFSET);
     checkParsable(
         offsetTags.size() < 2, "At most one offset data tag must be provided for each edge.");
-    Set<String> endoffsetTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ENDOFFSET);
+    Set<String> endoffsetTags = pTransition.getData(KeyDef.ENDOFFSET);
     checkParsable(
         endoffsetTags.size() < 2, "At most one endoffset data tag must be provided for each edge.");
 
@@ -1108,8 +1134,9 @@ public class AutomatonGraphmlParser {
    * @return an automaton-transition condition for specific branches of an assumption corresponding
    *     to the control case specified by the given transition.
    */
-  private static AutomatonBoolExpr getAssumeCaseMatcher(Node pTransition) throws WitnessParseException {
-    Set<String> assumeCaseTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.CONTROLCASE);
+  private static AutomatonBoolExpr getAssumeCaseMatcher(GraphMLElement pTransition)
+      throws WitnessParseException {
+    Set<String> assumeCaseTags = pTransition.getData(KeyDef.CONTROLCASE);
 
     if (assumeCaseTags.size() > 0) {
       checkParsable(
@@ -1139,7 +1166,8 @@ public class AutomatonGraphmlParser {
    * @throws WitnessParseException if more than one thread id was specified.
    */
   private static Optional<GraphMLTransition.GraphMLThread> getThread(
-      Node pTransition, NumericIdProvider pNumericIdProvider) throws WitnessParseException {
+      GraphMLElement pTransition, NumericIdProvider pNumericIdProvider)
+      throws WitnessParseException {
     return parseThreadId(pTransition, pNumericIdProvider, KeyDef.THREADID, "At most one threadId tag must be provided for each transition.");
   }
 
@@ -1155,9 +1183,12 @@ public class AutomatonGraphmlParser {
    * @throws WitnessParseException if more than one thread id was specified.
    */
   private static Optional<GraphMLTransition.GraphMLThread> parseThreadId(
-      Node pTransition, NumericIdProvider pNumericIdProvider, KeyDef pKey, String pErrorMessage)
+      GraphMLElement pTransition,
+      NumericIdProvider pNumericIdProvider,
+      KeyDef pKey,
+      String pErrorMessage)
       throws WitnessParseException {
-    Set<String> threadIdTags = GraphMLDocumentData.getDataOnNode(pTransition, pKey);
+    Set<String> threadIdTags = pTransition.getData(pKey);
 
     if (threadIdTags.size() > 0) {
       checkParsable(
@@ -1183,7 +1214,6 @@ public class AutomatonGraphmlParser {
   /**
    * Reads an automaton edge from the graphml file and inserts it into the automaton.
    *
-   * @param pDocDat the GraphML-document-data helper.
    * @param pStates the map from state identifiers to parsed states.
    * @param pEntryStates the set of entry states.
    * @param pLeavingEdges the map from predecessor states to transitions leaving these states that
@@ -1195,23 +1225,20 @@ public class AutomatonGraphmlParser {
    * @param pTransition the transition to be analyzed, represented as a GraphML edge.
    */
   private void collectEdgeData(
-      GraphMLDocumentData pDocDat,
       Map<String, GraphMLState> pStates,
       Set<GraphMLState> pEntryStates,
       Multimap<GraphMLState, GraphMLTransition> pLeavingEdges,
       Multimap<GraphMLState, GraphMLTransition> pEnteringEdges,
       NumericIdProvider pNumericThreadIdProvider,
-      Node pTransition)
+      GraphMLElement pTransition)
       throws WitnessParseException {
     String sourceStateId =
-        GraphMLDocumentData.getAttributeValue(
-            pTransition, "source", "Every transition needs a source!");
-    GraphMLState source = parseState(pDocDat, pStates, sourceStateId, Optional.of(pTransition));
+        getAttributeValue(pTransition, "source", "Every transition needs a source!");
+    GraphMLState source = getState(pStates, sourceStateId, pTransition);
 
     String targetStateId =
-        GraphMLDocumentData.getAttributeValue(
-            pTransition, "target", "Every transition needs a target!");
-    GraphMLState target = parseState(pDocDat, pStates, targetStateId, Optional.of(pTransition));
+        getAttributeValue(pTransition, "target", "Every transition needs a target!");
+    GraphMLState target = getState(pStates, targetStateId, pTransition);
 
     Optional<String> functionEntry = parseSingleDataValue(pTransition, KeyDef.FUNCTIONENTRY,
         "At most one function can be entered by one transition.");
@@ -1241,7 +1268,7 @@ public class AutomatonGraphmlParser {
             getAssumeCaseMatcher(pTransition),
             thread.orElse(DEFAULT_THREAD),
             threadIdAssignment,
-            GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ASSUMPTION),
+            pTransition.getData(KeyDef.ASSUMPTION),
             explicitAssumptionScope,
             assumptionResultFunction,
             entersLoopHead(pTransition));
@@ -1249,21 +1276,6 @@ public class AutomatonGraphmlParser {
     pLeavingEdges.put(source, transition);
     pEnteringEdges.put(target, transition);
 
-    Element sourceStateNode = pDocDat.getNodeWithId(sourceStateId);
-    if (sourceStateNode == null) {
-      throw new WitnessParseException(
-          String.format(
-              "Source %s of transition %s does not exist.",
-              sourceStateId, transitionToString(pTransition)));
-    }
-    Element targetStateNode = pDocDat.getNodeWithId(targetStateId);
-    if (targetStateNode == null) {
-      throw new WitnessParseException(
-          String.format(
-              "Target %s of transition %s does not exist.",
-              targetStateId, transitionToString(pTransition)));
-    }
-
     if (source.isViolationState()) {
       logger.log(
           Level.WARNING,
@@ -1288,51 +1300,54 @@ public class AutomatonGraphmlParser {
     }
   }
 
-  private GraphMLState parseState(
-      GraphMLDocumentData pDocDat,
-      Map<String, GraphMLState> pStates,
-      String pStateId,
-      Optional<Node> pReference)
+  private static GraphMLState getState(
+      Map<String, GraphMLState> pStates, String pStateId, GraphMLElement pReference)
       throws WitnessParseException {
     GraphMLState result = pStates.get(pStateId);
-    if (result != null) {
-      return result;
-    }
-
-    Element stateNode = pDocDat.getNodeWithId(pStateId);
-    if (stateNode == null) {
-      final String message;
-      if (pReference.isPresent()) {
-        message =
-            String.format(
-                "The state with id <%s> does not exist, but is referenced in the transition <%s>",
-                pStateId, transitionToString(pReference.get()));
-      } else {
-        message = String.format("The state with if <%s> does not exist.", pStateId);
-      }
-      throw new WitnessParseException(message);
+    if (result == null) {
+      throw new WitnessParseException(
+          String.format(
+              "The state with id <%s> does not exist, but is referenced in the transition <%s>",
+              pStateId, transitionToString(pReference)));
     }
+    return result;
+  }
 
-    Set<String> candidates = GraphMLDocumentData.getDataOnNode(stateNode, KeyDef.INVARIANT);
-    Optional<String> candidateScope = parseSingleDataValue(stateNode, KeyDef.INVARIANTSCOPE,
+  private static GraphMLState parseState(String pStateId, GraphMLElement pStateNode)
+      throws WitnessParseException {
+    Set<String> candidates = pStateNode.getData(KeyDef.INVARIANT);
+    Optional<String> candidateScope = parseSingleDataValue(pStateNode, KeyDef.INVARIANTSCOPE,
         "At most one explicit invariant scope must be provided for a state.");
 
-    result = new GraphMLState(
-        pStateId,
-        candidates,
-        candidateScope,
-        pDocDat.getNodeFlags(stateNode));
-
-    pStates.put(pStateId, result);
+    return new GraphMLState(pStateId, candidates, candidateScope, getNodeFlags(pStateNode));
+  }
 
+  private static EnumSet<NodeFlag> getNodeFlags(GraphMLElement pStateNode) {
+    EnumSet<NodeFlag> result = EnumSet.noneOf(NodeFlag.class);
+    for (String key : pStateNode.getDataKeys()) {
+      NodeFlag flag = NodeFlag.getNodeFlagByKey(key);
+      if (flag != null) {
+        result.add(flag);
+      }
+    }
     return result;
   }
 
-  private static Optional<String> parseSingleDataValue(Node pEdge,
+  private static String getAttributeValue(
+      GraphMLElement pElement, String pAttributeName, String pExceptionMessage)
+      throws WitnessParseException {
+    String value = pElement.getAttribute(pAttributeName);
+    if (value == null) {
+      throw new WitnessParseException(pExceptionMessage);
+    }
+    return value;
+  }
+
+  private static Optional<String> parseSingleDataValue(GraphMLElement pEdge,
       KeyDef pKey,
       String pErrorMessage) throws WitnessParseException {
     Set<String> values =
-        GraphMLDocumentData.getDataOnNode(pEdge, pKey);
+        pEdge.getData(pKey);
     checkParsable(values.size() <= 1, pErrorMessage);
     String value = Iterables.getOnlyElement(values, null);
     return Optional.ofNullable(value);
@@ -1344,9 +1359,9 @@ public class AutomatonGraphmlParser {
    * @param pAutomaton the GraphML graph node representing the witness automaton.
    * @return the witness-automaton type of an automaton represented as a GraphML graph.
    */
-  private WitnessType getWitnessType(Node pAutomaton) throws WitnessParseException {
+  private WitnessType getWitnessType(GraphMLElement pAutomaton) throws WitnessParseException {
     Set<String> witnessTypeText =
-        GraphMLDocumentData.getDataOnNode(pAutomaton, KeyDef.WITNESS_TYPE);
+        pAutomaton.getData(KeyDef.WITNESS_TYPE);
     final WitnessType witnessType;
     if (witnessTypeText.isEmpty()) {
       witnessType = WitnessType.VIOLATION_WITNESS;
@@ -1368,28 +1383,21 @@ public class AutomatonGraphmlParser {
     return witnessType;
   }
 
-  private static String transitionToString(Node pTransition) {
+  private static String transitionToString(GraphMLElement pTransition) {
     if (pTransition == null) {
       return "null";
     }
-    NamedNodeMap attributes = pTransition.getAttributes();
-    if (attributes != null) {
-      Node id = attributes.getNamedItem("id");
-      if (id != null) {
-        return id.getNodeValue();
-      }
-    }
     return pTransition.toString();
   }
 
-  private static void checkRequiredField(Node pGraphNode, KeyDef pKey)
+  private static void checkRequiredField(GraphMLElement pGraphNode, KeyDef pKey)
       throws WitnessParseException {
     checkRequiredField(pGraphNode, pKey, false);
   }
 
-  private static void checkRequiredField(Node pGraphNode, KeyDef pKey, boolean pAcceptEmpty)
-      throws WitnessParseException {
-    Iterable<String> data = GraphMLDocumentData.getDataOnNode(pGraphNode, pKey);
+  private static void checkRequiredField(
+      GraphMLElement pGraphNode, KeyDef pKey, boolean pAcceptEmpty) throws WitnessParseException {
+    Iterable<String> data = pGraphNode.getData(pKey);
     if (Iterables.isEmpty(data)) {
       throw new WitnessParseException(
           String.format("The witness does not contain the required field '%s'", pKey.id));
@@ -1633,119 +1641,6 @@ public class AutomatonGraphmlParser {
 
   }
 
-  private static class GraphMLDocumentData {
-
-    private final Node graph;
-
-    private final ImmutableMap<String, Element> idToNodeMap;
-
-    private final Iterable<Node> transitions;
-
-    public GraphMLDocumentData(Document pDocument) throws WitnessParseException {
-
-      NodeList graphs = pDocument.getElementsByTagName(GraphMLTag.GRAPH.toString());
-      checkParsable(graphs.getLength() == 1, TOO_MANY_GRAPHS_ERROR_MESSAGE);
-      graph = Objects.requireNonNull(graphs.item(0));
-
-      ImmutableMap.Builder<String, Element> idToNodeMapBuilder = ImmutableMap.builder();
-      NodeList nodes = pDocument.getElementsByTagName(GraphMLTag.NODE.toString());
-      for (Node stateNode : asIterable(nodes)) {
-        String stateId = getAttributeValue(stateNode, "id", "Every state needs an ID!");
-        idToNodeMapBuilder.put(stateId, (Element) stateNode);
-      }
-      idToNodeMap = idToNodeMapBuilder.build();
-
-      transitions = asIterable(pDocument.getElementsByTagName(GraphMLTag.EDGE.toString()));
-    }
-
-    public Node getGraph() {
-      return graph;
-    }
-
-    public Iterable<Node> getTransitions() {
-      return transitions;
-    }
-
-    public EnumSet<NodeFlag> getNodeFlags(Element pStateNode) {
-      EnumSet<NodeFlag> result = EnumSet.noneOf(NodeFlag.class);
-
-      NodeList dataChilds = pStateNode.getElementsByTagName(GraphMLTag.DATA.toString());
-
-      for (Node dataChild : asIterable(dataChilds)) {
-        Node attribute = dataChild.getAttributes().getNamedItem("key");
-        Preconditions.checkNotNull(attribute, "Every data element must have a key attribute!");
-        String key = attribute.getTextContent();
-        NodeFlag flag = NodeFlag.getNodeFlagByKey(key);
-        if (flag != null) {
-          result.add(flag);
-        }
-      }
-
-      return result;
-    }
-
-    private static String getAttributeValue(Node of, String attributeName, String exceptionMessage)
-        throws WitnessParseException {
-      Node attribute = of.getAttributes().getNamedItem(attributeName);
-      if (attribute == null) {
-        throw new WitnessParseException(exceptionMessage);
-      }
-      return attribute.getTextContent();
-    }
-
-    private @Nullable Element getNodeWithId(String nodeId) {
-      Element result = idToNodeMap.get(nodeId);
-      if (result == null
-          || !result.getTagName().equals(GraphMLTag.NODE.toString())) {
-        return null;
-      }
-      return result;
-    }
-
-    private static Set<String> getDataOnNode(Node node, final KeyDef dataKey) {
-      Preconditions.checkNotNull(node);
-      Preconditions.checkArgument(node.getNodeType() == Node.ELEMENT_NODE);
-
-      Element nodeElement = (Element) node;
-      Set<Node> dataNodes = findKeyedDataNode(nodeElement, dataKey);
-
-      Set<String> result = Sets.newHashSet();
-      for (Node n: dataNodes) {
-        result.add(n.getTextContent());
-      }
-
-      return result;
-    }
-
-    private static Set<Node> findKeyedDataNode(Element of, final KeyDef dataKey) {
-      Set<Node> result = Sets.newHashSet();
-      Set<Node> alternative = null;
-      NodeList dataChilds = of.getElementsByTagName(GraphMLTag.DATA.toString());
-      for (Node dataChild : asIterable(dataChilds)) {
-        Node attribute = dataChild.getAttributes().getNamedItem("key");
-        Preconditions.checkNotNull(attribute, "Every data element must have a key attribute!");
-        String nodeKey = attribute.getTextContent();
-        if (nodeKey.equals(dataKey.id)) {
-          result.add(dataChild);
-          alternative = null;
-        }
-        // Backwards-compatibility: type/graph-type
-        if (alternative == null
-            && result.isEmpty()
-            && dataKey.equals(KeyDef.WITNESS_TYPE)
-            && nodeKey.equals("type")) {
-          alternative = Sets.newHashSet();
-          alternative.add(dataChild);
-        }
-      }
-      if (result.isEmpty() && alternative != null) {
-        return alternative;
-      }
-      return result;
-    }
-
-  }
-
   public static boolean isGraphmlAutomatonFromConfiguration(Path pPath)
       throws InvalidConfigurationException {
     try {
@@ -1795,24 +1690,15 @@ public class AutomatonGraphmlParser {
 
   private static AutomatonGraphmlCommon.WitnessType getWitnessType(InputStream pInputStream)
       throws InvalidConfigurationException, IOException {
-    // Parse the XML document ----
-    DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
-    Document doc;
-    try {
-      DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
-      doc = docBuilder.parse(pInputStream);
-    } catch (ParserConfigurationException | SAXException e) {
-      throw new WitnessParseException(e);
-    }
-
-    // (The one) root node of the graph ----
-    NodeList graphs = doc.getElementsByTagName(GraphMLTag.GRAPH.toString());
-    checkParsable(graphs.getLength() == 1, TOO_MANY_GRAPHS_ERROR_MESSAGE);
-    Node graphNode = graphs.item(0);
+    // Read the XML document, only the data of the graph is kept ----
+    GraphElementCollector collector = new GraphElementCollector();
+    GraphMLStreamReader.read(pInputStream, collector);
+    GraphMLElement graphNode = collector.graph;
+    checkParsable(graphNode != null, TOO_MANY_GRAPHS_ERROR_MESSAGE);
 
     checkRequiredField(graphNode, KeyDef.WITNESS_TYPE);
 
-    Set<String> graphTypeText = GraphMLDocumentData.getDataOnNode(graphNode, KeyDef.WITNESS_TYPE);
+    Set<String> graphTypeText = graphNode.getData(KeyDef.WITNESS_TYPE);
     final WitnessType graphType;
     if (graphTypeText.isEmpty()) {
       graphType = WitnessType.VIOLATION_WITNESS;
@@ -1830,6 +1716,23 @@ public class AutomatonGraphmlParser {
     return graphType;
   }
 
+  /** Keeps only the graph element of a GraphML document and ignores its nodes and edges. */
+  private static class GraphElementCollector implements GraphMLStreamReader.Visitor {
+
+    private @Nullable GraphMLElement graph = null;
+
+    @Override
+    public void visitNode(GraphMLElement pNode) {}
+
+    @Override
+    public void visitEdge(GraphMLElement pEdge) {}
+
+    @Override
+    public void visitGraph(GraphMLElement pGraph) {
+      graph = pGraph;
+    }
+  }
+
   private static AutomatonBoolExpr not(AutomatonBoolExpr pA) {
     if (pA.equals(AutomatonBoolExpr.TRUE)) {
       return AutomatonBoolExpr.FALSE;
@@ -1868,7 +1771,7 @@ public class AutomatonGraphmlParser {
     return new AutomatonBoolExpr.Or(pA, pB);
   }
 
-  private static void checkParsable(boolean pParsable, String pMessage)
+  static void checkParsable(boolean pParsable, String pMessage)
       throws WitnessParseException {
     if (!pParsable) {
       throw new WitnessParseException(pMessage);
@@ -1928,29 +1831,4 @@ public class AutomatonGraphmlParser {
       throw pExceptionHandler.apply(e);
     }
   }
-
-
-  /** return a nice {@link Iterable} wrapping the interface {@link NodeList}. */
-  private static Iterable<Node> asIterable(final NodeList pNodeList) {
-    return new Iterable<Node>() {
-
-      @Override
-      public Iterator<Node> iterator() {
-        return new Iterator<Node>() {
-
-          private int index = 0;
-
-          @Override
-          public boolean hasNext() {
-            return index < pNodeList.getLength();
-          }
-
-          @Override
-          public Node next() {
-            return pNodeList.item(index++);
-          }
-        };
-      }
-    };
-  }
 }
@@ -98,6 +98,9 @@ public class AutomatonInternalState {
 
   private final boolean isCycleStart;
 
+  /** Dispatch index for the transitions, created on first use. */
+  private volatile AutomatonTransitionIndex transitionIndex = null;
+
   public AutomatonInternalState(
       String pName,
       List<AutomatonTransition> pTransitions,
@@ -176,6 +179,17 @@ public class AutomatonInternalState {
     return transitions;
   }
 
+  /** Returns the dispatch index for the transitions of this state, creating it if necessary. */
+  AutomatonTransitionIndex getTransitionIndex() {
+    AutomatonTransitionIndex index = transitionIndex;
+    if (index == null) {
+      // creating the index twice in parallel is harmless, it is immutable
+      index = new AutomatonTransitionIndex(transitions);
+      transitionIndex = index;
+    }
+    return index;
+  }
+
   @Override
   public String toString() {
     return this.name;
@@ -30,6 +30,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.io.CharSource;
 import com.google.common.io.CharStreams;
 import com.google.common.io.MoreFiles;
@@ -52,7 +53,13 @@ import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.CParser;
 import org.sosy_lab.cpachecker.cfa.CParser.ParserOptions;
 import org.sosy_lab.cpachecker.cfa.CProgramScope;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
 import org.sosy_lab.cpachecker.cfa.ast.c.CAstNode;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIntegerLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.c.CAssumeEdge;
 import org.sosy_lab.cpachecker.cfa.types.MachineModel;
 import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
@@ -283,6 +290,38 @@ public class AutomatonInternalTest {
     assert_().about(astMatcher).that("$? = $1($?);").doesNotMatch("f();");
   }
 
+  @Test
+  public void testTransitionIndex() {
+    List<AutomatonTransition> transitions =
+        ImmutableList.of(
+            transitionOn(new AutomatonBoolExpr.MatchFunctionCall("f")),
+            transitionOn(new AutomatonBoolExpr.MatchAssumeCase(true)),
+            transitionOn(AutomatonBoolExpr.TRUE),
+            transitionOn(new AutomatonBoolExpr.MatchAssumeCase(false)),
+            transitionOn(
+                new AutomatonBoolExpr.And(
+                    AutomatonBoolExpr.MatchAssumeEdge.INSTANCE, AutomatonBoolExpr.TRUE)));
+    AutomatonInternalState state = new AutomatonInternalState("q", transitions);
+    AutomatonTransitionIndex index = state.getTransitionIndex();
+
+    CFANode pred = new CFANode("main");
+    CFANode succ = new CFANode("main");
+    CFAEdge thenEdge =
+        new CAssumeEdge("", FileLocation.DUMMY, pred, succ, CIntegerLiteralExpression.ONE, true);
+    CFAEdge elseEdge =
+        new CAssumeEdge("", FileLocation.DUMMY, pred, succ, CIntegerLiteralExpression.ONE, false);
+    CFAEdge blankEdge = new BlankEdge("", FileLocation.DUMMY, pred, succ, "");
+
+    assertThat(index.getCandidates(thenEdge)).asList().containsExactly(1, 2, 4).inOrder();
+    assertThat(index.getCandidates(elseEdge)).asList().containsExactly(2, 3, 4).inOrder();
+    assertThat(index.getCandidates(blankEdge)).asList().containsExactly(2);
+  }
+
+  private static AutomatonTransition transitionOn(AutomatonBoolExpr pTrigger) {
+    return new AutomatonTransition(
+        pTrigger, ImmutableList.of(), ImmutableList.of(), AutomatonInternalState.BOTTOM);
+  }
+
   private final Subject.Factory<ASTMatcherSubject, String> astMatcher =
       new Subject.Factory<ASTMatcherSubject, String>() {
         @Override
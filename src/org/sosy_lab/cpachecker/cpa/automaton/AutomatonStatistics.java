@@ -28,6 +28,7 @@ import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
 import org.sosy_lab.cpachecker.util.statistics.StatIntHist;
 import org.sosy_lab.cpachecker.util.statistics.StatKind;
 import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer;
@@ -42,6 +43,7 @@ class AutomatonStatistics implements Statistics {
   ThreadSafeTimerContainer actionTime          = new ThreadSafeTimerContainer("Time for transition actions");
   ThreadSafeTimerContainer totalStrengthenTime = new ThreadSafeTimerContainer("Total time for strengthen operator");
   StatIntHist automatonSuccessors = new StatIntHist(StatKind.AVG, "Automaton transfer successors");
+  StatInt skippedTransitions = new StatInt(StatKind.SUM, "Transitions skipped by index");
 
   public AutomatonStatistics(ControlAutomatonCPA pCpa) {
     mCpa = pCpa;
@@ -61,6 +63,9 @@ class AutomatonStatistics implements Statistics {
       // normally automaton is very fast, and time measurements are very imprecise
       // so don't care about very small times
       put(out, 1, matchTime);
+      if (skippedTransitions.getValueCount() > 0) {
+        put(out, 2, skippedTransitions);
+      }
       put(out, 1, assertionsTime);
       put(out, 1, actionTime);
     }
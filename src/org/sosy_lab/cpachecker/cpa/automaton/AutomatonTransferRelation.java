@@ -44,6 +44,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.logging.Level;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.ast.AAstNode;
 import org.sosy_lab.cpachecker.cfa.ast.AExpression;
@@ -61,6 +62,7 @@ import org.sosy_lab.cpachecker.cpa.threading.ThreadingState;
 import org.sosy_lab.cpachecker.cpa.threading.ThreadingTransferRelation;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
 import org.sosy_lab.cpachecker.util.statistics.StatIntHist;
 import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
 
@@ -79,6 +81,7 @@ class AutomatonTransferRelation extends SingleEdgeTransferRelation {
   private final TimerWrapper actionTime;
   private final TimerWrapper totalStrengthenTime;
   private final StatIntHist automatonSuccessors;
+  private final StatInt skippedTransitions;
 
   public AutomatonTransferRelation(
       ControlAutomatonCPA pCpa, LogManager pLogger, MachineModel pMachineModel) {
@@ -92,6 +95,7 @@ class AutomatonTransferRelation extends SingleEdgeTransferRelation {
     actionTime = pCpa.stats.actionTime.getNewTimer();
     totalStrengthenTime = pCpa.stats.totalStrengthenTime.getNewTimer();
     automatonSuccessors = pCpa.stats.automatonSuccessors;
+    skippedTransitions = pCpa.stats.skippedTransitions;
   }
 
   @Override
@@ -162,7 +166,18 @@ class AutomatonTransferRelation extends SingleEdgeTransferRelation {
     List<Pair<AutomatonTransition, Map<Integer, AAstNode>>> transitionsToBeTaken =
         new ArrayList<>(2);
 
-    for (AutomatonTransition t : state.getInternalState().getTransitions()) {
+    // only evaluate transitions that may match this edge (candidates==null means all transitions)
+    ImmutableList<AutomatonTransition> transitions = state.getInternalState().getTransitions();
+    int[] candidates = getCandidateTransitions(state.getInternalState(), edge);
+    int numCandidates = candidates == null ? transitions.size() : candidates.length;
+    int lastIndex = -1;
+
+    for (int k = 0; k < numCandidates; k++) {
+      int index = candidates == null ? k : candidates[k];
+      // transitions skipped by the index are known to not match
+      failedMatches += index - lastIndex - 1;
+      lastIndex = index;
+      AutomatonTransition t = transitions.get(index);
       exprArgs.clearTransitionVariables();
 
       matchTime.start();
@@ -231,6 +246,9 @@ class AutomatonTransferRelation extends SingleEdgeTransferRelation {
         }
       }
     }
+    if (nonDetState || !edgeMatched) {
+      failedMatches += transitions.size() - lastIndex - 1;
+    }
 
     if (edgeMatched) {
       // execute Transitions
@@ -280,6 +298,22 @@ class AutomatonTransferRelation extends SingleEdgeTransferRelation {
     }
   }
 
+  /**
+   * Returns the indices of the transitions of the given state that may match the given edge, or
+   * <code>null</code> if all transitions need to be evaluated.
+   */
+  private @Nullable int[] getCandidateTransitions(
+      AutomatonInternalState pInternalState, CFAEdge pEdge) {
+    int threshold = cpa.getTransitionIndexThreshold();
+    int numTransitions = pInternalState.getTransitions().size();
+    if (threshold <= 0 || numTransitions < threshold) {
+      return null;
+    }
+    int[] candidates = pInternalState.getTransitionIndex().getCandidates(pEdge);
+    skippedTransitions.setNextValue(numTransitions - candidates.length);
+    return candidates;
+  }
+
   private static Map<String, AutomatonVariable> deepCloneVars(Map<String, AutomatonVariable> pOld) {
     Map<String, AutomatonVariable> result = Maps.newHashMapWithExpectedSize(pOld.size());
     for (Entry<String, AutomatonVariable> e : pOld.entrySet()) {
@@ -0,0 +1,260 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.automaton;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.model.AssumeEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdgeType;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.cpa.automaton.SourceLocationMatcher.LineMatcher;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon;
+
+/**
+ * Dispatch index for the outgoing transitions of an {@link AutomatonInternalState}.
+ *
+ * <p>For every transition, the trigger is inspected once for conditions that only depend on
+ * simple properties of the CFA edge (edge type, branch of an assume edge, function name of the
+ * successor, and source-line range). For a given edge, the index then returns only those
+ * transitions whose trigger may match the edge, in their original order. All other transitions
+ * are guaranteed to evaluate to <code>false</code> on the edge, so skipping them does not change
+ * the behavior of the transfer relation. Triggers that cannot be analyzed are always candidates.
+ */
+final class AutomatonTransitionIndex {
+
+  /** The conditions of a trigger that are checked by the index. */
+  private static final class EdgeFilter {
+
+    private static final EdgeFilter ANY =
+        new EdgeFilter(EnumSet.allOf(CFAEdgeType.class), null, null, null);
+
+    private final Set<CFAEdgeType> edgeTypes;
+    private final @Nullable Boolean assumeCase;
+    private final @Nullable String successorFunction;
+    private final @Nullable LineFilter lines;
+
+    private EdgeFilter(
+        Set<CFAEdgeType> pEdgeTypes,
+        @Nullable Boolean pAssumeCase,
+        @Nullable String pSuccessorFunction,
+        @Nullable LineFilter pLines) {
+      edgeTypes = pEdgeTypes;
+      assumeCase = pAssumeCase;
+      successorFunction = pSuccessorFunction;
+      lines = pLines;
+    }
+
+    private static EdgeFilter ofEdgeTypes(CFAEdgeType pFirst, CFAEdgeType... pRest) {
+      return new EdgeFilter(EnumSet.of(pFirst, pRest), null, null, null);
+    }
+
+    /** Both filters have to be satisfied, if one of them is not, the conjunction is false. */
+    private EdgeFilter and(EdgeFilter pOther) {
+      Set<CFAEdgeType> types = EnumSet.copyOf(edgeTypes);
+      types.retainAll(pOther.edgeTypes);
+      return new EdgeFilter(
+          types,
+          assumeCase != null ? assumeCase : pOther.assumeCase,
+          successorFunction != null ? successorFunction : pOther.successorFunction,
+          lines != null ? lines : pOther.lines);
+    }
+
+    private boolean hasSecondaryConditions() {
+      return assumeCase != null || successorFunction != null || lines != null;
+    }
+  }
+
+  /** Line range of a {@link MatchLocationDescriptor} with a {@link LineMatcher}. */
+  private static final class LineFilter {
+
+    private final FunctionEntryNode mainEntry;
+    private final int startLine;
+    private final int endLine;
+    private final boolean origin;
+
+    private LineFilter(FunctionEntryNode pMainEntry, LineMatcher pMatcher) {
+      mainEntry = pMainEntry;
+      startLine = pMatcher.getStartLineNumber();
+      endLine = pMatcher.getEndLineNumber();
+      origin = pMatcher.isOrigin();
+    }
+  }
+
+  /**
+   * Lazily computed source-line range of the current edge, shared by all line filters that are
+   * checked for the same edge.
+   */
+  private static final class EdgeLines {
+
+    private final CFAEdge edge;
+    private @Nullable FunctionEntryNode mainEntry;
+    private boolean origin;
+    private int minStartLine;
+    private int maxEndLine;
+
+    private EdgeLines(CFAEdge pEdge) {
+      edge = pEdge;
+    }
+
+    private boolean overlaps(LineFilter pFilter) {
+      if (mainEntry != pFilter.mainEntry || origin != pFilter.origin) {
+        compute(pFilter.mainEntry, pFilter.origin);
+      }
+      return pFilter.startLine <= maxEndLine && minStartLine <= pFilter.endLine;
+    }
+
+    private void compute(FunctionEntryNode pMainEntry, boolean pOrigin) {
+      mainEntry = pMainEntry;
+      origin = pOrigin;
+      minStartLine = Integer.MAX_VALUE;
+      maxEndLine = Integer.MIN_VALUE;
+      for (FileLocation loc :
+          AutomatonGraphmlCommon.getFileLocationsFromCfaEdge(edge, pMainEntry)) {
+        int start = pOrigin ? loc.getStartingLineInOrigin() : loc.getStartingLineNumber();
+        int end = pOrigin ? loc.getEndingLineInOrigin() : loc.getEndingLineNumber();
+        minStartLine = Math.min(minStartLine, start);
+        maxEndLine = Math.max(maxEndLine, end);
+      }
+    }
+  }
+
+  private final EdgeFilter[] filters;
+
+  /** Indices of the transitions that may match an edge of the given type, in ascending order. */
+  private final Map<CFAEdgeType, int[]> candidatesByEdgeType = new EnumMap<>(CFAEdgeType.class);
+
+  AutomatonTransitionIndex(ImmutableList<AutomatonTransition> pTransitions) {
+    filters = new EdgeFilter[pTransitions.size()];
+    for (int i = 0; i < filters.length; i++) {
+      filters[i] = getFilter(pTransitions.get(i).getTrigger());
+    }
+    for (CFAEdgeType type : CFAEdgeType.values()) {
+      List<Integer> candidates = new ArrayList<>();
+      for (int i = 0; i < filters.length; i++) {
+        if (filters[i].edgeTypes.contains(type)) {
+          candidates.add(i);
+        }
+      }
+      candidatesByEdgeType.put(type, Ints.toArray(candidates));
+    }
+  }
+
+  /**
+   * Returns the indices (with respect to {@link AutomatonInternalState#getTransitions()}) of all
+   * transitions that may match the given edge, in ascending order.
+   */
+  int[] getCandidates(CFAEdge pEdge) {
+    int[] byType = candidatesByEdgeType.get(pEdge.getEdgeType());
+    int[] result = new int[byType.length];
+    int size = 0;
+    EdgeLines edgeLines = null;
+    for (int i : byType) {
+      EdgeFilter filter = filters[i];
+      if (filter.hasSecondaryConditions()) {
+        if (filter.assumeCase != null) {
+          AssumeEdge assume = (AssumeEdge) pEdge;
+          if (filter.assumeCase != (assume.getTruthAssumption() != assume.isSwapped())) {
+            continue;
+          }
+        }
+        if (filter.successorFunction != null
+            && !filter.successorFunction.equals(pEdge.getSuccessor().getFunctionName())) {
+          continue;
+        }
+        if (filter.lines != null) {
+          if (edgeLines == null) {
+            edgeLines = new EdgeLines(pEdge);
+          }
+          if (!edgeLines.overlaps(filter.lines)) {
+            continue;
+          }
+        }
+      }
+      result[size++] = i;
+    }
+    return size == result.length ? result : Arrays.copyOf(result, size);
+  }
+
+  /**
+   * Computes a filter that is satisfied by every edge on which the given trigger may evaluate to
+   * something else than <code>false</code>.
+   */
+  private static EdgeFilter getFilter(AutomatonBoolExpr pTrigger) {
+    if (pTrigger instanceof AutomatonBoolExpr.And) {
+      AutomatonBoolExpr.And and = (AutomatonBoolExpr.And) pTrigger;
+      return getFilter(and.a).and(getFilter(and.b));
+
+    } else if (pTrigger == AutomatonBoolExpr.FALSE) {
+      return new EdgeFilter(EnumSet.noneOf(CFAEdgeType.class), null, null, null);
+
+    } else if (pTrigger == AutomatonBoolExpr.MatchAssumeEdge.INSTANCE) {
+      return EdgeFilter.ofEdgeTypes(CFAEdgeType.AssumeEdge);
+
+    } else if (pTrigger instanceof AutomatonBoolExpr.MatchAssumeCase) {
+      boolean positive = ((AutomatonBoolExpr.MatchAssumeCase) pTrigger).matchesPositiveCase();
+      return new EdgeFilter(EnumSet.of(CFAEdgeType.AssumeEdge), positive, null, null);
+
+    } else if (pTrigger instanceof AutomatonBoolExpr.MatchFunctionPointerAssumeCase) {
+      return getFilter(
+          ((AutomatonBoolExpr.MatchFunctionPointerAssumeCase) pTrigger).getMatchAssumeCase());
+
+    } else if (pTrigger instanceof AutomatonBoolExpr.MatchFunctionCall) {
+      // function calls and the dummy edge at the entry of the main function
+      String function = ((AutomatonBoolExpr.MatchFunctionCall) pTrigger).getFunctionName();
+      return new EdgeFilter(
+          EnumSet.of(CFAEdgeType.FunctionCallEdge, CFAEdgeType.BlankEdge), null, function, null);
+
+    } else if (pTrigger instanceof AutomatonBoolExpr.MatchFunctionCallStatement) {
+      return EdgeFilter.ofEdgeTypes(CFAEdgeType.StatementEdge);
+
+    } else if (pTrigger instanceof AutomatonBoolExpr.MatchFunctionExit) {
+      return EdgeFilter.ofEdgeTypes(
+          CFAEdgeType.FunctionReturnEdge, CFAEdgeType.ReturnStatementEdge, CFAEdgeType.BlankEdge);
+
+    } else if (pTrigger == AutomatonBoolExpr.MatchJavaAssert.INSTANCE) {
+      return EdgeFilter.ofEdgeTypes(CFAEdgeType.BlankEdge);
+
+    } else if (pTrigger instanceof AutomatonBoolExpr.MatchLocationDescriptor) {
+      AutomatonBoolExpr.MatchLocationDescriptor descriptor =
+          (AutomatonBoolExpr.MatchLocationDescriptor) pTrigger;
+      if (descriptor.getMatchDescriptor() instanceof LineMatcher) {
+        LineFilter lines =
+            new LineFilter(
+                descriptor.getMainEntry(), (LineMatcher) descriptor.getMatchDescriptor());
+        return new EdgeFilter(EnumSet.allOf(CFAEdgeType.class), null, null, lines);
+      }
+    }
+    return EdgeFilter.ANY;
+  }
+}
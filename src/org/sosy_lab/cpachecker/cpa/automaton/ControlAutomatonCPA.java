@@ -63,6 +63,7 @@ import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+import org.sosy_lab.cpachecker.core.interfaces.ThreadSafeCPA;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker.ProofCheckerCPA;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 import org.sosy_lab.cpachecker.util.globalinfo.AutomatonInfo;
@@ -74,7 +75,8 @@ import org.sosy_lab.cpachecker.util.globalinfo.AutomatonInfo;
 public class ControlAutomatonCPA
     implements StatisticsProvider,
         ConfigurableProgramAnalysisWithBAM,
-        ProofCheckerCPA {
+        ProofCheckerCPA,
+        ThreadSafeCPA {
 
   @Option(secure=true, name="dotExport",
       description="export automaton to file")
@@ -126,6 +128,16 @@ public class ControlAutomatonCPA
   )
   private boolean topOnFinalSelfLoopingState = false;
 
+  @Option(
+    secure = true,
+    description =
+        "For automaton states with at least this many outgoing transitions, use an index"
+            + " on simple edge properties (edge type, branch, function name, line range)"
+            + " to evaluate only those transitions that may match the current CFA edge."
+            + " A value of 0 disables the index."
+  )
+  private int transitionIndexThreshold = 8;
+
   private final Automaton automaton;
   private final AutomatonState topState = new AutomatonState.TOP(this);
   private final AutomatonState bottomState = new AutomatonState.BOTTOM(this);
@@ -267,6 +279,10 @@ public class ControlAutomatonCPA
         pElement, SingletonPrecision.getInstance(), pCfaEdge));
   }
 
+  int getTransitionIndexThreshold() {
+    return transitionIndexThreshold;
+  }
+
   boolean isTreatingErrorsAsTargets() {
     return treatErrorsAsTargets;
   }
@@ -0,0 +1,255 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.automaton;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonGraphmlParser.WitnessParseException;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMLTag;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.KeyDef;
+
+/**
+ * Reads a GraphML document in a single pass with an {@link XMLStreamReader} and reports each node
+ * and edge element, as well as the graph element itself, together with its data to a {@link
+ * Visitor}. In contrast to building a DOM, only the element that is currently read is kept in
+ * memory, so the memory consumption does not depend on the size of the whole document.
+ */
+final class GraphMLStreamReader {
+
+  /** Receives the elements of a GraphML document in document order. */
+  interface Visitor {
+
+    void visitNode(GraphMLElement pNode) throws WitnessParseException;
+
+    void visitEdge(GraphMLElement pEdge) throws WitnessParseException;
+
+    /**
+     * Called when the graph element is closed, i.e., after all of its nodes and edges were
+     * visited. The given element only contains the data that is attached to the graph itself.
+     */
+    void visitGraph(GraphMLElement pGraph) throws WitnessParseException;
+  }
+
+  /**
+   * Compact representation of a GraphML graph, node, or edge element. Only the attributes and the
+   * textual content of the data children are kept.
+   */
+  static final class GraphMLElement {
+
+    private final GraphMLTag tag;
+    private final ImmutableMap<String, String> attributes;
+
+    /** Pairs of key and textual content of the data children, in document order. */
+    private final ImmutableList<Map.Entry<String, String>> data;
+
+    private GraphMLElement(
+        GraphMLTag pTag,
+        ImmutableMap<String, String> pAttributes,
+        ImmutableList<Map.Entry<String, String>> pData) {
+      tag = pTag;
+      attributes = pAttributes;
+      data = pData;
+    }
+
+    GraphMLTag getTag() {
+      return tag;
+    }
+
+    @Nullable
+    String getAttribute(String pName) {
+      return attributes.get(pName);
+    }
+
+    /** Returns the set of values of all data children with the given key. */
+    Set<String> getData(KeyDef pKey) {
+      Set<String> result = Sets.newHashSet();
+      String alternative = null;
+      for (Map.Entry<String, String> entry : data) {
+        String key = entry.getKey();
+        if (key.equals(pKey.id)) {
+          result.add(entry.getValue());
+          alternative = null;
+        }
+        // Backwards-compatibility: type/graph-type
+        if (alternative == null
+            && result.isEmpty()
+            && pKey.equals(KeyDef.WITNESS_TYPE)
+            && key.equals("type")) {
+          alternative = entry.getValue();
+        }
+      }
+      if (result.isEmpty() && alternative != null) {
+        result.add(alternative);
+      }
+      return result;
+    }
+
+    /** Returns the keys of all data children, in document order. */
+    Iterable<String> getDataKeys() {
+      return Lists.transform(data, Map.Entry::getKey);
+    }
+
+    @Override
+    public String toString() {
+      String id = getAttribute("id");
+      if (id != null) {
+        return id;
+      }
+      return "[" + tag + ": " + attributes + "]";
+    }
+  }
+
+  private GraphMLStreamReader() {}
+
+  /**
+   * Reads the GraphML document from the given stream and passes its elements to the given
+   * visitor.
+   *
+   * @throws WitnessParseException if the document is not well-formed or does not contain exactly
+   *     one graph, or if the visitor rejects an element.
+   */
+  static void read(InputStream pInput, Visitor pVisitor) throws WitnessParseException {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    try {
+      XMLStreamReader reader = factory.createXMLStreamReader(pInput);
+      try {
+        read(reader, pVisitor);
+      } finally {
+        reader.close();
+      }
+    } catch (XMLStreamException e) {
+      throw new WitnessParseException(e);
+    }
+  }
+
+  private static void read(XMLStreamReader pReader, Visitor pVisitor)
+      throws XMLStreamException, WitnessParseException {
+    int graphs = 0;
+    ElementBuilder graph = null;
+    ElementBuilder current = null;
+
+    while (pReader.hasNext()) {
+      int event = pReader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        String name = pReader.getLocalName();
+        if (name.equals(GraphMLTag.GRAPH.toString())) {
+          graphs++;
+          AutomatonGraphmlParser.checkParsable(
+              graphs == 1, AutomatonGraphmlParser.TOO_MANY_GRAPHS_ERROR_MESSAGE);
+          graph = new ElementBuilder(GraphMLTag.GRAPH, pReader);
+        } else if (name.equals(GraphMLTag.NODE.toString()) && graph != null) {
+          current = new ElementBuilder(GraphMLTag.NODE, pReader);
+        } else if (name.equals(GraphMLTag.EDGE.toString()) && graph != null) {
+          current = new ElementBuilder(GraphMLTag.EDGE, pReader);
+        } else if (name.equals(GraphMLTag.DATA.toString())) {
+          String key = pReader.getAttributeValue(null, "key");
+          Preconditions.checkNotNull(key, "Every data element must have a key attribute!");
+          String text = readTextContent(pReader);
+          ElementBuilder owner = current != null ? current : graph;
+          if (owner != null) {
+            owner.data.add(Maps.immutableEntry(key, text));
+          }
+        }
+
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        String name = pReader.getLocalName();
+        if (current != null && name.equals(current.tag.toString())) {
+          if (current.tag == GraphMLTag.NODE) {
+            pVisitor.visitNode(current.build());
+          } else {
+            pVisitor.visitEdge(current.build());
+          }
+          current = null;
+        } else if (graph != null && name.equals(GraphMLTag.GRAPH.toString())) {
+          pVisitor.visitGraph(graph.build());
+          graph = null;
+        }
+      }
+    }
+
+    AutomatonGraphmlParser.checkParsable(
+        graphs == 1, AutomatonGraphmlParser.TOO_MANY_GRAPHS_ERROR_MESSAGE);
+  }
+
+  /**
+   * Reads the concatenated text of the current element and all its descendants, and positions
+   * the reader at the end tag of the current element.
+   */
+  private static String readTextContent(XMLStreamReader pReader) throws XMLStreamException {
+    StringBuilder result = new StringBuilder();
+    int depth = 1;
+    while (depth > 0) {
+      switch (pReader.next()) {
+        case XMLStreamConstants.START_ELEMENT:
+          depth++;
+          break;
+        case XMLStreamConstants.END_ELEMENT:
+          depth--;
+          break;
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.CDATA:
+        case XMLStreamConstants.SPACE:
+          result.append(pReader.getText());
+          break;
+        default:
+          break;
+      }
+    }
+    return result.toString();
+  }
+
+  private static final class ElementBuilder {
+
+    private final GraphMLTag tag;
+    private final ImmutableMap<String, String> attributes;
+    private final ImmutableList.Builder<Map.Entry<String, String>> data = ImmutableList.builder();
+
+    private ElementBuilder(GraphMLTag pTag, XMLStreamReader pReader) {
+      tag = pTag;
+      Map<String, String> attributeMap =
+          Maps.newHashMapWithExpectedSize(pReader.getAttributeCount());
+      for (int i = 0; i < pReader.getAttributeCount(); i++) {
+        attributeMap.putIfAbsent(pReader.getAttributeLocalName(i), pReader.getAttributeValue(i));
+      }
+      attributes = ImmutableMap.copyOf(attributeMap);
+    }
+
+    private GraphMLElement build() {
+      return new GraphMLElement(tag, attributes, data.build());
+    }
+  }
+}
@@ -27,6 +27,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.Iterables;
 import java.util.Collection;
+import java.util.function.Supplier;
 import javax.annotation.Nullable;
 import org.sosy_lab.cpachecker.cfa.blocks.Block;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
@@ -59,6 +60,24 @@ public interface BAMCache extends Statistics {
    */
   BAMCacheEntry get(AbstractState stateKey, Precision precisionKey, Block context);
 
+  /**
+   * Return the entry for the given key. If there is no entry, a new entry with the reached-set
+   * provided by the supplier is inserted and returned. Implementations that are intended for
+   * concurrent access perform this atomically, such that concurrent requests for the same key
+   * always get the same entry and the supplier is called only once.
+   */
+  default BAMCacheEntry getOrCreate(
+      AbstractState stateKey,
+      Precision precisionKey,
+      Block context,
+      Supplier<ReachedSet> reachedSetSupplier) {
+    BAMCacheEntry entry = get(stateKey, precisionKey, context);
+    if (entry == null) {
+      entry = put(stateKey, precisionKey, context, reachedSetSupplier.get());
+    }
+    return entry;
+  }
+
   /** Return the root-state of the last analyzed block, based on the last cache-access. */
   @Deprecated // reason: last block is not deterministic in parallel context
   ARGState getLastAnalyzedBlock();
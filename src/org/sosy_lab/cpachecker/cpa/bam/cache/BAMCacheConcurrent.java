@@ -0,0 +1,248 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import java.io.PrintStream;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Reducer;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+
+/**
+ * A {@link BAMCache} for concurrent access without a global lock.
+ *
+ * <p>The entries are stored in a {@link ConcurrentHashMap} as futures. If several threads request
+ * the same missing entry via {@link #getOrCreate}, only one of them creates the entry, and all
+ * others wait for this in-flight entry and then use the same reached-set. Thus a block is never
+ * analyzed twice for the same state and precision.
+ *
+ * <p>In contrast to {@link BAMCacheImpl}, the iteration order of the cache is not deterministic.
+ */
+public class BAMCacheConcurrent implements BAMCache {
+
+  private final ConcurrentMap<AbstractStateHash, CompletableFuture<BAMCacheEntry>>
+      preciseReachedCache = new ConcurrentHashMap<>();
+
+  private final Reducer reducer;
+
+  private volatile @Nullable BAMCacheEntry lastAnalyzedEntry = null;
+
+  private final StatCounter cacheMisses = new StatCounter("Number of cache misses");
+  private final StatCounter partialCacheHits = new StatCounter("Number of partial cache hits");
+  private final StatCounter fullCacheHits = new StatCounter("Number of full cache hits");
+  private final StatCounter inFlightWaits =
+      new StatCounter("Number of waits for in-flight entries");
+
+  public BAMCacheConcurrent(Reducer pReducer) {
+    reducer = checkNotNull(pReducer);
+  }
+
+  @Override
+  public BAMCacheEntry put(
+      AbstractState pStateKey, Precision pPrecisionKey, Block pContext, ReachedSet pItem) {
+    BAMCacheEntry entry = new BAMCacheEntry(pItem);
+    preciseReachedCache.put(
+        new AbstractStateHash(pStateKey, pPrecisionKey, pContext),
+        CompletableFuture.completedFuture(entry));
+    return entry;
+  }
+
+  @Override
+  public BAMCacheEntry get(AbstractState pStateKey, Precision pPrecisionKey, Block pContext) {
+    CompletableFuture<BAMCacheEntry> future =
+        preciseReachedCache.get(new AbstractStateHash(pStateKey, pPrecisionKey, pContext));
+    if (future == null) {
+      cacheMisses.inc();
+      lastAnalyzedEntry = null;
+      return null;
+    }
+    BAMCacheEntry entry = await(future);
+    updateHitStatistics(entry);
+    lastAnalyzedEntry = entry;
+    return entry;
+  }
+
+  @Override
+  public BAMCacheEntry getOrCreate(
+      AbstractState pStateKey,
+      Precision pPrecisionKey,
+      Block pContext,
+      Supplier<ReachedSet> pReachedSetSupplier) {
+    AbstractStateHash hash = new AbstractStateHash(pStateKey, pPrecisionKey, pContext);
+    CompletableFuture<BAMCacheEntry> future = preciseReachedCache.get(hash);
+    if (future == null) {
+      // The supplier is called outside of the map's internal lock,
+      // other threads asking for the same key wait for our future instead.
+      CompletableFuture<BAMCacheEntry> newFuture = new CompletableFuture<>();
+      future = preciseReachedCache.putIfAbsent(hash, newFuture);
+      if (future == null) {
+        cacheMisses.inc();
+        try {
+          BAMCacheEntry entry = new BAMCacheEntry(pReachedSetSupplier.get());
+          newFuture.complete(entry);
+          lastAnalyzedEntry = entry;
+          return entry;
+        } catch (RuntimeException | Error e) {
+          preciseReachedCache.remove(hash, newFuture);
+          newFuture.completeExceptionally(e);
+          throw e;
+        }
+      }
+    }
+    BAMCacheEntry entry = await(future);
+    updateHitStatistics(entry);
+    lastAnalyzedEntry = entry;
+    return entry;
+  }
+
+  private BAMCacheEntry await(CompletableFuture<BAMCacheEntry> pFuture) {
+    if (!pFuture.isDone()) {
+      inFlightWaits.inc();
+    }
+    try {
+      return pFuture.join();
+    } catch (CompletionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw e;
+    }
+  }
+
+  private void updateHitStatistics(BAMCacheEntry pEntry) {
+    if (pEntry.getExitStates() == null) {
+      // we have cached a partly computed reached-set
+      partialCacheHits.inc();
+    } else {
+      fullCacheHits.inc();
+    }
+  }
+
+  @Override
+  @Deprecated
+  public ARGState getLastAnalyzedBlock() {
+    BAMCacheEntry entry = lastAnalyzedEntry;
+    return entry == null ? null : entry.getRootOfBlock();
+  }
+
+  @Override
+  public boolean containsPreciseKey(
+      AbstractState pStateKey, Precision pPrecisionKey, Block pContext) {
+    return preciseReachedCache.containsKey(
+        new AbstractStateHash(pStateKey, pPrecisionKey, pContext));
+  }
+
+  @Override
+  public Collection<ReachedSet> getAllCachedReachedStates() {
+    ImmutableList.Builder<ReachedSet> result = ImmutableList.builder();
+    for (CompletableFuture<BAMCacheEntry> future : preciseReachedCache.values()) {
+      // entries that are not yet completed do not have a reached-set yet
+      BAMCacheEntry entry = future.getNow(null);
+      if (entry != null) {
+        result.add(entry.getReachedSet());
+      }
+    }
+    return result.build();
+  }
+
+  @Override
+  public void clear() {
+    preciseReachedCache.clear();
+    lastAnalyzedEntry = null;
+  }
+
+  /**
+   * Key of the cache, based on the hash provided by the reducer. In contrast to the key of {@link
+   * BAMCacheImpl}, this class does not measure the time for hashing and comparison, because the
+   * timers are not thread-safe.
+   */
+  private final class AbstractStateHash {
+
+    private final Object wrappedHash;
+    private final Block context;
+
+    AbstractStateHash(AbstractState pStateKey, Precision pPrecisionKey, Block pContext) {
+      wrappedHash = reducer.getHashCodeForState(pStateKey, pPrecisionKey);
+      context = checkNotNull(pContext);
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      if (pObj == this) {
+        return true;
+      }
+      if (!(pObj instanceof AbstractStateHash)) {
+        return false;
+      }
+      AbstractStateHash other = (AbstractStateHash) pObj;
+      return context.equals(other.context) && wrappedHash.equals(other.wrappedHash);
+    }
+
+    @Override
+    public int hashCode() {
+      return wrappedHash.hashCode() * 17 + context.hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return "AbstractStateHash [wrappedHash=" + wrappedHash + ", context=" + context + "]";
+    }
+  }
+
+  @Override
+  public void printStatistics(PrintStream out, Result pResult, UnmodifiableReachedSet pReached) {
+    long sumCalls = cacheMisses.getValue() + partialCacheHits.getValue() + fullCacheHits.getValue();
+    out.println("Total number of recursive CPA calls:                 " + sumCalls);
+    for (StatCounter counter : new StatCounter[] {cacheMisses, partialCacheHits, fullCacheHits}) {
+      out.println(
+          String.format(
+              "  %-50s%d (%s of all calls)",
+              counter.getTitle() + ":",
+              counter.getValue(),
+              toPercent(counter.getValue(), sumCalls)));
+    }
+    out.println(
+        String.format("%-52s%d", inFlightWaits.getTitle() + ":", inFlightWaits.getValue()));
+  }
+
+  @Override
+  public String getName() {
+    return "BAMCache";
+  }
+}
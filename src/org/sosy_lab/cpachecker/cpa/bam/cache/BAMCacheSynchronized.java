@@ -25,6 +25,7 @@ package org.sosy_lab.cpachecker.cpa.bam.cache;
 
 import java.io.PrintStream;
 import java.util.Collection;
+import java.util.function.Supplier;
 import javax.annotation.Nullable;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -96,6 +97,22 @@ public class BAMCacheSynchronized implements BAMCache {
     }
   }
 
+  @Override
+  public BAMCacheEntry getOrCreate(
+      AbstractState pStateKey,
+      Precision pPrecisionKey,
+      Block pContext,
+      Supplier<ReachedSet> pReachedSetSupplier) {
+    synchronized (this) {
+      try {
+        timer.start();
+        return cache.getOrCreate(pStateKey, pPrecisionKey, pContext, pReachedSetSupplier);
+      } finally {
+        timer.stop();
+      }
+    }
+  }
+
   @Override
   @Deprecated
   public ARGState getLastAnalyzedBlock() {
@@ -50,6 +50,20 @@ public interface BAMDataManager {
   BAMCacheEntry createAndRegisterNewReachedSet(
       AbstractState initialState, Precision initialPrecision, Block context);
 
+  /**
+   * Return the cache entry for the given state, precision and block. If there is no such entry,
+   * create a new reached-set with the given state as root and register it in the cache.
+   * Implementations that are intended for concurrent access perform this atomically.
+   */
+  default BAMCacheEntry getOrCreateReachedSet(
+      AbstractState initialState, Precision initialPrecision, Block context) {
+    BAMCacheEntry entry = getCache().get(initialState, initialPrecision, context);
+    if (entry == null) {
+      entry = createAndRegisterNewReachedSet(initialState, initialPrecision, context);
+    }
+    return entry;
+  }
+
   ReachedSetFactory getReachedSetFactory();
 
   /**
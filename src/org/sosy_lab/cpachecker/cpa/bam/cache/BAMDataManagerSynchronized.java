@@ -60,6 +60,14 @@ public class BAMDataManagerSynchronized implements BAMDataManager {
     }
   }
 
+  @Override
+  public BAMCacheEntry getOrCreateReachedSet(
+      AbstractState pInitialState, Precision pInitialPrecision, Block pContext) {
+    synchronized (this) {
+      return manager.getOrCreateReachedSet(pInitialState, pInitialPrecision, pContext);
+    }
+  }
+
   @Override
   public ReachedSetFactory getReachedSetFactory() {
     synchronized (this) {
@@ -43,12 +43,13 @@ import org.sosy_lab.cpachecker.core.interfaces.Graphable;
 import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
 import org.sosy_lab.cpachecker.core.interfaces.Property;
 import org.sosy_lab.cpachecker.core.interfaces.PseudoPartitionable;
+import org.sosy_lab.cpachecker.core.interfaces.SubsumptionIndexable;
 import org.sosy_lab.cpachecker.core.interfaces.Targetable;
 import org.sosy_lab.cpachecker.cpa.arg.Splitable;
 
 public class CompositeState
-    implements AbstractWrapperState, Targetable, Partitionable, PseudoPartitionable, Serializable,
-        Graphable, Splitable {
+    implements AbstractWrapperState, Targetable, Partitionable, PseudoPartitionable,
+        SubsumptionIndexable, Serializable, Graphable, Splitable {
   private static final long serialVersionUID = -5143296331663510680L;
   private final ImmutableList<AbstractState> states;
   private transient Object partitionKey; // lazily initialized
@@ -200,6 +201,24 @@ public class CompositeState
     return pseudoHashCode;
   }
 
+  @Override
+  public long getSubsumptionSignature() {
+    // A composite state is covered only if all components are covered,
+    // so the union of the component signatures is a valid signature.
+    // Rotating by the component index keeps this property
+    // and avoids that different components set the same bits.
+    long signature = 0;
+    int i = 0;
+    for (AbstractState element : states) {
+      if (element instanceof SubsumptionIndexable) {
+        signature |=
+            Long.rotateLeft(((SubsumptionIndexable) element).getSubsumptionSignature(), i * 13);
+      }
+      i++;
+    }
+    return signature;
+  }
+
   private static final class CompositePartitionKey implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -41,7 +41,7 @@ public class Interval implements Serializable{
    */
   private final Long high;
 
-  private static final Interval EMPTY = new Interval(null, null);
+  static final Interval EMPTY = new Interval(null, null);
   public static final Interval UNBOUND = new Interval(Long.MIN_VALUE, Long.MAX_VALUE);
   public static final Interval BOOLEAN_INTERVAL = new Interval(0L, 1L);
   public static final Interval ZERO = new Interval(0L, 0L);
@@ -23,6 +23,8 @@
  */
 package org.sosy_lab.cpachecker.cpa.interval;
 
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
 import java.util.Collection;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
@@ -43,13 +45,16 @@ import org.sosy_lab.cpachecker.core.interfaces.Reducer;
 import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
+import org.sosy_lab.cpachecker.core.interfaces.ThreadSafeCPA;
 import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker.ProofCheckerCPA;
 import org.sosy_lab.cpachecker.util.StateToFormulaWriter;
+import org.sosy_lab.cpachecker.util.variableclassification.VariableClassification;
 
 @Options(prefix = "cpa.interval")
 public class IntervalAnalysisCPA extends AbstractCPA
-    implements ConfigurableProgramAnalysisWithBAM, StatisticsProvider, ProofCheckerCPA {
+    implements ConfigurableProgramAnalysisWithBAM, StatisticsProvider, ProofCheckerCPA,
+        ThreadSafeCPA {
 
   /**
    * This method returns a CPAfactory for the interval analysis CPA.
@@ -85,6 +90,7 @@ public class IntervalAnalysisCPA extends AbstractCPA
 
   private final StateToFormulaWriter writer;
   private final LogManager logger;
+  private final VariableIds variableIds;
 
   /**
    * This method acts as the constructor of the interval analysis CPA.
@@ -98,6 +104,20 @@ public class IntervalAnalysisCPA extends AbstractCPA
     config.inject(this);
     writer = new StateToFormulaWriter(config, pLogger, shutdownNotifier, cfa);
     logger = pLogger;
+
+    // assign dense IDs to the variables of the CFA upfront,
+    // such that variables of the same function are stored next to each other
+    if (cfa.getVarClassification().isPresent()) {
+      VariableClassification varClassification = cfa.getVarClassification().get();
+      variableIds =
+          new VariableIds(
+              ImmutableSortedSet.<String>naturalOrder()
+                  .addAll(varClassification.getRelevantVariables())
+                  .addAll(varClassification.getAssignedVariables().elementSet())
+                  .build());
+    } else {
+      variableIds = new VariableIds(ImmutableSet.of());
+    }
   }
 
   /* (non-Javadoc)
@@ -118,7 +138,7 @@ public class IntervalAnalysisCPA extends AbstractCPA
    */
   @Override
   public AbstractState getInitialState(CFANode pNode, StateSpacePartition pPartition) {
-    return new IntervalAnalysisState();
+    return new IntervalAnalysisState(variableIds);
   }
 
   @Override
@@ -26,13 +26,14 @@ package org.sosy_lab.cpachecker.cpa.interval;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ComparisonChain;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
 import java.io.Serializable;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
 import org.sosy_lab.common.collect.PersistentMap;
 import org.sosy_lab.cpachecker.cfa.model.FunctionExitNode;
 import org.sosy_lab.cpachecker.core.defaults.LatticeAbstractState;
@@ -59,22 +60,28 @@ public class IntervalAnalysisState
 
   private static final Splitter propertySplitter = Splitter.on("<=").trimResults();
 
-  /**
-   * the intervals of the element
-   */
-  private final PersistentMap<String, Interval> intervals;
+  /** the IDs of the variables, shared by all states of the same analysis */
+  private final transient VariableIds variableIds;
 
   /**
-   * the reference counts of the element
+   * the intervals and reference counts of the element,
+   * indexed by the IDs of the variables (cf. {@link #variableIds})
    */
-  private final PersistentMap<String, Integer> referenceCounts;
+  private final transient IntervalVector intervals;
+
+  /** cached hash code, 0 if not yet computed */
+  private transient int hashCode = 0;
 
   /**
    *  This method acts as the default constructor, which initializes the intervals and reference counts to empty maps and the previous element to null.
    */
   public IntervalAnalysisState() {
-    intervals = PathCopyingPersistentTreeMap.of();
-    referenceCounts = PathCopyingPersistentTreeMap.of();
+    this(new VariableIds(ImmutableList.of()));
+  }
+
+  /** Create an initial state whose variables get their IDs from the given instance. */
+  IntervalAnalysisState(VariableIds pVariableIds) {
+    this(pVariableIds, IntervalVector.EMPTY);
   }
 
   /**
@@ -84,8 +91,47 @@ public class IntervalAnalysisState
    * @param referencesMap the reference counts
    */
   public IntervalAnalysisState(PersistentMap<String, Interval> intervals, PersistentMap<String, Integer> referencesMap) {
-    this.intervals        = intervals;
-    this.referenceCounts  = referencesMap;
+    this(new VariableIds(ImmutableList.of()), intervals, referencesMap);
+  }
+
+  private IntervalAnalysisState(
+      VariableIds pVariableIds,
+      Map<String, Interval> pIntervals,
+      Map<String, Integer> pReferenceCounts) {
+    this(pVariableIds, toIntervalVector(pVariableIds, pIntervals, pReferenceCounts));
+  }
+
+  private IntervalAnalysisState(VariableIds pVariableIds, IntervalVector pIntervals) {
+    variableIds = pVariableIds;
+    intervals = pIntervals;
+  }
+
+  private static IntervalVector toIntervalVector(
+      VariableIds pVariableIds,
+      Map<String, Interval> pIntervals,
+      Map<String, Integer> pReferenceCounts) {
+    IntervalVector result = IntervalVector.EMPTY;
+    for (Entry<String, Integer> entry : pReferenceCounts.entrySet()) {
+      result = result.putReferenceCount(pVariableIds.getId(entry.getKey()), entry.getValue());
+    }
+    for (Entry<String, Interval> entry : pIntervals.entrySet()) {
+      int id = pVariableIds.getId(entry.getKey());
+      result = result.putInterval(id, entry.getValue(), result.getReferenceCount(id));
+    }
+    return result;
+  }
+
+  /**
+   * Return the intervals of the given state indexed by the IDs of this state.
+   * States of the same analysis share their IDs, so this is only expensive
+   * for states that were created independently, e.g., by deserialization.
+   */
+  private IntervalVector getIntervalsWithIdsOf(IntervalAnalysisState pOther) {
+    if (pOther.variableIds == variableIds) {
+      return pOther.intervals;
+    }
+    return toIntervalVector(
+        variableIds, pOther.getIntervalMap(), pOther.getReferenceCountMap());
   }
 
   /**
@@ -96,7 +142,9 @@ public class IntervalAnalysisState
    */
   // see ExplicitState::getValueFor
   public Interval getInterval(String variableName) {
-    return intervals.getOrDefault(variableName, Interval.UNBOUND);
+    int id = variableIds.getIdIfPresent(variableName);
+    Interval interval = id < 0 ? null : intervals.getInterval(id);
+    return interval == null ? Interval.UNBOUND : interval;
   }
 
   /**
@@ -106,7 +154,8 @@ public class IntervalAnalysisState
    * @return the reference count of the variable, or 0 if the the variable is not yet referenced
    */
   private Integer getReferenceCount(String variableName) {
-    return referenceCounts.getOrDefault(variableName, 0);
+    int id = variableIds.getIdIfPresent(variableName);
+    return id < 0 ? 0 : intervals.getReferenceCount(id);
   }
 
   /**
@@ -116,7 +165,8 @@ public class IntervalAnalysisState
    * @return true, if this element contains an interval for the given variable
    */
   public boolean contains(String variableName) {
-    return intervals.containsKey(variableName);
+    int id = variableIds.getIdIfPresent(variableName);
+    return id >= 0 && intervals.contains(id);
   }
 
   /**
@@ -132,14 +182,14 @@ public class IntervalAnalysisState
     if (interval.isUnbound()) {
       return removeInterval(variableName);
     }
+    int id = variableIds.getId(variableName);
     // only add the interval if it is not already present
-    if (!intervals.containsKey(variableName) || !intervals.get(variableName).equals(interval)) {
-      int referenceCount = getReferenceCount(variableName);
+    if (!intervals.contains(id) || !intervals.getInterval(id).equals(interval)) {
+      int referenceCount = intervals.getReferenceCount(id);
 
       if (pThreshold == -1 || referenceCount < pThreshold) {
         return new IntervalAnalysisState(
-            intervals.putAndCopy(variableName, interval),
-            referenceCounts.putAndCopy(variableName, referenceCount + 1));
+            variableIds, intervals.putInterval(id, interval, referenceCount + 1));
       } else {
         return removeInterval(variableName);
       }
@@ -155,21 +205,22 @@ public class IntervalAnalysisState
    */
   // see ExplicitState::forget
   public IntervalAnalysisState removeInterval(String variableName) {
-    if (intervals.containsKey(variableName)) {
-      return new IntervalAnalysisState(intervals.removeAndCopy(variableName), referenceCounts);
+    if (contains(variableName)) {
+      return new IntervalAnalysisState(
+          variableIds, intervals.removeInterval(variableIds.getId(variableName)));
     }
 
     return this;
   }
 
   public IntervalAnalysisState dropFrame(String pCalledFunctionName) {
-    IntervalAnalysisState tmp = this;
-    for (String variableName : intervals.keySet()) {
-      if (variableName.startsWith(pCalledFunctionName+"::")) {
-        tmp = tmp.removeInterval(variableName);
+    IntervalVector tmp = intervals;
+    for (int id = intervals.nextId(0); id >= 0; id = intervals.nextId(id + 1)) {
+      if (variableIds.getName(id).startsWith(pCalledFunctionName+"::")) {
+        tmp = tmp.removeInterval(id);
       }
     }
-    return tmp;
+    return tmp == intervals ? this : new IntervalAnalysisState(variableIds, tmp);
   }
 
   /**
@@ -180,41 +231,14 @@ public class IntervalAnalysisState
    */
   @Override
   public IntervalAnalysisState join(IntervalAnalysisState reachedState) {
-    boolean changed = false;
-    PersistentMap<String, Interval> newIntervals = PathCopyingPersistentTreeMap.of();
-    PersistentMap<String, Integer> newReferences = referenceCounts;
-
-    for (String variableName : reachedState.intervals.keySet()) {
-      Integer otherRefCount = reachedState.getReferenceCount(variableName);
-      Interval otherInterval = reachedState.getInterval(variableName);
-      if (intervals.containsKey(variableName)) {
-        // update the interval
-        Interval mergedInterval = getInterval(variableName).union(otherInterval);
-        if (mergedInterval != otherInterval) {
-          changed = true;
-        }
-
-        if (!mergedInterval.isUnbound()) {
-          newIntervals = newIntervals.putAndCopy(variableName, mergedInterval);
-        }
-
-        // update the references
-        Integer thisRefCount = getReferenceCount(variableName);
-        if (mergedInterval != otherInterval && thisRefCount > otherRefCount) {
-          changed = true;
-          newReferences = newReferences.putAndCopy(variableName, thisRefCount);
-        } else {
-          newReferences = newReferences.putAndCopy(variableName, otherRefCount);
-        }
-
-      } else {
-        newReferences = newReferences.putAndCopy(variableName, otherRefCount);
-        changed = true;
-      }
-    }
-
-    if (changed) {
-      return new IntervalAnalysisState(newIntervals, newReferences);
+    // For each variable of the reached state, the result contains the union of both intervals
+    // (if the variable is tracked in both states and the union is not unbound)
+    // and the reference count of the reached state, or of this state if it is larger
+    // and the union differs from the interval of the reached state.
+    // Other reference counts of this state are kept.
+    IntervalVector joined = intervals.join(getIntervalsWithIdsOf(reachedState));
+    if (joined != null) {
+      return new IntervalAnalysisState(variableIds, joined);
     } else {
       return reachedState;
     }
@@ -228,29 +252,31 @@ public class IntervalAnalysisState
    */
   @Override
   public boolean isLessOrEqual(IntervalAnalysisState reachedState) {
-    if (intervals.equals(reachedState.intervals)) { return true; }
-    // this element is not less or equal than the reached state, if it contains less intervals
-    if (intervals.size() < reachedState.intervals.size()) {
-      return false;
-    }
-
-    // also, this element is not less or equal than the reached state, if any one interval of the reached state is not contained in this element,
+    // this element is not less or equal than the reached state,
+    // if any one interval of the reached state is not contained in this element,
     // or if the interval of the reached state is not wider than the respective interval of this element
-    for (String variableName : reachedState.intervals.keySet()) {
-      if (!intervals.containsKey(variableName) || !reachedState.getInterval(variableName).contains(getInterval(variableName))) {
-        return false;
-      }
-    }
-
-    // else, this element < reached state on the lattice
-    return true;
+    return intervals.isLessOrEqual(getIntervalsWithIdsOf(reachedState));
   }
 
   /**
    * @return the set of tracked variables by this state
    */
   public Map<String,Interval> getIntervalMap() {
-    return intervals;
+    ImmutableSortedMap.Builder<String, Interval> result = ImmutableSortedMap.naturalOrder();
+    for (int id = intervals.nextId(0); id >= 0; id = intervals.nextId(id + 1)) {
+      result.put(variableIds.getName(id), intervals.getInterval(id));
+    }
+    return result.build();
+  }
+
+  private Map<String, Integer> getReferenceCountMap() {
+    ImmutableSortedMap.Builder<String, Integer> result = ImmutableSortedMap.naturalOrder();
+    for (int id = intervals.nextReferencedId(0);
+        id >= 0;
+        id = intervals.nextReferencedId(id + 1)) {
+      result.put(variableIds.getName(id), intervals.getReferenceCount(id));
+    }
+    return result.build();
   }
 
   /** If there was a recursive function, we have wrong intervals for scoped variables in the returnState.
@@ -267,14 +293,14 @@ public class IntervalAnalysisState
     IntervalAnalysisState rebuildState = callState;
 
     // first forget all global information
-    for (final String trackedVar : callState.intervals.keySet()) {
+    for (final String trackedVar : callState.getIntervalMap().keySet()) {
       if (!trackedVar.contains("::")) { // global -> delete
         rebuildState = rebuildState.removeInterval(trackedVar);
       }
     }
 
     // second: learn new information
-    for (final String trackedVar : this.intervals.keySet()) {
+    for (final String trackedVar : this.getIntervalMap().keySet()) {
 
       if (!trackedVar.contains("::")) { // global -> override deleted value
         rebuildState = rebuildState.addInterval(trackedVar, this.getInterval(trackedVar), -1);
@@ -303,7 +329,7 @@ public class IntervalAnalysisState
 
     if (other instanceof IntervalAnalysisState) {
       IntervalAnalysisState otherElement = (IntervalAnalysisState) other;
-      return intervals.equals(otherElement.intervals);
+      return intervals.hasEqualIntervals(getIntervalsWithIdsOf(otherElement));
     }
     return false;
   }
@@ -313,7 +339,12 @@ public class IntervalAnalysisState
    */
   @Override
   public int hashCode() {
-    return intervals.hashCode();
+    int result = hashCode;
+    if (result == 0) {
+      result = intervals.hashCodeOfIntervals(variableIds);
+      hashCode = result;
+    }
+    return result;
   }
 
   /* (non-Javadoc)
@@ -324,7 +355,7 @@ public class IntervalAnalysisState
     StringBuilder sb = new StringBuilder();
     sb.append("[\n");
 
-    for (Map.Entry<String, Interval> entry: intervals.entrySet()) {
+    for (Map.Entry<String, Interval> entry: getIntervalMap().entrySet()) {
       sb.append(String.format("  < %s = %s :: %s >%n",
           entry.getKey(), entry.getValue(), getReferenceCount(entry.getKey())));
     }
@@ -383,7 +414,7 @@ public class IntervalAnalysisState
 
     sb.append("{");
     // create a string like: x =  [low; high] (refCount)
-    for (Entry<String, Interval> entry : intervals.entrySet()) {
+    for (Entry<String, Interval> entry : getIntervalMap().entrySet()) {
       sb.append(String.format("%s = %s (%s), ",
           entry.getKey(), entry.getValue(), getReferenceCount(entry.getKey())));
     }
@@ -401,7 +432,7 @@ public class IntervalAnalysisState
   public BooleanFormula getFormulaApproximation(FormulaManagerView pMgr) {
     IntegerFormulaManager nfmgr = pMgr.getIntegerFormulaManager();
     List<BooleanFormula> result = new ArrayList<>();
-    for (Entry<String, Interval> entry : intervals.entrySet()) {
+    for (Entry<String, Interval> entry : getIntervalMap().entrySet()) {
       Interval interval = entry.getValue();
       if (interval.isEmpty()) {
         // one invalid interval disqualifies the whole state
@@ -433,7 +464,8 @@ public class IntervalAnalysisState
     // We negate the absolute distance to match the "lessEquals"-specifiction.
     // Be aware of overflows! -> we use BigInteger, and zero should be a sound value.
     BigInteger absDistance = BigInteger.ZERO;
-    for (Interval i : intervals.values()) {
+    for (int id = intervals.nextId(0); id >= 0; id = intervals.nextId(id + 1)) {
+      Interval i = intervals.getInterval(id);
       long high = i.getHigh() == null ? 0 : i.getHigh();
       long low = i.getLow() == null ? 0 : i.getLow();
       Preconditions.checkArgument(low <= high, "LOW greater than HIGH:" + i);
@@ -447,6 +479,32 @@ public class IntervalAnalysisState
     return this;
   }
 
+  /**
+   * The IDs of the variables depend on the analysis that created the state,
+   * so we serialize the intervals and reference counts with the variable names.
+   */
+  private Object writeReplace() {
+    return new SerialProxy(getIntervalMap(), getReferenceCountMap());
+  }
+
+  private static final class SerialProxy implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Map<String, Interval> intervals;
+    private final Map<String, Integer> referenceCounts;
+
+    private SerialProxy(Map<String, Interval> pIntervals, Map<String, Integer> pReferenceCounts) {
+      intervals = pIntervals;
+      referenceCounts = pReferenceCounts;
+    }
+
+    private Object readResolve() {
+      return new IntervalAnalysisState(
+          new VariableIds(intervals.keySet()), intervals, referenceCounts);
+    }
+  }
+
   /** Just a pair of values, can be compared alphabetically. */
   private static final class IntervalPseudoPartitionKey
       implements Comparable<IntervalPseudoPartitionKey> {
@@ -23,8 +23,10 @@
  */
 package org.sosy_lab.cpachecker.cpa.interval;
 
+import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import com.google.common.collect.ImmutableList;
 import org.junit.Test;
 
 @SuppressWarnings({"unchecked", "rawtypes"})
@@ -70,6 +72,57 @@ public class IntervalAnalysisStateTest {
     checkLess(csa1b23, csa1b3);
   }
 
+  @Test
+  public void joinAndLessOrEqual() {
+    IntervalAnalysisState s = new IntervalAnalysisState();
+    // use enough variables such that the intervals are spread over several leaves of the trie
+    for (int i = 0; i < 40; i++) {
+      s = s.addInterval("joinTest::v" + i, new Interval((long) i, (long) i), -1);
+    }
+    IntervalAnalysisState s2 = s.addInterval("joinTest::v33", new Interval(50L, 60L), -1);
+
+    IntervalAnalysisState joined = s.join(s2);
+    assertThat(joined.getInterval("joinTest::v33")).isEqualTo(new Interval(33L, 60L));
+    assertThat(joined.getInterval("joinTest::v0")).isEqualTo(new Interval(0L, 0L));
+    assertTrue(s.isLessOrEqual(joined));
+    assertTrue(s2.isLessOrEqual(joined));
+    assertTrue(!joined.isLessOrEqual(s));
+    assertThat(s.join(joined)).isEqualTo(joined);
+
+    IntervalAnalysisState removed = joined.removeInterval("joinTest::v33");
+    assertThat(removed.contains("joinTest::v33")).isFalse();
+    assertTrue(joined.isLessOrEqual(removed));
+    assertThat(removed.dropFrame("joinTest").getIntervalMap()).isEmpty();
+    assertThat(s2.addInterval("joinTest::v33", new Interval(33L, 33L), -1)).isEqualTo(s);
+    assertThat(s2.addInterval("joinTest::v33", new Interval(33L, 33L), -1).hashCode())
+        .isEqualTo(s.hashCode());
+  }
+
+  @Test
+  public void statesWithDifferentVariableIds() {
+    // use enough variables such that the trie has several levels
+    VariableIds ids = new VariableIds(ImmutableList.of("idsTest::w"));
+    IntervalAnalysisState s = new IntervalAnalysisState(ids);
+    IntervalAnalysisState other = new IntervalAnalysisState();
+    for (int i = 0; i < 2000; i++) {
+      s = s.addInterval("idsTest::v" + i, new Interval((long) i, (long) i), -1);
+      other = other.addInterval("idsTest::v" + (1999 - i), new Interval(1999L - i, 1999L - i), -1);
+    }
+    assertThat(other).isEqualTo(s);
+    assertThat(other.hashCode()).isEqualTo(s.hashCode());
+    assertTrue(s.isLessOrEqual(other));
+    assertThat(s.join(other)).isEqualTo(other);
+
+    IntervalAnalysisState s2 = s.addInterval("idsTest::v1500", new Interval(0L, 5000L), -1);
+    assertThat(s2).isNotEqualTo(other);
+    assertTrue(other.isLessOrEqual(s2));
+    assertTrue(!s2.isLessOrEqual(other));
+    assertThat(other.join(s2)).isEqualTo(s2);
+    assertThat(s2.join(other).getInterval("idsTest::v1500")).isEqualTo(new Interval(0L, 5000L));
+    assertThat(s2.getIntervalMap()).hasSize(2000);
+    assertThat(s2.dropFrame("idsTest").getIntervalMap()).isEmpty();
+  }
+
   private void checkLess(Comparable c1, Comparable c2) {
     assertTrue(c1.compareTo(c2) < 0);
     assertTrue(c2.compareTo(c1) > 0);
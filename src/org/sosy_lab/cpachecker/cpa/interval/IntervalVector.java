@@ -0,0 +1,581 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.interval;
+
+import javax.annotation.Nullable;
+
+/**
+ * Immutable and persistent vector that stores an interval and a reference count
+ * for each variable, indexed by the IDs of {@link VariableIds}.
+ *
+ * The vector is a trie with 32 children per node, whose leaves store the bounds
+ * of 32 consecutive IDs as primitive longs. An update copies only the path
+ * from the root to the affected leaf, i.e., O(log32 n) nodes,
+ * all other nodes are shared with the original vector.
+ * Operations on two vectors skip subtrees that are shared.
+ *
+ * An empty interval is stored with a lower bound that is greater than the upper bound.
+ * Reference counts are stored independently of the intervals,
+ * i.e., a variable may have a reference count but no interval.
+ */
+final class IntervalVector {
+
+  private static final int BITS = 5;
+  private static final int WIDTH = 1 << BITS;
+  private static final int MASK = WIDTH - 1;
+
+  private static final long EMPTY_LOW = Long.MAX_VALUE;
+  private static final long EMPTY_HIGH = Long.MIN_VALUE;
+
+  static final IntervalVector EMPTY = new IntervalVector(null, 0);
+
+  /** A leaf is never modified after it was made reachable from a vector. */
+  private static final class Leaf {
+
+    /** bit i is set iff there is an interval for entry i */
+    private int present;
+
+    /** bit i is set iff the reference count of entry i is not 0 */
+    private int referenced;
+
+    private final long[] lows;
+    private final long[] highs;
+    private final int[] referenceCounts;
+
+    private Leaf() {
+      lows = new long[WIDTH];
+      highs = new long[WIDTH];
+      referenceCounts = new int[WIDTH];
+    }
+
+    private Leaf(Leaf pOther) {
+      present = pOther.present;
+      referenced = pOther.referenced;
+      lows = pOther.lows.clone();
+      highs = pOther.highs.clone();
+      referenceCounts = pOther.referenceCounts.clone();
+    }
+
+    private boolean has(int i) {
+      return (present & (1 << i)) != 0;
+    }
+
+    private void setReferenceCount(int i, int pReferenceCount) {
+      referenceCounts[i] = pReferenceCount;
+      if (pReferenceCount == 0) {
+        referenced &= ~(1 << i);
+      } else {
+        referenced |= 1 << i;
+      }
+    }
+
+    private boolean hasEmptyInterval() {
+      for (int m = present; m != 0; m &= m - 1) {
+        int i = Integer.numberOfTrailingZeros(m);
+        if (lows[i] > highs[i]) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /** An inner node of the trie, it is never modified after it was created. */
+  private static final class Branch {
+
+    /** the children, each one is a {@link Leaf}, a {@link Branch}, or null */
+    private final Object[] children;
+
+    /** the number of intervals below this node */
+    private final int size;
+
+    private final boolean hasEmptyInterval;
+
+    private Branch(Object[] pChildren, int pSize, boolean pHasEmptyInterval) {
+      children = pChildren;
+      size = pSize;
+      hasEmptyInterval = pHasEmptyInterval;
+    }
+  }
+
+  /** the root of the trie, a {@link Leaf} if shift is 0, else a {@link Branch}, or null */
+  private final @Nullable Object root;
+
+  /**
+   * the number of bits of an ID that are consumed by the children of the root,
+   * i.e., the root contains all IDs that are smaller than 2^(shift + 5)
+   */
+  private final int shift;
+
+  private IntervalVector(@Nullable Object pRoot, int pShift) {
+    root = pRoot;
+    shift = pShift;
+  }
+
+  /** Return the number of intervals. */
+  int size() {
+    return sizeOf(root);
+  }
+
+  private @Nullable Leaf getLeaf(int pId) {
+    if ((pId >>> BITS) >>> shift != 0) {
+      return null;
+    }
+    Object node = root;
+    for (int s = shift; s > 0 && node != null; s -= BITS) {
+      node = ((Branch) node).children[(pId >>> s) & MASK];
+    }
+    return (Leaf) node;
+  }
+
+  boolean contains(int pId) {
+    Leaf leaf = getLeaf(pId);
+    return leaf != null && leaf.has(pId & MASK);
+  }
+
+  /** Return the interval of the given variable, or null if there is none. */
+  @Nullable
+  Interval getInterval(int pId) {
+    Leaf leaf = getLeaf(pId);
+    int i = pId & MASK;
+    if (leaf == null || !leaf.has(i)) {
+      return null;
+    }
+    return toInterval(leaf.lows[i], leaf.highs[i]);
+  }
+
+  int getReferenceCount(int pId) {
+    Leaf leaf = getLeaf(pId);
+    return leaf == null ? 0 : leaf.referenceCounts[pId & MASK];
+  }
+
+  /** Return the smallest ID that is at least the given ID and has an interval, or -1. */
+  int nextId(int pFromId) {
+    return next(root, shift, 0, pFromId, false);
+  }
+
+  /** Return the smallest ID that is at least the given ID and has a reference count, or -1. */
+  int nextReferencedId(int pFromId) {
+    return next(root, shift, 0, pFromId, true);
+  }
+
+  /**
+   * Return the smallest ID below the given node that is at least the given ID
+   * and has an interval (or a reference count), or -1.
+   *
+   * @param pBase the smallest ID below the given node
+   */
+  private static int next(
+      @Nullable Object pNode, int pShift, int pBase, int pFromId, boolean pReferenced) {
+    if (pNode == null) {
+      return -1;
+    }
+    if (pShift == 0) {
+      Leaf leaf = (Leaf) pNode;
+      int mask = pReferenced ? leaf.referenced : leaf.present;
+      if (pFromId - pBase >= WIDTH) {
+        return -1;
+      } else if (pFromId > pBase) {
+        mask &= -1 << (pFromId - pBase);
+      }
+      return mask == 0 ? -1 : pBase + Integer.numberOfTrailingZeros(mask);
+    }
+    Object[] children = ((Branch) pNode).children;
+    int start = pFromId > pBase ? (pFromId - pBase) >>> pShift : 0;
+    for (int i = start; i < WIDTH; i++) {
+      int id = next(children[i], pShift - BITS, pBase + (i << pShift), pFromId, pReferenced);
+      if (id >= 0) {
+        return id;
+      }
+    }
+    return -1;
+  }
+
+  /** Return a vector where the given variable has the given interval and reference count. */
+  IntervalVector putInterval(int pId, Interval pInterval, int pReferenceCount) {
+    Leaf leaf = copyLeaf(pId);
+    int i = pId & MASK;
+    leaf.present |= 1 << i;
+    if (pInterval.isEmpty()) {
+      leaf.lows[i] = EMPTY_LOW;
+      leaf.highs[i] = EMPTY_HIGH;
+    } else {
+      leaf.lows[i] = pInterval.getLow();
+      leaf.highs[i] = pInterval.getHigh();
+    }
+    leaf.setReferenceCount(i, pReferenceCount);
+    return withLeaf(pId, leaf);
+  }
+
+  /** Return a vector without interval for the given variable, the reference count is kept. */
+  IntervalVector removeInterval(int pId) {
+    if (!contains(pId)) {
+      return this;
+    }
+    Leaf leaf = copyLeaf(pId);
+    leaf.present &= ~(1 << (pId & MASK));
+    return withLeaf(pId, leaf);
+  }
+
+  /** Return a vector where the given variable has the given reference count. */
+  IntervalVector putReferenceCount(int pId, int pReferenceCount) {
+    if (getReferenceCount(pId) == pReferenceCount) {
+      return this;
+    }
+    Leaf leaf = copyLeaf(pId);
+    leaf.setReferenceCount(pId & MASK, pReferenceCount);
+    return withLeaf(pId, leaf);
+  }
+
+  private Leaf copyLeaf(int pId) {
+    Leaf leaf = getLeaf(pId);
+    return leaf == null ? new Leaf() : new Leaf(leaf);
+  }
+
+  /** Return a vector where the leaf of the given ID is replaced, copying only its path. */
+  private IntervalVector withLeaf(int pId, Leaf pLeaf) {
+    Object newRoot = root;
+    int newShift = shift;
+    while ((pId >>> BITS) >>> newShift != 0) {
+      // the trie is too small for the given ID, so add a new root above the current one
+      newShift += BITS;
+      newRoot = liftOnce(newRoot);
+    }
+    return new IntervalVector(replaceLeaf(newRoot, newShift, pId, pLeaf), newShift);
+  }
+
+  private static @Nullable Object replaceLeaf(
+      @Nullable Object pNode, int pShift, int pId, Leaf pLeaf) {
+    if (pShift == 0) {
+      return leaf(pLeaf);
+    }
+    Object[] children = pNode == null ? new Object[WIDTH] : ((Branch) pNode).children.clone();
+    int i = (pId >>> pShift) & MASK;
+    children[i] = replaceLeaf(children[i], pShift - BITS, pId, pLeaf);
+    return branch(children);
+  }
+
+  /** Return the given leaf, or null if it has neither intervals nor reference counts. */
+  private static @Nullable Leaf leaf(Leaf pLeaf) {
+    return pLeaf.present == 0 && pLeaf.referenced == 0 ? null : pLeaf;
+  }
+
+  /** Return a node with the given children, or null if there are no children. */
+  private static @Nullable Branch branch(Object[] pChildren) {
+    boolean isEmpty = true;
+    int size = 0;
+    boolean hasEmptyInterval = false;
+    for (Object child : pChildren) {
+      if (child != null) {
+        isEmpty = false;
+        size += sizeOf(child);
+        hasEmptyInterval |= hasEmptyInterval(child);
+      }
+    }
+    return isEmpty ? null : new Branch(pChildren, size, hasEmptyInterval);
+  }
+
+  private static @Nullable Object liftOnce(@Nullable Object pNode) {
+    if (pNode == null) {
+      return null;
+    }
+    Object[] children = new Object[WIDTH];
+    children[0] = pNode;
+    return new Branch(children, sizeOf(pNode), hasEmptyInterval(pNode));
+  }
+
+  /** Return the root of this vector as node of a trie with the given (larger) shift. */
+  private @Nullable Object rootAt(int pShift) {
+    Object node = root;
+    for (int s = shift; s < pShift; s += BITS) {
+      node = liftOnce(node);
+    }
+    return node;
+  }
+
+  private static int sizeOf(@Nullable Object pNode) {
+    if (pNode == null) {
+      return 0;
+    } else if (pNode instanceof Leaf) {
+      return Integer.bitCount(((Leaf) pNode).present);
+    } else {
+      return ((Branch) pNode).size;
+    }
+  }
+
+  private static boolean hasEmptyInterval(@Nullable Object pNode) {
+    if (pNode == null) {
+      return false;
+    } else if (pNode instanceof Leaf) {
+      return ((Leaf) pNode).hasEmptyInterval();
+    } else {
+      return ((Branch) pNode).hasEmptyInterval;
+    }
+  }
+
+  private static @Nullable Object child(@Nullable Object pNode, int i) {
+    return pNode == null ? null : ((Branch) pNode).children[i];
+  }
+
+  /** Return whether both vectors contain the same intervals (reference counts are ignored). */
+  boolean hasEqualIntervals(IntervalVector pOther) {
+    if (this == pOther) {
+      return true;
+    }
+    if (size() != pOther.size()) {
+      return false;
+    }
+    int s = Math.max(shift, pOther.shift);
+    return hasEqualIntervals(rootAt(s), pOther.rootAt(s), s);
+  }
+
+  private static boolean hasEqualIntervals(
+      @Nullable Object pNode, @Nullable Object pOtherNode, int pShift) {
+    if (pNode == pOtherNode) {
+      return true;
+    }
+    if (sizeOf(pNode) != sizeOf(pOtherNode)) {
+      return false;
+    }
+    if (pShift == 0) {
+      Leaf leaf = (Leaf) pNode;
+      Leaf otherLeaf = (Leaf) pOtherNode;
+      int mask = leaf == null ? 0 : leaf.present;
+      int otherMask = otherLeaf == null ? 0 : otherLeaf.present;
+      if (mask != otherMask) {
+        return false;
+      }
+      for (; mask != 0; mask &= mask - 1) {
+        int i = Integer.numberOfTrailingZeros(mask);
+        if (leaf.lows[i] != otherLeaf.lows[i] || leaf.highs[i] != otherLeaf.highs[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+    for (int i = 0; i < WIDTH; i++) {
+      if (!hasEqualIntervals(child(pNode, i), child(pOtherNode, i), pShift - BITS)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Return whether this vector is less or equal than the other vector,
+   * i.e., whether each interval of the other vector exists in this vector
+   * and contains the corresponding interval of this vector.
+   */
+  boolean isLessOrEqual(IntervalVector pOther) {
+    if (hasEqualIntervals(pOther)) {
+      return true;
+    }
+    int s = Math.max(shift, pOther.shift);
+    return isLessOrEqual(rootAt(s), pOther.rootAt(s), s);
+  }
+
+  private static boolean isLessOrEqual(
+      @Nullable Object pNode, @Nullable Object pOtherNode, int pShift) {
+    if (sizeOf(pOtherNode) == 0) {
+      return true;
+    }
+    if (pNode == pOtherNode) {
+      // empty intervals neither contain nor are contained in any interval
+      return !hasEmptyInterval(pNode);
+    }
+    if (sizeOf(pNode) < sizeOf(pOtherNode)) {
+      return false;
+    }
+    if (pShift == 0) {
+      Leaf leaf = (Leaf) pNode;
+      Leaf otherLeaf = (Leaf) pOtherNode;
+      if ((otherLeaf.present & ~leaf.present) != 0) {
+        return false; // other vector has an interval that this vector does not have
+      }
+      for (int m = otherLeaf.present; m != 0; m &= m - 1) {
+        int i = Integer.numberOfTrailingZeros(m);
+        long low = leaf.lows[i];
+        long high = leaf.highs[i];
+        long otherLow = otherLeaf.lows[i];
+        long otherHigh = otherLeaf.highs[i];
+        if (low > high || otherLow > otherHigh || otherLow > low || high > otherHigh) {
+          return false;
+        }
+      }
+      return true;
+    }
+    for (int i = 0; i < WIDTH; i++) {
+      if (!isLessOrEqual(child(pNode, i), child(pOtherNode, i), pShift - BITS)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Join this vector with the vector of a reached state,
+   * cf. {@link IntervalAnalysisState#join(IntervalAnalysisState)} for the semantics.
+   *
+   * @return the joined vector, or null if the join result is the reached vector
+   */
+  @Nullable
+  IntervalVector join(IntervalVector pReached) {
+    int s = Math.max(shift, pReached.shift);
+    Joiner joiner = new Joiner();
+    Object joined = joiner.join(rootAt(s), pReached.rootAt(s), s);
+    return joiner.changed ? new IntervalVector(joined, s) : null;
+  }
+
+  private static final class Joiner {
+
+    private boolean changed = false;
+
+    private @Nullable Object join(@Nullable Object pNode, @Nullable Object pReached, int pShift) {
+      if (pNode == pReached) {
+        // the union of two identical intervals is the interval of the reached vector,
+        // so a shared subtree is also part of the result
+        return pReached;
+      }
+      if (sizeOf(pReached) == 0) {
+        // no intervals in the result, but the reference counts of this vector are kept
+        return withoutIntervals(pNode, pShift);
+      }
+      if (pShift == 0) {
+        return joinLeaves((Leaf) pNode, (Leaf) pReached);
+      }
+      Object[] children = new Object[WIDTH];
+      for (int i = 0; i < WIDTH; i++) {
+        children[i] = join(child(pNode, i), child(pReached, i), pShift - BITS);
+      }
+      return branch(children);
+    }
+
+    private @Nullable Leaf joinLeaves(@Nullable Leaf pLeaf, Leaf pReached) {
+      int mask = pLeaf == null ? 0 : pLeaf.present;
+      int reachedMask = pReached.present;
+      Leaf newLeaf = pLeaf == null ? new Leaf() : new Leaf(pLeaf);
+      newLeaf.present = 0;
+      if ((reachedMask & ~mask) != 0) {
+        // some variables exist only in the reached vector
+        changed = true;
+      }
+
+      for (int m = reachedMask; m != 0; m &= m - 1) {
+        int i = Integer.numberOfTrailingZeros(m);
+        int bit = 1 << i;
+        int reachedRefCount = pReached.referenceCounts[i];
+
+        if ((mask & bit) == 0) {
+          newLeaf.setReferenceCount(i, reachedRefCount);
+          continue;
+        }
+
+        long low = pLeaf.lows[i];
+        long high = pLeaf.highs[i];
+        long reachedLow = pReached.lows[i];
+        long reachedHigh = pReached.highs[i];
+
+        // compute the union exactly like Interval.union(),
+        // and whether the union is the interval of the reached vector
+        long newLow;
+        long newHigh;
+        boolean isReachedInterval;
+        if (low > high || reachedLow > reachedHigh) {
+          newLow = EMPTY_LOW;
+          newHigh = EMPTY_HIGH;
+          isReachedInterval = reachedLow > reachedHigh;
+        } else if (low <= reachedLow && high >= reachedHigh) {
+          newLow = low;
+          newHigh = high;
+          isReachedInterval = false;
+        } else if (low >= reachedLow && high <= reachedHigh) {
+          newLow = reachedLow;
+          newHigh = reachedHigh;
+          isReachedInterval = true;
+        } else {
+          newLow = Math.min(low, reachedLow);
+          newHigh = Math.max(high, reachedHigh);
+          isReachedInterval = false;
+        }
+
+        if (!isReachedInterval) {
+          changed = true;
+        }
+        if (newLow != Long.MIN_VALUE || newHigh != Long.MAX_VALUE) {
+          // unbound intervals are not stored
+          newLeaf.present |= bit;
+          newLeaf.lows[i] = newLow;
+          newLeaf.highs[i] = newHigh;
+        }
+
+        int refCount = pLeaf.referenceCounts[i];
+        if (!isReachedInterval && refCount > reachedRefCount) {
+          newLeaf.setReferenceCount(i, refCount);
+        } else {
+          newLeaf.setReferenceCount(i, reachedRefCount);
+        }
+      }
+      return leaf(newLeaf);
+    }
+
+    private static @Nullable Object withoutIntervals(@Nullable Object pNode, int pShift) {
+      if (sizeOf(pNode) == 0) {
+        return pNode;
+      }
+      if (pShift == 0) {
+        Leaf newLeaf = new Leaf((Leaf) pNode);
+        newLeaf.present = 0;
+        return leaf(newLeaf);
+      }
+      Object[] children = new Object[WIDTH];
+      for (int i = 0; i < WIDTH; i++) {
+        children[i] = withoutIntervals(child(pNode, i), pShift - BITS);
+      }
+      return branch(children);
+    }
+  }
+
+  /**
+   * Compute a hash code of the intervals that is consistent with {@link #hasEqualIntervals}
+   * for vectors with different IDs, by hashing the names of the variables instead of their IDs.
+   */
+  int hashCodeOfIntervals(VariableIds pVariableIds) {
+    int result = 0;
+    for (int id = nextId(0); id >= 0; id = nextId(id + 1)) {
+      Leaf leaf = getLeaf(id);
+      int i = id & MASK;
+      result +=
+          pVariableIds.getName(id).hashCode()
+              ^ (31 * Long.hashCode(leaf.lows[i]) + Long.hashCode(leaf.highs[i]));
+    }
+    return result;
+  }
+
+  private static Interval toInterval(long pLow, long pHigh) {
+    if (pLow > pHigh) {
+      return Interval.EMPTY;
+    }
+    return new Interval(pLow, pHigh);
+  }
+}
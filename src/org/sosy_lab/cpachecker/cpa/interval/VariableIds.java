@@ -0,0 +1,92 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.interval;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Assigns dense integer IDs to qualified variable names,
+ * such that the intervals of a state can be stored in arrays (cf. {@link IntervalVector}).
+ *
+ * Each {@link IntervalAnalysisCPA} creates one instance for its CFA, which assigns IDs
+ * to the variables of the variable classification up front, in a meaningful order.
+ * All states that are derived from the initial state share this instance.
+ * Variables that are not known up front get an ID when they are seen for the first time.
+ */
+final class VariableIds {
+
+  private final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<>();
+
+  /** the names of the variables, indexed by their ID, may be longer than the number of IDs */
+  private volatile String[] names = new String[64];
+
+  private int nextId = 0;
+
+  /** Create an instance that assigns IDs to the given variables in the given order. */
+  VariableIds(Iterable<String> pVariableNames) {
+    for (String variableName : pVariableNames) {
+      getId(variableName);
+    }
+  }
+
+  /** Return the ID of the given variable, a new ID is assigned if necessary. */
+  int getId(String pVariableName) {
+    Integer id = ids.get(pVariableName);
+    if (id != null) {
+      return id;
+    }
+    return assignId(checkNotNull(pVariableName));
+  }
+
+  /** Return the ID of the given variable, or -1 if the variable has no ID yet. */
+  int getIdIfPresent(String pVariableName) {
+    Integer id = ids.get(pVariableName);
+    return id == null ? -1 : id;
+  }
+
+  String getName(int pId) {
+    return names[pId];
+  }
+
+  private synchronized int assignId(String pVariableName) {
+    Integer id = ids.get(pVariableName);
+    if (id != null) {
+      return id;
+    }
+    int newId = nextId++;
+    String[] currentNames = names;
+    if (newId >= currentNames.length) {
+      currentNames = Arrays.copyOf(currentNames, currentNames.length * 2);
+    }
+    currentNames[newId] = pVariableName;
+    // publish the name before the ID, such that getName() works for every visible ID
+    names = currentNames;
+    ids.put(pVariableName, newId);
+    return newId;
+  }
+}
@@ -69,6 +69,7 @@ import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.core.algorithm.invariants.InvariantSupplier;
 import org.sosy_lab.cpachecker.core.algorithm.invariants.InvariantSupplier.TrivialInvariantSupplier;
 import org.sosy_lab.cpachecker.cpa.callstack.CallstackStateEqualsWrapper;
+import org.sosy_lab.cpachecker.cpa.predicate.persistence.PersistentAbstractionCache;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicateAbstractionsStorage;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicateAbstractionsStorage.AbstractionNode;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicatePersistenceUtils.PredicateParsingFailedException;
@@ -176,6 +177,26 @@ public class PredicateAbstractionManager {
   @Option(secure=true, name = "abs.useCache", description = "use caching of abstractions")
   private boolean useCache = true;
 
+  @Option(
+    secure = true,
+    name = "abs.persistentCache.file",
+    description =
+        "File for caching abstractions across several runs of CPAchecker "
+            + "(the file is read at startup and written at shutdown, no caching if empty). "
+            + "Only used together with cpa.predicate.abs.useCache."
+  )
+  @FileOption(FileOption.Type.OPTIONAL_INPUT_FILE)
+  private @Nullable Path persistentCacheFile = null;
+
+  @Option(
+    secure = true,
+    name = "abs.persistentCache.maxSize",
+    description =
+        "maximal number of abstractions in the persistent cache, "
+            + "the least-recently used ones are evicted first"
+  )
+  private int persistentCacheMaxSize = 100000;
+
   @Option(secure=true, name="refinement.splitItpAtoms",
       description="split each arithmetic equality into two inequalities when extracting predicates from interpolants")
   private boolean splitItpAtoms = false;
@@ -203,6 +224,9 @@ public class PredicateAbstractionManager {
   // 1: predicate is true
   private final Map<Pair<BooleanFormula, AbstractionPredicate>, Byte> cartesianAbstractionCache;
 
+  // Cache for abstractions that survives the current run, keyed by the serialized formulas
+  final @Nullable PersistentAbstractionCache persistentCache;
+
   public PredicateAbstractionManager(
       AbstractionManager pAmgr,
       PathFormulaManager pPfmgr,
@@ -252,9 +276,36 @@ public class PredicateAbstractionManager {
       cartesianAbstractionCache = null;
     }
 
+    if (useCache
+        && persistentCacheFile != null
+        && pInvariantsSupplier == TrivialInvariantSupplier.INSTANCE) {
+      if (persistentCacheMaxSize <= 0) {
+        throw new InvalidConfigurationException(
+            "Size of persistent abstraction cache needs to be positive");
+      }
+      // abstractions of different kinds must not be mixed
+      String variant = abstractionType + (identifyTrivialPredicates ? "-trivial" : "");
+      persistentCache =
+          new PersistentAbstractionCache(
+              persistentCacheFile, persistentCacheMaxSize, variant, fmgr, logger);
+    } else {
+      // invariants are part of the abstraction, but not of the key
+      persistentCache = null;
+    }
+
     abstractionStorage = new PredicateAbstractionsStorage(reuseAbstractionsFrom, logger, fmgr, null);
   }
 
+  /**
+   * Write the persistent abstraction cache (if enabled) to its file,
+   * such that it can be used by later runs.
+   */
+  public void storePersistentCache() {
+    if (persistentCache != null) {
+      persistentCache.store();
+    }
+  }
+
   /**
    * Compute an abstraction of a single boolean formula.
    * @param f The formula to be abstracted. Needs to be instantiated
@@ -362,6 +413,7 @@ public class PredicateAbstractionManager {
 
     // caching
     Pair<BooleanFormula, ImmutableSet<BooleanFormula>> absKey = null;
+    String persistentKey = null;
     if (useCache) {
       ImmutableSet<BooleanFormula> instantiatedPreds =
           Collections3.transformedImmutableSetCopy(
@@ -394,6 +446,23 @@ public class PredicateAbstractionManager {
             bfmgr.makeFalse(), bfmgr.makeFalse(),
             pathFormula, noAbstractionReuse);
       }
+
+      if (persistentCache != null) {
+        persistentKey = persistentCache.computeKey(f, absKey.getSecond());
+        Optional<BooleanFormula> stored = persistentCache.get(persistentKey);
+        if (stored.isPresent()) {
+          Region storedAbs = amgr.convertFormulaToRegion(stored.get());
+          result = makeAbstractionFormula(storedAbs, ssa, pathFormula);
+          abstractionCache.put(absKey, result);
+          if (result.isFalse()) {
+            unsatisfiabilityCache.add(f);
+          }
+          logger.log(Level.FINEST, "Abstraction", stats.numCallsAbstraction, "was persistently cached");
+          logger.log(Level.ALL, "Abstraction result is", result.asFormula());
+          stats.numCallsAbstractionCached++;
+          return result;
+        }
+      }
     }
 
 
@@ -443,6 +512,10 @@ public class PredicateAbstractionManager {
       if (result.isFalse()) {
         unsatisfiabilityCache.add(f);
       }
+
+      if (persistentKey != null) {
+        persistentCache.put(persistentKey, result.asFormula());
+      }
     }
 
     long abstractionTime = TimeSpan.sum(stats.abstractionSolveTime.getLengthOfLastInterval(),
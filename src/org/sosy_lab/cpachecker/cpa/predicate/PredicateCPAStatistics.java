@@ -59,6 +59,7 @@ import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.LoopInvariantsWriter;
+import org.sosy_lab.cpachecker.cpa.predicate.persistence.PersistentAbstractionCache;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicateAbstractionsWriter;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicateMapWriter;
 import org.sosy_lab.cpachecker.util.Precisions;
@@ -303,6 +304,16 @@ class PredicateCPAStatistics implements Statistics {
       }
     }
 
+    PersistentAbstractionCache persistentCache = amgr.persistentCache;
+    if (persistentCache != null) {
+      out.println("Persistent abstraction cache:");
+      out.println("  Number of loaded entries:        " + persistentCache.getNumberOfLoadedEntries());
+      out.println("  Number of hits:                  " + persistentCache.getHits().getValue());
+      out.println("  Number of misses:                " + persistentCache.getMisses().getValue());
+      out.println("  Number of evictions:             " + persistentCache.getEvictions().getValue());
+      out.println("  Final number of entries:         " + persistentCache.getSize());
+    }
+
     if (trans.satCheckTimer.getNumberOfIntervals() > 0) {
       out.println("Number of satisfiability checks:   " + trans.satCheckTimer.getNumberOfIntervals());
       out.println("  Times result was 'false':        " + trans.numSatChecksFalse + " (" + toPercent(trans.numSatChecksFalse, trans.satCheckTimer.getNumberOfIntervals()) + ")");
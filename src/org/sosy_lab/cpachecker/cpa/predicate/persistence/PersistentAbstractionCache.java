@@ -0,0 +1,247 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.predicate.persistence;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicatePersistenceUtils.LINE_JOINER;
+import static org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicatePersistenceUtils.splitFormula;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.regex.Pattern;
+import org.sosy_lab.common.io.IO;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+/**
+ * Abstraction cache that is stored in a file and can thus be reused by later runs on the same (or
+ * a slightly modified) program.
+ *
+ * <p>Entries are content-addressed: the key of an abstraction query is a hash over the SMTLIB2
+ * representation of the formula that is abstracted and of the (instantiated) predicates, so the
+ * key does not depend on objects of the current run. The value is the uninstantiated abstraction
+ * formula in SMTLIB2 format. The cache holds at most a given number of entries and evicts the
+ * least-recently used one if it is full.
+ *
+ * <p>The file consists of one section per entry, separated by blank lines. Each section starts
+ * with the key, followed by the necessary declarations and the assertion of the abstraction
+ * formula, one per line.
+ */
+public class PersistentAbstractionCache {
+
+  private static final Pattern KEY_PATTERN = Pattern.compile("^[0-9a-f]{64}$");
+
+  private final Path cacheFile;
+  private final int maxSize;
+  private final String variant;
+  private final FormulaManagerView fmgr;
+  private final LogManager logger;
+
+  // access-ordered, thus the eldest entry is the least-recently used one
+  private final LinkedHashMap<String, String> entries;
+
+  private final StatCounter hits = new StatCounter("Persistent cache hits");
+  private final StatCounter misses = new StatCounter("Persistent cache misses");
+  private final StatCounter evictions = new StatCounter("Persistent cache evictions");
+  private int loadedEntries = 0;
+
+  /**
+   * Create a cache and load the entries from the given file if it exists.
+   *
+   * @param pCacheFile the file that backs the cache
+   * @param pMaxSize the maximal number of entries
+   * @param pVariant a string that identifies the kind of abstraction that is computed, entries
+   *     from a different variant are never returned
+   */
+  public PersistentAbstractionCache(
+      Path pCacheFile, int pMaxSize, String pVariant, FormulaManagerView pFmgr, LogManager pLogger) {
+    checkArgument(pMaxSize > 0, "Size of persistent abstraction cache needs to be positive");
+    cacheFile = pCacheFile;
+    maxSize = pMaxSize;
+    variant = pVariant;
+    fmgr = pFmgr;
+    logger = pLogger;
+
+    entries =
+        new LinkedHashMap<String, String>(16, 0.75f, true) {
+          private static final long serialVersionUID = 1L;
+
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, String> pEldest) {
+            if (size() > maxSize) {
+              evictions.inc();
+              return true;
+            }
+            return false;
+          }
+        };
+
+    if (Files.exists(cacheFile)) {
+      try {
+        load();
+      } catch (IOException e) {
+        logger.logUserException(
+            Level.WARNING, e, "Could not read persistent abstraction cache, starting empty");
+        entries.clear();
+      }
+    }
+    loadedEntries = entries.size();
+  }
+
+  private void load() throws IOException {
+    try (BufferedReader reader = Files.newBufferedReader(cacheFile, StandardCharsets.US_ASCII)) {
+      String currentKey = null;
+      List<String> currentLines = new ArrayList<>();
+      String line;
+      while ((line = reader.readLine()) != null) {
+        line = line.trim();
+        if (line.startsWith("//")) {
+          continue;
+        }
+        if (line.isEmpty()) {
+          if (currentKey != null && !currentLines.isEmpty()) {
+            entries.put(currentKey, LINE_JOINER.join(currentLines));
+          }
+          currentKey = null;
+          currentLines.clear();
+        } else if (currentKey == null) {
+          if (!KEY_PATTERN.matcher(line).matches()) {
+            throw new IOException("Invalid key '" + line + "' in " + cacheFile);
+          }
+          currentKey = line;
+        } else {
+          currentLines.add(line);
+        }
+      }
+      if (currentKey != null && !currentLines.isEmpty()) {
+        entries.put(currentKey, LINE_JOINER.join(currentLines));
+      }
+    }
+  }
+
+  /**
+   * Compute the key of an abstraction query.
+   *
+   * @param pFormula the instantiated formula that is abstracted
+   * @param pPredicates the instantiated predicates
+   */
+  public String computeKey(BooleanFormula pFormula, Collection<BooleanFormula> pPredicates) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putString(variant, StandardCharsets.UTF_8);
+    hasher.putString(fmgr.dumpFormula(pFormula).toString(), StandardCharsets.UTF_8);
+
+    // predicates are a set, sort them for a canonical representation
+    List<String> predicates = new ArrayList<>(pPredicates.size());
+    for (BooleanFormula predicate : pPredicates) {
+      predicates.add(fmgr.dumpFormula(predicate).toString());
+    }
+    predicates.sort(null);
+    for (String predicate : predicates) {
+      hasher.putString(predicate, StandardCharsets.UTF_8);
+    }
+    return hasher.hash().toString();
+  }
+
+  /**
+   * Look up the abstraction for a key.
+   *
+   * @return the uninstantiated abstraction formula, or an empty optional on a cache miss
+   */
+  public Optional<BooleanFormula> get(String pKey) {
+    String stored = entries.get(pKey);
+    if (stored != null) {
+      try {
+        BooleanFormula result = fmgr.parse(stored);
+        hits.inc();
+        return Optional.of(result);
+      } catch (IllegalArgumentException e) {
+        // e.g., if a variable changed its type since the entry was written
+        logger.logDebugException(e, "Ignoring invalid entry in persistent abstraction cache");
+        entries.remove(pKey);
+      }
+    }
+    misses.inc();
+    return Optional.empty();
+  }
+
+  /** Store an uninstantiated abstraction formula for a key. */
+  public void put(String pKey, BooleanFormula pAbstraction) {
+    Pair<String, List<String>> split = splitFormula(fmgr, pAbstraction);
+    StringBuilder stored = new StringBuilder();
+    for (String declaration : split.getSecond()) {
+      stored.append(declaration).append('\n');
+    }
+    stored.append(split.getFirst());
+    entries.put(pKey, stored.toString());
+  }
+
+  /** Write the cache to its file, the least-recently used entries first. */
+  public void store() {
+    try (Writer w = IO.openOutputFile(cacheFile, StandardCharsets.US_ASCII)) {
+      w.append("// persistent abstraction cache, do not edit\n\n");
+      for (Map.Entry<String, String> entry : entries.entrySet()) {
+        w.append(entry.getKey()).append('\n');
+        w.append(entry.getValue()).append("\n\n");
+      }
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not write persistent abstraction cache");
+    }
+  }
+
+  public int getSize() {
+    return entries.size();
+  }
+
+  public int getNumberOfLoadedEntries() {
+    return loadedEntries;
+  }
+
+  public StatCounter getHits() {
+    return hits;
+  }
+
+  public StatCounter getMisses() {
+    return misses;
+  }
+
+  public StatCounter getEvictions() {
+    return evictions;
+  }
+}
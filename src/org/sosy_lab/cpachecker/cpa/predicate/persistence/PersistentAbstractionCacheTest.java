@@ -0,0 +1,101 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.predicate.persistence;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.nio.file.Path;
+import java.util.Optional;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.util.predicates.smt.SolverViewBasedTest0;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+
+public class PersistentAbstractionCacheTest extends SolverViewBasedTest0 {
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private PersistentAbstractionCache createCache(Path pFile, int pMaxSize) {
+    return new PersistentAbstractionCache(
+        pFile, pMaxSize, "BOOLEAN", mgrv, LogManager.createTestLogManager());
+  }
+
+  @Test
+  public void testKeyIsIndependentOfPredicateOrder() throws Exception {
+    IntegerFormula x = imgr.makeVariable("x");
+    BooleanFormula f = imgr.greaterThan(x, imgr.makeNumber(0));
+    BooleanFormula p1 = imgr.equal(x, imgr.makeNumber(1));
+    BooleanFormula p2 = imgr.lessThan(x, imgr.makeNumber(5));
+
+    PersistentAbstractionCache cache =
+        createCache(tempFolder.getRoot().toPath().resolve("cache.txt"), 10);
+    assertThat(cache.computeKey(f, ImmutableList.of(p1, p2)))
+        .isEqualTo(cache.computeKey(f, ImmutableList.of(p2, p1)));
+    assertThat(cache.computeKey(f, ImmutableList.of(p1)))
+        .isNotEqualTo(cache.computeKey(f, ImmutableList.of(p1, p2)));
+  }
+
+  @Test
+  public void testStoreAndReload() throws Exception {
+    Path file = tempFolder.getRoot().toPath().resolve("cache.txt");
+    IntegerFormula x = imgr.makeVariable("x");
+    BooleanFormula f = imgr.greaterThan(x, imgr.makeNumber(0));
+    BooleanFormula p = imgr.lessThan(x, imgr.makeNumber(5));
+    BooleanFormula abstraction = bmgr.and(p, imgr.greaterThan(x, imgr.makeNumber(0)));
+
+    PersistentAbstractionCache cache = createCache(file, 10);
+    String key = cache.computeKey(f, ImmutableList.of(p));
+    assertThat(cache.get(key)).isEqualTo(Optional.empty());
+    cache.put(key, abstraction);
+    cache.store();
+
+    PersistentAbstractionCache reloaded = createCache(file, 10);
+    assertThat(reloaded.getNumberOfLoadedEntries()).isEqualTo(1);
+    Optional<BooleanFormula> result = reloaded.get(key);
+    assertThat(result.isPresent()).isTrue();
+    assertThatFormula(result.get()).isEquivalentTo(abstraction);
+    assertThat(reloaded.getHits().getValue()).isEqualTo(1);
+  }
+
+  @Test
+  public void testEviction() throws Exception {
+    IntegerFormula x = imgr.makeVariable("x");
+    PersistentAbstractionCache cache =
+        createCache(tempFolder.getRoot().toPath().resolve("cache.txt"), 2);
+
+    for (int i = 0; i < 3; i++) {
+      BooleanFormula f = imgr.greaterThan(x, imgr.makeNumber(i));
+      cache.put(cache.computeKey(f, ImmutableList.of()), f);
+    }
+
+    assertThat(cache.getSize()).isEqualTo(2);
+    assertThat(cache.getEvictions().getValue()).isEqualTo(1);
+    BooleanFormula first = imgr.greaterThan(x, imgr.makeNumber(0));
+    assertThat(cache.get(cache.computeKey(first, ImmutableList.of())).isPresent()).isFalse();
+  }
+}
@@ -29,6 +29,7 @@ import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.smg.join.SMGIsLessOrEqual;
+import org.sosy_lab.cpachecker.cpa.smg.join.SMGJoin;
 
 public class SMGStatistics implements Statistics {
 
@@ -38,6 +39,8 @@ public class SMGStatistics implements Statistics {
     put(pOut, 1, SMGIsLessOrEqual.globalsTimer);
     put(pOut, 1, SMGIsLessOrEqual.stackTimer);
     put(pOut, 1, SMGIsLessOrEqual.heapTimer);
+    put(pOut, 1, SMGIsLessOrEqual.fingerprintMismatches);
+    put(pOut, 0, SMGJoin.fingerprintMismatches);
   }
 
   @Override
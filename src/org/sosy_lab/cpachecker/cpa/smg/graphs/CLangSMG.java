@@ -88,6 +88,9 @@ public class CLangSMG extends SMG {
    */
   private PersistentMap<String, SMGRegion> global_objects;
 
+  /** A structural summary of heap, globals, and stack, updated together with them */
+  private CLangSMGFingerprint fingerprint;
+
   /** logger is always NULL, except for JUnit-tests */
   private static LogManager logger = null;
 
@@ -164,7 +167,8 @@ public class CLangSMG extends SMG {
     super(pMachineModel);
     global_objects = PathCopyingPersistentTreeMap.of();
     heap_objects = PersistentSet.of();
-    heap_objects = heap_objects.addAndCopy(SMGNullObject.INSTANCE);
+    fingerprint = new CLangSMGFingerprint();
+    addToHeap(SMGNullObject.INSTANCE);
   }
 
   /**
@@ -180,6 +184,7 @@ public class CLangSMG extends SMG {
     stack_objects = pHeap.stack_objects;
     heap_objects = pHeap.heap_objects;
     global_objects = pHeap.global_objects;
+    fingerprint = new CLangSMGFingerprint(pHeap.fingerprint);
   }
 
   /**
@@ -196,10 +201,31 @@ public class CLangSMG extends SMG {
     if (CLangSMG.performChecks() && heap_objects.contains(pObject)) {
       throw new IllegalArgumentException("Heap object already in the SMG: [" + pObject + "]");
     }
-    heap_objects = heap_objects.addAndCopy(pObject);
+    addToHeap(pObject);
     addObject(pObject);
   }
 
+  private void addToHeap(SMGObject pObject) {
+    if (!heap_objects.contains(pObject)) {
+      heap_objects = heap_objects.addAndCopy(pObject);
+      fingerprint.addHeapObject(pObject);
+    }
+  }
+
+  private void removeFromHeap(SMGObject pObject) {
+    if (heap_objects.contains(pObject)) {
+      heap_objects = heap_objects.removeAndCopy(pObject);
+      fingerprint.removeHeapObject(pObject);
+    }
+  }
+
+  private void putGlobal(String pName, SMGRegion pObject) {
+    if (!global_objects.containsKey(pName)) {
+      fingerprint.addGlobalVariable(pName);
+    }
+    global_objects = global_objects.putAndCopy(pName, pObject);
+  }
+
   /**
    * Add a global object to the SMG
    *
@@ -220,7 +246,7 @@ public class CLangSMG extends SMG {
       throw new IllegalArgumentException("Global object with label [" + pObject.getLabel() + "] already in the SMG");
     }
 
-    global_objects = global_objects.putAndCopy(pObject.getLabel(), pObject);
+    putGlobal(pObject.getLabel(), pObject);
     super.addObject(pObject);
   }
 
@@ -243,6 +269,7 @@ public class CLangSMG extends SMG {
     CLangStackFrame top = stack_objects.peek();
     Preconditions.checkArgument(!top.hasVariable(pObject.getLabel()), "object with same label cannot be added twice");
     stack_objects = stack_objects.popAndCopy().pushAndCopy(top.addStackVariable(pObject.getLabel(), pObject));
+    fingerprint.addStackVariable(pObject.getLabel());
   }
 
   public boolean isStackEmpty() {
@@ -265,6 +292,7 @@ public class CLangSMG extends SMG {
       super.addObject(newFrame.getReturnObject());
     }
     stack_objects = stack_objects.pushAndCopy(newFrame);
+    fingerprint.pushStackFrame(newFrame);
   }
 
   /**
@@ -280,6 +308,7 @@ public class CLangSMG extends SMG {
   public void dropStackFrame() {
     CLangStackFrame frame = stack_objects.peek();
     stack_objects = stack_objects.popAndCopy();
+    fingerprint.popStackFrame(frame);
     for (SMGObject object : frame.getAllObjects()) {
       removeObjectAndEdges(object);
     }
@@ -335,7 +364,7 @@ public class CLangSMG extends SMG {
           unreachableObjects.add(stray_object);
         }
         removeObjectAndEdges(stray_object);
-        heap_objects = heap_objects.removeAndCopy(stray_object);
+        removeFromHeap(stray_object);
       }
     }
 
@@ -511,6 +540,16 @@ public class CLangSMG extends SMG {
     return global_objects;
   }
 
+  /**
+   * Returns a structural summary of this SMG that allows to rule out
+   * {@link org.sosy_lab.cpachecker.cpa.smg.join.SMGIsLessOrEqual} and
+   * {@link org.sosy_lab.cpachecker.cpa.smg.join.SMGJoin} cheaply.
+   * The fingerprint is mutable and changes with this SMG.
+   */
+  public CLangSMGFingerprint getFingerprint() {
+    return fingerprint;
+  }
+
   /**
    * Constant.
    *
@@ -543,7 +582,7 @@ public class CLangSMG extends SMG {
   }
 
   final public void removeHeapObjectAndEdges(SMGObject pObject) {
-    heap_objects = heap_objects.removeAndCopy(pObject);
+    removeFromHeap(pObject);
     removeObjectAndEdges(pObject);
   }
 
@@ -861,6 +900,7 @@ public class CLangSMG extends SMG {
   public void clearObjects() {
     global_objects = PathCopyingPersistentTreeMap.of();
     heap_objects = PersistentSet.of();
+    fingerprint = new CLangSMGFingerprint();
     super.clearObjects();
 
     // clear objects, but keep functions on the stack
@@ -875,9 +915,12 @@ public class CLangSMG extends SMG {
       }
     }
     stack_objects = newStack;
+    for (CLangStackFrame frame : stack_objects) {
+      fingerprint.pushStackFrame(frame);
+    }
 
     /*May not remove null object.*/
-    heap_objects = heap_objects.addAndCopy(SMGNullObject.INSTANCE);
+    addToHeap(SMGNullObject.INSTANCE);
   }
 
   public Map<SMGObject, SMGMemoryPath> getHeapObjectMemoryPaths() {
@@ -989,6 +1032,7 @@ public class CLangSMG extends SMG {
 
     SMGObject obj = global_objects.get(pVariable);
     global_objects = global_objects.removeAndCopy(pVariable);
+    fingerprint.removeGlobalVariable(pVariable);
 
     removeObjectAndEdges(obj);
   }
@@ -1064,6 +1108,7 @@ public class CLangSMG extends SMG {
     SMGStateInformation info = createInfo ? createStateInfo(reg) : null; // lazy
 
     stack_objects = stack_objects.replace(f -> f == frame, frame.removeVariable(variableName));
+    fingerprint.removeStackVariable(variableName);
 
     removeObjectAndEdges(reg);
 
@@ -1099,10 +1144,14 @@ public class CLangSMG extends SMG {
 
     if (pMemoryLocation.isOnFunctionStack()) {
       CLangStackFrame frame = getFrame(pMemoryLocation);
+      String variableName = pMemoryLocation.getIdentifier();
+      if (!frame.containsVariable(variableName)) {
+        fingerprint.addStackVariable(variableName);
+      }
       stack_objects = stack_objects.replace(
-          f -> f == frame, frame.addStackVariable(pMemoryLocation.getIdentifier(), pRegion));
+          f -> f == frame, frame.addStackVariable(variableName, pRegion));
     } else {
-      global_objects = global_objects.putAndCopy(pRegion.getLabel(), pRegion);
+      putGlobal(pRegion.getLabel(), pRegion);
     }
 
     addObject(pRegion, pInfo.isValid(), pInfo.isExternal());
@@ -0,0 +1,174 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.smg.graphs;
+
+import java.util.Arrays;
+import org.sosy_lab.cpachecker.cpa.smg.CLangStackFrame;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGAbstractList;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObjectKind;
+
+/**
+ * A cheap structural summary of a {@link CLangSMG} that is updated together with the heap, the
+ * global variables, and the stack of the SMG.
+ *
+ * <p>All components are sums over the respective elements, thus they can be updated in constant
+ * time when an element is added or removed, and equal sets of elements always lead to equal
+ * components. The checks {@link #mayBeLessOrEqual} and {@link #mayBeJoinable} only compare
+ * components that must be equal for the respective operation to succeed, so a failed check
+ * proves that the full comparison fails, too.
+ */
+public final class CLangSMGFingerprint {
+
+  /** number of heap objects per {@link SMGObjectKind} */
+  private final int[] heapObjectsByKind;
+
+  /** sum of the ids of all heap objects */
+  private int heapObjectIds;
+
+  /** sum of the minimal lengths of all list segments on the heap */
+  private int listSegmentMinLengths;
+
+  private int globalVariables;
+  private int globalVariableNames;
+
+  private int stackFrames;
+  private int stackFunctionNames;
+  private int stackVariables;
+  private int stackVariableNames;
+
+  CLangSMGFingerprint() {
+    heapObjectsByKind = new int[SMGObjectKind.values().length];
+  }
+
+  CLangSMGFingerprint(CLangSMGFingerprint pOther) {
+    heapObjectsByKind = pOther.heapObjectsByKind.clone();
+    heapObjectIds = pOther.heapObjectIds;
+    listSegmentMinLengths = pOther.listSegmentMinLengths;
+    globalVariables = pOther.globalVariables;
+    globalVariableNames = pOther.globalVariableNames;
+    stackFrames = pOther.stackFrames;
+    stackFunctionNames = pOther.stackFunctionNames;
+    stackVariables = pOther.stackVariables;
+    stackVariableNames = pOther.stackVariableNames;
+  }
+
+  void addHeapObject(SMGObject pObject) {
+    updateHeapObject(pObject, 1);
+  }
+
+  void removeHeapObject(SMGObject pObject) {
+    updateHeapObject(pObject, -1);
+  }
+
+  private void updateHeapObject(SMGObject pObject, int pSign) {
+    heapObjectsByKind[pObject.getKind().ordinal()] += pSign;
+    heapObjectIds += pSign * pObject.getId();
+    if (pObject instanceof SMGAbstractList) {
+      listSegmentMinLengths += pSign * ((SMGAbstractList<?>) pObject).getMinimumLength();
+    }
+  }
+
+  void addGlobalVariable(String pName) {
+    globalVariables++;
+    globalVariableNames += pName.hashCode();
+  }
+
+  void removeGlobalVariable(String pName) {
+    globalVariables--;
+    globalVariableNames -= pName.hashCode();
+  }
+
+  void pushStackFrame(CLangStackFrame pFrame) {
+    stackFrames++;
+    stackFunctionNames += functionNameOf(pFrame).hashCode();
+    for (String variable : pFrame.getVariables().keySet()) {
+      addStackVariable(variable);
+    }
+  }
+
+  void popStackFrame(CLangStackFrame pFrame) {
+    stackFrames--;
+    stackFunctionNames -= functionNameOf(pFrame).hashCode();
+    for (String variable : pFrame.getVariables().keySet()) {
+      removeStackVariable(variable);
+    }
+  }
+
+  private static String functionNameOf(CLangStackFrame pFrame) {
+    return pFrame.getFunctionDeclaration().getOrigName();
+  }
+
+  void addStackVariable(String pName) {
+    stackVariables++;
+    stackVariableNames += pName.hashCode();
+  }
+
+  void removeStackVariable(String pName) {
+    stackVariables--;
+    stackVariableNames -= pName.hashCode();
+  }
+
+  /**
+   * Returns false if the SMG of this fingerprint is definitely not less or equal to the SMG of
+   * the other fingerprint. Less or equal requires the same heap objects, the same functions on
+   * the stack, and a subset of the variables.
+   */
+  public boolean mayBeLessOrEqual(CLangSMGFingerprint pOther) {
+    return heapObjectIds == pOther.heapObjectIds
+        && listSegmentMinLengths == pOther.listSegmentMinLengths
+        && Arrays.equals(heapObjectsByKind, pOther.heapObjectsByKind)
+        && stackFrames == pOther.stackFrames
+        && stackFunctionNames == pOther.stackFunctionNames
+        && globalVariables <= pOther.globalVariables
+        && stackVariables <= pOther.stackVariables;
+  }
+
+  /**
+   * Returns false if the SMGs of both fingerprints definitely cannot be joined. A join requires
+   * the same global variables and, if the stacks have the same height, the same local variables
+   * in each stack frame.
+   */
+  public boolean mayBeJoinable(CLangSMGFingerprint pOther) {
+    if (globalVariables != pOther.globalVariables
+        || globalVariableNames != pOther.globalVariableNames) {
+      return false;
+    }
+    return stackFrames != pOther.stackFrames
+        || (stackVariables == pOther.stackVariables
+            && stackVariableNames == pOther.stackVariableNames);
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "heap: %s (ids %d, min. list length %d), globals: %d, frames: %d, locals: %d",
+        Arrays.toString(heapObjectsByKind),
+        heapObjectIds,
+        listSegmentMinLengths,
+        globalVariables,
+        stackFrames,
+        stackVariables);
+  }
+}
@@ -419,4 +419,39 @@ public class CLangSMGTest {
     smg.addStackObject(obj2);
     Assert.assertTrue(CLangSMGConsistencyVerifier.verifyCLangSMG(logger, smg));
   }
+
+  @Test
+  public void CLangSMGFingerprintTest() {
+    CLangSMG smg1 = getNewCLangSMG64();
+    CLangSMG smg2 = getNewCLangSMG64();
+    SMGRegion global = new SMGRegion(64, "global");
+    SMGRegion local = new SMGRegion(64, "local");
+    SMGRegion heap = new SMGRegion(64, "heap");
+
+    smg1.addGlobalObject(global);
+    smg1.addStackFrame(sf.getFunctionDeclaration());
+    smg1.addStackObject(local);
+    smg2.addStackFrame(sf.getFunctionDeclaration());
+    smg2.addStackObject(local);
+    smg2.addGlobalObject(global);
+    assertThat(smg1.getFingerprint().mayBeLessOrEqual(smg2.getFingerprint())).isTrue();
+    assertThat(smg1.getFingerprint().mayBeJoinable(smg2.getFingerprint())).isTrue();
+
+    smg1.addHeapObject(heap);
+    assertThat(smg1.getFingerprint().mayBeLessOrEqual(smg2.getFingerprint())).isFalse();
+    assertThat(smg1.getFingerprint().mayBeJoinable(smg2.getFingerprint())).isTrue();
+
+    CLangSMG copy = new CLangSMG(smg1);
+    copy.removeHeapObjectAndEdges(heap);
+    assertThat(copy.getFingerprint().mayBeLessOrEqual(smg2.getFingerprint())).isTrue();
+    assertThat(smg1.getFingerprint().mayBeLessOrEqual(smg2.getFingerprint())).isFalse();
+
+    smg2.removeGlobalVariableAndEdges("global");
+    assertThat(smg2.getFingerprint().mayBeLessOrEqual(copy.getFingerprint())).isTrue();
+    assertThat(copy.getFingerprint().mayBeLessOrEqual(smg2.getFingerprint())).isFalse();
+    assertThat(copy.getFingerprint().mayBeJoinable(smg2.getFingerprint())).isFalse();
+
+    copy.dropStackFrame();
+    assertThat(copy.getFingerprint().mayBeLessOrEqual(smg2.getFingerprint())).isFalse();
+  }
 }
@@ -36,6 +36,7 @@ import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgeHasValueFilter;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgePointsTo;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGRegion;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
 import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer;
 import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
 
@@ -53,6 +54,8 @@ public class SMGIsLessOrEqual {
       new ThreadSafeTimerContainer("Time for joining stacks");
   public static final ThreadSafeTimerContainer heapTimer =
       new ThreadSafeTimerContainer("Time for joining heaps");
+  public static final StatCounter fingerprintMismatches =
+      new StatCounter("Comparisons avoided by fingerprint");
 
   private SMGIsLessOrEqual() {} // Utility class.
 
@@ -72,6 +75,12 @@ public class SMGIsLessOrEqual {
         return true;
       }
 
+      // differing heaps, stack layouts, or additional variables in smg1 show up in the fingerprint
+      if (!pSMG1.getFingerprint().mayBeLessOrEqual(pSMG2.getFingerprint())) {
+        fingerprintMismatches.inc();
+        return false;
+      }
+
       // if smg1 has not allocated the same number of SMGObjects in the heap, it is not equal to smg2
       if (pSMG1.getHeapObjects().size() != pSMG2.getHeapObjects().size()) {
         return false;
@@ -33,18 +33,29 @@ import org.sosy_lab.cpachecker.cpa.smg.SMGState;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.CLangSMG;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGRegion;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
 
 final public class SMGJoin {
   static public void performChecks(boolean pOn) {
     SMGJoinSubSMGs.performChecks(pOn);
   }
 
+  public static final StatCounter fingerprintMismatches =
+      new StatCounter("Joins avoided by fingerprint");
+
   private boolean defined = false;
   private SMGJoinStatus status = SMGJoinStatus.EQUAL;
   private final CLangSMG smg;
   SMGLevelMapping levelMap = SMGLevelMapping.createDefaultLevelMap();
 
   public SMGJoin(CLangSMG pSMG1, CLangSMG pSMG2, SMGState pStateOfSmg1, SMGState pStateOfSmg2) throws SMGInconsistentException {
+    if (!pSMG1.getFingerprint().mayBeJoinable(pSMG2.getFingerprint())) {
+      // differing global or local variables, the join below would be undefined anyway
+      fingerprintMismatches.inc();
+      smg = new CLangSMG(pSMG1.getMachineModel());
+      return;
+    }
+
     CLangSMG opSMG1 = new CLangSMG(pSMG1);
     CLangSMG opSMG2 = new CLangSMG(pSMG2);
     smg = new CLangSMG(opSMG1.getMachineModel());
@@ -567,16 +567,16 @@ public abstract class AbstractExpressionValueVisitor
     switch (type.getType()) {
       case INT: {
         // Both l and r must be of the same type, which in this case is INT, so we can cast to long.
-        long lVal = lNum.getNumber().longValue();
-        long rVal = rNum.getNumber().longValue();
+        long lVal = lNum.longValue();
+        long rVal = rNum.longValue();
         long result = arithmeticOperation(lVal, rVal, op, calculationType, machineModel, logger);
-        return new NumericValue(result);
+        return NumericValue.valueOf(result);
       }
       case DOUBLE: {
         double lVal = lNum.doubleValue();
         double rVal = rNum.doubleValue();
         double result = arithmeticOperation(lVal, rVal, op, calculationType, machineModel, logger);
-        return new NumericValue(result);
+        return NumericValue.valueOf(result);
       }
       case FLOAT: {
         float lVal = lNum.floatValue();
@@ -622,7 +622,7 @@ public abstract class AbstractExpressionValueVisitor
         float rVal = r.floatValue();
 
         if (Float.isNaN(lVal) || Float.isNaN(rVal)) {
-          return new NumericValue(op == BinaryOperator.NOT_EQUALS ? 1L : 0L);
+          return NumericValue.valueOf(op == BinaryOperator.NOT_EQUALS ? 1L : 0L);
         }
         if (lVal == 0 && rVal == 0) {
           cmp = 0;
@@ -636,7 +636,7 @@ public abstract class AbstractExpressionValueVisitor
         double rVal = r.doubleValue();
 
         if (Double.isNaN(lVal) || Double.isNaN(rVal)) {
-          return new NumericValue(op == BinaryOperator.NOT_EQUALS ? 1L : 0L);
+          return NumericValue.valueOf(op == BinaryOperator.NOT_EQUALS ? 1L : 0L);
         }
 
         if (lVal == 0 && rVal == 0) {
@@ -653,7 +653,7 @@ public abstract class AbstractExpressionValueVisitor
     }
 
     // return 1 if expression holds, 0 otherwise
-    return new NumericValue(matchBooleanOperation(op, cmp) ? 1L : 0L);
+    return NumericValue.valueOf(matchBooleanOperation(op, cmp) ? 1L : 0L);
   }
 
   /** returns True, iff cmp fulfills the boolean operation. */
@@ -1341,7 +1341,7 @@ public abstract class AbstractExpressionValueVisitor
 
   @Override
   public Value visit(CCharLiteralExpression pE) throws UnrecognizedCCodeException {
-    return new NumericValue((long) pE.getCharacter());
+    return NumericValue.valueOf((long) pE.getCharacter());
   }
 
   @Override
@@ -1432,7 +1432,7 @@ public abstract class AbstractExpressionValueVisitor
       return numericValue.negate();
 
     case TILDE:
-      return new NumericValue(~(numericValue).longValue());
+      return NumericValue.valueOf(~numericValue.longValue());
 
     default:
       throw new AssertionError("unknown operator: " + unaryOperator);
@@ -1472,7 +1472,7 @@ public abstract class AbstractExpressionValueVisitor
 
   @Override
   public Value visit(JCharLiteralExpression pE) {
-    return new NumericValue((long) pE.getCharacter());
+    return NumericValue.valueOf((long) pE.getCharacter());
   }
 
   @Override
@@ -2284,7 +2284,11 @@ public abstract class AbstractExpressionValueVisitor
             }
           }
 
-          return new NumericValue(result);
+          if (result == longValue && numericValue.hasLongNumber()) {
+            // value already fits into the type, avoid creating a new equal object
+            return numericValue;
+          }
+          return NumericValue.valueOf(result);
 
         } else if (size == SIZE_OF_JAVA_LONG) {
           // we can handle this with java-type "long", because the bitwise representation is correct.
@@ -2292,7 +2296,10 @@ public abstract class AbstractExpressionValueVisitor
           if (!targetIsSigned && longValue < 0) {
             return new NumericValue(BigInteger.valueOf(longValue).andNot(BigInteger.valueOf(-1).shiftLeft(size)));
           }
-          return new NumericValue(longValue);
+          if (numericValue.hasLongNumber()) {
+            return numericValue;
+          }
+          return NumericValue.valueOf(longValue);
 
         } else {
           // java-type "long" is too small for really big types like 'int128',
@@ -2353,7 +2360,8 @@ public abstract class AbstractExpressionValueVisitor
           result = new NumericValue((float) doubleValue);
         } else if (size == SIZE_OF_JAVA_DOUBLE) {
           // 64 bit means Java double
-          result = new NumericValue(doubleValue);
+          result =
+              numericValue.hasDoubleNumber() ? numericValue : NumericValue.valueOf(doubleValue);
         } else {
           throw new AssertionError("Trying to cast to unsupported floating point type: " + st);
         }
@@ -24,6 +24,8 @@
 package org.sosy_lab.cpachecker.cpa.value;
 
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import java.io.IOException;
@@ -36,6 +38,7 @@ import java.util.Map;
 import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
@@ -67,6 +70,7 @@ import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+import org.sosy_lab.cpachecker.core.interfaces.ThreadSafeCPA;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker.ProofCheckerCPA;
 import org.sosy_lab.cpachecker.cpa.arg.path.ARGPath;
 import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisPrecisionAdjustment.PrecAdjustmentOptions;
@@ -82,7 +86,7 @@ import org.sosy_lab.cpachecker.util.states.MemoryLocationValueHandler;
 @Options(prefix = "cpa.value")
 public class ValueAnalysisCPA
     implements ConfigurableProgramAnalysisWithBAM, StatisticsProvider, ProofCheckerCPA,
-        ConfigurableProgramAnalysisWithConcreteCex {
+        ConfigurableProgramAnalysisWithConcreteCex, ThreadSafeCPA {
 
   @Option(secure=true, name="merge", toUppercase=true, values={"SEP", "JOIN"},
       description="which merge operator to use for ValueAnalysisCPA")
@@ -96,6 +100,15 @@ public class ValueAnalysisCPA
   @FileOption(FileOption.Type.OPTIONAL_INPUT_FILE)
   private Path initialPrecisionFile = null;
 
+  @Option(
+    secure = true,
+    description =
+        "share structurally equal abstract states by interning them in a weak intern table, "
+            + "this reduces memory usage and makes equality and coverage checks of "
+            + "equal states cheap"
+  )
+  private boolean internStates = false;
+
   public static CPAFactory factory() {
     return AutomaticCPAFactory.forType(ValueAnalysisCPA.class);
   }
@@ -119,6 +132,7 @@ public class ValueAnalysisCPA
   private final ValueTransferOptions transferOptions;
   private final PrecAdjustmentOptions precisionAdjustmentOptions;
   private final PrecAdjustmentStatistics precisionAdjustmentStatistics;
+  private final @Nullable Interner<ValueAnalysisState> stateInterner;
 
   private ValueAnalysisCPA(Configuration config, LogManager logger,
       ShutdownNotifier pShutdownNotifier, CFA cfa) throws InvalidConfigurationException {
@@ -139,6 +153,7 @@ public class ValueAnalysisCPA
     transferOptions = new ValueTransferOptions(config);
     precisionAdjustmentOptions = new PrecAdjustmentOptions(config, cfa);
     precisionAdjustmentStatistics = new PrecAdjustmentStatistics();
+    stateInterner = internStates ? Interners.newWeakInterner() : null;
   }
 
   private VariableTrackingPrecision initializePrecision(Configuration pConfig, CFA pCfa) throws InvalidConfigurationException {
@@ -277,7 +292,11 @@ public class ValueAnalysisCPA
   @Override
   public PrecisionAdjustment getPrecisionAdjustment() {
     return new ValueAnalysisPrecisionAdjustment(
-        statistics, cfa, precisionAdjustmentOptions, precisionAdjustmentStatistics);
+        statistics,
+        cfa,
+        precisionAdjustmentOptions,
+        precisionAdjustmentStatistics,
+        stateInterner);
   }
 
   public Configuration getConfiguration() {
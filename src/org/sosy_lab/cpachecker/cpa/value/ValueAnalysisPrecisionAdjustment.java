@@ -27,10 +27,12 @@ import static com.google.common.base.Preconditions.checkState;
 
 import com.google.common.base.Function;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Interner;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.PrintStream;
 import java.util.Map.Entry;
 import java.util.Optional;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -156,6 +158,8 @@ public class ValueAnalysisPrecisionAdjustment implements PrecisionAdjustment {
   public static class PrecAdjustmentStatistics implements Statistics {
 
     final StatCounter abstractions = new StatCounter("Number of abstraction computations");
+    private final StatCounter internedStates =
+        new StatCounter("Number of states replaced by an equal interned state");
     private final ThreadSafeTimerContainer totalLivenessTimer =
         new ThreadSafeTimerContainer("Total time for liveness abstraction");
     private final ThreadSafeTimerContainer totalAbstractionTimer =
@@ -170,6 +174,7 @@ public class ValueAnalysisPrecisionAdjustment implements PrecisionAdjustment {
       writer.put(totalLivenessTimer);
       writer.put(totalAbstractionTimer);
       writer.put(totalEnforcePathTimer);
+      writer.putIfUpdatedAtLeastOnce(internedStates);
     }
 
     @Override
@@ -181,9 +186,11 @@ public class ValueAnalysisPrecisionAdjustment implements PrecisionAdjustment {
   private final ValueAnalysisCPAStatistics stats;
   private final PrecAdjustmentOptions options;
   private final Optional<LiveVariables> liveVariables;
+  private final @Nullable Interner<ValueAnalysisState> stateInterner;
 
   // for statistics
   private final StatCounter abstractions;
+  private final StatCounter internedStates;
   private final TimerWrapper totalLiveness;
   private final TimerWrapper totalAbstraction;
   private final TimerWrapper totalEnforcePath;
@@ -195,13 +202,16 @@ public class ValueAnalysisPrecisionAdjustment implements PrecisionAdjustment {
       final ValueAnalysisCPAStatistics pStats,
       final CFA pCfa,
       final PrecAdjustmentOptions pOptions,
-      final PrecAdjustmentStatistics pStatistics) {
+      final PrecAdjustmentStatistics pStatistics,
+      final @Nullable Interner<ValueAnalysisState> pStateInterner) {
 
     options = pOptions;
     stats = pStats;
     liveVariables = pCfa.getLiveVariables();
+    stateInterner = pStateInterner;
 
     abstractions = pStatistics.abstractions;
+    internedStates = pStatistics.internedStates;
     totalLiveness = pStatistics.totalLivenessTimer.getNewTimer();
     totalAbstraction = pStatistics.totalAbstractionTimer.getNewTimer();
     totalEnforcePath = pStatistics.totalEnforcePathTimer.getNewTimer();
@@ -247,6 +257,16 @@ public class ValueAnalysisPrecisionAdjustment implements PrecisionAdjustment {
 
     resultState = resultState.equals(pState) ? pState : resultState;
 
+    // this is the last step before the state is added to the reached set,
+    // so from now on the state is not modified anymore and can be shared
+    if (stateInterner != null) {
+      ValueAnalysisState canonicalState = resultState.intern(stateInterner);
+      if (canonicalState != resultState) {
+        internedStates.inc();
+        resultState = canonicalState;
+      }
+    }
+
     return Optional.of(PrecisionAdjustmentResult.create(resultState, pPrecision, Action.CONTINUE));
   }
 
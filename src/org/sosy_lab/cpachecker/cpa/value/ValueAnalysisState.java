@@ -28,6 +28,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
+import com.google.common.collect.Interner;
 import java.io.Serializable;
 import java.math.BigInteger;
 import java.util.ArrayList;
@@ -54,6 +55,7 @@ import org.sosy_lab.cpachecker.core.interfaces.AbstractQueryableState;
 import org.sosy_lab.cpachecker.core.interfaces.FormulaReportingState;
 import org.sosy_lab.cpachecker.core.interfaces.Graphable;
 import org.sosy_lab.cpachecker.core.interfaces.PseudoPartitionable;
+import org.sosy_lab.cpachecker.core.interfaces.SubsumptionIndexable;
 import org.sosy_lab.cpachecker.cpa.value.refiner.ValueAnalysisInterpolant;
 import org.sosy_lab.cpachecker.cpa.value.symbolic.type.ConstantSymbolicExpression;
 import org.sosy_lab.cpachecker.cpa.value.symbolic.type.SymbolicIdentifier;
@@ -77,7 +79,7 @@ import org.sosy_lab.java_smt.api.FormulaType.FloatingPointType;
 public class ValueAnalysisState
     implements AbstractQueryableState, FormulaReportingState,
         ForgetfulState<ValueAnalysisInformation>, Serializable, Graphable,
-        LatticeAbstractState<ValueAnalysisState>, PseudoPartitionable {
+        LatticeAbstractState<ValueAnalysisState>, PseudoPartitionable, SubsumptionIndexable {
 
   private static final long serialVersionUID = -3152134511524554358L;
 
@@ -94,6 +96,12 @@ public class ValueAnalysisState
 
   private final @Nullable MachineModel machineModel;
 
+  /** cached hash code of the constants map, 0 if not yet computed */
+  private transient int hashCode = 0;
+
+  /** whether this state is a canonical instance of an interner and thus must not be modified */
+  private transient boolean interned = false;
+
   public ValueAnalysisState(MachineModel pMachineModel) {
     this(
         checkNotNull(pMachineModel),
@@ -114,7 +122,9 @@ public class ValueAnalysisState
   }
 
   public static ValueAnalysisState copyOf(ValueAnalysisState state) {
-    return new ValueAnalysisState(state.machineModel, state.constantsMap);
+    ValueAnalysisState copy = new ValueAnalysisState(state.machineModel, state.constantsMap);
+    copy.hashCode = state.hashCode;
+    return copy;
   }
 
   /**
@@ -139,8 +149,26 @@ public class ValueAnalysisState
       valueToAdd = ((SymbolicValue) valueToAdd).copyForLocation(pMemLoc);
     }
 
-    constantsMap =
-        constantsMap.putAndCopy(pMemLoc, new ValueAndType(checkNotNull(valueToAdd), pType));
+    setConstantsMap(
+        constantsMap.putAndCopy(pMemLoc, new ValueAndType(checkNotNull(valueToAdd), pType)));
+  }
+
+  private void setConstantsMap(PersistentMap<MemoryLocation, ValueAndType> pConstantsMap) {
+    assert !interned : "modification of interned state " + this;
+    constantsMap = pConstantsMap;
+    hashCode = 0;
+  }
+
+  /**
+   * Return the state of the given interner that is equal to this state,
+   * which is either this state or an equal state that was interned before.
+   * Interned states are shared (e.g., between several ARG states)
+   * and must not be modified anymore, but can be compared cheaply.
+   */
+  ValueAnalysisState intern(Interner<ValueAnalysisState> pInterner) {
+    ValueAnalysisState canonical = pInterner.intern(this);
+    canonical.interned = true;
+    return canonical;
   }
 
   /**
@@ -212,7 +240,7 @@ public class ValueAnalysisState
     }
 
     ValueAndType value = constantsMap.get(pMemoryLocation);
-    constantsMap = constantsMap.removeAndCopy(pMemoryLocation);
+    setConstantsMap(constantsMap.removeAndCopy(pMemoryLocation));
 
     PersistentMap<MemoryLocation, ValueAndType> valueAssignment = PathCopyingPersistentTreeMap.of();
     valueAssignment = valueAssignment.putAndCopy(pMemoryLocation, value);
@@ -337,6 +365,10 @@ public class ValueAnalysisState
    */
   @Override
   public ValueAnalysisState join(ValueAnalysisState reachedState) {
+    if (this == reachedState) {
+      return reachedState;
+    }
+
     PersistentMap<MemoryLocation, ValueAndType> newConstantsMap = PathCopyingPersistentTreeMap.of();
 
     for (Entry<MemoryLocation, ValueAndType> otherEntry : reachedState.constantsMap.entrySet()) {
@@ -364,6 +396,9 @@ public class ValueAnalysisState
    */
   @Override
   public boolean isLessOrEqual(ValueAnalysisState other) {
+    if (this == other) {
+      return true;
+    }
 
     // also, this element is not less or equal than the other element, if it contains less elements
     if (constantsMap.size() < other.constantsMap.size()) {
@@ -407,12 +442,20 @@ public class ValueAnalysisState
     }
 
     ValueAnalysisState otherElement = (ValueAnalysisState) other;
+    if (hashCode != 0 && otherElement.hashCode != 0 && hashCode != otherElement.hashCode) {
+      return false;
+    }
     return otherElement.constantsMap.equals(constantsMap);
   }
 
   @Override
   public int hashCode() {
-    return constantsMap.hashCode();
+    int result = hashCode;
+    if (result == 0) {
+      result = constantsMap.hashCode();
+      hashCode = result;
+    }
+    return result;
   }
 
   @Override
@@ -729,7 +772,7 @@ public class ValueAnalysisState
   public void forgetValuesWithIdentifier(String pIdentifier) {
     for (MemoryLocation memoryLocation : constantsMap.keySet()) {
       if (memoryLocation.getIdentifier().equals(pIdentifier)) {
-        constantsMap = constantsMap.removeAndCopy(memoryLocation);
+        setConstantsMap(constantsMap.removeAndCopy(memoryLocation));
       }
     }
   }
@@ -784,6 +827,22 @@ public class ValueAnalysisState
     return this;
   }
 
+  /**
+   * Each assignment sets one bit, because a state can only be covered by states
+   * whose assignments are a subset of its own assignments (cf. {@link #isLessOrEqual}).
+   * As in {@link #isLessOrEqual}, the types of the values are ignored.
+   */
+  @Override
+  public long getSubsumptionSignature() {
+    long signature = 0;
+    for (Entry<MemoryLocation, ValueAndType> entry : constantsMap.entrySet()) {
+      int hash = 31 * entry.getKey().hashCode() + entry.getValue().getValue().hashCode();
+      hash ^= hash >>> 16;
+      signature |= 1L << (hash & 63);
+    }
+    return signature;
+  }
+
   public static class ValueAndType implements Serializable {
     private static final long serialVersionUID = 1L;
     private final Value value;
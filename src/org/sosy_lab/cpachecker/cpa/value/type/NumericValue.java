@@ -34,12 +34,28 @@ import org.sosy_lab.cpachecker.cfa.types.c.CType;
 
 /**
  * Stores a numeric value that can be tracked by the ValueAnalysisCPA.
+ *
+ * Values of type long and double should be created with {@link #valueOf(long)}
+ * and {@link #valueOf(double)}, which store the number without boxing it
+ * and share instances for common small integers.
+ * Such values behave exactly like values that store a {@link Long} or {@link Double}.
  */
 public class NumericValue implements Value, Serializable {
 
   private static final long serialVersionUID = -3829943575180448170L;
 
-  private Number number;
+  private static final int CACHE_LOW = -128;
+  private static final int CACHE_HIGH = 1024;
+
+  private static final NumericValue[] SMALL_VALUES = new NumericValue[CACHE_HIGH - CACHE_LOW + 1];
+
+  static {
+    for (int i = 0; i < SMALL_VALUES.length; i++) {
+      SMALL_VALUES[i] = new LongValue(i + CACHE_LOW);
+    }
+  }
+
+  private final Number number;
 
   /**
    * Creates a new <code>NumericValue</code>.
@@ -49,6 +65,30 @@ public class NumericValue implements Value, Serializable {
     number = pNumber;
   }
 
+  /** Constructor for subclasses that store their number as primitive value. */
+  private NumericValue() {
+    number = null;
+  }
+
+  /**
+   * Returns a <code>NumericValue</code> that is equal to <code>new NumericValue(pValue)</code>,
+   * but does not box the value and reuses instances for small values.
+   */
+  public static NumericValue valueOf(long pValue) {
+    if (pValue >= CACHE_LOW && pValue <= CACHE_HIGH) {
+      return SMALL_VALUES[(int) pValue - CACHE_LOW];
+    }
+    return new LongValue(pValue);
+  }
+
+  /**
+   * Returns a <code>NumericValue</code> that is equal to <code>new NumericValue(pValue)</code>,
+   * but does not box the value.
+   */
+  public static NumericValue valueOf(double pValue) {
+    return new DoubleValue(pValue);
+  }
+
   /**
    * Returns the number stored in the container.
    *
@@ -58,6 +98,16 @@ public class NumericValue implements Value, Serializable {
     return number;
   }
 
+  /** Returns whether the stored number is a {@link Long}, without boxing it. */
+  public boolean hasLongNumber() {
+    return number instanceof Long;
+  }
+
+  /** Returns whether the stored number is a {@link Double}, without boxing it. */
+  public boolean hasDoubleNumber() {
+    return number instanceof Double;
+  }
+
   /**
    * Returns the integer stored in the container as long. Before calling this function,
    * it must be ensured using `getType()` that this container contains an integer.
@@ -84,7 +134,7 @@ public class NumericValue implements Value, Serializable {
    * Returns a BigDecimal value representing the stored number.
    */
   public BigDecimal bigDecimalValue() {
-    return new BigDecimal(number.toString());
+    return new BigDecimal(getNumber().toString());
   }
 
   /* (non-Javadoc)
@@ -92,7 +142,7 @@ public class NumericValue implements Value, Serializable {
    */
   @Override
   public String toString() {
-    return "NumericValue [number=" + number + "]";
+    return "NumericValue [number=" + getNumber() + "]";
   }
 
   /**
@@ -225,6 +275,118 @@ public class NumericValue implements Value, Serializable {
     return number.hashCode();
   }
 
+  /** A {@link NumericValue} that stores a long without boxing it. */
+  private static final class LongValue extends NumericValue {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long value;
+
+    private LongValue(long pValue) {
+      value = pValue;
+    }
+
+    @Override
+    public Number getNumber() {
+      return value;
+    }
+
+    @Override
+    public boolean hasLongNumber() {
+      return true;
+    }
+
+    @Override
+    public boolean hasDoubleNumber() {
+      return false;
+    }
+
+    @Override
+    public long longValue() {
+      return value;
+    }
+
+    @Override
+    public float floatValue() {
+      return value;
+    }
+
+    @Override
+    public double doubleValue() {
+      return value;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (other instanceof LongValue) {
+        return value == ((LongValue) other).value;
+      }
+      return super.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(value);
+    }
+  }
+
+  /** A {@link NumericValue} that stores a double without boxing it. */
+  private static final class DoubleValue extends NumericValue {
+
+    private static final long serialVersionUID = 1L;
+
+    private final double value;
+
+    private DoubleValue(double pValue) {
+      value = pValue;
+    }
+
+    @Override
+    public Number getNumber() {
+      return value;
+    }
+
+    @Override
+    public boolean hasLongNumber() {
+      return false;
+    }
+
+    @Override
+    public boolean hasDoubleNumber() {
+      return true;
+    }
+
+    @Override
+    public long longValue() {
+      return (long) value;
+    }
+
+    @Override
+    public float floatValue() {
+      return (float) value;
+    }
+
+    @Override
+    public double doubleValue() {
+      return value;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (other instanceof DoubleValue) {
+        // same semantics as Double.equals
+        return Double.doubleToLongBits(value)
+            == Double.doubleToLongBits(((DoubleValue) other).value);
+      }
+      return super.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+      return Double.hashCode(value);
+    }
+  }
+
   public static class NegativeNaN extends Number {
 
     private static final long serialVersionUID = 1L;
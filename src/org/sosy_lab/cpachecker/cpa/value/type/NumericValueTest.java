@@ -0,0 +1,84 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.value.type;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+
+public class NumericValueTest {
+
+  private static final long[] LONGS = {
+    0, 1, -1, 42, -128, -129, 1024, 1025, Integer.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE
+  };
+
+  private static final double[] DOUBLES = {
+    0.0, -0.0, 1.5, -3.25, Double.NaN, Double.POSITIVE_INFINITY, Double.MIN_VALUE
+  };
+
+  @Test
+  public void testLongValueOf() {
+    for (long l : LONGS) {
+      NumericValue boxed = new NumericValue(l);
+      NumericValue primitive = NumericValue.valueOf(l);
+
+      assertThat(primitive).isEqualTo(boxed);
+      assertThat(boxed).isEqualTo(primitive);
+      assertThat(primitive.hashCode()).isEqualTo(boxed.hashCode());
+      assertThat(primitive.getNumber()).isEqualTo(boxed.getNumber());
+      assertThat(primitive.toString()).isEqualTo(boxed.toString());
+      assertThat(primitive.hasLongNumber()).isTrue();
+      assertThat(primitive.longValue()).isEqualTo(l);
+      assertThat(primitive.doubleValue()).isEqualTo(boxed.doubleValue());
+    }
+  }
+
+  @Test
+  public void testDoubleValueOf() {
+    for (double d : DOUBLES) {
+      NumericValue boxed = new NumericValue(d);
+      NumericValue primitive = NumericValue.valueOf(d);
+
+      assertThat(primitive).isEqualTo(boxed);
+      assertThat(boxed).isEqualTo(primitive);
+      assertThat(primitive.hashCode()).isEqualTo(boxed.hashCode());
+      assertThat(primitive.getNumber()).isEqualTo(boxed.getNumber());
+      assertThat(primitive.hasDoubleNumber()).isTrue();
+      assertThat(primitive.longValue()).isEqualTo(boxed.longValue());
+    }
+    assertThat(NumericValue.valueOf(0.0)).isNotEqualTo(NumericValue.valueOf(-0.0));
+  }
+
+  @Test
+  public void testDifferentNumberTypes() {
+    // same semantics as for boxed numbers of different types
+    assertThat(NumericValue.valueOf(1L)).isNotEqualTo(new NumericValue(1));
+    assertThat(NumericValue.valueOf(1L)).isNotEqualTo(NumericValue.valueOf(1.0));
+  }
+
+  @Test
+  public void testSmallValuesAreShared() {
+    assertThat(NumericValue.valueOf(7L)).isSameAs(NumericValue.valueOf(7L));
+  }
+}
@@ -40,6 +40,7 @@ import java.util.logging.Level;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -53,6 +54,7 @@ import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.PCCStrategy;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.exceptions.ValidationConfigurationConstructionFailed;
+import org.sosy_lab.cpachecker.pcc.strategy.partitioning.PartitionedCertificate;
 import org.sosy_lab.cpachecker.pcc.util.ProofStatesInfoCollector;
 import org.sosy_lab.cpachecker.pcc.util.ValidationConfigurationBuilder;
 import org.sosy_lab.cpachecker.util.Triple;
@@ -96,7 +98,6 @@ public abstract class AbstractStrategy implements PCCStrategy, StatisticsProvide
   }
 
   @Override
-  @SuppressFBWarnings(value="OS_OPEN_STREAM", justification="Do not close stream o because it wraps stream zos/fos which need to remain open and would be closed if o.close() is called.")
   public void writeProof(UnmodifiableReachedSet pReached) {
 
     Path dir = proofFile.getParent();
@@ -106,44 +107,9 @@ public abstract class AbstractStrategy implements PCCStrategy, StatisticsProvide
         Files.createDirectories(dir);
       }
 
-      try (final OutputStream fos = Files.newOutputStream(proofFile);
-          final ZipOutputStream zos = new ZipOutputStream(fos)) {
-        zos.setLevel(9);
-
-        ZipEntry ze = new ZipEntry(PROOF_ZIPENTRY_NAME);
-        zos.putNextEntry(ze);
-        ObjectOutputStream o = new ObjectOutputStream(zos);
-        //TODO might also want to write used configuration to the file so that proof checker does not need to get it as an argument
-        //write ARG
-        writeProofToStream(o, pReached);
-        o.flush();
-        zos.closeEntry();
-
-        // write additional proof information
-        int index = 0;
-        boolean continueWriting;
-        do {
-          ze = new ZipEntry(ADDITIONAL_PROOFINFO_ZIPENTRY_NAME + index);
-          zos.putNextEntry(ze);
-          o = new ObjectOutputStream(zos);
-          continueWriting = writeAdditionalProofStream(o);
-          o.flush();
-          zos.closeEntry();
-          index++;
-        } while (continueWriting);
-
-        if (storeConfig) {
-          ze = new ZipEntry(CONFIG_ZIPENTRY_NAME);
-          zos.putNextEntry(ze);
-          o = new ObjectOutputStream(zos);
-          try {
-            writeConfiguration(o);
-          } catch (ValidationConfigurationConstructionFailed eIC) {
-            logger.log(Level.WARNING, "Construction of validation configuration failed. Validation configuration is empty.");
-          }
-
-          o.flush();
-          zos.closeEntry();
+      try {
+        if (!writeBinaryProof(pReached)) {
+          writeZippedProof(pReached);
         }
       } catch (NotSerializableException eS) {
         logger.log(Level.SEVERE, "Proof cannot be written. Class " + eS.getMessage()
@@ -162,12 +128,103 @@ public abstract class AbstractStrategy implements PCCStrategy, StatisticsProvide
     logger.log(Level.INFO, proofInfo.getInfoAsString());
   }
 
+  @SuppressFBWarnings(value="OS_OPEN_STREAM", justification="Do not close stream o because it wraps stream zos/fos which need to remain open and would be closed if o.close() is called.")
+  private void writeZippedProof(UnmodifiableReachedSet pReached)
+      throws IOException, InvalidConfigurationException, InterruptedException {
+    try (final OutputStream fos = Files.newOutputStream(proofFile);
+        final ZipOutputStream zos = new ZipOutputStream(fos)) {
+      zos.setLevel(9);
+
+      ZipEntry ze = new ZipEntry(PROOF_ZIPENTRY_NAME);
+      zos.putNextEntry(ze);
+      ObjectOutputStream o = new ObjectOutputStream(zos);
+      //TODO might also want to write used configuration to the file so that proof checker does not need to get it as an argument
+      //write ARG
+      writeProofToStream(o, pReached);
+      o.flush();
+      zos.closeEntry();
+
+      // write additional proof information
+      int index = 0;
+      boolean continueWriting;
+      do {
+        ze = new ZipEntry(ADDITIONAL_PROOFINFO_ZIPENTRY_NAME + index);
+        zos.putNextEntry(ze);
+        o = new ObjectOutputStream(zos);
+        continueWriting = writeAdditionalProofStream(o);
+        o.flush();
+        zos.closeEntry();
+        index++;
+      } while (continueWriting);
+
+      if (storeConfig) {
+        ze = new ZipEntry(CONFIG_ZIPENTRY_NAME);
+        zos.putNextEntry(ze);
+        o = new ObjectOutputStream(zos);
+        try {
+          writeConfiguration(o);
+        } catch (ValidationConfigurationConstructionFailed eIC) {
+          logger.log(Level.WARNING, "Construction of validation configuration failed. Validation configuration is empty.");
+        }
+
+        o.flush();
+        zos.closeEntry();
+      }
+    }
+  }
+
   protected abstract void writeProofToStream(ObjectOutputStream out, UnmodifiableReachedSet reached)
       throws IOException, InvalidConfigurationException, InterruptedException;
 
 
+  /**
+   * Writes the proof as {@link PartitionedCertificate} instead of the zipped, Java-serialized
+   * format. Strategies which support the binary format override this method.
+   *
+   * @return whether the proof was written in the binary format
+   */
+  protected boolean writeBinaryProof(UnmodifiableReachedSet pReached)
+      throws IOException, InvalidConfigurationException, InterruptedException {
+    return false;
+  }
+
+  /**
+   * Returns the validation configuration that should be stored in the proof, or null if storing it
+   * is disabled or the configuration cannot be constructed.
+   */
+  protected @Nullable String getConfigurationToStore() {
+    if (!storeConfig) {
+      return null;
+    }
+    try {
+      return new ValidationConfigurationBuilder(config)
+          .getValidationConfiguration()
+          .asPropertiesString();
+    } catch (ValidationConfigurationConstructionFailed eIC) {
+      logger.log(
+          Level.WARNING,
+          "Construction of validation configuration failed.",
+          "Validation configuration is not stored.");
+      return null;
+    }
+  }
+
+  /**
+   * Reads a proof that was written as {@link PartitionedCertificate}. Strategies which support the
+   * binary format override this method.
+   */
+  protected void readBinaryProof()
+      throws IOException, ClassNotFoundException, InvalidConfigurationException {
+    throw new InvalidConfigurationException(
+        getClass().getSimpleName() + " cannot read proofs in the binary certificate format");
+  }
+
   @Override
   public void readProof() throws IOException, ClassNotFoundException, InvalidConfigurationException {
+    if (PartitionedCertificate.isPartitionedCertificate(proofFile)) {
+      readBinaryProof();
+      return;
+    }
     Triple<InputStream, ZipInputStream, ObjectInputStream> proofStream = openProofStream();
     readProofFromStream(proofStream.getThird());
     proofStream.getThird().close();
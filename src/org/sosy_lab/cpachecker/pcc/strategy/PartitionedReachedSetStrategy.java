@@ -161,6 +161,17 @@ public class PartitionedReachedSetStrategy extends AbstractStrategy {
    ioHelper.readProof(pIn, stats);
   }
 
+  @Override
+  protected boolean writeBinaryProof(final UnmodifiableReachedSet pReached)
+      throws IOException, InvalidConfigurationException, InterruptedException {
+    return ioHelper.writeBinaryProof(proofFile, pReached, this::getConfigurationToStore);
+  }
+
+  @Override
+  protected void readBinaryProof() throws IOException, ClassNotFoundException {
+    ioHelper.readBinaryProof(proofFile, stats);
+  }
+
   @Override
   public Collection<Statistics> getAdditionalProofGenerationStatistics() {
     Collection<Statistics> result = new ArrayList<>(super.getAdditionalProofGenerationStatistics());
@@ -34,6 +34,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -43,7 +44,10 @@ import java.util.logging.Level;
 import javax.annotation.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
@@ -58,8 +62,27 @@ import org.sosy_lab.cpachecker.pcc.strategy.partitioning.PartitioningIOHelper;
 import org.sosy_lab.cpachecker.pcc.strategy.partitioning.PartitioningUtils;
 
 
+@Options(prefix = "pcc.parallel")
 public class PartialReachedSetPartitioningParallelStrategy extends AbstractStrategy{
 
+  @Option(
+    secure = true,
+    description =
+        "Check partitions with a fork-join pool. Partitions are scheduled by their estimated"
+            + " checking cost and large partitions are split into several tasks that idle"
+            + " threads can steal."
+  )
+  private boolean useWorkStealing = false;
+
+  @Option(
+    secure = true,
+    description =
+        "Minimal number of partition nodes that are checked by one task when work stealing is"
+            + " used."
+  )
+  @IntegerOption(min = 1)
+  private int minTaskSize = 16;
+
   private final PartitioningIOHelper ioHelper;
   private final PropertyCheckerCPA cpa;
   private final ShutdownNotifier shutdownNotifier;
@@ -72,6 +95,7 @@ public class PartialReachedSetPartitioningParallelStrategy extends AbstractStrat
       final @Nullable PropertyCheckerCPA pCpa)
       throws InvalidConfigurationException {
     super(pConfig, pLogger, pProofFile);
+    pConfig.inject(this);
     shutdownNotifier = pShutdownNotifier;
     cpa = pCpa;
     ioHelper = new PartitioningIOHelper(pConfig, pLogger, pShutdownNotifier);
@@ -99,6 +123,28 @@ public class PartialReachedSetPartitioningParallelStrategy extends AbstractStrat
     AbstractState initialState = pReachedSet.popFromWaitlist();
     Precision initPrec = pReachedSet.getPrecision(initialState);
 
+    if (useWorkStealing) {
+      logger.log(Level.INFO, "Check partitions with work stealing");
+      ForkJoinPool pool = new ForkJoinPool(numThreads);
+      try {
+        if (!new WorkStealingPartitionChecker(
+                minTaskSize,
+                ioHelper,
+                initPrec,
+                cpa.getStopOperator(),
+                cpa.getTransferRelation(),
+                shutdownNotifier,
+                logger)
+            .checkPartitions(pool, certificate, partitionNodes, inOtherPartition)) {
+          return false;
+        }
+      } finally {
+        pool.shutdown();
+      }
+      return checkCoverageAndProperty(initialState, initPrec, certificate, partitionNodes,
+          inOtherPartition);
+    }
+
     logger.log(Level.INFO, "Create and start threads");
     ExecutorService executor = Executors.newFixedThreadPool(numThreads );
     try {
@@ -112,33 +158,42 @@ public class PartialReachedSetPartitioningParallelStrategy extends AbstractStrat
 
       if (!checkResult.get()) { return false; }
 
-      logger.log(Level.INFO, "Add initial state to elements for which it will be checked if they are covered by partition nodes of certificate.");
-      inOtherPartition.add(initialState);
+      return checkCoverageAndProperty(initialState, initPrec, certificate, partitionNodes,
+          inOtherPartition);
+    } finally {
+      executor.shutdown();
+    }
+  }
 
-      logger.log(Level.INFO,
-              "Check if initial state and all nodes which should be contained in different partition are covered by certificate (partition node).");
-      if (!PartitioningUtils.areElementsCoveredByPartitionElement(inOtherPartition, partitionNodes, cpa.getStopOperator(),
-          initPrec)) {
-        logger.log(Level.SEVERE,
-            "Initial state or a state which should be in other partition is not covered by certificate.");
-        return false;
-      }
+  private boolean checkCoverageAndProperty(final AbstractState initialState,
+      final Precision initPrec, final Collection<AbstractState> certificate,
+      final Multimap<CFANode, AbstractState> partitionNodes,
+      final Collection<AbstractState> inOtherPartition)
+      throws CPAException, InterruptedException {
+    logger.log(Level.INFO, "Add initial state to elements for which it will be checked if they are covered by partition nodes of certificate.");
+    inOtherPartition.add(initialState);
+
+    logger.log(Level.INFO,
+            "Check if initial state and all nodes which should be contained in different partition are covered by certificate (partition node).");
+    if (!PartitioningUtils.areElementsCoveredByPartitionElement(inOtherPartition, partitionNodes, cpa.getStopOperator(),
+        initPrec)) {
+      logger.log(Level.SEVERE,
+          "Initial state or a state which should be in other partition is not covered by certificate.");
+      return false;
+    }
 
-      logger.log(Level.INFO, "Check property.");
-      stats.getPropertyCheckingTimer().start();
-      try {
-        if (!cpa.getPropChecker().satisfiesProperty(certificate)) {
-          logger.log(Level.SEVERE, "Property violated");
-          return false;
-        }
-      } finally {
-        stats.getPropertyCheckingTimer().stop();
+    logger.log(Level.INFO, "Check property.");
+    stats.getPropertyCheckingTimer().start();
+    try {
+      if (!cpa.getPropChecker().satisfiesProperty(certificate)) {
+        logger.log(Level.SEVERE, "Property violated");
+        return false;
       }
-
-      return true;
     } finally {
-      executor.shutdown();
+      stats.getPropertyCheckingTimer().stop();
     }
+
+    return true;
   }
 
   @Override
@@ -153,6 +208,17 @@ public class PartialReachedSetPartitioningParallelStrategy extends AbstractStrat
     ioHelper.readProof(pIn, stats);
   }
 
+  @Override
+  protected boolean writeBinaryProof(final UnmodifiableReachedSet pReached)
+      throws IOException, InvalidConfigurationException, InterruptedException {
+    return ioHelper.writeBinaryProof(proofFile, pReached, this::getConfigurationToStore);
+  }
+
+  @Override
+  protected void readBinaryProof() throws IOException, ClassNotFoundException {
+    ioHelper.readBinaryProof(proofFile, stats);
+  }
+
   @Override
   public Collection<Statistics> getAdditionalProofGenerationStatistics() {
     Collection<Statistics> result = new ArrayList<>(super.getAdditionalProofGenerationStatistics());
@@ -0,0 +1,316 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy.parallel;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.exceptions.CPATransferException;
+import org.sosy_lab.cpachecker.pcc.strategy.partitioning.PartitioningIOHelper;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.Pair;
+
+/**
+ * Checks all partitions of a partitioned certificate with a fork-join pool.
+ *
+ * <p>Partitions are scheduled in descending order of their estimated checking cost (number of
+ * partition nodes and adjacent nodes), such that idle workers steal the most expensive remaining
+ * partitions first. The nodes of a partition are explored independently of each other, because
+ * coverage is only checked against the states stored in the partition. Thus, large partitions are
+ * split into several tasks of partition nodes which can be stolen by other workers.
+ *
+ * <p>The result of the check corresponds to the one of {@link ParallelPartitionChecker}.
+ */
+public class WorkStealingPartitionChecker {
+
+  private static final int TASKS_PER_THREAD = 4;
+
+  private final PartitioningIOHelper ioHelper;
+  private final Precision initPrec;
+  private final StopOperator stop;
+  private final TransferRelation transfer;
+  private final int minTaskSize;
+
+  private final ShutdownNotifier shutdownNotifier;
+  private final LogManager logger;
+
+  private final AtomicBoolean checkResult = new AtomicBoolean(true);
+  private final AtomicInteger certificateSize = new AtomicInteger(0);
+  private final Lock mutex = new ReentrantLock();
+
+  private Collection<AbstractState> certificate;
+  private Multimap<CFANode, AbstractState> partitionElems;
+  private Collection<AbstractState> inOtherPartition;
+  private int splitThreshold;
+
+  public WorkStealingPartitionChecker(
+      final int pMinTaskSize,
+      final PartitioningIOHelper pIOHelper,
+      final Precision pInitPrecision,
+      final StopOperator pStop,
+      final TransferRelation pTransfer,
+      final ShutdownNotifier pShutdownNotifier,
+      final LogManager pLogger) {
+    minTaskSize = Math.max(1, pMinTaskSize);
+    ioHelper = pIOHelper;
+    initPrec = pInitPrecision;
+    stop = pStop;
+    transfer = pTransfer;
+    shutdownNotifier = pShutdownNotifier;
+    logger = pLogger;
+  }
+
+  /**
+   * Checks all partitions and collects the recomputed certificate, the partition nodes, and the
+   * nodes which must be covered by nodes of other partitions.
+   *
+   * @return false if checking one of the partitions failed
+   */
+  public boolean checkPartitions(
+      final ForkJoinPool pPool,
+      final Collection<AbstractState> pCertificate,
+      final Multimap<CFANode, AbstractState> pPartitionElements,
+      final Collection<AbstractState> pInOtherPartition) {
+    certificate = pCertificate;
+    partitionElems = pPartitionElements;
+    inOtherPartition = pInOtherPartition;
+
+    int numPartitions = ioHelper.getNumPartitions();
+    Integer[] order = new Integer[numPartitions];
+    int[] costs = new int[numPartitions];
+    long totalNodes = 0;
+    for (int i = 0; i < numPartitions; i++) {
+      Pair<AbstractState[], AbstractState[]> partition = ioHelper.getPartition(i);
+      if (partition == null) {
+        logger.log(Level.SEVERE, "Checking failed, partition " + i + " is not available");
+        return false;
+      }
+      order[i] = i;
+      costs[i] = partition.getFirst().length + partition.getSecond().length;
+      totalNodes += partition.getFirst().length;
+    }
+    Arrays.sort(order, Comparator.comparingInt((Integer p) -> costs[p]).reversed());
+    splitThreshold =
+        (int)
+            Math.max(
+                minTaskSize,
+                Math.min(
+                    Integer.MAX_VALUE,
+                    totalNodes / ((long) pPool.getParallelism() * TASKS_PER_THREAD)));
+
+    pPool.invoke(new PartitionsTask(order));
+
+    logger.log(
+        Level.FINE,
+        "Checked",
+        numPartitions,
+        "partitions with",
+        pPool.getParallelism(),
+        "threads,",
+        pPool.getStealCount(),
+        "tasks were stolen.");
+    return checkResult.get();
+  }
+
+  private void abortChecking() {
+    checkResult.set(false);
+  }
+
+  private class PartitionsTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Integer[] partitionOrder;
+
+    private PartitionsTask(Integer[] pPartitionOrder) {
+      partitionOrder = pPartitionOrder;
+    }
+
+    @Override
+    protected void compute() {
+      List<PartitionTask> tasks = new ArrayList<>(partitionOrder.length);
+      for (int partition : partitionOrder) {
+        tasks.add(new PartitionTask(partition));
+      }
+      invokeAll(tasks);
+    }
+  }
+
+  private class PartitionTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int index;
+
+    private PartitionTask(int pIndex) {
+      index = pIndex;
+    }
+
+    @Override
+    protected void compute() {
+      if (!checkResult.get()) {
+        return;
+      }
+      Pair<AbstractState[], AbstractState[]> partition = ioHelper.getPartition(index);
+      AbstractState[] partitionNodes = partition.getFirst();
+
+      // only read after construction, thus it can be shared by all tasks of this partition
+      Multimap<CFANode, AbstractState> statesPerLocation = HashMultimap.create();
+      Multimap<CFANode, AbstractState> partitionParts = HashMultimap.create();
+      CFANode loc;
+      for (AbstractState internalNode : partitionNodes) {
+        loc = AbstractStates.extractLocation(internalNode);
+        statesPerLocation.put(loc, internalNode);
+        partitionParts.put(loc, internalNode);
+      }
+      for (AbstractState adjacentNode : partition.getSecond()) {
+        statesPerLocation.put(AbstractStates.extractLocation(adjacentNode), adjacentNode);
+      }
+
+      if (!increaseCertificateSize(partitionNodes.length)) {
+        return;
+      }
+
+      mutex.lock();
+      try {
+        certificate.addAll(Arrays.asList(partitionNodes));
+        partitionElems.putAll(partitionParts);
+        inOtherPartition.addAll(Arrays.asList(partition.getSecond()));
+      } finally {
+        mutex.unlock();
+      }
+
+      new NodesTask(partitionNodes, 0, partitionNodes.length, statesPerLocation).invoke();
+    }
+  }
+
+  private class NodesTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final AbstractState[] nodes;
+    private final int from;
+    private final int to;
+    private final Multimap<CFANode, AbstractState> statesPerLocation;
+
+    private NodesTask(
+        AbstractState[] pNodes,
+        int pFrom,
+        int pTo,
+        Multimap<CFANode, AbstractState> pStatesPerLocation) {
+      nodes = pNodes;
+      from = pFrom;
+      to = pTo;
+      statesPerLocation = pStatesPerLocation;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > splitThreshold) {
+        int mid = (from + to) >>> 1;
+        invokeAll(
+            new NodesTask(nodes, from, mid, statesPerLocation),
+            new NodesTask(nodes, mid, to, statesPerLocation));
+        return;
+      }
+
+      List<AbstractState> waitlist = new ArrayList<>(Arrays.asList(nodes).subList(from, to));
+      List<AbstractState> recomputed = new ArrayList<>();
+      AbstractState checkedState;
+      CFANode loc;
+      int nextPos = 0;
+
+      while (nextPos < waitlist.size()) {
+        if (!checkResult.get()) {
+          return;
+        }
+        if (shutdownNotifier.shouldShutdown()) {
+          abortChecking();
+          return;
+        }
+
+        checkedState = waitlist.get(nextPos++);
+
+        try {
+          for (AbstractState successor : transfer.getAbstractSuccessors(checkedState, initPrec)) {
+            // check if covered
+            loc = AbstractStates.extractLocation(successor);
+            if (!stop.stop(successor, statesPerLocation.get(loc), initPrec)) {
+              if (!increaseCertificateSize(1)) {
+                return;
+              }
+              waitlist.add(successor);
+              recomputed.add(successor);
+            }
+          }
+        } catch (CPATransferException | InterruptedException e) {
+          logger.log(Level.SEVERE, "Checking failed, successor computation failed");
+          abortChecking();
+          return;
+        } catch (CPAException e) {
+          logger.log(Level.SEVERE, "Checking failed, checking successor coverage failed");
+          abortChecking();
+          return;
+        }
+      }
+
+      mutex.lock();
+      try {
+        certificate.addAll(recomputed);
+      } finally {
+        mutex.unlock();
+      }
+    }
+  }
+
+  private boolean increaseCertificateSize(int pDelta) {
+    if (certificateSize.addAndGet(pDelta) > ioHelper.getSavedReachedSetSize()) {
+      logger.log(
+          Level.SEVERE,
+          "Checking failed, recomputed certificate bigger than original reached set.");
+      abortChecking();
+      return false;
+    }
+    return true;
+  }
+}
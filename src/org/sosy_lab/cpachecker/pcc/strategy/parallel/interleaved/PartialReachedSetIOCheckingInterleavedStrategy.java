@@ -177,6 +177,17 @@ public class PartialReachedSetIOCheckingInterleavedStrategy extends AbstractStra
     ioHelper.readMetadata(pIn, true);
   }
 
+  @Override
+  protected boolean writeBinaryProof(final UnmodifiableReachedSet pReached)
+      throws IOException, InvalidConfigurationException, InterruptedException {
+    return ioHelper.writeBinaryProof(proofFile, pReached, this::getConfigurationToStore);
+  }
+
+  @Override
+  protected void readBinaryProof() throws IOException {
+    ioHelper.openBinaryProof(proofFile);
+  }
+
   @Override
   public Collection<Statistics> getAdditionalProofGenerationStatistics() {
     Collection<Statistics> result = new ArrayList<>(super.getAdditionalProofGenerationStatistics());
@@ -201,11 +212,18 @@ public class PartialReachedSetIOCheckingInterleavedStrategy extends AbstractStra
     public void run() {
       Triple<InputStream, ZipInputStream, ObjectInputStream> streams = null;
       try {
-        streams = openProofStream();
-        ObjectInputStream o = streams.getThird();
-        ioHelper.readMetadata(o, false);
+        ObjectInputStream o = null;
+        if (!ioHelper.hasBinaryProof()) {
+          streams = openProofStream();
+          o = streams.getThird();
+          ioHelper.readMetadata(o, false);
+        }
         for (int i = 0; i < ioHelper.getNumPartitions() && checkResult.get(); i++) {
-          ioHelper.readPartition(o, stats);
+          if (o == null) {
+            ioHelper.readPartition(i, stats);
+          } else {
+            ioHelper.readPartition(o, stats);
+          }
           if (shutdownNotifier.shouldShutdown()) {
             abort();
             break;
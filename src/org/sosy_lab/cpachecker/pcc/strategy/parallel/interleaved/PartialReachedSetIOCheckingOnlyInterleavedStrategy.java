@@ -188,6 +188,18 @@ public class PartialReachedSetIOCheckingOnlyInterleavedStrategy extends Abstract
     ioHelper.readMetadata(pIn, true);
   }
 
+  @Override
+  protected boolean writeBinaryProof(final UnmodifiableReachedSet pReached)
+      throws IOException, InvalidConfigurationException, InterruptedException {
+    ioHelper.setProofInfoCollector(proofInfo);
+    return ioHelper.writeBinaryProof(proofFile, pReached, this::getConfigurationToStore);
+  }
+
+  @Override
+  protected void readBinaryProof() throws IOException {
+    ioHelper.openBinaryProof(proofFile);
+  }
+
   @Override
   public Collection<Statistics> getAdditionalProofGenerationStatistics() {
     Collection<Statistics> result = new ArrayList<>(super.getAdditionalProofGenerationStatistics());
@@ -209,12 +221,19 @@ public class PartialReachedSetIOCheckingOnlyInterleavedStrategy extends Abstract
     public void run() {
       Triple<InputStream, ZipInputStream, ObjectInputStream> streams = null;
       try {
-        streams = openProofStream();
-        ObjectInputStream o = streams.getThird();
-        ioHelper.readMetadata(o, false);
+        ObjectInputStream o = null;
+        if (!ioHelper.hasBinaryProof()) {
+          streams = openProofStream();
+          o = streams.getThird();
+          ioHelper.readMetadata(o, false);
+        }
 
         for (int i = 0; i < ioHelper.getNumPartitions() && checkResult.get(); i++) {
-          ioHelper.readPartition(o, stats);
+          if (o == null) {
+            ioHelper.readPartition(i, stats);
+          } else {
+            ioHelper.readPartition(o, stats);
+          }
 
           if (shutdownNotifier.shouldShutdown()) {
             abortPreparation();
@@ -218,6 +218,17 @@ public class PartialReachedSetParallelIOCheckingInterleavedStrategy extends Abst
     ioHelper.readMetadata(pIn, true);
   }
 
+  @Override
+  protected boolean writeBinaryProof(final UnmodifiableReachedSet pReached)
+      throws IOException, InvalidConfigurationException, InterruptedException {
+    return ioHelper.writeBinaryProof(proofFile, pReached, this::getConfigurationToStore);
+  }
+
+  @Override
+  protected void readBinaryProof() throws IOException {
+    ioHelper.openBinaryProof(proofFile);
+  }
+
   @Override
   public Collection<Statistics> getAdditionalProofGenerationStatistics() {
     Collection<Statistics> result = new ArrayList<>(super.getAdditionalProofGenerationStatistics());
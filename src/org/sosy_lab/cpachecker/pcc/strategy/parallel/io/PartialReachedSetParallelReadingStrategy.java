@@ -172,7 +172,10 @@ public class PartialReachedSetParallelReadingStrategy extends AbstractStrategy {
       InvalidConfigurationException, IOException {
     // read metadata
     ioHelper.readMetadata(pIn, true);
-    // read partitions in parallel
+    readPartitionsInParallel();
+  }
+
+  private void readPartitionsInParallel() throws IOException {
     ExecutorService executor = Executors.newFixedThreadPool(numThreads);
     try {
       AtomicBoolean success = new AtomicBoolean(true);
@@ -199,6 +202,18 @@ public class PartialReachedSetParallelReadingStrategy extends AbstractStrategy {
     }
   }
 
+  @Override
+  protected boolean writeBinaryProof(final UnmodifiableReachedSet pReached)
+      throws IOException, InvalidConfigurationException, InterruptedException {
+    return ioHelper.writeBinaryProof(proofFile, pReached, this::getConfigurationToStore);
+  }
+
+  @Override
+  protected void readBinaryProof() throws IOException {
+    ioHelper.openBinaryProof(proofFile);
+    readPartitionsInParallel();
+  }
+
   @Override
   public Collection<Statistics> getAdditionalProofGenerationStatistics() {
     Collection<Statistics> result = new ArrayList<>(super.getAdditionalProofGenerationStatistics());
@@ -0,0 +1,383 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy.partitioning;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.Nullable;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.util.Pair;
+
+/**
+ * Binary, versioned certificate format for partitioned proofs.
+ *
+ * <p>The file consists of a fixed header, a table with one row per partition, the node table of
+ * every partition, the state block of every partition, and optionally the validation
+ * configuration. The node table of a partition lists the indices of the partition nodes and of
+ * the successors that belong to other partitions. Every state is stored exactly once, in the block
+ * of the first partition that references it, even if it occurs in several partitions.
+ *
+ * <p>A certificate is read by memory-mapping the file. Partitions can then be decoded
+ * independently and concurrently, and only the blocks that contain states referenced by a
+ * partition are decoded. Abstract states have no generic binary encoding, thus each block is a
+ * Java object stream with the states of one partition. Class descriptors and objects shared by
+ * the states of a partition are thereby written only once per partition instead of once per
+ * state.
+ */
+public final class PartitionedCertificate {
+
+  private static final int MAGIC = 0x43504343; // "CPCC"
+  private static final int VERSION = 2;
+
+  private static final int HEADER_SIZE = 6 * Integer.BYTES;
+
+  /** a row contains the offset of the node table, the offset of the block, and the first state */
+  private static final int ROW_SIZE = 3 * Integer.BYTES;
+
+  private final ByteBuffer buffer;
+  private final int savedReachedSetSize;
+  private final int numPartitions;
+  private final int numStates;
+  private final int configOffset;
+  private final AtomicReferenceArray<AbstractState[]> decodedBlocks;
+
+  private PartitionedCertificate(ByteBuffer pBuffer) throws IOException {
+    buffer = pBuffer;
+    if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+      throw new IOException("File is not a binary proof certificate");
+    }
+    int version = buffer.getInt(Integer.BYTES);
+    if (version != VERSION) {
+      throw new IOException(
+          "Unsupported version " + version + " of binary proof certificate, expected " + VERSION);
+    }
+    savedReachedSetSize = buffer.getInt(2 * Integer.BYTES);
+    numPartitions = buffer.getInt(3 * Integer.BYTES);
+    numStates = buffer.getInt(4 * Integer.BYTES);
+    configOffset = buffer.getInt(5 * Integer.BYTES);
+    if (numPartitions < 0
+        || numStates < 0
+        || buffer.limit() < HEADER_SIZE + (numPartitions + 1L) * ROW_SIZE
+        || getFirstState(numPartitions) != numStates) {
+      throw new IOException("Corrupted header of binary proof certificate");
+    }
+    decodedBlocks = new AtomicReferenceArray<>(numPartitions);
+  }
+
+  public int getSavedReachedSetSize() {
+    return savedReachedSetSize;
+  }
+
+  public int getNumPartitions() {
+    return numPartitions;
+  }
+
+  public int getNumStates() {
+    return numStates;
+  }
+
+  /** Returns the validation configuration stored in the certificate, or null if there is none. */
+  public @Nullable String getValidationConfiguration() throws IOException {
+    if (configOffset == 0) {
+      return null;
+    }
+    int length = buffer.getInt(checkOffset(configOffset));
+    int start = configOffset + Integer.BYTES;
+    if (length < 0 || checkOffset(start + length) < start) {
+      throw new IOException("Invalid configuration entry in binary proof certificate");
+    }
+    byte[] config = new byte[length];
+    ByteBuffer slice = buffer.duplicate();
+    slice.position(start);
+    slice.get(config);
+    return new String(config, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Decodes the partition with the given index. This method may be called concurrently for
+   * different (or equal) partitions. States shared between partitions are decoded only once and
+   * are returned as the same object for all partitions.
+   *
+   * @return the partition nodes and the successors of partition nodes that belong to a different
+   *     partition
+   */
+  public Pair<AbstractState[], AbstractState[]> readPartition(int pIndex)
+      throws IOException, ClassNotFoundException {
+    checkElementIndex(pIndex, numPartitions);
+    int offset = checkOffset(buffer.getInt(rowPosition(pIndex)));
+    int numInside = buffer.getInt(offset);
+    int numOutside = buffer.getInt(offset + Integer.BYTES);
+    int pos = offset + 2 * Integer.BYTES;
+
+    AbstractState[] inside = new AbstractState[numInside];
+    for (int i = 0; i < numInside; i++, pos += Integer.BYTES) {
+      inside[i] = getState(buffer.getInt(pos));
+    }
+    AbstractState[] outside = new AbstractState[numOutside];
+    for (int i = 0; i < numOutside; i++, pos += Integer.BYTES) {
+      outside[i] = getState(buffer.getInt(pos));
+    }
+    return Pair.of(inside, outside);
+  }
+
+  private AbstractState getState(int pId) throws IOException, ClassNotFoundException {
+    if (pId < 0 || pId >= numStates) {
+      throw new IOException("Invalid state reference " + pId + " in binary proof certificate");
+    }
+    // find the partition that stores the state, i.e., the last one whose first state is <= pId
+    int low = 0;
+    int high = numPartitions - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (getFirstState(mid) <= pId) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return getBlock(low)[pId - getFirstState(low)];
+  }
+
+  private AbstractState[] getBlock(int pIndex) throws IOException, ClassNotFoundException {
+    AbstractState[] block = decodedBlocks.get(pIndex);
+    if (block == null) {
+      int start = checkOffset(buffer.getInt(rowPosition(pIndex) + Integer.BYTES));
+      int end = checkOffset(buffer.getInt(rowPosition(pIndex + 1) + Integer.BYTES));
+      int size = getFirstState(pIndex + 1) - getFirstState(pIndex);
+      if (start > end || size < 0) {
+        throw new IOException("Invalid state block " + pIndex + " in binary proof certificate");
+      }
+      ByteBuffer slice = buffer.duplicate();
+      slice.limit(end).position(start);
+      block = new AbstractState[size];
+      if (size > 0) {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteBufferInputStream(slice))) {
+          for (int i = 0; i < size; i++) {
+            block[i] = (AbstractState) in.readObject();
+          }
+        }
+      }
+      if (!decodedBlocks.compareAndSet(pIndex, null, block)) {
+        block = decodedBlocks.get(pIndex);
+      }
+    }
+    return block;
+  }
+
+  private int getFirstState(int pIndex) {
+    return buffer.getInt(rowPosition(pIndex) + 2 * Integer.BYTES);
+  }
+
+  private int checkOffset(int pOffset) throws IOException {
+    if (pOffset < 0 || pOffset > buffer.limit()) {
+      throw new IOException("Invalid offset " + pOffset + " in binary proof certificate");
+    }
+    return pOffset;
+  }
+
+  private static int rowPosition(int pIndex) {
+    return HEADER_SIZE + pIndex * ROW_SIZE;
+  }
+
+  /** Checks whether the given file starts like a binary proof certificate. */
+  public static boolean isPartitionedCertificate(Path pFile) throws IOException {
+    try (InputStream in = Files.newInputStream(pFile)) {
+      byte[] start = new byte[Integer.BYTES];
+      return in.read(start) == start.length && ByteBuffer.wrap(start).getInt() == MAGIC;
+    }
+  }
+
+  /** Memory-maps the given certificate file. The file must not be modified afterwards. */
+  public static PartitionedCertificate open(Path pFile) throws IOException {
+    try (FileChannel channel = FileChannel.open(pFile, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("Binary proof certificate is too large to be mapped");
+      }
+      return new PartitionedCertificate(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Writes the given partitions as binary certificate.
+   *
+   * @param pPartitions pairs of partition nodes and successors of partition nodes that belong to
+   *     a different partition
+   * @param pValidationConfiguration the validation configuration that should be stored in the
+   *     certificate, or null
+   */
+  public static void write(
+      Path pFile,
+      int pReachedSetSize,
+      List<Pair<AbstractState[], AbstractState[]>> pPartitions,
+      @Nullable String pValidationConfiguration)
+      throws IOException {
+    Map<AbstractState, Integer> stateIds = new IdentityHashMap<>();
+    List<int[]> nodeTables = new ArrayList<>(pPartitions.size());
+    List<byte[]> blocks = new ArrayList<>(pPartitions.size());
+    int[] firstStates = new int[pPartitions.size() + 1];
+
+    ByteArrayOutputStream blockBytes = new ByteArrayOutputStream();
+    for (int p = 0; p < pPartitions.size(); p++) {
+      AbstractState[] inside = pPartitions.get(p).getFirst();
+      AbstractState[] outside = pPartitions.get(p).getSecond();
+      int[] nodeTable = new int[2 + inside.length + outside.length];
+      nodeTable[0] = inside.length;
+      nodeTable[1] = outside.length;
+      int pos = 2;
+      firstStates[p] = stateIds.size();
+      blockBytes.reset();
+      ObjectOutputStream out = null;
+      for (AbstractState[] states : new AbstractState[][] {inside, outside}) {
+        for (AbstractState state : states) {
+          Integer id = stateIds.get(state);
+          if (id == null) {
+            id = stateIds.size();
+            stateIds.put(state, id);
+            if (out == null) {
+              out = new ObjectOutputStream(blockBytes);
+            }
+            out.writeObject(state);
+          }
+          nodeTable[pos++] = id;
+        }
+      }
+      if (out != null) {
+        out.close();
+      }
+      nodeTables.add(nodeTable);
+      blocks.add(blockBytes.toByteArray());
+    }
+    firstStates[pPartitions.size()] = stateIds.size();
+
+    long offset = rowPosition(pPartitions.size() + 1);
+    long[] nodeTableOffsets = new long[pPartitions.size() + 1];
+    for (int p = 0; p < pPartitions.size(); p++) {
+      nodeTableOffsets[p] = offset;
+      offset += (long) nodeTables.get(p).length * Integer.BYTES;
+    }
+    nodeTableOffsets[pPartitions.size()] = offset;
+    long[] blockOffsets = new long[pPartitions.size() + 1];
+    for (int p = 0; p < pPartitions.size(); p++) {
+      blockOffsets[p] = offset;
+      offset += blocks.get(p).length;
+    }
+    blockOffsets[pPartitions.size()] = offset;
+
+    byte[] config = null;
+    long configOffset = 0;
+    if (pValidationConfiguration != null) {
+      config = pValidationConfiguration.getBytes(StandardCharsets.UTF_8);
+      configOffset = offset;
+      offset += Integer.BYTES + config.length;
+    }
+    toOffset(offset);
+
+    try (OutputStream fos = Files.newOutputStream(pFile);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(pReachedSetSize);
+      out.writeInt(pPartitions.size());
+      out.writeInt(stateIds.size());
+      out.writeInt(toOffset(configOffset));
+
+      for (int p = 0; p <= pPartitions.size(); p++) {
+        out.writeInt(toOffset(nodeTableOffsets[p]));
+        out.writeInt(toOffset(blockOffsets[p]));
+        out.writeInt(firstStates[p]);
+      }
+      for (int[] nodeTable : nodeTables) {
+        for (int entry : nodeTable) {
+          out.writeInt(entry);
+        }
+      }
+      for (byte[] block : blocks) {
+        out.write(block);
+      }
+      if (config != null) {
+        out.writeInt(config.length);
+        out.write(config);
+      }
+    }
+  }
+
+  private static int toOffset(long pOffset) throws IOException {
+    if (pOffset > Integer.MAX_VALUE) {
+      throw new IOException("Proof is too large for the binary certificate format");
+    }
+    return (int) pOffset;
+  }
+
+  private static class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer source;
+
+    private ByteBufferInputStream(ByteBuffer pSource) {
+      source = pSource;
+    }
+
+    @Override
+    public int read() {
+      return source.hasRemaining() ? source.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] pBytes, int pOff, int pLen) {
+      if (pLen == 0) {
+        return 0;
+      }
+      if (!source.hasRemaining()) {
+        return -1;
+      }
+      int len = Math.min(pLen, source.remaining());
+      source.get(pBytes, pOff, len);
+      return len;
+    }
+
+    @Override
+    public int available() {
+      return source.remaining();
+    }
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy.partitioning;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.util.Pair;
+
+public class PartitionedCertificateTest {
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static class TestState implements AbstractState, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int id;
+
+    private TestState(int pId) {
+      id = pId;
+    }
+
+    @Override
+    public boolean equals(Object pOther) {
+      return pOther instanceof TestState && ((TestState) pOther).id == id;
+    }
+
+    @Override
+    public int hashCode() {
+      return id;
+    }
+  }
+
+  @Test
+  public void testWriteAndReadPartitions() throws Exception {
+    Path file = tempFolder.getRoot().toPath().resolve("proof.bin");
+    TestState s0 = new TestState(0);
+    TestState s1 = new TestState(1);
+    TestState s2 = new TestState(2);
+    TestState s3 = new TestState(3);
+
+    PartitionedCertificate.write(
+        file,
+        7,
+        ImmutableList.of(
+            Pair.of(new AbstractState[] {s0, s1}, new AbstractState[] {s2}),
+            Pair.of(new AbstractState[] {s2, s3}, new AbstractState[] {s0, s1})),
+        null);
+
+    assertThat(PartitionedCertificate.isPartitionedCertificate(file)).isTrue();
+    PartitionedCertificate certificate = PartitionedCertificate.open(file);
+    assertThat(certificate.getSavedReachedSetSize()).isEqualTo(7);
+    assertThat(certificate.getNumPartitions()).isEqualTo(2);
+    assertThat(certificate.getNumStates()).isEqualTo(4);
+    assertThat(certificate.getValidationConfiguration()).isNull();
+
+    // partitions can be decoded in any order
+    Pair<AbstractState[], AbstractState[]> second = certificate.readPartition(1);
+    Pair<AbstractState[], AbstractState[]> first = certificate.readPartition(0);
+    assertThat(first.getFirst()).asList().containsExactly(s0, s1).inOrder();
+    assertThat(first.getSecond()).asList().containsExactly(s2);
+    assertThat(second.getFirst()).asList().containsExactly(s2, s3).inOrder();
+    assertThat(second.getSecond()).asList().containsExactly(s0, s1).inOrder();
+
+    // shared states are decoded only once
+    assertThat(second.getFirst()[0]).isSameAs(first.getSecond()[0]);
+    assertThat(second.getSecond()[1]).isSameAs(first.getFirst()[1]);
+  }
+
+  @Test
+  public void testWriteAndReadConfiguration() throws Exception {
+    Path file = tempFolder.getRoot().toPath().resolve("proof.bin");
+    String config = "cpa = cpa.arg.ARGCPA\nanalysis.traversal.order = BFS\n";
+    TestState s0 = new TestState(0);
+
+    PartitionedCertificate.write(
+        file,
+        1,
+        ImmutableList.of(Pair.of(new AbstractState[] {s0}, new AbstractState[0])),
+        config);
+
+    PartitionedCertificate certificate = PartitionedCertificate.open(file);
+    assertThat(certificate.getValidationConfiguration()).isEqualTo(config);
+    assertThat(certificate.readPartition(0).getFirst()).asList().containsExactly(s0);
+  }
+
+  @Test
+  public void testSizeComparedToSerializationOfSingleStates() throws Exception {
+    // Serializing each state with its own object stream repeats the stream header and
+    // the class descriptor for every state, which dominates the size of small states.
+    // With one stream per partition, they are written once per partition.
+    Path file = tempFolder.getRoot().toPath().resolve("proof.bin");
+    int numPartitions = 10;
+    int partitionSize = 100;
+    List<Pair<AbstractState[], AbstractState[]>> partitions = new ArrayList<>();
+    long sizeOfSingleStates = 0;
+    for (int p = 0; p < numPartitions; p++) {
+      AbstractState[] states = new AbstractState[partitionSize];
+      for (int i = 0; i < partitionSize; i++) {
+        states[i] = new TestState(p * partitionSize + i);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+          out.writeObject(states[i]);
+        }
+        sizeOfSingleStates += bytes.size();
+      }
+      partitions.add(Pair.of(states, new AbstractState[0]));
+    }
+
+    PartitionedCertificate.write(file, numPartitions * partitionSize, partitions, null);
+
+    assertThat(Files.size(file)).isLessThan(sizeOfSingleStates / 4);
+    PartitionedCertificate certificate = PartitionedCertificate.open(file);
+    for (int p = 0; p < numPartitions; p++) {
+      assertThat(certificate.readPartition(p).getFirst())
+          .asList()
+          .containsExactlyElementsIn(partitions.get(p).getFirst())
+          .inOrder();
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testRejectOtherFiles() throws Exception {
+    Path file = tempFolder.getRoot().toPath().resolve("proof.zip");
+    Files.write(file, new byte[] {'P', 'K', 3, 4, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0});
+    assertThat(PartitionedCertificate.isPartitionedCertificate(file)).isFalse();
+    PartitionedCertificate.open(file);
+  }
+}
@@ -23,15 +23,18 @@
  */
 package org.sosy_lab.cpachecker.pcc.strategy.partitioning;
 
+import com.google.common.base.Preconditions;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.PrintStream;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import javax.annotation.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
@@ -66,6 +69,22 @@ public class PartitioningIOHelper {
   @Option(secure=true, description = "Heuristic for computing partitioning of proof (partial reached set).")
   private PartitioningHeuristics partitioningStrategy = PartitioningHeuristics.RANDOM;
 
+  public enum CertificateFormat {
+    SERIALIZED,
+    BINARY
+  }
+
+  @Option(
+    secure = true,
+    description =
+        "Format in which the partitioned proof is written. SERIALIZED writes a zip file with"
+            + " Java-serialized partitions, BINARY writes a versioned binary certificate with a"
+            + " node table and a block of states per partition, in which every state is stored"
+            + " once, that can be memory-mapped and decoded partition-wise. The format is"
+            + " detected when reading."
+  )
+  private CertificateFormat certificateFormat = CertificateFormat.SERIALIZED;
+
   private final LogManager logger;
   private final PartialReachedConstructionAlgorithm partialConstructor;
   private final BalancedGraphPartitioner partitioner;
@@ -74,6 +93,7 @@ public class PartitioningIOHelper {
   private List<Pair<AbstractState[], AbstractState[]>> partitions;
   private Statistics currentGraphStatistics;
   private ProofStatesInfoCollector infoCollector;
+  private @Nullable PartitionedCertificate binaryCertificate;
 
   public PartitioningIOHelper(final Configuration pConfig, final LogManager pLogger,
       final ShutdownNotifier pShutdownNotifier) throws InvalidConfigurationException {
@@ -173,6 +193,54 @@ public class PartitioningIOHelper {
     }
   }
 
+  /**
+   * Memory-maps the given binary certificate and reads its metadata. Afterwards, partitions are
+   * read with {@link #readPartition(int, PCStrategyStatistics)} instead of the stream-based
+   * methods.
+   */
+  public void openBinaryProof(final Path pProofFile) throws IOException {
+    binaryCertificate = PartitionedCertificate.open(pProofFile);
+    savedReachedSetSize = binaryCertificate.getSavedReachedSetSize();
+    numPartitions = binaryCertificate.getNumPartitions();
+    partitions = new ArrayList<>(numPartitions);
+  }
+
+  public boolean hasBinaryProof() {
+    return binaryCertificate != null;
+  }
+
+  public void readPartition(final int pIndex, final PCStrategyStatistics pStats)
+      throws ClassNotFoundException, IOException {
+    Preconditions.checkState(binaryCertificate != null, "No binary certificate opened");
+    Pair<AbstractState[], AbstractState[]> result = binaryCertificate.readPartition(pIndex);
+    partitions.add(result);
+    pStats.increaseProofSize(result.getFirst().length + result.getSecond().length);
+  }
+
+  public void readPartition(
+      final int pIndex, final PCStrategyStatistics pStats, final Lock pLock)
+      throws ClassNotFoundException, IOException {
+    Preconditions.checkState(binaryCertificate != null, "No binary certificate opened");
+    Preconditions.checkNotNull(pLock, "Cannot protect against parallel access");
+    Pair<AbstractState[], AbstractState[]> result = binaryCertificate.readPartition(pIndex);
+    int partialProofSize = result.getFirst().length + result.getSecond().length;
+    pLock.lock();
+    try {
+      partitions.add(result);
+      pStats.increaseProofSize(partialProofSize);
+    } finally {
+      pLock.unlock();
+    }
+  }
+
+  public void readBinaryProof(final Path pProofFile, final PCStrategyStatistics pStats)
+      throws IOException, ClassNotFoundException {
+    openBinaryProof(pProofFile);
+    for (int i = 0; i < numPartitions; i++) {
+      readPartition(i, pStats);
+    }
+  }
+
   public void readMetadata(final ObjectInputStream pIn, final boolean pSave) throws IOException {
     if (pSave) {
       savedReachedSetSize = pIn.readInt();
@@ -232,6 +300,44 @@ public class PartitioningIOHelper {
     }
   }
 
+  /**
+   * Writes the proof as binary certificate if this format is configured.
+   *
+   * @param pValidationConfiguration provides the validation configuration that should be stored
+   *     in the certificate, or null if no configuration should be stored
+   * @return whether the proof was written, i.e., false if the serialized format is used
+   */
+  public boolean writeBinaryProof(
+      final Path pProofFile,
+      final UnmodifiableReachedSet pReached,
+      final Supplier<String> pValidationConfiguration)
+      throws InvalidConfigurationException, IOException, InterruptedException {
+    if (certificateFormat != CertificateFormat.BINARY) {
+      return false;
+    }
+    Pair<PartialReachedSetDirectedGraph, List<Set<Integer>>> partitionDescription =
+        computePartialReachedSetAndPartition(pReached);
+
+    List<Pair<AbstractState[], AbstractState[]>> content =
+        new ArrayList<>(partitionDescription.getSecond().size());
+    for (Set<Integer> partition : partitionDescription.getSecond()) {
+      AbstractState[] partitionNodes =
+          partitionDescription.getFirst().getSetNodes(partition, false);
+      if (infoCollector != null) {
+        infoCollector.addInfoForStates(partitionNodes);
+      }
+      content.add(
+          Pair.of(
+              partitionNodes,
+              partitionDescription.getFirst().getSuccessorNodesOutsideSet(partition, false)));
+    }
+
+    logger.log(Level.FINER, "Write binary certificate");
+    PartitionedCertificate.write(
+        pProofFile, pReached.size(), content, pValidationConfiguration.get());
+    return true;
+  }
+
   public void setProofInfoCollector(final ProofStatesInfoCollector pInfoCollector) {
     infoCollector = pInfoCollector;
   }
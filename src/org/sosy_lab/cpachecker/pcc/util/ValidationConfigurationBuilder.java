@@ -42,6 +42,7 @@ import org.sosy_lab.common.configuration.ConfigurationBuilder;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.cpachecker.exceptions.ValidationConfigurationConstructionFailed;
 import org.sosy_lab.cpachecker.pcc.strategy.AbstractStrategy;
+import org.sosy_lab.cpachecker.pcc.strategy.partitioning.PartitionedCertificate;
 
 public class ValidationConfigurationBuilder {
 
@@ -219,6 +220,12 @@ public class ValidationConfigurationBuilder {
   public static Configuration readConfigFromProof(Path proofFile)
       throws IOException, InvalidConfigurationException {
 
+    if (PartitionedCertificate.isPartitionedCertificate(proofFile)) {
+      String config = PartitionedCertificate.open(proofFile).getValidationConfiguration();
+      if (config == null) { throw new IOException("Unable to find configuration entry in proof."); }
+      return loadConfig(config);
+    }
+
     try (InputStream fis = Files.newInputStream(proofFile);
         ZipInputStream zis = new ZipInputStream(fis);) {
       ZipEntry entry;
@@ -230,17 +237,24 @@ public class ValidationConfigurationBuilder {
 
       if (entry == null) { throw new IOException("Unable to find configuration entry in proof."); }
 
-      Path valConfig = Files.createTempFile("pcc-check-config", "properties");
-
-      try (ObjectInputStream in = new ObjectInputStream(zis);
-          PrintStream out = new PrintStream(new FileOutputStream(valConfig.toFile()), false, "UTF-8")) {
-        out.print(in.readObject());
+      try (ObjectInputStream in = new ObjectInputStream(zis)) {
+        return loadConfig(in.readObject());
       } catch (ClassNotFoundException e) {
         throw new IOException("Failed to read configuration");
       }
+    }
+  }
+
+  private static Configuration loadConfig(Object pProperties)
+      throws IOException, InvalidConfigurationException {
+    Path valConfig = Files.createTempFile("pcc-check-config", "properties");
 
-      return Configuration.builder().loadFromFile(valConfig).build();
+    try (PrintStream out =
+        new PrintStream(new FileOutputStream(valConfig.toFile()), false, "UTF-8")) {
+      out.print(pProperties);
     }
+
+    return Configuration.builder().loadFromFile(valConfig).build();
   }
 
 }
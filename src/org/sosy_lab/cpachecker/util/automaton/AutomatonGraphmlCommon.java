@@ -25,6 +25,7 @@ package org.sosy_lab.cpachecker.util.automaton;
 
 import com.google.common.base.Charsets;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
@@ -34,6 +35,7 @@ import com.google.common.hash.Hashing;
 import com.google.common.io.BaseEncoding;
 import com.google.common.io.CharStreams;
 import com.google.common.io.MoreFiles;
+import java.io.Closeable;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.time.ZonedDateTime;
@@ -52,6 +54,9 @@ import javax.annotation.Nullable;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
@@ -339,6 +344,54 @@ public class AutomatonGraphmlCommon {
     return BaseEncoding.base16().lowerCase().encode(hash.asBytes());
   }
 
+  /** Computes the data elements that describe the witness graph itself, in output order. */
+  private static List<Map.Entry<KeyDef, String>> getGraphData(
+      WitnessType pGraphType, CFA pCfa, VerificationTaskMetaData pVerificationTaskMetaData)
+      throws IOException {
+    List<Map.Entry<KeyDef, String>> result = new ArrayList<>();
+    result.add(Maps.immutableEntry(KeyDef.WITNESS_TYPE, pGraphType.toString()));
+    result.add(Maps.immutableEntry(KeyDef.SOURCECODELANGUAGE, pCfa.getLanguage().toString()));
+    result.add(
+        Maps.immutableEntry(KeyDef.PRODUCER, "CPAchecker " + CPAchecker.getCPAcheckerVersion()));
+
+    int nSpecs = 0;
+    for (SpecificationProperty property : pVerificationTaskMetaData.getProperties()) {
+      result.add(Maps.immutableEntry(KeyDef.SPECIFICATION, property.toString()));
+      ++nSpecs;
+    }
+
+    for (Path specFile : pVerificationTaskMetaData.getNonPropertySpecificationFiles()) {
+      result.add(
+          Maps.immutableEntry(
+              KeyDef.SPECIFICATION,
+              MoreFiles.asCharSource(specFile, Charsets.UTF_8).read().trim()));
+      ++nSpecs;
+    }
+
+    if (nSpecs == 0) {
+      result.add(Maps.immutableEntry(KeyDef.SPECIFICATION, "TRUE"));
+    }
+
+    for (Path inputWitness : pVerificationTaskMetaData.getInputWitnessFiles()) {
+      result.add(Maps.immutableEntry(KeyDef.INPUTWITNESSHASH, computeHash(inputWitness)));
+    }
+
+    for (Path programFile : pCfa.getFileNames()) {
+      result.add(Maps.immutableEntry(KeyDef.PROGRAMFILE, programFile.toString()));
+    }
+    for (Path programFile : pCfa.getFileNames()) {
+      result.add(Maps.immutableEntry(KeyDef.PROGRAMHASH, computeHash(programFile)));
+    }
+
+    result.add(
+        Maps.immutableEntry(KeyDef.ARCHITECTURE, getArchitecture(pCfa.getMachineModel())));
+    ZonedDateTime now = ZonedDateTime.now().withNano(0);
+    result.add(
+        Maps.immutableEntry(
+            KeyDef.CREATIONTIME, now.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)));
+    return result;
+  }
+
   public static class GraphMlBuilder {
 
     private final Document doc;
@@ -371,47 +424,10 @@ public class AutomatonGraphmlCommon {
       graph = doc.createElement("graph");
       root.appendChild(graph);
       graph.setAttribute("edgedefault", "directed");
-      graph.appendChild(createDataElement(KeyDef.WITNESS_TYPE, pGraphType.toString()));
-      graph.appendChild(
-          createDataElement(KeyDef.SOURCECODELANGUAGE, pCfa.getLanguage().toString()));
-      graph.appendChild(
-          createDataElement(KeyDef.PRODUCER, "CPAchecker " + CPAchecker.getCPAcheckerVersion()));
-
-      int nSpecs = 0;
-      for (SpecificationProperty property : pVerificationTaskMetaData.getProperties()) {
-        graph.appendChild(createDataElement(KeyDef.SPECIFICATION, property.toString()));
-        ++nSpecs;
-      }
-
-      for (Path specFile : pVerificationTaskMetaData.getNonPropertySpecificationFiles()) {
-        graph.appendChild(
-            createDataElement(
-                KeyDef.SPECIFICATION,
-                MoreFiles.asCharSource(specFile, Charsets.UTF_8).read().trim()));
-        ++nSpecs;
+      for (Map.Entry<KeyDef, String> graphData :
+          getGraphData(pGraphType, pCfa, pVerificationTaskMetaData)) {
+        graph.appendChild(createDataElement(graphData.getKey(), graphData.getValue()));
       }
-
-      if (nSpecs == 0) {
-        graph.appendChild(createDataElement(KeyDef.SPECIFICATION, "TRUE"));
-      }
-
-      for (Path inputWitness : pVerificationTaskMetaData.getInputWitnessFiles()) {
-        graph.appendChild(createDataElement(KeyDef.INPUTWITNESSHASH, computeHash(inputWitness)));
-      }
-
-      for (Path programFile : pCfa.getFileNames()) {
-        graph.appendChild(createDataElement(KeyDef.PROGRAMFILE, programFile.toString()));
-      }
-      for (Path programFile : pCfa.getFileNames()) {
-        graph.appendChild(createDataElement(KeyDef.PROGRAMHASH, computeHash(programFile)));
-      }
-
-      graph.appendChild(
-          createDataElement(KeyDef.ARCHITECTURE, getArchitecture(pCfa.getMachineModel())));
-      ZonedDateTime now = ZonedDateTime.now().withNano(0);
-      graph.appendChild(
-          createDataElement(
-              KeyDef.CREATIONTIME, now.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)));
     }
 
     private void defineKey(KeyDef pKeyDef) {
@@ -516,6 +532,133 @@ public class AutomatonGraphmlCommon {
 
   }
 
+  /**
+   * Writes a GraphML witness element by element while it is produced, instead of building the
+   * whole document in memory like {@link GraphMlBuilder}. Because key definitions have to precede
+   * the graph, all keys are defined up front. Elements cannot be changed once they are written.
+   */
+  public static class GraphMlStreamWriter implements Closeable {
+
+    private final XMLStreamWriter writer;
+
+    public GraphMlStreamWriter(
+        Appendable pTarget,
+        WitnessType pGraphType,
+        @Nullable String pDefaultSourceFileName,
+        CFA pCfa,
+        VerificationTaskMetaData pVerificationTaskMetaData)
+        throws IOException {
+      List<Map.Entry<KeyDef, String>> graphData =
+          getGraphData(pGraphType, pCfa, pVerificationTaskMetaData);
+
+      pTarget.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n");
+      try {
+        writer =
+            XMLOutputFactory.newInstance().createXMLStreamWriter(CharStreams.asWriter(pTarget));
+        writer.writeStartElement("graphml");
+        writer.writeAttribute("xmlns:xsi", "http://www.w3.org/2001/XMLSchema-instance");
+        writer.writeAttribute("xmlns", "http://graphml.graphdrawing.org/xmlns");
+
+        for (KeyDef keyDef : KeyDef.values()) {
+          String defaultValue =
+              keyDef == KeyDef.ORIGINFILE ? pDefaultSourceFileName : keyDef.defaultValue;
+          indent(1);
+          writer.writeStartElement(GraphMLTag.KEY.toString());
+          writer.writeAttribute("id", keyDef.id);
+          writer.writeAttribute("for", keyDef.keyFor.toString());
+          writer.writeAttribute("attr.name", keyDef.attrName);
+          writer.writeAttribute("attr.type", keyDef.attrType);
+          if (defaultValue != null) {
+            indent(2);
+            writer.writeStartElement(GraphMLTag.DEFAULT.toString());
+            writer.writeCharacters(defaultValue);
+            writer.writeEndElement();
+            indent(1);
+          }
+          writer.writeEndElement();
+        }
+
+        indent(1);
+        writer.writeStartElement(GraphMLTag.GRAPH.toString());
+        writer.writeAttribute("edgedefault", "directed");
+        writeData(graphData, 2);
+      } catch (XMLStreamException e) {
+        throw asIOException(e);
+      }
+    }
+
+    public void writeNode(String pNodeId, Iterable<Map.Entry<KeyDef, String>> pData)
+        throws IOException {
+      try {
+        indent(2);
+        writer.writeStartElement(GraphMLTag.NODE.toString());
+        writer.writeAttribute("id", pNodeId);
+        writeData(pData, 3);
+        writer.writeEndElement();
+      } catch (XMLStreamException e) {
+        throw asIOException(e);
+      }
+    }
+
+    public void writeEdge(String pSource, String pTarget, Iterable<Map.Entry<KeyDef, String>> pData)
+        throws IOException {
+      try {
+        indent(2);
+        writer.writeStartElement(GraphMLTag.EDGE.toString());
+        writer.writeAttribute("source", pSource);
+        writer.writeAttribute("target", pTarget);
+        writeData(pData, 3);
+        writer.writeEndElement();
+      } catch (XMLStreamException e) {
+        throw asIOException(e);
+      }
+    }
+
+    private void writeData(Iterable<Map.Entry<KeyDef, String>> pData, int pDepth)
+        throws XMLStreamException {
+      boolean hasData = false;
+      for (Map.Entry<KeyDef, String> data : pData) {
+        indent(pDepth);
+        writer.writeStartElement(GraphMLTag.DATA.toString());
+        writer.writeAttribute("key", data.getKey().id);
+        writer.writeCharacters(data.getValue());
+        writer.writeEndElement();
+        hasData = true;
+      }
+      if (hasData) {
+        indent(pDepth - 1);
+      }
+    }
+
+    private void indent(int pDepth) throws XMLStreamException {
+      writer.writeCharacters("\n");
+      writer.writeCharacters(Strings.repeat(" ", pDepth));
+    }
+
+    /** Finishes the graph and the document, but does not close the underlying target. */
+    @Override
+    public void close() throws IOException {
+      try {
+        indent(1);
+        writer.writeEndElement(); // graph
+        writer.writeCharacters("\n");
+        writer.writeEndElement(); // graphml
+        writer.writeCharacters("\n");
+        writer.writeEndDocument();
+        writer.close();
+      } catch (XMLStreamException e) {
+        throw asIOException(e);
+      }
+    }
+
+    private static IOException asIOException(XMLStreamException pException) {
+      if (pException.getNestedException() instanceof IOException) {
+        return (IOException) pException.getNestedException();
+      }
+      return new IOException("Error while writing witness.", pException);
+    }
+  }
+
   public static boolean handleAsEpsilonEdge(CFAEdge pEdge, CFAEdgeWithAdditionalInfo
       pAdditionalInfo) {
     if (pAdditionalInfo != null && !pAdditionalInfo.getInfos().isEmpty()) {
@@ -48,6 +48,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.Classes.UnexpectedCheckedException;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
@@ -111,6 +112,9 @@ public final class InterpolationManager {
     if (interpolantVerificationTimer.getNumberOfIntervals() > 0) {
       w1.put("Interpolant verification", interpolantVerificationTimer);
     }
+    if (portfolio != null) {
+      portfolio.printStatistics(w1);
+    }
   }
 
 
@@ -184,6 +188,7 @@ public final class InterpolationManager {
   private boolean reuseInterpolationEnvironment = false;
 
   private final ExecutorService executor;
+  private final @Nullable InterpolationPortfolio portfolio;
   private final LoopStructure loopStructure;
   private final VariableClassification variableClassification;
 
@@ -219,6 +224,16 @@ public final class InterpolationManager {
     } else {
       interpolator = null;
     }
+
+    portfolio =
+        InterpolationPortfolio.createIfEnabled(
+            pPmgr,
+            pSolver,
+            loopStructure,
+            variableClassification,
+            config,
+            shutdownNotifier,
+            logger);
   }
 
   /**
@@ -288,35 +303,54 @@ public final class InterpolationManager {
     try {
       final BlockFormulas f = prepareCounterexampleFormulas(pFormulas);
 
-      final Interpolator<?> currentInterpolator;
-      if (reuseInterpolationEnvironment) {
-        currentInterpolator = checkNotNull(interpolator);
-      } else {
-        currentInterpolator = new Interpolator<>();
-      }
-
-      try {
-        try {
-          return currentInterpolator.buildCounterexampleTrace(
-              f, pAbstractionStates);
-        } finally {
-          if (!reuseInterpolationEnvironment) {
-            currentInterpolator.close();
-          }
+      if (portfolio != null) {
+        Optional<CounterexampleTraceInfo> result = portfolio.interpolate(f, pAbstractionStates);
+        if (result.isPresent()) {
+          return result.get();
         }
-      } catch (SolverException itpException) {
-        logger.logUserException(
-            Level.FINEST,
-            itpException,
-            "Interpolation failed, attempting to solve without interpolation");
-        return fallbackWithoutInterpolation(f, itpException);
+        // counterexample is feasible, compute error path in our own solver context
       }
 
+      return interpolate(f, pAbstractionStates);
+
     } finally {
       cexAnalysisTimer.stop();
     }
   }
 
+  /**
+   * Check the prepared formulas of a counterexample and compute interpolants
+   * or the error path, depending on whether the counterexample is infeasible.
+   * This is also used by the members of an {@link InterpolationPortfolio}.
+   */
+  CounterexampleTraceInfo interpolate(
+      final BlockFormulas f, final List<AbstractState> pAbstractionStates)
+      throws CPAException, InterruptedException {
+    final Interpolator<?> currentInterpolator;
+    if (reuseInterpolationEnvironment) {
+      currentInterpolator = checkNotNull(interpolator);
+    } else {
+      currentInterpolator = new Interpolator<>();
+    }
+
+    try {
+      try {
+        return currentInterpolator.buildCounterexampleTrace(
+            f, pAbstractionStates);
+      } finally {
+        if (!reuseInterpolationEnvironment) {
+          currentInterpolator.close();
+        }
+      }
+    } catch (SolverException itpException) {
+      logger.logUserException(
+          Level.FINEST,
+          itpException,
+          "Interpolation failed, attempting to solve without interpolation");
+      return fallbackWithoutInterpolation(f, itpException);
+    }
+  }
+
   /**
    * Counterexample analysis without interpolation. Use this method if you want to check a
    * counterexample for feasibility and in case of a feasible counterexample want the proper path
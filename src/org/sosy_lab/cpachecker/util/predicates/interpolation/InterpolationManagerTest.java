@@ -0,0 +1,104 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.interpolation;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.core.AnalysisDirection;
+import org.sosy_lab.cpachecker.cpa.predicate.BlockFormulaStrategy.BlockFormulas;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormulaManager;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormulaManagerImpl;
+import org.sosy_lab.cpachecker.util.predicates.smt.SolverViewBasedTest0;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+
+public class InterpolationManagerTest extends SolverViewBasedTest0 {
+
+  private PathFormulaManager pfmgr;
+  private BlockFormulas infeasibleFormulas;
+
+  @Before
+  public void setup() throws Exception {
+    pfmgr =
+        new PathFormulaManagerImpl(
+            mgrv,
+            config,
+            logger,
+            ShutdownNotifier.createDummy(),
+            MachineModel.LINUX32,
+            Optional.empty(),
+            AnalysisDirection.FORWARD);
+
+    IntegerFormula x = imgrv.makeVariable("x");
+    infeasibleFormulas =
+        new BlockFormulas(
+            ImmutableList.of(
+                imgrv.equal(x, imgrv.makeNumber(1)), imgrv.equal(x, imgrv.makeNumber(2))));
+  }
+
+  private InterpolationManager createInterpolationManager(Configuration pConfig)
+      throws Exception {
+    return new InterpolationManager(
+        pfmgr,
+        solver,
+        Optional.empty(),
+        Optional.empty(),
+        pConfig,
+        ShutdownNotifier.createDummy(),
+        logger);
+  }
+
+  @Test
+  public void testDefaultConfiguration() throws Exception {
+    InterpolationManager itpManager = createInterpolationManager(config);
+
+    CounterexampleTraceInfo result = itpManager.buildCounterexampleTrace(infeasibleFormulas);
+    assertThat(result.isSpurious()).isTrue();
+    assertThat(result.getInterpolants()).hasSize(1);
+  }
+
+  @Test
+  public void testPortfolio() throws Exception {
+    Configuration portfolioConfig =
+        Configuration.builder()
+            .copyFrom(config)
+            .setOption(
+                "cpa.predicate.refinement.portfolio.strategies",
+                "SEQ_CPACHECKER_FWD, SEQ_CPACHECKER_BWD")
+            .setOption("cpa.predicate.refinement.portfolio.selection", "SMALLEST")
+            .build();
+    InterpolationManager itpManager = createInterpolationManager(portfolioConfig);
+
+    CounterexampleTraceInfo result = itpManager.buildCounterexampleTrace(infeasibleFormulas);
+    assertThat(result.isSpurious()).isTrue();
+    assertThat(result.getInterpolants()).hasSize(1);
+    assertThat(mgrv.extractVariableNames(result.getInterpolants().get(0))).containsExactly("x");
+  }
+}
@@ -0,0 +1,463 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.interpolation;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
+import org.sosy_lab.common.ShutdownManager;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.ShutdownNotifier.ShutdownRequestListener;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.Timer;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.cpa.predicate.BlockFormulaStrategy.BlockFormulas;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.util.LoopStructure;
+import org.sosy_lab.cpachecker.util.predicates.interpolation.strategy.SequentialInterpolation.SeqInterpolationStrategy;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormulaManager;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+import org.sosy_lab.cpachecker.util.variableclassification.VariableClassification;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+/**
+ * Portfolio of interpolation strategies that are run in parallel for each counterexample.
+ *
+ * <p>Each strategy of the portfolio has its own {@link InterpolationManager}
+ * with its own SMT-solver context, such that the strategies do not share any solver state.
+ * The formulas of the counterexample are copied into each solver context
+ * and the interpolants are copied back into the main solver context.
+ * Strategies whose result is not needed anymore are cancelled via their {@link ShutdownManager},
+ * and their solver context is replaced by a new one for the next counterexample.
+ */
+final class InterpolationPortfolio {
+
+  /** Interpolation strategies that can be part of the portfolio. */
+  enum PortfolioStrategy {
+    SEQ_CPACHECKER_FWD("SEQ_CPACHECKER", SeqInterpolationStrategy.FWD),
+    SEQ_CPACHECKER_BWD("SEQ_CPACHECKER", SeqInterpolationStrategy.BWD),
+    SEQ_CPACHECKER_CONJUNCTION("SEQ_CPACHECKER", SeqInterpolationStrategy.CONJUNCTION),
+    SEQ("SEQ", null),
+    TREE("TREE", null),
+    TREE_WELLSCOPED("TREE_WELLSCOPED", null),
+    TREE_NESTED("TREE_NESTED", null),
+    TREE_CPACHECKER("TREE_CPACHECKER", null),
+    ;
+
+    private final String strategy;
+    private final @Nullable SeqInterpolationStrategy sequentialStrategy;
+
+    PortfolioStrategy(String pStrategy, @Nullable SeqInterpolationStrategy pSequentialStrategy) {
+      strategy = pStrategy;
+      sequentialStrategy = pSequentialStrategy;
+    }
+  }
+
+  enum Selection {
+    /** use the first interpolants that are computed */
+    FIRST,
+    /** wait for all strategies and use the smallest interpolants according to the size metric */
+    SMALLEST,
+  }
+
+  enum SizeMetric {
+    /** total number of atoms in all interpolants */
+    ATOMS,
+    /** total number of variables in all interpolants */
+    VARIABLES,
+  }
+
+  @Options(prefix = "cpa.predicate.refinement.portfolio")
+  private static class PortfolioOptions {
+
+    @Option(
+      secure = true,
+      description =
+          "Run these interpolation strategies in parallel for each counterexample, "
+              + "each with its own solver context (disabled if empty). "
+              + "This overrides the options cpa.predicate.refinement.strategy "
+              + "and cpa.predicate.refinement.sequentialStrategy."
+    )
+    private List<PortfolioStrategy> strategies = ImmutableList.of();
+
+    @Option(secure = true, description = "which result of the interpolation portfolio to use")
+    private Selection selection = Selection.FIRST;
+
+    @Option(
+      secure = true,
+      description = "how to measure the size of interpolants for selection=SMALLEST"
+    )
+    private SizeMetric sizeMetric = SizeMetric.ATOMS;
+
+    private PortfolioOptions(Configuration pConfig) throws InvalidConfigurationException {
+      pConfig.inject(this);
+    }
+  }
+
+  private final class Member {
+
+    private final PortfolioStrategy strategy;
+    private final Configuration memberConfig;
+
+    private @Nullable ShutdownManager shutdownManager = null;
+    private @Nullable ShutdownRequestListener forwardShutdown = null;
+    private @Nullable Solver solver = null;
+    private @Nullable InterpolationManager interpolationManager = null;
+
+    private int wins = 0;
+
+    private Member(PortfolioStrategy pStrategy, Configuration pConfig)
+        throws InvalidConfigurationException {
+      strategy = pStrategy;
+      memberConfig =
+          Configuration.builder()
+              .copyFrom(pConfig)
+              .setOption("cpa.predicate.refinement.strategy", strategy.strategy)
+              .setOption(
+                  "cpa.predicate.refinement.sequentialStrategy",
+                  strategy.sequentialStrategy == null
+                      ? SeqInterpolationStrategy.FWD.name()
+                      : strategy.sequentialStrategy.name())
+              .setOption("cpa.predicate.refinement.portfolio.strategies", "")
+              .setOption("cpa.predicate.refinement.timelimit", "0")
+              .build();
+      init();
+    }
+
+    /** Create a fresh solver context for this member. */
+    private void init() throws InvalidConfigurationException {
+      // We do not use ShutdownManager.createWithParent(), because this could not be unregistered.
+      ShutdownManager newShutdownManager = ShutdownManager.create();
+      forwardShutdown = newShutdownManager::requestShutdown;
+      shutdownNotifier.registerAndCheckImmediately(forwardShutdown);
+      shutdownManager = newShutdownManager;
+      solver = Solver.create(memberConfig, logger, shutdownManager.getNotifier());
+      interpolationManager =
+          new InterpolationManager(
+              pmgr,
+              solver,
+              Optional.ofNullable(loopStructure),
+              Optional.ofNullable(variableClassification),
+              memberConfig,
+              shutdownManager.getNotifier(),
+              logger);
+    }
+
+    private void ensureInitialized() {
+      if (solver == null) {
+        try {
+          init();
+        } catch (InvalidConfigurationException e) {
+          // cannot happen, the same configuration was already used successfully
+          throw new UnexpectedCheckedException("initialization of interpolation portfolio", e);
+        }
+      }
+    }
+
+    /** Stop the current computation of this member. */
+    private void cancel() {
+      if (shutdownManager != null) {
+        shutdownManager.requestShutdown("Result of interpolation strategy not needed anymore");
+      }
+    }
+
+    private void close() {
+      if (forwardShutdown != null) {
+        shutdownNotifier.unregister(forwardShutdown);
+      }
+      if (solver != null) {
+        solver.close();
+      }
+      forwardShutdown = null;
+      shutdownManager = null;
+      solver = null;
+      interpolationManager = null;
+    }
+  }
+
+  private final Selection selection;
+  private final SizeMetric sizeMetric;
+  private final LogManager logger;
+  private final ShutdownNotifier shutdownNotifier;
+  private final FormulaManagerView fmgr;
+  private final PathFormulaManager pmgr;
+  private final @Nullable LoopStructure loopStructure;
+  private final @Nullable VariableClassification variableClassification;
+
+  private final List<Member> members;
+  private final ExecutorService executor;
+
+  private final Timer portfolioTimer = new Timer();
+  private int cancelledComputations = 0;
+
+  private InterpolationPortfolio(
+      PortfolioOptions pOptions,
+      PathFormulaManager pPmgr,
+      Solver pSolver,
+      @Nullable LoopStructure pLoopStructure,
+      @Nullable VariableClassification pVarClassification,
+      Configuration pConfig,
+      ShutdownNotifier pShutdownNotifier,
+      LogManager pLogger)
+      throws InvalidConfigurationException {
+    selection = pOptions.selection;
+    sizeMetric = pOptions.sizeMetric;
+    logger = pLogger;
+    shutdownNotifier = pShutdownNotifier;
+    fmgr = pSolver.getFormulaManager();
+    pmgr = pPmgr;
+    loopStructure = pLoopStructure;
+    variableClassification = pVarClassification;
+
+    List<Member> memberList = new ArrayList<>(pOptions.strategies.size());
+    for (PortfolioStrategy strategy : pOptions.strategies) {
+      memberList.add(new Member(strategy, pConfig));
+    }
+    members = memberList;
+
+    // important to use daemon threads here, because we never have the chance to stop the executor
+    executor =
+        Executors.newFixedThreadPool(
+            members.size(), new ThreadFactoryBuilder().setDaemon(true).build());
+  }
+
+  /**
+   * Create an interpolation portfolio if it is enabled in the configuration.
+   *
+   * @return the portfolio, or null if no portfolio is configured
+   */
+  static @Nullable InterpolationPortfolio createIfEnabled(
+      PathFormulaManager pPmgr,
+      Solver pSolver,
+      @Nullable LoopStructure pLoopStructure,
+      @Nullable VariableClassification pVarClassification,
+      Configuration pConfig,
+      ShutdownNotifier pShutdownNotifier,
+      LogManager pLogger)
+      throws InvalidConfigurationException {
+    PortfolioOptions options = new PortfolioOptions(pConfig);
+    if (options.strategies.isEmpty()) {
+      return null;
+    }
+    return new InterpolationPortfolio(
+        options,
+        pPmgr,
+        pSolver,
+        pLoopStructure,
+        pVarClassification,
+        pConfig,
+        pShutdownNotifier,
+        pLogger);
+  }
+
+  /**
+   * Check the counterexample and compute interpolants with all strategies of the portfolio.
+   *
+   * @param pFormulas the prepared formulas of the counterexample in the main solver context
+   * @return the interpolants in the main solver context, or {@link Optional#empty()}
+   *     if the counterexample is feasible (the caller needs to compute the error path itself,
+   *     because a model from another solver context is not usable)
+   */
+  Optional<CounterexampleTraceInfo> interpolate(
+      BlockFormulas pFormulas, List<AbstractState> pAbstractionStates)
+      throws CPAException, InterruptedException {
+    portfolioTimer.start();
+    try {
+      return interpolate0(pFormulas, pAbstractionStates);
+    } finally {
+      portfolioTimer.stop();
+    }
+  }
+
+  private Optional<CounterexampleTraceInfo> interpolate0(
+      BlockFormulas pFormulas, List<AbstractState> pAbstractionStates)
+      throws CPAException, InterruptedException {
+    CompletionService<CounterexampleTraceInfo> completionService =
+        new ExecutorCompletionService<>(executor);
+    Map<Future<CounterexampleTraceInfo>, Member> running = new IdentityHashMap<>();
+
+    // Copying formulas is done here and not in the worker threads,
+    // because the main solver context must not be used concurrently.
+    for (Member member : members) {
+      member.ensureInitialized();
+      BlockFormulas memberFormulas = translateTo(pFormulas, member.solver.getFormulaManager());
+      InterpolationManager memberItpManager = member.interpolationManager;
+      running.put(
+          completionService.submit(
+              () -> memberItpManager.interpolate(memberFormulas, pAbstractionStates)),
+          member);
+    }
+
+    List<Member> finished = new ArrayList<>();
+    Map<Member, CounterexampleTraceInfo> results = new IdentityHashMap<>();
+    boolean feasible = false;
+    Throwable firstException = null;
+    try {
+      while (!running.isEmpty()) {
+        Future<CounterexampleTraceInfo> future = completionService.take();
+        Member member = running.remove(future);
+        finished.add(member);
+        try {
+          CounterexampleTraceInfo result = future.get();
+          if (!result.isSpurious()) {
+            feasible = true;
+            break;
+          }
+          results.put(member, result);
+          if (selection == Selection.FIRST) {
+            break;
+          }
+        } catch (ExecutionException e) {
+          Throwable t = e.getCause();
+          shutdownNotifier.shutdownIfNecessary();
+          logger.logDebugException(t, "Interpolation strategy " + member.strategy + " failed");
+          if (firstException == null) {
+            firstException = t;
+          }
+        }
+      }
+    } finally {
+      // cancel the remaining computations and wait until they have terminated,
+      // such that we can safely release their solver contexts
+      for (Member member : running.values()) {
+        member.cancel();
+      }
+      cancelledComputations += running.size();
+      for (Future<CounterexampleTraceInfo> future : running.keySet()) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          // expected, the computation was cancelled
+        }
+      }
+      for (Member member : running.values()) {
+        member.close();
+      }
+    }
+
+    if (feasible) {
+      return Optional.empty();
+    }
+
+    Member best = null;
+    List<BooleanFormula> bestInterpolants = null;
+    int bestSize = Integer.MAX_VALUE;
+    for (Member member : finished) {
+      CounterexampleTraceInfo result = results.get(member);
+      if (result == null) {
+        continue;
+      }
+      List<BooleanFormula> interpolants =
+          translateFrom(result.getInterpolants(), member.solver.getFormulaManager());
+      if (selection == Selection.FIRST) {
+        best = member;
+        bestInterpolants = interpolants;
+        break;
+      }
+      int size = getSize(interpolants);
+      if (size < bestSize) {
+        best = member;
+        bestInterpolants = interpolants;
+        bestSize = size;
+      }
+    }
+
+    if (best == null) {
+      // all strategies failed
+      assert firstException != null;
+      Throwables.propagateIfPossible(
+          firstException, CPAException.class, InterruptedException.class);
+      throw new UnexpectedCheckedException("interpolation", firstException);
+    }
+
+    best.wins++;
+    logger.log(Level.FINEST, "Using interpolants of strategy", best.strategy);
+    return Optional.of(CounterexampleTraceInfo.infeasible(bestInterpolants));
+  }
+
+  private BlockFormulas translateTo(BlockFormulas pFormulas, FormulaManagerView pTargetFmgr) {
+    List<BooleanFormula> formulas = new ArrayList<>(pFormulas.getSize());
+    for (BooleanFormula f : pFormulas.getFormulas()) {
+      formulas.add(pTargetFmgr.translateFrom(f, fmgr));
+    }
+    // The branching formula is only used for the error path of feasible counterexamples,
+    // which we compute in the main solver context anyway.
+    return new BlockFormulas(formulas, pTargetFmgr.getBooleanFormulaManager().makeTrue());
+  }
+
+  private List<BooleanFormula> translateFrom(
+      List<BooleanFormula> pInterpolants, FormulaManagerView pSourceFmgr) {
+    List<BooleanFormula> result = new ArrayList<>(pInterpolants.size());
+    for (BooleanFormula itp : pInterpolants) {
+      result.add(fmgr.translateFrom(itp, pSourceFmgr));
+    }
+    return result;
+  }
+
+  private int getSize(List<BooleanFormula> pInterpolants) {
+    int size = 0;
+    for (BooleanFormula itp : pInterpolants) {
+      switch (sizeMetric) {
+        case ATOMS:
+          size += fmgr.extractAtoms(itp, false).size();
+          break;
+        case VARIABLES:
+          size += fmgr.extractVariableNames(itp).size();
+          break;
+        default:
+          throw new AssertionError("unknown size metric " + sizeMetric);
+      }
+    }
+    return size;
+  }
+
+  void printStatistics(StatisticsWriter w) {
+    w.put("Interpolation portfolio", portfolioTimer);
+    StatisticsWriter w1 = w.beginLevel();
+    for (Member member : members) {
+      w1.put("Results used from " + member.strategy, member.wins);
+    }
+    w1.put("Cancelled interpolation computations", cancelledComputations);
+  }
+}
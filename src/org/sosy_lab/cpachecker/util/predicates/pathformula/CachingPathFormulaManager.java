@@ -26,10 +26,15 @@ package org.sosy_lab.cpachecker.util.predicates.pathformula;
 import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
 
 import java.io.PrintStream;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.ast.c.CExpression;
 import org.sosy_lab.cpachecker.cfa.ast.c.CIdExpression;
@@ -41,6 +46,7 @@ import org.sosy_lab.cpachecker.exceptions.UnrecognizedCCodeException;
 import org.sosy_lab.cpachecker.exceptions.UnrecognizedCFAEdgeException;
 import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.pointeraliasing.PointerTargetSet;
+import org.sosy_lab.cpachecker.util.resources.MemoryStatistics;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.Formula;
 import org.sosy_lab.java_smt.api.Model.ValueAssignment;
@@ -48,30 +54,164 @@ import org.sosy_lab.java_smt.api.Model.ValueAssignment;
 /**
  * Implementation of {@link PathFormulaManager} that delegates to another
  * instance but caches results of some methods.
+ *
+ * The caches can be bounded in size, in which case the least-recently used
+ * entries are evicted first. Additionally, the caches are shrunk if the heap
+ * is close to being full (as reported by
+ * {@link MemoryStatistics#getOldGenerationUsageAfterLastGC()}),
+ * such that caching does not lead to an {@link OutOfMemoryError}.
  */
+@Options(prefix = "cpa.predicate.blk.cache")
 public class CachingPathFormulaManager implements PathFormulaManager {
 
+  @Option(
+    secure = true,
+    description =
+        "maximal number of entries in each of the path-formula caches"
+            + " (least-recently used entries are evicted first, 0 for unlimited)"
+  )
+  private int maxSize = 0;
+
+  @Option(
+    secure = true,
+    description =
+        "shrink the path-formula caches if the fraction of the old-generation heap"
+            + " that is still used after garbage collection exceeds this value (0 to disable)"
+  )
+  private double memoryPressureThreshold = 0;
+
+  /** Check the memory pressure only every this many cache insertions, because it is not free. */
+  private static final int MEMORY_CHECK_INTERVAL = 1000;
+
   public final Timer pathFormulaComputationTimer = new Timer();
   public int pathFormulaCacheHits = 0;
+  private int pathFormulaCacheMisses = 0;
+  private int cacheShrinks = 0;
+  private int insertionsSinceMemoryCheck = 0;
+
+  /**
+   * Number of old-generation GCs when the caches were last shrunk.
+   * The usage after GC is only updated by the next GC, so we shrink at most once per GC.
+   */
+  private long collectionCountAtLastShrink = -1;
 
   public final PathFormulaManager delegate;
 
-  private final Map<Pair<CFAEdge, PathFormula>, Pair<PathFormula, ErrorConditions>> andFormulaWithConditionsCache
-            = new HashMap<>();
-  private final Map<Pair<CFAEdge, PathFormula>, PathFormula> andFormulaCache
-            = new HashMap<>();
+  private final LruCache<Pair<CFAEdge, PathFormula>, Pair<PathFormula, ErrorConditions>>
+      andFormulaWithConditionsCache;
+  private final LruCache<Pair<CFAEdge, PathFormula>, PathFormula> andFormulaCache;
 
-  private final Map<Pair<PathFormula, PathFormula>, PathFormula> orFormulaCache
-            = new HashMap<>();
+  private final LruCache<Pair<PathFormula, PathFormula>, PathFormula> orFormulaCache;
 
-  private final Map<PathFormula, PathFormula> emptyFormulaCache
-            = new HashMap<>();
+  private final LruCache<PathFormula, PathFormula> emptyFormulaCache;
 
   private final PathFormula emptyFormula;
 
+  /** Create an instance with unbounded caches. */
   public CachingPathFormulaManager(PathFormulaManager pDelegate) {
     delegate = pDelegate;
     emptyFormula = delegate.makeEmptyPathFormula();
+    andFormulaWithConditionsCache = new LruCache<>(maxSize);
+    andFormulaCache = new LruCache<>(maxSize);
+    orFormulaCache = new LruCache<>(maxSize);
+    emptyFormulaCache = new LruCache<>(maxSize);
+  }
+
+  /** Create an instance whose cache bounds are read from the given configuration. */
+  public CachingPathFormulaManager(PathFormulaManager pDelegate, Configuration pConfig)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    if (maxSize < 0) {
+      throw new InvalidConfigurationException(
+          "Maximal size of path-formula cache must not be negative, but is " + maxSize);
+    }
+    if (memoryPressureThreshold < 0 || memoryPressureThreshold > 1) {
+      throw new InvalidConfigurationException(
+          "Memory-pressure threshold for path-formula cache must be between 0 and 1, but is "
+              + memoryPressureThreshold);
+    }
+    delegate = pDelegate;
+    emptyFormula = delegate.makeEmptyPathFormula();
+    andFormulaWithConditionsCache = new LruCache<>(maxSize);
+    andFormulaCache = new LruCache<>(maxSize);
+    orFormulaCache = new LruCache<>(maxSize);
+    emptyFormulaCache = new LruCache<>(maxSize);
+  }
+
+  /**
+   * A map that is ordered by access and evicts its least-recently used entry
+   * as soon as its size exceeds a given bound.
+   */
+  private static final class LruCache<K, V> extends LinkedHashMap<K, V> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int maxEntries;
+    private int evictions = 0;
+
+    private LruCache(int pMaxEntries) {
+      super(16, 0.75f, true);
+      maxEntries = pMaxEntries;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> pEldest) {
+      if (maxEntries > 0 && size() > maxEntries) {
+        evictions++;
+        return true;
+      }
+      return false;
+    }
+
+    /** Remove the least-recently used half of all entries. */
+    private void shrink() {
+      int toRemove = size() / 2;
+      Iterator<K> it = keySet().iterator();
+      for (int i = 0; i < toRemove; i++) {
+        it.next();
+        it.remove();
+      }
+      evictions += toRemove;
+    }
+  }
+
+  /**
+   * Count a cache miss and, if configured, check whether the heap is almost full
+   * and shrink all caches in this case.
+   */
+  private void handleCacheMiss() {
+    pathFormulaCacheMisses++;
+    if (memoryPressureThreshold > 0 && ++insertionsSinceMemoryCheck >= MEMORY_CHECK_INTERVAL) {
+      insertionsSinceMemoryCheck = 0;
+      long collectionCount = MemoryStatistics.getOldGenerationCollectionCount();
+      if (collectionCount != collectionCountAtLastShrink
+          && MemoryStatistics.getOldGenerationUsageAfterLastGC() > memoryPressureThreshold) {
+        collectionCountAtLastShrink = collectionCount;
+        cacheShrinks++;
+        andFormulaWithConditionsCache.shrink();
+        andFormulaCache.shrink();
+        orFormulaCache.shrink();
+        emptyFormulaCache.shrink();
+      }
+    }
+  }
+
+  int getCacheMisses() {
+    return pathFormulaCacheMisses;
+  }
+
+  int getCacheEvictions() {
+    return andFormulaWithConditionsCache.evictions
+        + andFormulaCache.evictions
+        + orFormulaCache.evictions
+        + emptyFormulaCache.evictions;
+  }
+
+  int getCacheSize() {
+    return andFormulaWithConditionsCache.size()
+        + andFormulaCache.size()
+        + orFormulaCache.size()
+        + emptyFormulaCache.size();
   }
 
   @Override
@@ -84,6 +224,7 @@ public class CachingPathFormulaManager implements PathFormulaManager {
       // compute new pathFormula with the operation on the edge
       result = delegate.makeAndWithErrorConditions(pOldFormula, pEdge);
       pathFormulaComputationTimer.stop();
+      handleCacheMiss();
       andFormulaWithConditionsCache.put(formulaCacheKey, result);
 
     } else {
@@ -101,6 +242,7 @@ public class CachingPathFormulaManager implements PathFormulaManager {
       pathFormulaComputationTimer.start();
       // compute new pathFormula with the operation on the edge
       result = delegate.makeAnd(pOldFormula, pEdge);
+      handleCacheMiss();
       andFormulaCache.put(formulaCacheKey, result);
       } finally {
         pathFormulaComputationTimer.stop();
@@ -124,6 +266,7 @@ public class CachingPathFormulaManager implements PathFormulaManager {
 
     if (result == null) {
       result = delegate.makeOr(pF1, pF2);
+      handleCacheMiss();
       orFormulaCache.put(formulaCacheKey, result);
     } else {
       pathFormulaCacheHits++;
@@ -141,6 +284,7 @@ public class CachingPathFormulaManager implements PathFormulaManager {
     PathFormula result = emptyFormulaCache.get(pOldFormula);
     if (result == null) {
       result = delegate.makeEmptyPathFormula(pOldFormula);
+      handleCacheMiss();
       emptyFormulaCache.put(pOldFormula, result);
     } else {
       pathFormulaCacheHits++;
@@ -225,6 +369,12 @@ public class CachingPathFormulaManager implements PathFormulaManager {
             + " ("
             + toPercent(cacheHits, totalPathFormulaComputations)
             + ")");
+    out.println("Number of path formula cache misses: " + pathFormulaCacheMisses);
+    out.println("Number of path formula cache evictions: " + getCacheEvictions());
+    if (cacheShrinks > 0) {
+      out.println("Number of path formula cache shrinks due to memory pressure: " + cacheShrinks);
+    }
+    out.println("Size of path formula caches:         " + getCacheSize());
     out.println();
 
     out.println("Inside post operator:                  ");
@@ -0,0 +1,103 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.pathformula;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.pointeraliasing.PointerTargetSet;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+public class CachingPathFormulaManagerTest {
+
+  private final BooleanFormula formula = mock(BooleanFormula.class);
+
+  private PathFormulaManager delegate;
+  private CachingPathFormulaManager pfmgr;
+
+  private PathFormula makePathFormula(int pLength) {
+    return new PathFormula(
+        formula, SSAMap.emptySSAMap(), PointerTargetSet.emptyPointerTargetSet(), pLength);
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    delegate = mock(PathFormulaManager.class);
+    when(delegate.makeEmptyPathFormula()).thenReturn(makePathFormula(0));
+    when(delegate.makeEmptyPathFormula(any(PathFormula.class)))
+        .thenAnswer(invocation -> makePathFormula(0));
+
+    Configuration config =
+        Configuration.builder().setOption("cpa.predicate.blk.cache.maxSize", "2").build();
+    pfmgr = new CachingPathFormulaManager(delegate, config);
+  }
+
+  @Test
+  public void testEvictionOfLeastRecentlyUsedEntry() throws Exception {
+    PathFormula f1 = makePathFormula(1);
+    PathFormula f2 = makePathFormula(2);
+    PathFormula f3 = makePathFormula(3);
+
+    pfmgr.makeEmptyPathFormula(f1);
+    pfmgr.makeEmptyPathFormula(f2);
+    pfmgr.makeEmptyPathFormula(f1); // hit, f2 is now the least-recently used entry
+    pfmgr.makeEmptyPathFormula(f3); // evicts f2
+
+    assertThat(pfmgr.pathFormulaCacheHits).isEqualTo(1);
+    assertThat(pfmgr.getCacheMisses()).isEqualTo(3);
+    assertThat(pfmgr.getCacheEvictions()).isEqualTo(1);
+    assertThat(pfmgr.getCacheSize()).isEqualTo(2);
+
+    pfmgr.makeEmptyPathFormula(f1); // hit
+    pfmgr.makeEmptyPathFormula(f2); // miss, evicts f3
+
+    assertThat(pfmgr.pathFormulaCacheHits).isEqualTo(2);
+    assertThat(pfmgr.getCacheMisses()).isEqualTo(4);
+    assertThat(pfmgr.getCacheEvictions()).isEqualTo(2);
+    assertThat(pfmgr.getCacheSize()).isEqualTo(2);
+
+    verify(delegate, times(1)).makeEmptyPathFormula(f1);
+    verify(delegate, times(2)).makeEmptyPathFormula(f2);
+    verify(delegate, times(1)).makeEmptyPathFormula(f3);
+  }
+
+  @Test
+  public void testUnboundedByDefault() throws Exception {
+    pfmgr = new CachingPathFormulaManager(delegate, Configuration.defaultConfiguration());
+    for (int i = 1; i <= 100; i++) {
+      pfmgr.makeEmptyPathFormula(makePathFormula(i));
+    }
+
+    assertThat(pfmgr.getCacheMisses()).isEqualTo(100);
+    assertThat(pfmgr.getCacheEvictions()).isEqualTo(0);
+    assertThat(pfmgr.getCacheSize()).isEqualTo(100);
+  }
+}
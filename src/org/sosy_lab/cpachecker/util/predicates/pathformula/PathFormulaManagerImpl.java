@@ -120,6 +120,19 @@ public class PathFormulaManagerImpl implements PathFormulaManager {
   )
   private boolean useNondetFlags = false;
 
+  @Option(
+    secure = true,
+    description =
+        "Store SSA indices with interned int ids of the variable names as keys"
+            + " instead of in sorted maps with the variable names as keys."
+            + " This makes creating and merging path formulas cheaper,"
+            + " especially for long paths, e.g., unrolled loops in BMC."
+  )
+  private boolean useInternedSSAMap = false;
+
+  // Assigns ids to the variable names in SSAMaps, only used with useInternedSSAMap.
+  private final @Nullable VariableNameInterner ssaVariableInterner;
+
   public PathFormulaManagerImpl(FormulaManagerView pFmgr,
       Configuration config, LogManager pLogger, ShutdownNotifier pShutdownNotifier,
       CFA pCfa, AnalysisDirection pDirection)
@@ -197,6 +210,7 @@ public class PathFormulaManagerImpl implements PathFormulaManager {
     }
 
     NONDET_FORMULA_TYPE = converter.getFormulaTypeFromCType(NONDET_TYPE);
+    ssaVariableInterner = useInternedSSAMap ? new VariableNameInterner() : null;
   }
 
   @Override
@@ -267,8 +281,12 @@ public class PathFormulaManagerImpl implements PathFormulaManager {
 
   @Override
   public PathFormula makeEmptyPathFormula() {
+    SSAMap emptySsa =
+        ssaVariableInterner == null
+            ? SSAMap.emptySSAMap()
+            : SSAMap.emptySSAMap(ssaVariableInterner);
     return new PathFormula(bfmgr.makeTrue(),
-                           SSAMap.emptySSAMap(),
+                           emptySsa,
                            PointerTargetSet.emptyPointerTargetSet(),
                            0);
   }
@@ -25,13 +25,18 @@ package org.sosy_lab.cpachecker.util.predicates.pathformula;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.testing.ClassSanityTester;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.sosy_lab.common.collect.MapsDifference;
 import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
 import org.sosy_lab.common.collect.PersistentLinkedList;
 import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
@@ -173,4 +178,87 @@ public class PathFormulaTest {
     thrown.expect(IllegalArgumentException.class);
     builder.setIndex("a", CNumericTypes.INT, 1);
   }
+
+  @Test
+  public void testInternedSSA() {
+    SSAMapBuilder internedBuilder = SSAMap.emptySSAMap(new VariableNameInterner()).builder();
+    for (SSAMapBuilder b : ImmutableList.of(builder, internedBuilder)) {
+      b.setIndex("a", CNumericTypes.INT, 1)
+          .setIndex("b", CNumericTypes.INT, 2)
+          .setIndex("c", CNumericTypes.INT, 3)
+          .deleteVariable("b");
+    }
+
+    SSAMap ssa = builder.build();
+    SSAMap internedSsa = internedBuilder.build();
+    assertThat(internedSsa.getIndex("a")).isEqualTo(1);
+    assertThat(internedSsa.getIndex("b")).isEqualTo(-1);
+    assertThat(internedSsa.containsVariable("c")).isTrue();
+    assertThat(internedSsa.allVariables()).containsExactly("a", "c").inOrder();
+    assertThat(internedSsa.toString()).isEqualTo(ssa.toString());
+    assertThat(internedSsa).isEqualTo(ssa);
+    assertThat(internedSsa.hashCode()).isEqualTo(ssa.hashCode());
+  }
+
+  @Test
+  public void testInternedSSAMerge() {
+    VariableNameInterner interner = new VariableNameInterner();
+    SSAMap base =
+        SSAMap.emptySSAMap(interner).builder().setIndex("x", CNumericTypes.INT, 1).build();
+    SSAMap s1 =
+        base.builder()
+            .setIndex("x", CNumericTypes.INT, 3)
+            .setIndex("y", CNumericTypes.INT, 2)
+            .build();
+    SSAMap s2 = base.builder().setIndex("z", CNumericTypes.INT, 4).build();
+
+    List<MapsDifference.Entry<String, Integer>> differences = new ArrayList<>();
+    SSAMap merged = SSAMap.merge(s1, s2, MapsDifference.collectMapsDifferenceTo(differences));
+    assertThat(merged.getIndex("x")).isEqualTo(3);
+    assertThat(merged.getIndex("y")).isEqualTo(2);
+    assertThat(merged.getIndex("z")).isEqualTo(4);
+    assertThat(differences).hasSize(3);
+
+    // merging with a non-interned SSAMap gives the same result
+    SSAMap s2NotInterned =
+        SSAMap.emptySSAMap()
+            .builder()
+            .setIndex("x", CNumericTypes.INT, 1)
+            .setIndex("z", CNumericTypes.INT, 4)
+            .build();
+    assertThat(SSAMap.merge(s1, s2NotInterned, MapsDifference.ignoreMapsDifference()))
+        .isEqualTo(merged);
+  }
+
+  @Test
+  public void testMergeHashCode() {
+    SSAMap expected =
+        SSAMap.emptySSAMap()
+            .builder()
+            .setIndex("x", CNumericTypes.INT, 3)
+            .setIndex("y", CNumericTypes.INT, 2)
+            .setIndex("z", CNumericTypes.INT, 4)
+            .build();
+
+    for (SSAMap base :
+        ImmutableList.of(SSAMap.emptySSAMap(), SSAMap.emptySSAMap(new VariableNameInterner()))) {
+      base = base.builder().setIndex("x", CNumericTypes.INT, 1).build();
+      SSAMap s1 =
+          base.builder()
+              .setIndex("x", CNumericTypes.INT, 3)
+              .setIndex("y", CNumericTypes.INT, 2)
+              .build();
+      SSAMap s2 = base.builder().setIndex("z", CNumericTypes.INT, 4).build();
+
+      // the hash code is computed incrementally, so check it against the hash code of the map
+      for (SSAMap merged :
+          ImmutableList.of(
+              SSAMap.merge(s1, s2, MapsDifference.ignoreMapsDifference()),
+              SSAMap.merge(s2, s1, MapsDifference.ignoreMapsDifference()))) {
+        assertThat(merged).isEqualTo(expected);
+        assertThat(merged.hashCode()).isEqualTo(expected.hashCode());
+        assertThat(merged.hashCode()).isEqualTo(ImmutableMap.of("x", 3, "y", 2, "z", 4).hashCode());
+      }
+    }
+  }
 }
@@ -0,0 +1,362 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.pathformula;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import javax.annotation.Nullable;
+
+/**
+ * Immutable map from non-negative int keys to positive int values, implemented as a
+ * path-copying trie with 32-way branching. Neither keys nor values are boxed, and
+ * modifications copy only the nodes on the path to the changed entry, such that unchanged
+ * subtrees are shared between instances. This is intended for dense keys, e.g., the ids of
+ * {@link VariableNameInterner}.
+ *
+ * <p>The value 0 is used internally for absent entries and cannot be stored.
+ */
+final class PersistentIntIntTrie implements Serializable {
+
+  private static final long serialVersionUID = 6352958146294123542L;
+
+  private static final int BITS = 5;
+  private static final int WIDTH = 1 << BITS;
+  private static final int MASK = WIDTH - 1;
+
+  /** Receives the differences found while merging two tries. */
+  interface MergeVisitor {
+    void leftValueOnly(int key, int leftValue);
+
+    void rightValueOnly(int key, int rightValue);
+
+    void differingValues(int key, int leftValue, int rightValue);
+  }
+
+  /** Receives all entries of a trie. */
+  interface EntryConsumer {
+    void accept(int key, int value);
+  }
+
+  private static final PersistentIntIntTrie EMPTY = new PersistentIntIntTrie(null, 0, 0);
+
+  /**
+   * Root node: an int[] if {@link #shift} is 0, an Object[] with child nodes otherwise,
+   * or null if the trie is empty. Child nodes are null if their subtrie is empty.
+   */
+  private final @Nullable Object root;
+
+  /** Number of bits the key needs to be shifted for the index into the root node. */
+  private final int shift;
+
+  private final int size;
+
+  private PersistentIntIntTrie(@Nullable Object pRoot, int pShift, int pSize) {
+    root = pRoot;
+    shift = pShift;
+    size = pSize;
+  }
+
+  static PersistentIntIntTrie of() {
+    return EMPTY;
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Return the value for the given key, or 0 if there is no such entry. */
+  int get(int key) {
+    if (key < 0 || root == null || (key >>> shift) >= WIDTH) {
+      return 0;
+    }
+    Object node = root;
+    for (int level = shift; level > 0; level -= BITS) {
+      node = ((Object[]) node)[(key >>> level) & MASK];
+      if (node == null) {
+        return 0;
+      }
+    }
+    return ((int[]) node)[key & MASK];
+  }
+
+  PersistentIntIntTrie putAndCopy(int key, int value) {
+    checkArgument(key >= 0, "Negative keys are not supported: %s", key);
+    checkArgument(value != 0, "Value 0 cannot be stored");
+    Object newRoot = root;
+    int newShift = shift;
+    while ((key >>> newShift) >= WIDTH) {
+      // grow trie by one level, the old root becomes the first child of the new root
+      Object[] wrapper = new Object[WIDTH];
+      wrapper[0] = newRoot;
+      newRoot = newRoot == null ? null : wrapper;
+      newShift += BITS;
+    }
+
+    int oldValue = get(key);
+    if (oldValue == value && newShift == shift) {
+      return this;
+    }
+    newRoot = put(newRoot, newShift, key, value);
+    return new PersistentIntIntTrie(newRoot, newShift, oldValue == 0 ? size + 1 : size);
+  }
+
+  private static Object put(@Nullable Object node, int level, int key, int value) {
+    int index = (key >>> level) & MASK;
+    if (level == 0) {
+      int[] leaf = node == null ? new int[WIDTH] : ((int[]) node).clone();
+      leaf[index] = value;
+      return leaf;
+    }
+    Object[] inner = node == null ? new Object[WIDTH] : ((Object[]) node).clone();
+    inner[index] = put(inner[index], level - BITS, key, value);
+    return inner;
+  }
+
+  PersistentIntIntTrie removeAndCopy(int key) {
+    if (get(key) == 0) {
+      return this;
+    }
+    if (size == 1) {
+      return EMPTY;
+    }
+    return new PersistentIntIntTrie(remove(root, shift, key), shift, size - 1);
+  }
+
+  /** Remove key from node, returning null if the node becomes empty. */
+  private static @Nullable Object remove(Object node, int level, int key) {
+    int index = (key >>> level) & MASK;
+    if (level == 0) {
+      int[] leaf = ((int[]) node).clone();
+      leaf[index] = 0;
+      return isEmptyLeaf(leaf) ? null : leaf;
+    }
+    Object[] inner = ((Object[]) node).clone();
+    inner[index] = remove(inner[index], level - BITS, key);
+    return isEmptyInner(inner) ? null : inner;
+  }
+
+  private static boolean isEmptyLeaf(int[] leaf) {
+    for (int value : leaf) {
+      if (value != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isEmptyInner(Object[] inner) {
+    for (Object child : inner) {
+      if (child != null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Call the consumer for all entries in ascending order of keys. */
+  void forEach(EntryConsumer consumer) {
+    forEach(root, shift, 0, consumer);
+  }
+
+  private static void forEach(
+      @Nullable Object node, int level, int prefix, EntryConsumer consumer) {
+    if (node == null) {
+      return;
+    }
+    if (level == 0) {
+      int[] leaf = (int[]) node;
+      for (int i = 0; i < WIDTH; i++) {
+        if (leaf[i] != 0) {
+          consumer.accept(prefix | i, leaf[i]);
+        }
+      }
+    } else {
+      Object[] inner = (Object[]) node;
+      for (int i = 0; i < WIDTH; i++) {
+        forEach(inner[i], level - BITS, prefix | (i << level), consumer);
+      }
+    }
+  }
+
+  /**
+   * Create a trie that contains all entries of both tries. If both tries have a value for a key,
+   * the maximum is used. All differences are reported to the visitor. Subtries that are
+   * identical in both tries are skipped, so merging two tries that are derived from a common
+   * ancestor is cheap.
+   */
+  static PersistentIntIntTrie merge(
+      PersistentIntIntTrie t1, PersistentIntIntTrie t2, MergeVisitor visitor) {
+    if (t1 == t2) {
+      return t1;
+    }
+    int shift = Math.max(t1.shift, t2.shift);
+    int[] sizeDelta = new int[1];
+    Object root =
+        mergeNodes(t1.rootWithShift(shift), t2.rootWithShift(shift), shift, 0, visitor, sizeDelta);
+    return new PersistentIntIntTrie(root, shift, t1.size + sizeDelta[0]);
+  }
+
+  /** Return the root node, wrapped such that the trie has the given (bigger) shift. */
+  private @Nullable Object rootWithShift(int pShift) {
+    Object node = root;
+    for (int level = shift; level < pShift && node != null; level += BITS) {
+      Object[] wrapper = new Object[WIDTH];
+      wrapper[0] = node;
+      node = wrapper;
+    }
+    return node;
+  }
+
+  /**
+   * Merge two nodes on the same level.
+   *
+   * @param sizeDelta single-element array where the number of keys that are only present in
+   *     the second node is added to
+   */
+  private static @Nullable Object mergeNodes(
+      @Nullable Object n1,
+      @Nullable Object n2,
+      int level,
+      int prefix,
+      MergeVisitor visitor,
+      int[] sizeDelta) {
+    if (n1 == n2) {
+      return n1;
+    } else if (n2 == null) {
+      forEach(n1, level, prefix, visitor::leftValueOnly);
+      return n1;
+    } else if (n1 == null) {
+      forEach(
+          n2,
+          level,
+          prefix,
+          (key, value) -> {
+            sizeDelta[0]++;
+            visitor.rightValueOnly(key, value);
+          });
+      return n2;
+    }
+
+    if (level == 0) {
+      int[] leaf1 = (int[]) n1;
+      int[] leaf2 = (int[]) n2;
+      boolean equalToLeaf1 = true;
+      boolean equalToLeaf2 = true;
+      int[] result = new int[WIDTH];
+      for (int i = 0; i < WIDTH; i++) {
+        int v1 = leaf1[i];
+        int v2 = leaf2[i];
+        if (v1 != v2) {
+          if (v2 == 0) {
+            visitor.leftValueOnly(prefix | i, v1);
+          } else if (v1 == 0) {
+            sizeDelta[0]++;
+            visitor.rightValueOnly(prefix | i, v2);
+          } else {
+            visitor.differingValues(prefix | i, v1, v2);
+          }
+        }
+        result[i] = Math.max(v1, v2);
+        equalToLeaf1 &= result[i] == v1;
+        equalToLeaf2 &= result[i] == v2;
+      }
+      return equalToLeaf1 ? leaf1 : (equalToLeaf2 ? leaf2 : result);
+
+    } else {
+      Object[] inner1 = (Object[]) n1;
+      Object[] inner2 = (Object[]) n2;
+      boolean equalToInner1 = true;
+      boolean equalToInner2 = true;
+      Object[] result = new Object[WIDTH];
+      for (int i = 0; i < WIDTH; i++) {
+        result[i] =
+            mergeNodes(
+                inner1[i], inner2[i], level - BITS, prefix | (i << level), visitor, sizeDelta);
+        equalToInner1 &= result[i] == inner1[i];
+        equalToInner2 &= result[i] == inner2[i];
+      }
+      return equalToInner1 ? inner1 : (equalToInner2 ? inner2 : result);
+    }
+  }
+
+  @Override
+  public boolean equals(Object pObj) {
+    if (this == pObj) {
+      return true;
+    }
+    if (!(pObj instanceof PersistentIntIntTrie)) {
+      return false;
+    }
+    PersistentIntIntTrie other = (PersistentIntIntTrie) pObj;
+    if (size != other.size) {
+      return false;
+    }
+    int shift = Math.max(this.shift, other.shift);
+    return nodesEqual(rootWithShift(shift), other.rootWithShift(shift), shift);
+  }
+
+  private static boolean nodesEqual(@Nullable Object n1, @Nullable Object n2, int level) {
+    if (n1 == n2) {
+      return true;
+    } else if (n1 == null || n2 == null) {
+      return false;
+    } else if (level == 0) {
+      return Arrays.equals((int[]) n1, (int[]) n2);
+    }
+    Object[] inner1 = (Object[]) n1;
+    Object[] inner2 = (Object[]) n2;
+    for (int i = 0; i < WIDTH; i++) {
+      if (!nodesEqual(inner1[i], inner2[i], level - BITS)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int[] hash = new int[1];
+    forEach((key, value) -> hash[0] += key ^ value);
+    return hash[0];
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("{");
+    forEach(
+        (key, value) -> {
+          if (sb.length() > 1) {
+            sb.append(", ");
+          }
+          sb.append(key).append('=').append(value);
+        });
+    return sb.append('}').toString();
+  }
+}
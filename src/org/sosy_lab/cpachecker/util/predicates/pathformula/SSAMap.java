@@ -28,6 +28,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import com.google.common.base.Equivalence;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSortedMap;
 
 import org.sosy_lab.common.collect.Collections3;
 import org.sosy_lab.common.collect.MapsDifference;
@@ -48,10 +49,18 @@ import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.SortedSet;
+import javax.annotation.Nullable;
 
 /**
  * Maps a variable name to its latest "SSA index", that should be used when
  * referring to that variable.
+ *
+ * There are two representations of the indices: By default, they are stored in a
+ * sorted map with the variable names as keys. Alternatively, if the SSAMap was created with
+ * {@link #emptySSAMap(VariableNameInterner)}, the variable names are mapped to int ids
+ * and the indices are stored in a {@link PersistentIntIntTrie}, which avoids boxing,
+ * String comparisons, and allocation of tree nodes on updates and merges.
+ * Both representations can be mixed, but this is slower.
  */
 public class SSAMap implements Serializable {
 
@@ -103,6 +112,7 @@ public class SSAMap implements Serializable {
 
     private SSAMap ssa;
     private PersistentSortedMap<String, Integer> vars; // Do not update without updating varsHashCode!
+    private PersistentIntIntTrie intVars; // Do not update without updating varsHashCode!
     private FreshValueProvider freshValueProvider;
     private PersistentSortedMap<String, CType> varTypes;
 
@@ -114,6 +124,7 @@ public class SSAMap implements Serializable {
     private SSAMapBuilder(SSAMap ssa) {
       this.ssa = ssa;
       this.vars = ssa.vars;
+      this.intVars = ssa.intVars;
       this.freshValueProvider = ssa.freshValueProvider;
 
       this.varTypes = ssa.varTypes;
@@ -121,12 +132,11 @@ public class SSAMap implements Serializable {
     }
 
     public int getIndex(String variable) {
-      return SSAMap.getIndex(variable, vars, ssa.defaultValue);
+      return SSAMap.getIndex(variable, vars, ssa.interner, intVars, ssa.defaultValue);
     }
 
     public int getFreshIndex(String variable) {
-      return freshValueProvider.getFreshValue(variable,
-          SSAMap.getIndex(variable, vars, ssa.defaultValue));
+      return freshValueProvider.getFreshValue(variable, getIndex(variable));
     }
 
     public CType getType(String name) {
@@ -148,7 +158,11 @@ public class SSAMap implements Serializable {
       }
 
       if (idx > oldIdx || idx == ssa.defaultValue) {
-        vars = vars.putAndCopy(name, idx);
+        if (ssa.interner == null) {
+          vars = vars.putAndCopy(name, idx);
+        } else {
+          intVars = intVars.putAndCopy(ssa.interner.getOrCreateId(name), idx);
+        }
         if (oldIdx != ssa.defaultValue) {
           varsHashCode -= mapEntryHashCode(name, oldIdx);
         }
@@ -165,7 +179,11 @@ public class SSAMap implements Serializable {
     public SSAMapBuilder deleteVariable(String variable) {
       int index = getIndex(variable);
       if (index != ssa.defaultValue) {
-        vars = vars.removeAndCopy(variable);
+        if (ssa.interner == null) {
+          vars = vars.removeAndCopy(variable);
+        } else {
+          intVars = intVars.removeAndCopy(ssa.interner.getId(variable));
+        }
         varsHashCode -= mapEntryHashCode(variable, index);
 
         varTypes = varTypes.removeAndCopy(variable);
@@ -186,11 +204,21 @@ public class SSAMap implements Serializable {
      * Returns an immutable SSAMap with all the changes made to the builder.
      */
     public SSAMap build() {
-      if (vars == ssa.vars && freshValueProvider == ssa.freshValueProvider) {
+      if (vars == ssa.vars
+          && intVars == ssa.intVars
+          && freshValueProvider == ssa.freshValueProvider) {
         return ssa;
       }
 
-      ssa = new SSAMap(vars, freshValueProvider, varsHashCode, varTypes, ssa.defaultValue);
+      ssa =
+          new SSAMap(
+              vars,
+              ssa.interner,
+              intVars,
+              freshValueProvider,
+              varsHashCode,
+              varTypes,
+              ssa.defaultValue);
       return ssa;
     }
 
@@ -205,9 +233,12 @@ public class SSAMap implements Serializable {
 
   private static final SSAMap EMPTY_SSA_MAP = new SSAMap(
       PathCopyingPersistentTreeMap.of(),
+      null,
+      PersistentIntIntTrie.of(),
       new FreshValueProvider(),
       0,
-      PathCopyingPersistentTreeMap.of());
+      PathCopyingPersistentTreeMap.of(),
+      DEFAULT_DEFAULT_IDX);
 
   /**
    * Returns an empty immutable SSAMap.
@@ -216,8 +247,31 @@ public class SSAMap implements Serializable {
     return EMPTY_SSA_MAP;
   }
 
+  /**
+   * Returns an empty immutable SSAMap that stores the indices of variables
+   * with the ids that are assigned to them by the given interner.
+   * All SSAMaps that are derived from it use the same interner.
+   */
+  static SSAMap emptySSAMap(VariableNameInterner pInterner) {
+    return new SSAMap(
+        PathCopyingPersistentTreeMap.of(),
+        pInterner,
+        PersistentIntIntTrie.of(),
+        new FreshValueProvider(),
+        0,
+        PathCopyingPersistentTreeMap.of(),
+        DEFAULT_DEFAULT_IDX);
+  }
+
   public SSAMap withDefault(final int pDefaultValue) {
-    return new SSAMap(this.vars, this.freshValueProvider, this.varsHashCode, this.varTypes, pDefaultValue);
+    return new SSAMap(
+        this.vars,
+        this.interner,
+        this.intVars,
+        this.freshValueProvider,
+        this.varsHashCode,
+        this.varTypes,
+        pDefaultValue);
   }
 
   /**
@@ -237,20 +291,52 @@ public class SSAMap implements Serializable {
 
     checkArgument(s1.defaultValue == s2.defaultValue);
     PersistentSortedMap<String, Integer> vars;
+    PersistentIntIntTrie intVars;
     FreshValueProvider freshValueProvider;
     int defaultIndex;
-    if (s1.vars == s2.vars && s1.freshValueProvider == s2.freshValueProvider) {
+    final HashCodeUpdatingVisitor differences =
+        new HashCodeUpdatingVisitor(s1.varsHashCode, collectDifferences);
+    // If the representations differ, we convert both maps to the interner of one of them.
+    final VariableNameInterner interner = s1.interner != null ? s1.interner : s2.interner;
+    if (s1.vars == s2.vars
+        && s1.intVars == s2.intVars
+        && s1.freshValueProvider == s2.freshValueProvider) {
       // both are absolutely identical
       return s1;
 
     } else {
-      vars =
-          PersistentSortedMaps.merge(
-              s1.vars,
-              s2.vars,
-              Equivalence.equals(),
-              PersistentSortedMaps.getMaximumMergeConflictHandler(),
-              collectDifferences);
+      if (interner == null) {
+        vars =
+            PersistentSortedMaps.merge(
+                s1.vars,
+                s2.vars,
+                Equivalence.equals(),
+                PersistentSortedMaps.getMaximumMergeConflictHandler(),
+                differences);
+        intVars = PersistentIntIntTrie.of();
+      } else {
+        vars = PathCopyingPersistentTreeMap.of();
+        intVars =
+            PersistentIntIntTrie.merge(
+                s1.getIntVars(interner),
+                s2.getIntVars(interner),
+                new PersistentIntIntTrie.MergeVisitor() {
+                  @Override
+                  public void leftValueOnly(int pKey, int pLeftValue) {
+                    differences.leftValueOnly(interner.getName(pKey), pLeftValue);
+                  }
+
+                  @Override
+                  public void rightValueOnly(int pKey, int pRightValue) {
+                    differences.rightValueOnly(interner.getName(pKey), pRightValue);
+                  }
+
+                  @Override
+                  public void differingValues(int pKey, int pLeftValue, int pRightValue) {
+                    differences.differingValues(interner.getName(pKey), pLeftValue, pRightValue);
+                  }
+                });
+      }
       freshValueProvider = s1.freshValueProvider.merge(s2.freshValueProvider);
       defaultIndex = s1.defaultValue;
     }
@@ -263,42 +349,95 @@ public class SSAMap implements Serializable {
             TYPE_CONFLICT_CHECKER,
             MapsDifference.ignoreMapsDifference());
 
-    return new SSAMap(vars, freshValueProvider, 0, varTypes, defaultIndex);
+    return new SSAMap(
+        vars,
+        interner,
+        intVars,
+        freshValueProvider,
+        differences.hashCode,
+        varTypes,
+        defaultIndex);
+  }
+
+  /**
+   * Visitor for the differences of two merged SSAMaps that forwards all differences
+   * and computes the hash code of the merged map incrementally from the hash code
+   * of the left map (merging takes the maximum of both indices).
+   */
+  private static class HashCodeUpdatingVisitor
+      implements MapsDifference.Visitor<String, Integer> {
+
+    private final MapsDifference.Visitor<String, Integer> delegate;
+    private int hashCode;
+
+    private HashCodeUpdatingVisitor(
+        int pLeftHashCode, MapsDifference.Visitor<String, Integer> pDelegate) {
+      hashCode = pLeftHashCode;
+      delegate = pDelegate;
+    }
+
+    @Override
+    public void leftValueOnly(String pKey, Integer pLeftValue) {
+      delegate.leftValueOnly(pKey, pLeftValue);
+    }
+
+    @Override
+    public void rightValueOnly(String pKey, Integer pRightValue) {
+      hashCode += SSAMapBuilder.mapEntryHashCode(pKey, pRightValue);
+      delegate.rightValueOnly(pKey, pRightValue);
+    }
+
+    @Override
+    public void differingValues(String pKey, Integer pLeftValue, Integer pRightValue) {
+      if (pRightValue > pLeftValue) {
+        hashCode -= SSAMapBuilder.mapEntryHashCode(pKey, pLeftValue);
+        hashCode += SSAMapBuilder.mapEntryHashCode(pKey, pRightValue);
+      }
+      delegate.differingValues(pKey, pLeftValue, pRightValue);
+    }
   }
 
+  // Indices of variables if interner is null, empty otherwise.
   private final PersistentSortedMap<String, Integer> vars;
+
+  // Interner for variable names used as keys in intVars, or null if vars is used.
+  private final @Nullable VariableNameInterner interner;
+
+  // Indices of variables by their id if interner is not null, empty otherwise.
+  private final PersistentIntIntTrie intVars;
+
   private final FreshValueProvider freshValueProvider;
   private final PersistentSortedMap<String, CType> varTypes;
 
   // Cache hashCode of potentially big map
   private final int varsHashCode;
 
+  // Lazily created view of intVars with variable names as keys, only used if interner is not null.
+  private transient @Nullable ImmutableSortedMap<String, Integer> intVarsByName;
+
   private SSAMap(PersistentSortedMap<String, Integer> vars,
+                 @Nullable VariableNameInterner interner,
+                 PersistentIntIntTrie intVars,
                  FreshValueProvider freshValueProvider,
                  int varsHashCode,
                  PersistentSortedMap<String, CType> varTypes,
                  int defaultSSAIdx) {
+    assert interner != null || intVars.isEmpty();
+    assert interner == null || vars.isEmpty();
     this.vars = vars;
+    this.interner = interner;
+    this.intVars = intVars;
     this.freshValueProvider = freshValueProvider;
     this.varTypes = varTypes;
 
-    if (varsHashCode == 0) {
-      this.varsHashCode = vars.hashCode();
-    } else {
-      this.varsHashCode = varsHashCode;
-      assert varsHashCode == vars.hashCode();
-    }
+    // The hash code is always computed incrementally by the callers.
+    // For interned maps we cannot check it cheaply, this is done in the unit tests instead.
+    this.varsHashCode = varsHashCode;
+    assert interner != null || varsHashCode == vars.hashCode();
 
     defaultValue = defaultSSAIdx;
   }
 
-  private SSAMap(PersistentSortedMap<String, Integer> vars,
-                 FreshValueProvider freshValueProvider,
-                 int varsHashCode,
-                 PersistentSortedMap<String, CType> varTypes) {
-    this(vars, freshValueProvider, varsHashCode, varTypes, DEFAULT_DEFAULT_IDX);
-  }
-
   /**
    * Returns a SSAMapBuilder that is initialized with the current SSAMap.
    */
@@ -306,7 +445,16 @@ public class SSAMap implements Serializable {
     return new SSAMapBuilder(this);
   }
 
-  private static int getIndex(String variable, Map<String, Integer> vars, int defaultValue) {
+  private static int getIndex(
+      String variable,
+      Map<String, Integer> vars,
+      @Nullable VariableNameInterner interner,
+      PersistentIntIntTrie intVars,
+      int defaultValue) {
+    if (interner != null) {
+      int value = intVars.get(interner.getId(variable));
+      return value == 0 ? defaultValue : value;
+    }
     Integer value = vars.get(variable);
     if (value == null) {
       return defaultValue;
@@ -314,15 +462,50 @@ public class SSAMap implements Serializable {
     return value;
   }
 
+  /**
+   * Return the indices of all variables as a map with the variable names as keys.
+   * This is cheap only for SSAMaps without an interner.
+   */
+  private SortedMap<String, Integer> getVars() {
+    return interner == null ? vars : getIntVarsByName();
+  }
+
+  private ImmutableSortedMap<String, Integer> getIntVarsByName() {
+    assert interner != null;
+    ImmutableSortedMap<String, Integer> result = intVarsByName;
+    if (result == null) {
+      ImmutableSortedMap.Builder<String, Integer> builder = ImmutableSortedMap.naturalOrder();
+      intVars.forEach((id, index) -> builder.put(interner.getName(id), index));
+      result = builder.build();
+      intVarsByName = result;
+    }
+    return result;
+  }
+
+  /** Return the indices of all variables keyed by their ids in the given interner. */
+  private PersistentIntIntTrie getIntVars(VariableNameInterner pInterner) {
+    if (interner == pInterner) {
+      return intVars;
+    }
+    PersistentIntIntTrie result = PersistentIntIntTrie.of();
+    for (Map.Entry<String, Integer> entry : getVars().entrySet()) {
+      result = result.putAndCopy(pInterner.getOrCreateId(entry.getKey()), entry.getValue());
+    }
+    return result;
+  }
+
   /**
    * @return index of the variable in the map,
    * or the [defaultValue].
    */
   public int getIndex(String variable) {
-    return getIndex(variable, vars, defaultValue);
+    return getIndex(variable, vars, interner, intVars, defaultValue);
   }
 
   public boolean containsVariable(String variable) {
+    if (interner != null) {
+      return intVars.get(interner.getId(variable)) != 0;
+    }
     return vars.containsKey(variable);
   }
 
@@ -331,14 +514,14 @@ public class SSAMap implements Serializable {
   }
 
   public SortedSet<String> allVariables() {
-    return vars.keySet();
+    return interner == null ? vars.keySet() : getIntVarsByName().keySet();
   }
 
   private static final Joiner joiner = Joiner.on(" ");
 
   @Override
   public String toString() {
-    return joiner.join(vars.entrySet());
+    return joiner.join(getVars().entrySet());
   }
 
   @Override
@@ -356,7 +539,9 @@ public class SSAMap implements Serializable {
       SSAMap other = (SSAMap)obj;
       // Do a few cheap checks before the expensive ones.
       return varsHashCode == other.varsHashCode
-          && vars.equals(other.vars)
+          && (interner == other.interner
+              ? vars.equals(other.vars) && intVars.equals(other.intVars)
+              : getVars().equals(other.getVars()))
           && freshValueProvider.equals(other.freshValueProvider);
     }
   }
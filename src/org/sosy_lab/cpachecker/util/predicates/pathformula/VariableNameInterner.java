@@ -0,0 +1,86 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.pathformula;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Assigns dense int ids to variable names, such that SSAMaps can store their indices
+ * in a {@link PersistentIntIntTrie} instead of a map with String keys.
+ * Ids are never released, so one instance should be used per CFA
+ * (which has a bounded set of variable names).
+ *
+ * <p>This class is thread-safe.
+ */
+final class VariableNameInterner implements Serializable {
+
+  private static final long serialVersionUID = -2394762834057711297L;
+
+  private final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<>();
+
+  // Written only while holding the lock of this object,
+  // and always before the respective name is added to ids.
+  private volatile String[] names = new String[256];
+
+  /** Return the id of the given variable name, or -1 if it has no id yet. */
+  int getId(String name) {
+    Integer id = ids.get(name);
+    return id == null ? -1 : id;
+  }
+
+  /** Return the id of the given variable name, creating a new one if necessary. */
+  int getOrCreateId(String name) {
+    Integer id = ids.get(name);
+    if (id != null) {
+      return id;
+    }
+    synchronized (this) {
+      id = ids.get(name);
+      if (id != null) {
+        return id;
+      }
+      int newId = ids.size();
+      String[] currentNames = names;
+      if (newId == currentNames.length) {
+        currentNames = Arrays.copyOf(currentNames, 2 * currentNames.length);
+      }
+      currentNames[newId] = name;
+      names = currentNames;
+      ids.put(name, newId);
+      return newId;
+    }
+  }
+
+  /** Return the variable name for an id that was created by this instance. */
+  String getName(int id) {
+    return names[id];
+  }
+
+  int size() {
+    return ids.size();
+  }
+}
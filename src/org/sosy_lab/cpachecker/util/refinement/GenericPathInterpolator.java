@@ -190,7 +190,10 @@ public class GenericPathInterpolator<S extends ForgetfulState<?>, I extends Inte
 
     prefixExtractionTime.start();
     List<InfeasiblePrefix> prefixes =
-        prefixProvider.extractInfeasiblePrefixes(pErrorPath, pInterpolant.reconstructState());
+        prefixProvider.extractInfeasiblePrefixes(
+            pErrorPath,
+            pInterpolant.reconstructState(),
+            PrefixSelector.getRequiredPrefixCount(prefixPreference));
     prefixExtractionTime.stop();
 
     return prefixes;
@@ -26,17 +26,28 @@ package org.sosy_lab.cpachecker.util.refinement;
 import static com.google.common.base.Preconditions.checkState;
 import static org.sosy_lab.cpachecker.util.AbstractStates.extractLocation;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.FluentIterable;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
@@ -58,15 +69,31 @@ import org.sosy_lab.cpachecker.util.Pair;
  * PrefixProvider that extracts all infeasible prefixes for a path, starting with an initial empty
  * or given state.
  * Uses a {@link StrongestPostOperator} for interpreting the semantics of operations.
+ *
+ * <p>The infeasible prefixes are found by a single pass over the path, because every sliced
+ * prefix depends on the prefixes found before. The use-def based interpolants of the prefixes,
+ * however, are independent of each other and can be computed by several threads while the pass
+ * continues.
  */
+@Options(prefix = "cpa.value.refinement.prefixExtraction")
 public class GenericPrefixProvider<S extends ForgetfulState<?>> implements PrefixProvider {
 
+  @Option(
+    secure = true,
+    description =
+        "Number of threads that compute the interpolants of infeasible sliced prefixes."
+            + " The prefixes are returned in the same order regardless of this value."
+  )
+  @IntegerOption(min = 1)
+  private int threads = 1;
+
   private final LogManager logger;
   private final StrongestPostOperator<S> strongestPost;
   private final VariableTrackingPrecision precision;
   private final CFA cfa;
   private final S initialState;
   private final ShutdownNotifier shutdownNotifier;
+  private final @Nullable ExecutorService executor;
 
   /**
    * This method acts as the constructor of the class.
@@ -83,6 +110,7 @@ public class GenericPrefixProvider<S extends ForgetfulState<?>> implements Prefi
       final Class<? extends ConfigurableProgramAnalysis> pCpaToRefine,
       final ShutdownNotifier pShutdownNotifier)
       throws InvalidConfigurationException {
+    config.inject(this, GenericPrefixProvider.class);
     logger = pLogger;
     cfa    = pCfa;
 
@@ -90,6 +118,18 @@ public class GenericPrefixProvider<S extends ForgetfulState<?>> implements Prefi
     initialState = pEmptyState;
     precision = VariableTrackingPrecision.createStaticPrecision(config, cfa.getVarClassification(), pCpaToRefine);
     shutdownNotifier = pShutdownNotifier;
+
+    if (threads > 1) {
+      executor =
+          Executors.newFixedThreadPool(
+              threads,
+              new ThreadFactoryBuilder()
+                  .setDaemon(true)
+                  .setNameFormat("prefix-extraction-%d")
+                  .build());
+    } else {
+      executor = null;
+    }
   }
 
   /**
@@ -119,8 +159,25 @@ public class GenericPrefixProvider<S extends ForgetfulState<?>> implements Prefi
       final ARGPath path,
       final S pInitial
   ) throws CPAException, InterruptedException {
+    return extractInfeasiblePrefixes(path, pInitial, Integer.MAX_VALUE);
+  }
 
-    List<InfeasiblePrefix> prefixes = new ArrayList<>();
+  /**
+   * This method obtains the first prefixes of the path, that are infeasible by themselves.
+   *
+   * @param path the path to check
+   * @param pInitial the initial state
+   * @param pMaxPrefixCount the number of prefixes after which the extraction stops, e.g., because
+   *     the prefix selection is already determined
+   * @return the list of prefix of the path that are feasible by themselves
+   */
+  public List<InfeasiblePrefix> extractInfeasiblePrefixes(
+      final ARGPath path,
+      final S pInitial,
+      final int pMaxPrefixCount)
+      throws CPAException, InterruptedException {
+
+    List<Future<InfeasiblePrefix>> prefixes = new ArrayList<>();
     Deque<S> callstack = new ArrayDeque<>();
 
     try {
@@ -163,7 +220,15 @@ public class GenericPrefixProvider<S extends ForgetfulState<?>> implements Prefi
           ARGPath infeasiblePrefix = feasiblePrefixBuilder.build(iterator.getNextAbstractState());
 
           // add infeasible prefix
-          prefixes.add(buildInfeasiblePrefix(infeasiblePrefix));
+          if (executor != null) {
+            prefixes.add(executor.submit(() -> buildInfeasiblePrefix(infeasiblePrefix)));
+          } else {
+            prefixes.add(Futures.immediateFuture(buildInfeasiblePrefix(infeasiblePrefix)));
+          }
+
+          if (prefixes.size() >= pMaxPrefixCount) {
+            break;
+          }
 
           feasiblePrefixBuilder.removeLast();
 
@@ -195,10 +260,29 @@ public class GenericPrefixProvider<S extends ForgetfulState<?>> implements Prefi
         iterator.advance();
       }
 
-      return prefixes;
+      return getPrefixes(prefixes);
     } catch (CPATransferException e) {
       throw new CPAException("Computation of infeasible prefixes failed: " + e.getMessage(), e);
+    } finally {
+      // no-op for completed prefixes, stops remaining work in case of an exception
+      for (Future<InfeasiblePrefix> prefix : prefixes) {
+        prefix.cancel(true);
+      }
+    }
+  }
+
+  private List<InfeasiblePrefix> getPrefixes(List<Future<InfeasiblePrefix>> pPrefixes)
+      throws InterruptedException {
+    List<InfeasiblePrefix> prefixes = new ArrayList<>(pPrefixes.size());
+    for (Future<InfeasiblePrefix> prefix : pPrefixes) {
+      try {
+        prefixes.add(prefix.get());
+      } catch (ExecutionException e) {
+        Throwables.throwIfUnchecked(e.getCause());
+        throw new AssertionError("Unexpected checked exception", e.getCause());
+      }
     }
+    return prefixes;
   }
 
   private Optional<S> getSuccessor(final S pNext,
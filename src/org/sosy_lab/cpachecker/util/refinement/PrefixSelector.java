@@ -43,6 +43,19 @@ public class PrefixSelector {
     return Ordering.compound(createComparators(pPrefixPreference)).min(pInfeasiblePrefixes);
   }
 
+  /**
+   * Returns how many infeasible prefixes, extracted along a path in order of increasing length,
+   * need to be known such that {@link #selectSlicedPrefix(List, List)} selects the same prefix as
+   * when all prefixes are known.
+   */
+  public static int getRequiredPrefixCount(List<PrefixPreference> pPrefixPreference) {
+    if (!pPrefixPreference.isEmpty() && pPrefixPreference.get(0) == PrefixPreference.LENGTH_MIN) {
+      // the first prefix is the shortest one, and ties are resolved in favor of the first prefix
+      return 1;
+    }
+    return Integer.MAX_VALUE;
+  }
+
   public int obtainScoreForPrefixes(final List<InfeasiblePrefix> pPrefixes, final PrefixPreference pPreference) {
 
     int defaultScore = Integer.MAX_VALUE;
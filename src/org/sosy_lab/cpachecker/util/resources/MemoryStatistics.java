@@ -25,6 +25,8 @@ package org.sosy_lab.cpachecker.util.resources;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
 import java.io.PrintStream;
 import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
@@ -34,13 +36,19 @@ import java.lang.management.MemoryType;
 import java.lang.management.MemoryUsage;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
 import javax.management.JMException;
 import javax.management.MBeanServer;
 import javax.management.MalformedObjectNameException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationFilter;
+import javax.management.NotificationListener;
 import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.common.time.TimeSpan;
 
@@ -267,7 +275,132 @@ public class MemoryStatistics implements Runnable {
     out.println("Garbage Collector(s) used:    " + Joiner.on(", ").join(gcNames));
   }
 
+  /**
+   * Return the fraction of the maximal size of the old-generation heap pool(s)
+   * that was still occupied after the most recent garbage collection of these pools.
+   * In contrast to the current heap usage, this number does not include garbage
+   * that was not yet collected, and is thus a reasonable indicator for
+   * whether the heap is close to being full.
+   * Note that the number is only updated by the collections that are counted by
+   * {@link #getOldGenerationCollectionCount()}.
+   * This method may always be called regardless of whether the memory statistics
+   * thread was used.
+   *
+   * @return a value between 0 and 1, or 0 if the JVM does not provide the necessary numbers
+   */
+  public static double getOldGenerationUsageAfterLastGC() {
+    return OldGenerationCollections.INSTANCE.getUsageAfterLastCollection();
+  }
+
+  /**
+   * Return the number of garbage collections that collected (also) the
+   * old-generation heap pool(s) since the first call to this method or
+   * {@link #getOldGenerationUsageAfterLastGC()}.
+   * Whenever this number changes, {@link #getOldGenerationUsageAfterLastGC()}
+   * may return a new value.
+   *
+   * <p>A collection is counted if it reduced the usage of an old-generation pool.
+   * The memory pools of a collector do not tell whether it is a young or an old-generation
+   * collector: for example, the "G1 Young Generation" collector also lists "G1 Old Gen"
+   * (because it promotes objects into it), and the full collectors of all generational
+   * garbage collectors also list the eden space.
+   * Young collections never reduce the old-generation usage, whereas mixed and full
+   * collections do.
+   *
+   * @return a non-negative number, or 0 if the JVM does not provide the necessary numbers
+   */
+  public static long getOldGenerationCollectionCount() {
+    return OldGenerationCollections.INSTANCE.getCount();
+  }
+
+  /**
+   * Check whether a memory pool is an old-generation (tenured) heap pool.
+   * The names of these pools differ between garbage collectors
+   * ("PS Old Gen", "Tenured Gen", "CMS Old Gen", "G1 Old Gen", etc.),
+   * but only these heap pools support usage thresholds
+   * (eden and survivor spaces do not).
+   */
+  private static boolean isOldGenerationPool(MemoryPoolMXBean pool) {
+    return pool.getType() == MemoryType.HEAP
+        && pool.isUsageThresholdSupported()
+        && pool.isCollectionUsageThresholdSupported();
+  }
+
   private static String formatMem(long mem) {
     return String.format("%6dMB (%6d MiB)", mem/1000/1000, mem >> 20);
   }
-}
\ No newline at end of file
+
+  /**
+   * Listener for the notifications that the garbage collectors send after each collection,
+   * which keeps track of the collections of the old-generation heap pool(s).
+   * It is registered once when it is first used.
+   */
+  private static class OldGenerationCollections implements NotificationListener {
+
+    private static final OldGenerationCollections INSTANCE = new OldGenerationCollections();
+
+    private final Set<String> oldGenerationPools = new TreeSet<>();
+
+    private long count = 0;
+    private double usageAfterLastCollection = 0.0;
+
+    private OldGenerationCollections() {
+      for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+        if (isOldGenerationPool(pool)) {
+          oldGenerationPools.add(pool.getName());
+        }
+      }
+      NotificationFilter filter =
+          notification ->
+              GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(
+                  notification.getType());
+      for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+        if (gc instanceof NotificationEmitter) {
+          ((NotificationEmitter) gc).addNotificationListener(this, filter, null);
+        }
+      }
+    }
+
+    @Override
+    public void handleNotification(Notification pNotification, Object pHandback) {
+      GcInfo gcInfo =
+          GarbageCollectionNotificationInfo.from((CompositeData) pNotification.getUserData())
+              .getGcInfo();
+      Map<String, MemoryUsage> usageBefore = gcInfo.getMemoryUsageBeforeGc();
+      Map<String, MemoryUsage> usageAfter = gcInfo.getMemoryUsageAfterGc();
+
+      boolean collected = false;
+      long used = 0;
+      long max = 0;
+      for (String pool : oldGenerationPools) {
+        MemoryUsage before = usageBefore.get(pool);
+        MemoryUsage after = usageAfter.get(pool);
+        if (before == null || after == null) {
+          continue;
+        }
+        if (after.getUsed() < before.getUsed()) {
+          collected = true;
+        }
+        if (after.getMax() > 0) {
+          used += after.getUsed();
+          max += after.getMax();
+        }
+      }
+
+      if (collected) {
+        synchronized (this) {
+          count++;
+          usageAfterLastCollection = max > 0 ? (double) used / max : 0.0;
+        }
+      }
+    }
+
+    private synchronized long getCount() {
+      return count;
+    }
+
+    private synchronized double getUsageAfterLastCollection() {
+      return usageAfterLastCollection;
+    }
+  }
+}